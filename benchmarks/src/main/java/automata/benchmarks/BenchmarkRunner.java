@@ -0,0 +1,46 @@
+package automata.benchmarks;
+
+import java.util.Collection;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler attached and prints the time per
+ * symbol for every benchmark which counts its symbols with a
+ * {@link SymbolCounter}. Accepts the usual JMH command line options, e.g. a
+ * benchmark filter or -p to override parameters.
+ *
+ * @author 2d6
+ */
+public class BenchmarkRunner {
+
+	private static final double NANOS_PER_SECOND = 1e9;
+
+	public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+		Options options = new OptionsBuilder()
+				.parent(new CommandLineOptions(args))
+				.addProfiler(GCProfiler.class)
+				.build();
+		Collection<RunResult> results = new Runner(options).run();
+
+		System.out.println();
+		System.out.println("Time per symbol:");
+		for (RunResult result : results) {
+			Result<?> symbols = result.getSecondaryResults().get("symbols");
+			if (symbols != null && symbols.getScore() > 0) {
+				System.out.printf("%-60s %s %10.3f ns/symbol%n",
+						result.getParams().getBenchmark(),
+						result.getParams().getParam("inputLength"),
+						NANOS_PER_SECOND / symbols.getScore());
+			}
+		}
+	}
+}
@@ -0,0 +1,56 @@
+package automata.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import automata.DeterministicFiniteAutomaton;
+
+/**
+ * Measures building automata of 10^2 to 10^6 states through
+ * {@link DeterministicFiniteAutomaton#addState(String, boolean)} and
+ * {@link DeterministicFiniteAutomaton#addTransition(String, String, Object)}.
+ * The list-based TransitionFunction is quadratic in the number of
+ * transitions; select it for small sizes only, e.g. with
+ * {@code -p transitionFunction=list -p stateCount=100,10000}.
+ *
+ * @author 2d6
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx4g" })
+@State(Scope.Benchmark)
+public class ConstructionBenchmark {
+
+	@Param({ "100", "10000", "1000000" })
+	public int stateCount;
+
+	@Param({ "indexed" })
+	public String transitionFunction;
+
+	private String[] identifiers;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		identifiers = GeneratedAutomata.identifiers(stateCount);
+	}
+
+	@Benchmark
+	public DeterministicFiniteAutomaton<Character> build() {
+		return GeneratedAutomata.build(identifiers,
+				GeneratedAutomata.transitionFunction(transitionFunction));
+	}
+}
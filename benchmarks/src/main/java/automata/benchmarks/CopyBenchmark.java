@@ -0,0 +1,69 @@
+package automata.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import automata.DeterministicFiniteAutomaton;
+
+/**
+ * Measures {@link DeterministicFiniteAutomaton#copy()} and
+ * {@link DeterministicFiniteAutomaton#isStructurallyEqualTo(automata.interfaces.IDeterministicFiniteAutomaton)}
+ * and
+ * {@link DeterministicFiniteAutomaton#isEquivalentTo(automata.interfaces.IDeterministicFiniteAutomaton)}
+ * on generated automata.
+ *
+ * @author 2d6
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx4g" })
+@State(Scope.Benchmark)
+public class CopyBenchmark {
+
+	@Param({ "100", "10000", "1000000" })
+	public int stateCount;
+
+	@Param({ "indexed" })
+	public String transitionFunction;
+
+	private DeterministicFiniteAutomaton<Character> original;
+	private DeterministicFiniteAutomaton<Character> equalAutomaton;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		String[] identifiers = GeneratedAutomata.identifiers(stateCount);
+		original = GeneratedAutomata.build(identifiers,
+				GeneratedAutomata.transitionFunction(transitionFunction));
+		equalAutomaton = GeneratedAutomata.build(identifiers,
+				GeneratedAutomata.transitionFunction(transitionFunction));
+	}
+
+	@Benchmark
+	public DeterministicFiniteAutomaton<Character> copy() {
+		return original.copy();
+	}
+
+	@Benchmark
+	public boolean isStructurallyEqualTo() {
+		return original.isStructurallyEqualTo(equalAutomaton);
+	}
+
+	@Benchmark
+	public boolean isEquivalentTo() {
+		return original.isEquivalentTo(equalAutomaton);
+	}
+}
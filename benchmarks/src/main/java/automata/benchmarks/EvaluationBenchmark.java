@@ -0,0 +1,71 @@
+package automata.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import automata.EvenNumberOfZeros;
+
+/**
+ * Measures the evaluation of inputs from 10 B to 100 MB by
+ * {@link EvenNumberOfZeros}, through the String, CharSequence and Iterable
+ * entry points.
+ *
+ * @author 2d6
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms6g", "-Xmx6g" })
+@State(Scope.Benchmark)
+public class EvaluationBenchmark {
+
+	@Param({ "10", "1000", "100000", "10000000", "100000000" })
+	public int inputLength;
+
+	private EvenNumberOfZeros automaton;
+	private String input;
+	private List<Character> inputList;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		automaton = new EvenNumberOfZeros();
+		input = GeneratedAutomata.binaryInput(inputLength);
+		inputList = new ArrayList<>(inputLength);
+		for (int i = 0; i < inputLength; i++) {
+			inputList.add(input.charAt(i));
+		}
+	}
+
+	@Benchmark
+	public automata.State evaluateString(SymbolCounter counter) {
+		counter.symbols += inputLength;
+		return automaton.evaluate(input);
+	}
+
+	@Benchmark
+	public boolean acceptsCharSequence(SymbolCounter counter) {
+		counter.symbols += inputLength;
+		return automaton.accepts(input);
+	}
+
+	@Benchmark
+	public automata.State evaluateIterable(SymbolCounter counter) {
+		counter.symbols += inputLength;
+		return automaton.evaluate(inputList);
+	}
+}
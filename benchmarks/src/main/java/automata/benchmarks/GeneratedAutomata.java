@@ -0,0 +1,107 @@
+package automata.benchmarks;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import automata.DeterministicFiniteAutomaton;
+import automata.IndexedTransitionFunction;
+import automata.TransitionFunction;
+import automata.interfaces.ITransitionFunction;
+
+/**
+ * Generates automata and inputs for the benchmarks. Everything is derived
+ * from fixed seeds, so all runs measure the same automata.
+ *
+ * @author 2d6
+ */
+final class GeneratedAutomata {
+
+	static final char[] BINARY_SYMBOLS = { '0', '1' };
+
+	private GeneratedAutomata() {
+	}
+
+	/**
+	 * @return A new Set containing the binary symbols '0' and '1'
+	 */
+	static Set<Character> binaryAlphabet() {
+		Set<Character> symbols = new HashSet<>();
+		for (char symbol : BINARY_SYMBOLS) {
+			symbols.add(symbol);
+		}
+		return symbols;
+	}
+
+	/**
+	 * Creates an empty transition function over the binary alphabet
+	 *
+	 * @param implementation
+	 *            "indexed" for {@link IndexedTransitionFunction}, "list" for
+	 *            {@link TransitionFunction}
+	 * @return The transition function
+	 */
+	static ITransitionFunction<Character> transitionFunction(String implementation) {
+		if ("indexed".equals(implementation)) {
+			return new IndexedTransitionFunction<>(binaryAlphabet());
+		}
+		else if ("list".equals(implementation)) {
+			return new TransitionFunction<>(binaryAlphabet());
+		}
+		throw new IllegalArgumentException("Unknown transition function " + implementation);
+	}
+
+	/**
+	 * @param stateCount
+	 *            The number of identifiers
+	 * @return The identifiers "S0" to "S(stateCount - 1)"
+	 */
+	static String[] identifiers(int stateCount) {
+		String[] identifiers = new String[stateCount];
+		for (int i = 0; i < stateCount; i++) {
+			identifiers[i] = "S" + i;
+		}
+		return identifiers;
+	}
+
+	/**
+	 * Builds a complete automaton over the binary alphabet through
+	 * addState/addTransition. '0' walks along a ring of all states, '1' jumps
+	 * pseudo-randomly; every third state is accepting.
+	 *
+	 * @param identifiers
+	 *            The identifiers of the states, starting with the starting
+	 *            state
+	 * @param transitionFunction
+	 *            An empty transition function
+	 * @return The automaton
+	 */
+	static DeterministicFiniteAutomaton<Character> build(String[] identifiers,
+			ITransitionFunction<Character> transitionFunction) {
+		int stateCount = identifiers.length;
+		DeterministicFiniteAutomaton<Character> dfa = new DeterministicFiniteAutomaton<>(
+				identifiers[0], true, transitionFunction);
+		for (int i = 1; i < stateCount; i++) {
+			dfa.addState(identifiers[i], i % 3 == 0);
+		}
+		for (int i = 0; i < stateCount; i++) {
+			dfa.addTransition(identifiers[i], identifiers[(i + 1) % stateCount], '0');
+			dfa.addTransition(identifiers[i], identifiers[(int) ((i * 31L + 7) % stateCount)], '1');
+		}
+		return dfa;
+	}
+
+	/**
+	 * @param length
+	 *            The number of characters
+	 * @return A pseudo-random String of '0's and '1's
+	 */
+	static String binaryInput(int length) {
+		Random random = new Random(length);
+		char[] input = new char[length];
+		for (int i = 0; i < length; i++) {
+			input[i] = BINARY_SYMBOLS[random.nextInt(BINARY_SYMBOLS.length)];
+		}
+		return new String(input);
+	}
+}
@@ -0,0 +1,26 @@
+package automata.benchmarks;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Counts the symbols evaluated by a benchmark. JMH reports the counter as a
+ * secondary throughput result named "symbols", which {@link BenchmarkRunner}
+ * converts to nanoseconds per symbol.
+ *
+ * @author 2d6
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.OPERATIONS)
+public class SymbolCounter {
+
+	public long symbols;
+
+	@Setup(Level.Iteration)
+	public void reset() {
+		symbols = 0;
+	}
+}
@@ -0,0 +1,154 @@
+package automata.flow;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+
+import automata.CompiledDfa;
+import automata.DfaRunner;
+import automata.DfaStreamProcessor;
+import automata.interfaces.IDeterministicFiniteAutomaton;
+
+/**
+ * Evaluates a stream of symbol batches as a {@link Flow.Processor}: it
+ * subscribes to a publisher of batches and publishes a {@link StateChange}
+ * whenever a batch has led to another state. This is the counterpart of
+ * {@link DfaStreamProcessor} for the Flow interfaces of Java 9.
+ *
+ * Batches are requested from the upstream publisher one at a time. The state
+ * changes are published by a {@link SubmissionPublisher} which buffers up to
+ * the given number of changes per subscriber; while a buffer is full, the
+ * evaluation blocks, so a slow subscriber slows down the upstream publisher
+ * as well. A symbol outside of the alphabet cancels the upstream
+ * subscription and completes the subscribers exceptionally. Subscribers
+ * should subscribe before the upstream publisher starts, as changes are not
+ * replayed.
+ *
+ * The automaton must not be modified while the processor is in use.
+ *
+ * @author 2d6
+ */
+public class DfaFlowProcessor<T> implements Flow.Processor<T[], DfaFlowProcessor.StateChange> {
+
+	private final DfaRunner<T> runner;
+	private final SubmissionPublisher<StateChange> publisher;
+
+	/*
+	 * Only accessed by the upstream publisher, which signals serially
+	 */
+	private Flow.Subscription subscription;
+
+	private volatile int stateId;
+
+	/**
+	 * Creates a new processor in the starting state of an automaton.
+	 *
+	 * @param dfa
+	 *            The automaton evaluating the batches
+	 * @param executor
+	 *            The executor delivering the state changes to the subscribers
+	 * @param bufferSize
+	 *            The maximum number of state changes buffered per subscriber
+	 */
+	public DfaFlowProcessor(IDeterministicFiniteAutomaton<T> dfa, Executor executor, int bufferSize) {
+		if (dfa == null) {
+			throw new NullPointerException("Automaton may not be null");
+		}
+		else if (executor == null) {
+			throw new NullPointerException("Executor may not be null");
+		}
+		else if (bufferSize < 1) {
+			throw new IllegalArgumentException("The buffer size must be positive");
+		}
+		this.runner = dfa.newRunner();
+		this.publisher = new SubmissionPublisher<>(executor, bufferSize);
+		this.stateId = runner.currentStateId();
+	}
+
+	@Override
+	public void subscribe(Flow.Subscriber<? super StateChange> subscriber) {
+		publisher.subscribe(subscriber);
+	}
+
+	@Override
+	public void onSubscribe(Flow.Subscription subscription) {
+		if (this.subscription != null) {
+			subscription.cancel();
+			return;
+		}
+		this.subscription = subscription;
+		subscription.request(1);
+	}
+
+	@Override
+	public void onNext(T[] symbols) {
+		if (publisher.isClosed()) {
+			return;
+		}
+		int previousStateId = stateId;
+		try {
+			runner.feed(symbols, 0, symbols.length);
+		}
+		catch (RuntimeException e) {
+			subscription.cancel();
+			publisher.closeExceptionally(e);
+			return;
+		}
+		stateId = runner.currentStateId();
+		if (stateId != previousStateId) {
+			publisher.submit(new StateChange(stateId, runner.isAccepting()));
+		}
+		subscription.request(1);
+	}
+
+	@Override
+	public void onError(Throwable error) {
+		publisher.closeExceptionally(error);
+	}
+
+	@Override
+	public void onComplete() {
+		publisher.close();
+	}
+
+	/**
+	 * @return The id of the state after the batches evaluated so far, or
+	 *         {@link CompiledDfa#DEAD_STATE}
+	 */
+	public int getStateId() {
+		return stateId;
+	}
+
+	/**
+	 * A state entered after a batch of symbols
+	 */
+	public static final class StateChange {
+		private final int stateId;
+		private final boolean accepting;
+
+		StateChange(int stateId, boolean accepting) {
+			this.stateId = stateId;
+			this.accepting = accepting;
+		}
+
+		/**
+		 * @return The id of the new state, or {@link CompiledDfa#DEAD_STATE}
+		 *         if a symbol without a transition was evaluated
+		 */
+		public int getStateId() {
+			return stateId;
+		}
+
+		/**
+		 * @return True if the new state is accepting
+		 */
+		public boolean isAccepting() {
+			return accepting;
+		}
+
+		@Override
+		public String toString() {
+			return stateId + (accepting ? " accepting" : " rejecting");
+		}
+	}
+}
@@ -0,0 +1,103 @@
+package automata.flow;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import automata.IndexedDfa;
+
+public class DfaFlowProcessorTest {
+
+	private static final boolean ACCEPTING = true;
+	private static final boolean NOT_ACCEPTING = false;
+
+	@Test
+	public void stateChangesArePublishedPerBatch() throws InterruptedException {
+		DfaFlowProcessor<Character> processor = new DfaFlowProcessor<>(newEvenNumberOfZerosDfa(),
+				ForkJoinPool.commonPool(), 1);
+		RecordingSubscriber subscriber = new RecordingSubscriber();
+		processor.subscribe(subscriber);
+
+		try (SubmissionPublisher<Character[]> publisher = new SubmissionPublisher<>()) {
+			publisher.subscribe(processor);
+			publisher.submit(new Character[] { '1', '0' });
+			publisher.submit(new Character[] { '1', '1' });
+			publisher.submit(new Character[] { '0', '1' });
+		}
+
+		Assert.assertTrue(subscriber.finished.await(10, TimeUnit.SECONDS));
+		Assert.assertEquals(subscriber.events, Arrays.asList("1 rejecting", "0 accepting", "completed"));
+		Assert.assertEquals(processor.getStateId(), 0);
+	}
+
+	@Test
+	public void symbolsOutsideOfTheAlphabetAreSignalledAsError() throws InterruptedException {
+		DfaFlowProcessor<Character> processor = new DfaFlowProcessor<>(newEvenNumberOfZerosDfa(),
+				ForkJoinPool.commonPool(), 4);
+		RecordingSubscriber subscriber = new RecordingSubscriber();
+		processor.subscribe(subscriber);
+
+		try (SubmissionPublisher<Character[]> publisher = new SubmissionPublisher<>()) {
+			publisher.subscribe(processor);
+			publisher.submit(new Character[] { '2' });
+		}
+
+		Assert.assertTrue(subscriber.finished.await(10, TimeUnit.SECONDS));
+		Assert.assertEquals(subscriber.events, Arrays.asList("error IllegalArgumentException"));
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void bufferSizeMustBePositive() {
+		new DfaFlowProcessor<>(newEvenNumberOfZerosDfa(), ForkJoinPool.commonPool(), 0);
+	}
+
+	private IndexedDfa<Character> newEvenNumberOfZerosDfa() {
+		Set<Character> symbols = new HashSet<>();
+		symbols.add('0');
+		symbols.add('1');
+		IndexedDfa<Character> dfa = new IndexedDfa<>(ACCEPTING, symbols);
+		int odd = dfa.addState(NOT_ACCEPTING);
+		dfa.addTransition(0, odd, '0');
+		dfa.addTransition(0, 0, '1');
+		dfa.addTransition(odd, 0, '0');
+		dfa.addTransition(odd, odd, '1');
+		return dfa;
+	}
+
+	private static class RecordingSubscriber implements Flow.Subscriber<DfaFlowProcessor.StateChange> {
+		private final List<String> events = new ArrayList<>();
+		private final CountDownLatch finished = new CountDownLatch(1);
+
+		@Override
+		public void onSubscribe(Flow.Subscription subscription) {
+			subscription.request(Long.MAX_VALUE);
+		}
+
+		@Override
+		public void onNext(DfaFlowProcessor.StateChange change) {
+			events.add(change.toString());
+		}
+
+		@Override
+		public void onError(Throwable error) {
+			events.add("error " + error.getClass().getSimpleName());
+			finished.countDown();
+		}
+
+		@Override
+		public void onComplete() {
+			events.add("completed");
+			finished.countDown();
+		}
+	}
+}
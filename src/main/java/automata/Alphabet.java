@@ -1,25 +1,43 @@
 package automata;
 
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 
 import automata.interfaces.IAlphabet;
 
 /**
- * Implements a simple T-based alphabet
- * 
+ * Implements a simple T-based alphabet. The indices of the symbols are found
+ * in an open addressing hash table which is kept at most half full, so a
+ * lookup takes one hash and usually a single comparison. For enums,
+ * characters and bytes, {@link EnumAlphabet}, {@link CharAlphabet} and
+ * {@link ByteAlphabet} find the index without hashing. The set returned by
+ * {@link #getSymbols()} is backed by the alphabet, but symbols cannot be
+ * removed from it.
+ *
  * @author 2d6
  *
  */
 public class Alphabet<T> implements IAlphabet<T> {
 
 	private Set<T> symbols;
-	
+	private List<T> symbolsByIndex;
+
+	/*
+	 * Open addressing table; keys[i] is a symbol or null for an empty slot,
+	 * indices[i] the index of the symbol
+	 */
+	private Object[] keys;
+	private int[] indices;
+
 	/**
 	 * Creates a new CharAlphabet
 	 */
 	public Alphabet() {
-		symbols = new HashSet<>();
+		symbols = new AlphabetSymbols<>(this);
+		symbolsByIndex = new ArrayList<>();
+		keys = new Object[8];
+		indices = new int[8];
 	}
 
 	/**
@@ -30,35 +48,89 @@ public class Alphabet<T> implements IAlphabet<T> {
 		this();
 		addAll(symbols);
 	}
-	
+
 	@Override
 	public void addAll(Set<T> symbols) {
 		if (symbols == null) {
 			throw new NullPointerException("List of symbol Ts may not be null");
 		}
 		for (T symbol : symbols) {
-			this.symbols.add(symbol);
+			add(symbol);
 		}
 	}
-	
+
 	@Override
 	public void add(T symbol) {
 		if (symbol == null) {
 			throw new NullPointerException("Symbol T may not be null");
 		}
-		symbols.add(symbol);
+		if (indexOf(symbol) >= 0) {
+			return;
+		}
+		if ((symbolsByIndex.size() + 1) * 2 > keys.length) {
+			resize();
+		}
+		insert(symbol, symbolsByIndex.size());
+		symbolsByIndex.add(symbol);
 	}
 
 	@Override
 	public boolean isValid(T symbol) {
-		return symbols.contains(symbol);
+		return indexOf(symbol) >= 0;
 	}
-	
+
+	@Override
+	public int indexOf(T symbol) {
+		if (symbol == null) {
+			return -1;
+		}
+		int mask = keys.length - 1;
+		for (int slot = hash(symbol) & mask; keys[slot] != null; slot = (slot + 1) & mask) {
+			if (keys[slot].equals(symbol)) {
+				return indices[slot];
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public T getSymbol(int index) {
+		return symbolsByIndex.get(index);
+	}
+
+	@Override
+	public int size() {
+		return symbolsByIndex.size();
+	}
+
 	 /*
-	  * Necessary for cloning
+	  * Necessary for cloning; a live view in the order of the indices
 	  */
 	@Override
 	public Set<T> getSymbols() {
 		return symbols;
 	}
+
+	private void insert(Object symbol, int index) {
+		int mask = keys.length - 1;
+		int slot = hash(symbol) & mask;
+		while (keys[slot] != null) {
+			slot = (slot + 1) & mask;
+		}
+		keys[slot] = symbol;
+		indices[slot] = index;
+	}
+
+	private void resize() {
+		keys = new Object[keys.length * 2];
+		indices = new int[keys.length];
+		for (int index = 0; index < symbolsByIndex.size(); index++) {
+			insert(symbolsByIndex.get(index), index);
+		}
+	}
+
+	private static int hash(Object symbol) {
+		int hash = symbol.hashCode() * 0x9E3779B9;
+		return hash ^ (hash >>> 16);
+	}
 }
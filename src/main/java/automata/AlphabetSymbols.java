@@ -0,0 +1,76 @@
+package automata;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import automata.interfaces.IAlphabet;
+
+/**
+ * A live view of the symbols of an alphabet, in the order of their indices.
+ * Symbols added to the view are added to the alphabet and vice versa.
+ * Removing symbols is not supported, as the indices of the remaining symbols
+ * would change.
+ *
+ * @author 2d6
+ */
+final class AlphabetSymbols<T> extends AbstractSet<T> {
+
+	private final IAlphabet<T> alphabet;
+
+	AlphabetSymbols(IAlphabet<T> alphabet) {
+		this.alphabet = alphabet;
+	}
+
+	@Override
+	public boolean add(T symbol) {
+		if (alphabet.isValid(symbol)) {
+			return false;
+		}
+		alphabet.add(symbol);
+		return true;
+	}
+
+	@Override
+	public boolean contains(Object symbol) {
+		try {
+			@SuppressWarnings("unchecked")
+			int index = alphabet.indexOf((T) symbol);
+			// Guards against constants of other enums with the same ordinal
+			return index >= 0 && alphabet.getSymbol(index).equals(symbol);
+		}
+		catch (ClassCastException | IndexOutOfBoundsException e) {
+			return false;
+		}
+	}
+
+	@Override
+	public int size() {
+		return alphabet.size();
+	}
+
+	@Override
+	public Iterator<T> iterator() {
+		return new Iterator<T>() {
+			private int index;
+
+			@Override
+			public boolean hasNext() {
+				return index < alphabet.size();
+			}
+
+			@Override
+			public T next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				return alphabet.getSymbol(index++);
+			}
+
+			@Override
+			public void remove() {
+				throw new UnsupportedOperationException("Symbols may not be removed from an alphabet");
+			}
+		};
+	}
+}
@@ -0,0 +1,130 @@
+package automata;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Evaluates many independent inputs on a {@link CompiledDfa}, splitting them
+ * across the threads of a ForkJoinPool. Every input is evaluated by a single
+ * thread; the results are written to disjoint parts of a shared array, so no
+ * synchronization is needed apart from joining the tasks.
+ *
+ * @author 2d6
+ */
+class BatchEvaluation<T> {
+
+	/*
+	 * The number of tasks per thread; more tasks balance inputs of different
+	 * lengths better, fewer tasks reduce the overhead of forking.
+	 */
+	private static final int TASKS_PER_THREAD = 8;
+
+	private final CompiledDfa<T> dfa;
+	private final Object[] inputs;
+	private final ForkJoinPool pool;
+
+	/**
+	 * @param dfa
+	 *            The automaton evaluating the inputs
+	 * @param inputs
+	 *            The inputs
+	 * @param pool
+	 *            The pool whose threads evaluate the inputs
+	 */
+	BatchEvaluation(CompiledDfa<T> dfa, List<? extends Iterable<T>> inputs, ForkJoinPool pool) {
+		if (inputs == null) {
+			throw new NullPointerException("Inputs may not be null");
+		}
+		else if (pool == null) {
+			throw new NullPointerException("Pool may not be null");
+		}
+		this.dfa = dfa;
+		this.inputs = inputs.toArray();
+		this.pool = pool;
+	}
+
+	/**
+	 * @return The ids of the final states, indexed like the inputs
+	 */
+	int[] evaluateAll() {
+		int[] finalStates = new int[inputs.length];
+		run(new Evaluation(0, inputs.length, taskSize(1), finalStates, null));
+		return finalStates;
+	}
+
+	/**
+	 * @return The indices of the accepted inputs
+	 */
+	BitSet acceptsAll() {
+		/*
+		 * Tasks are split at multiples of 64, so every task owns the words of
+		 * the bitset it writes to.
+		 */
+		long[] accepted = new long[(inputs.length + Long.SIZE - 1) / Long.SIZE];
+		run(new Evaluation(0, inputs.length, taskSize(Long.SIZE), null, accepted));
+		return BitSet.valueOf(accepted);
+	}
+
+	private void run(Evaluation evaluation) {
+		if (pool.getParallelism() == 1 || evaluation.end - evaluation.start <= evaluation.taskSize) {
+			evaluation.compute();
+		}
+		else {
+			pool.invoke(evaluation);
+		}
+	}
+
+	private int taskSize(int granularity) {
+		int taskCount = pool.getParallelism() * TASKS_PER_THREAD;
+		int taskSize = Math.max(1, (inputs.length + taskCount - 1) / taskCount);
+		return (taskSize + granularity - 1) / granularity * granularity;
+	}
+
+	@SuppressWarnings("unchecked")
+	private int evaluate(int index) {
+		return dfa.evaluateToStateId((Iterable<T>) inputs[index]);
+	}
+
+	/**
+	 * Evaluates the inputs [start, end), splitting the range until it is no
+	 * longer than the task size
+	 */
+	private final class Evaluation extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final int start;
+		private final int end;
+		private final int taskSize;
+		private final int[] finalStates;
+		private final long[] accepted;
+
+		private Evaluation(int start, int end, int taskSize, int[] finalStates, long[] accepted) {
+			this.start = start;
+			this.end = end;
+			this.taskSize = taskSize;
+			this.finalStates = finalStates;
+			this.accepted = accepted;
+		}
+
+		@Override
+		protected void compute() {
+			if (end - start > taskSize) {
+				int middle = start + ((end - start) / taskSize + 1) / 2 * taskSize;
+				invokeAll(new Evaluation(start, middle, taskSize, finalStates, accepted),
+						new Evaluation(middle, end, taskSize, finalStates, accepted));
+				return;
+			}
+			for (int index = start; index < end; index++) {
+				int finalState = evaluate(index);
+				if (finalStates != null) {
+					finalStates[index] = finalState;
+				}
+				else if (dfa.isAccepting(finalState)) {
+					accepted[index / Long.SIZE] |= 1L << index;
+				}
+			}
+		}
+	}
+}
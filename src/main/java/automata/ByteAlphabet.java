@@ -0,0 +1,116 @@
+package automata;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import automata.interfaces.IAlphabet;
+
+/**
+ * An alphabet of bytes. The index of a byte is found in an array of 256
+ * entries indexed by the unsigned value of the byte.
+ *
+ * @author 2d6
+ */
+public class ByteAlphabet implements IAlphabet<Byte> {
+
+	private final Set<Byte> symbols = new AlphabetSymbols<>(this);
+	private final List<Byte> symbolsByIndex = new ArrayList<>();
+
+	/*
+	 * The index + 1 of each unsigned byte value, or 0 if it is not a symbol
+	 */
+	private final int[] indices = new int[256];
+
+	/**
+	 * Creates a new, empty ByteAlphabet
+	 */
+	public ByteAlphabet() {
+	}
+
+	/**
+	 * Creates a new ByteAlphabet with the given symbols
+	 *
+	 * @param symbols
+	 *            Set of symbols in the alphabet
+	 */
+	public ByteAlphabet(Set<Byte> symbols) {
+		addAll(symbols);
+	}
+
+	/**
+	 * Creates an alphabet of all 256 byte values, the index of each byte
+	 * being its unsigned value
+	 *
+	 * @return The alphabet
+	 */
+	public static ByteAlphabet allBytes() {
+		ByteAlphabet alphabet = new ByteAlphabet();
+		for (int value = 0; value < 256; value++) {
+			alphabet.add((byte) value);
+		}
+		return alphabet;
+	}
+
+	@Override
+	public void add(Byte symbol) {
+		if (symbol == null) {
+			throw new NullPointerException("Symbol T may not be null");
+		}
+		int value = symbol & 0xff;
+		if (indices[value] == 0) {
+			symbolsByIndex.add(symbol);
+			indices[value] = symbolsByIndex.size();
+		}
+	}
+
+	@Override
+	public void addAll(Set<Byte> symbols) {
+		if (symbols == null) {
+			throw new NullPointerException("List of symbol Ts may not be null");
+		}
+		for (Byte symbol : symbols) {
+			add(symbol);
+		}
+	}
+
+	@Override
+	public boolean isValid(Byte symbol) {
+		return indexOf(symbol) >= 0;
+	}
+
+	@Override
+	public int indexOf(Byte symbol) {
+		if (symbol == null) {
+			return -1;
+		}
+		return indexOf(symbol.byteValue());
+	}
+
+	/**
+	 * Returns the index of a byte without boxing it
+	 *
+	 * @param symbol
+	 *            Byte under scrutiny
+	 * @return The index of the byte, or -1 if it is not contained in the
+	 *         alphabet
+	 */
+	public int indexOf(byte symbol) {
+		return indices[symbol & 0xff] - 1;
+	}
+
+	@Override
+	public Byte getSymbol(int index) {
+		return symbolsByIndex.get(index);
+	}
+
+	@Override
+	public int size() {
+		return symbolsByIndex.size();
+	}
+
+	@Override
+	public Set<Byte> getSymbols() {
+		return symbols;
+	}
+}
@@ -0,0 +1,191 @@
+package automata;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Runs a {@link CompiledDfa} over bytes, e.g. the content of a file, without
+ * boxing them. The columns of all 256 byte values are looked up once, so
+ * evaluating a byte takes two array accesses and allocates nothing.
+ *
+ * Files are mapped into memory with {@link FileChannel#map} in windows of at
+ * most {@link #DEFAULT_WINDOW_SIZE} bytes, so files larger than 2 GB can be
+ * scanned as well. No data is copied. A scanner is immutable and may be used
+ * by several threads at once.
+ *
+ * @author 2d6
+ */
+public class ByteDfaScanner {
+
+	/**
+	 * The number of bytes mapped into memory at once by default
+	 */
+	public static final int DEFAULT_WINDOW_SIZE = 1 << 30;
+
+	private static final int BYTE_VALUES = 256;
+
+	private final CompiledDfa<Byte> dfa;
+	private final int[] columns;
+	private final int windowSize;
+
+	/**
+	 * Creates a new scanner which maps files in windows of
+	 * {@link #DEFAULT_WINDOW_SIZE} bytes.
+	 *
+	 * @param dfa
+	 *            The automaton evaluating the bytes
+	 */
+	public ByteDfaScanner(CompiledDfa<Byte> dfa) {
+		this(dfa, DEFAULT_WINDOW_SIZE);
+	}
+
+	/**
+	 * Creates a new scanner.
+	 *
+	 * @param dfa
+	 *            The automaton evaluating the bytes
+	 * @param windowSize
+	 *            The number of bytes mapped into memory at once
+	 */
+	public ByteDfaScanner(CompiledDfa<Byte> dfa, int windowSize) {
+		if (dfa == null) {
+			throw new NullPointerException("Automaton may not be null");
+		}
+		else if (windowSize < 1) {
+			throw new IllegalArgumentException("The window size must be positive");
+		}
+		this.dfa = dfa;
+		this.windowSize = windowSize;
+		this.columns = new int[BYTE_VALUES];
+		for (int value = 0; value < BYTE_VALUES; value++) {
+			columns[value] = dfa.getColumn(Byte.valueOf((byte) value));
+		}
+	}
+
+	/**
+	 * Evaluates the content of a file.
+	 *
+	 * @param file
+	 *            The file to be evaluated
+	 * @return The state the automaton was in after evaluating the last byte,
+	 *         or a new non-accepting State named after the byte for which no
+	 *         transition has been defined.
+	 * @throws IOException
+	 *             if the file cannot be read
+	 */
+	public State scan(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long size = channel.size();
+			int state = dfa.getStartingStateId();
+			for (long offset = 0; offset < size; offset += windowSize) {
+				MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, offset,
+						Math.min(windowSize, size - offset));
+				state = run(state, window, 0, window.limit());
+				if (state < 0) {
+					return deadState(window.get(~state));
+				}
+			}
+			return dfa.getState(state);
+		}
+	}
+
+	/**
+	 * Determines whether the automaton accepts the content of a file. The
+	 * file is only read until a byte without a transition is found.
+	 *
+	 * @param file
+	 *            The file to be evaluated
+	 * @return True if the content is accepted
+	 * @throws IOException
+	 *             if the file cannot be read
+	 */
+	public boolean accepts(Path file) throws IOException {
+		return scan(file).isAccepting();
+	}
+
+	/**
+	 * Evaluates the bytes between the position and the limit of a buffer. The
+	 * position of the buffer is not changed.
+	 *
+	 * @param buffer
+	 *            The bytes to be evaluated
+	 * @return The state the automaton was in after evaluating the last byte,
+	 *         or a new non-accepting State named after the byte for which no
+	 *         transition has been defined.
+	 */
+	public State scan(ByteBuffer buffer) {
+		int state = run(dfa.getStartingStateId(), buffer, buffer.position(), buffer.limit());
+		if (state < 0) {
+			return deadState(buffer.get(~state));
+		}
+		return dfa.getState(state);
+	}
+
+	/**
+	 * Determines whether the automaton accepts the bytes between the position
+	 * and the limit of a buffer. The position of the buffer is not changed.
+	 *
+	 * @param buffer
+	 *            The bytes to be evaluated
+	 * @return True if the bytes are accepted
+	 */
+	public boolean accepts(ByteBuffer buffer) {
+		int state = run(dfa.getStartingStateId(), buffer, buffer.position(), buffer.limit());
+		return state >= 0 && dfa.isAccepting(state);
+	}
+
+	/**
+	 * Continues an evaluation with further bytes, e.g. a buffer which is
+	 * refilled from a stream.
+	 *
+	 * @param stateId
+	 *            The id of the state in which the evaluation continues
+	 * @param buffer
+	 *            The bytes between position and limit are evaluated; the
+	 *            position of the buffer is not changed
+	 * @return The id of the state after the last byte, or
+	 *         {@link CompiledDfa#DEAD_STATE} if a transition was missing
+	 */
+	public int scan(int stateId, ByteBuffer buffer) {
+		if (stateId == CompiledDfa.DEAD_STATE) {
+			return CompiledDfa.DEAD_STATE;
+		}
+		int state = run(stateId, buffer, buffer.position(), buffer.limit());
+		return state < 0 ? CompiledDfa.DEAD_STATE : state;
+	}
+
+	/**
+	 * @return The automaton evaluating the bytes
+	 */
+	public CompiledDfa<Byte> getAutomaton() {
+		return dfa;
+	}
+
+	/*
+	 * Returns the final state, or the complement of the index of the byte
+	 * without a transition. Uses absolute gets, so the buffer is not
+	 * modified.
+	 */
+	private int run(int state, ByteBuffer buffer, int from, int to) {
+		for (int i = from; i < to; i++) {
+			int column = columns[buffer.get(i) & 0xFF];
+			if (column < 0) {
+				throw new IllegalArgumentException(
+						"Symbol was not defined in the alphabet");
+			}
+			state = dfa.step(state, column);
+			if (state == CompiledDfa.DEAD_STATE) {
+				return ~i;
+			}
+		}
+		return state;
+	}
+
+	private State deadState(byte symbol) {
+		return dfa.missingTransition(columns[symbol & 0xFF]);
+	}
+}
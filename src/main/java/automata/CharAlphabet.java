@@ -0,0 +1,107 @@
+package automata;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import automata.interfaces.IAlphabet;
+
+/**
+ * An alphabet of characters. The index of a character is found in an array
+ * indexed by the character itself, without hashing or boxing; the array only
+ * extends up to the highest character of the alphabet.
+ *
+ * @author 2d6
+ */
+public class CharAlphabet implements IAlphabet<Character> {
+
+	private final Set<Character> symbols = new AlphabetSymbols<>(this);
+	private final List<Character> symbolsByIndex = new ArrayList<>();
+
+	/*
+	 * The index + 1 of each character, or 0 if it is not a symbol
+	 */
+	private int[] indices = new int[0];
+
+	/**
+	 * Creates a new, empty CharAlphabet
+	 */
+	public CharAlphabet() {
+	}
+
+	/**
+	 * Creates a new CharAlphabet with the given symbols
+	 *
+	 * @param symbols
+	 *            Set of symbols in the alphabet
+	 */
+	public CharAlphabet(Set<Character> symbols) {
+		addAll(symbols);
+	}
+
+	@Override
+	public void add(Character symbol) {
+		if (symbol == null) {
+			throw new NullPointerException("Symbol T may not be null");
+		}
+		char character = symbol;
+		if (character >= indices.length) {
+			indices = Arrays.copyOf(indices, character + 1);
+		}
+		if (indices[character] == 0) {
+			symbolsByIndex.add(symbol);
+			indices[character] = symbolsByIndex.size();
+		}
+	}
+
+	@Override
+	public void addAll(Set<Character> symbols) {
+		if (symbols == null) {
+			throw new NullPointerException("List of symbol Ts may not be null");
+		}
+		for (Character symbol : symbols) {
+			add(symbol);
+		}
+	}
+
+	@Override
+	public boolean isValid(Character symbol) {
+		return indexOf(symbol) >= 0;
+	}
+
+	@Override
+	public int indexOf(Character symbol) {
+		if (symbol == null) {
+			return -1;
+		}
+		return indexOf(symbol.charValue());
+	}
+
+	/**
+	 * Returns the index of a character without boxing it
+	 *
+	 * @param symbol
+	 *            Character under scrutiny
+	 * @return The index of the character, or -1 if it is not contained in the
+	 *         alphabet
+	 */
+	public int indexOf(char symbol) {
+		return symbol < indices.length ? indices[symbol] - 1 : -1;
+	}
+
+	@Override
+	public Character getSymbol(int index) {
+		return symbolsByIndex.get(index);
+	}
+
+	@Override
+	public int size() {
+		return symbolsByIndex.size();
+	}
+
+	@Override
+	public Set<Character> getSymbols() {
+		return symbols;
+	}
+}
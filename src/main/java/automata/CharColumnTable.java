@@ -0,0 +1,64 @@
+package automata;
+
+import java.util.Arrays;
+
+/**
+ * Maps chars to the columns of a transition table without boxing. Latin-1
+ * characters are looked up in a single direct table, all other characters of
+ * the Basic Multilingual Plane in a two-level table whose pages are only
+ * allocated if they contain a symbol.
+ *
+ * @author 2d6
+ */
+final class CharColumnTable {
+
+	private static final int PAGE_BITS = 8;
+	private static final int PAGE_SIZE = 1 << PAGE_BITS;
+	private static final int PAGE_MASK = PAGE_SIZE - 1;
+	private static final int NO_COLUMN = -1;
+
+	private final int[] latin1;
+	private final int[][] pages;
+
+	/**
+	 * Creates a new CharColumnTable
+	 *
+	 * @param symbols
+	 *            The symbols, indexed by their column
+	 */
+	CharColumnTable(char[] symbols) {
+		latin1 = newPage();
+		pages = new int[PAGE_SIZE][];
+		pages[0] = latin1;
+		for (int column = 0; column < symbols.length; column++) {
+			char symbol = symbols[column];
+			int[] page = pages[symbol >>> PAGE_BITS];
+			if (page == null) {
+				page = newPage();
+				pages[symbol >>> PAGE_BITS] = page;
+			}
+			page[symbol & PAGE_MASK] = column;
+		}
+	}
+
+	/**
+	 * Returns the column of a char
+	 *
+	 * @param symbol
+	 *            The char
+	 * @return The column, or -1 if the char is not a symbol
+	 */
+	int getColumn(char symbol) {
+		if (symbol < PAGE_SIZE) {
+			return latin1[symbol];
+		}
+		int[] page = pages[symbol >>> PAGE_BITS];
+		return page == null ? NO_COLUMN : page[symbol & PAGE_MASK];
+	}
+
+	private static int[] newPage() {
+		int[] page = new int[PAGE_SIZE];
+		Arrays.fill(page, NO_COLUMN);
+		return page;
+	}
+}
@@ -0,0 +1,233 @@
+package automata;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import automata.interfaces.IAlphabet;
+import automata.interfaces.IFastLookup;
+import automata.interfaces.ITransitionFunction;
+
+/**
+ * Implements a transition function for large alphabets in which most states
+ * only have transitions for a few symbols. The transitions are stored in a
+ * row-displaced ("comb vector") table: every state is numbered, every symbol
+ * is identified by its index in the alphabet, and the row of each state is
+ * placed at an offset into a single shared array such that its entries do not
+ * collide with those of other rows. A check array records which row owns each
+ * entry.
+ *
+ * Memory is proportional to the number of transitions rather than to the
+ * number of states times the size of the alphabet. A lookup takes the number
+ * of the state and of the symbol, and two array accesses.
+ *
+ * States are compared by identity, symbols by their index in the alphabet.
+ *
+ * @author 2d6
+ *
+ */
+public class CombTransitionFunction<T> implements ITransitionFunction<T>, IFastLookup {
+
+	private static final int FREE = -1;
+
+	private IAlphabet<T> alphabet;
+
+	private Map<State, Integer> rows;
+	private int[] offsets;
+	private int[][] rowColumns;
+	private int[] rowSizes;
+
+	private int[] check;
+	private State[] targets;
+	private int firstFree;
+
+	/**
+	 * Creates a new CombTransitionFunction with the given symbols.
+	 *
+	 * @param symbols
+	 *            Set of the valid symbols
+	 */
+	public CombTransitionFunction(Set<T> symbols) {
+		this();
+		this.setSymbols(symbols);
+	}
+
+	/**
+	 * Creates a new CombTransitionFunction without an alphabet.
+	 */
+	public CombTransitionFunction() {
+		this.alphabet = new Alphabet<>();
+		this.rows = new IdentityHashMap<>();
+		this.offsets = new int[16];
+		this.rowColumns = new int[16][];
+		this.rowSizes = new int[16];
+		this.check = new int[64];
+		Arrays.fill(check, FREE);
+		this.targets = new State[64];
+	}
+
+	@Override
+	public void addTransition(State initialState, State targetState, T symbol) {
+		int column = alphabet.indexOf(symbol);
+		Integer row = rows.get(initialState);
+		if (row != null && column >= 0 && lookup(row, column) != null) {
+			throw new IllegalArgumentException(
+					"Transition was already defined within the transition function");
+		}
+
+		if (this.alphabet.size() == 0) {
+			throw new NullPointerException("Alphabet was not defined");
+		}
+		else if (column < 0) {
+			throw new IllegalArgumentException(
+					"Symbol was not defined in the alphabet");
+		}
+
+		if (row == null) {
+			row = newRow(initialState);
+		}
+		insert(row, column, targetState);
+	}
+
+	@Override
+	public State getNextState(State currentState, T symbol) {
+		int column = alphabet.indexOf(symbol);
+		if (column < 0) {
+			throw new IllegalArgumentException(
+					"Symbol was not defined in the alphabet");
+		}
+
+		Integer row = rows.get(currentState);
+		if (row == null) {
+			return null;
+		}
+		return lookup(row, column);
+	}
+
+	@Override
+	public void setSymbols(Set<T> symbols) {
+		if (this.alphabet.size() != 0) {
+			throw new IllegalArgumentException("An alphabet has already been defined");
+		}
+		else if (symbols == null) {
+			throw new IllegalArgumentException("The list of symbols must not be null");
+		}
+		this.alphabet.addAll(symbols);
+	}
+
+	@Override
+	public Set<T> getSymbols() {
+		return this.alphabet.getSymbols();
+	}
+
+	@Override
+	public Set<T> getValidSymbols(State currentState) {
+		Set<T> validSymbols = new HashSet<>();
+		Integer row = rows.get(currentState);
+		if (row == null) {
+			return validSymbols;
+		}
+		for (int i = 0; i < rowSizes[row]; i++) {
+			validSymbols.add(alphabet.getSymbol(rowColumns[row][i]));
+		}
+		return validSymbols;
+	}
+
+	private State lookup(int row, int column) {
+		int index = offsets[row] + column;
+		if (index < check.length && check[index] == row) {
+			return targets[index];
+		}
+		return null;
+	}
+
+	private int newRow(State state) {
+		int row = rows.size();
+		if (row == offsets.length) {
+			offsets = Arrays.copyOf(offsets, row * 2);
+			rowColumns = Arrays.copyOf(rowColumns, row * 2);
+			rowSizes = Arrays.copyOf(rowSizes, row * 2);
+		}
+		rows.put(state, row);
+		rowColumns[row] = new int[2];
+		offsets[row] = FREE;
+		return row;
+	}
+
+	/*
+	 * Adds an entry to a row. If the entry collides with another row, the
+	 * whole row is moved to the first offset at which all of its entries fit.
+	 */
+	private void insert(int row, int column, State target) {
+		if (rowSizes[row] == rowColumns[row].length) {
+			rowColumns[row] = Arrays.copyOf(rowColumns[row], rowSizes[row] * 2);
+		}
+		rowColumns[row][rowSizes[row]++] = column;
+
+		if (offsets[row] != FREE) {
+			int index = offsets[row] + column;
+			ensureCapacity(index);
+			if (check[index] == FREE) {
+				set(index, row, target);
+				return;
+			}
+		}
+
+		State[] rowTargets = new State[rowSizes[row]];
+		for (int i = 0; i < rowSizes[row] - 1; i++) {
+			int index = offsets[row] + rowColumns[row][i];
+			rowTargets[i] = targets[index];
+			check[index] = FREE;
+			targets[index] = null;
+		}
+		rowTargets[rowSizes[row] - 1] = target;
+		if (offsets[row] != FREE) {
+			firstFree = Math.min(firstFree, offsets[row]);
+		}
+
+		offsets[row] = findOffset(row);
+		for (int i = 0; i < rowSizes[row]; i++) {
+			set(offsets[row] + rowColumns[row][i], row, rowTargets[i]);
+		}
+	}
+
+	private int findOffset(int row) {
+		int minimumColumn = Integer.MAX_VALUE;
+		for (int i = 0; i < rowSizes[row]; i++) {
+			minimumColumn = Math.min(minimumColumn, rowColumns[row][i]);
+		}
+		// The first entry of the row must land on a free slot, so offsets
+		// below firstFree - minimumColumn cannot fit
+		for (int offset = Math.max(0, firstFree - minimumColumn);; offset++) {
+			boolean fits = true;
+			for (int i = 0; i < rowSizes[row] && fits; i++) {
+				int index = offset + rowColumns[row][i];
+				fits = index >= check.length || check[index] == FREE;
+			}
+			if (fits) {
+				return offset;
+			}
+		}
+	}
+
+	private void set(int index, int row, State target) {
+		ensureCapacity(index);
+		check[index] = row;
+		targets[index] = target;
+		while (firstFree < check.length && check[firstFree] != FREE) {
+			firstFree++;
+		}
+	}
+
+	private void ensureCapacity(int index) {
+		if (index >= check.length) {
+			int length = Math.max(index + 1, check.length * 2);
+			int oldLength = check.length;
+			check = Arrays.copyOf(check, length);
+			Arrays.fill(check, oldLength, length, FREE);
+			targets = Arrays.copyOf(targets, length);
+		}
+	}
+}
@@ -0,0 +1,905 @@
+package automata;
+
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import automata.interfaces.IDeterministicFiniteAutomaton;
+
+/**
+ * An immutable deterministic finite automaton whose states are numbered
+ * 0..n-1 and whose symbols are mapped to the columns 0..k-1 of a flat
+ * transition table. Evaluating a symbol takes a single array access; missing
+ * transitions are stored as {@link #DEAD_STATE}.
+ *
+ * Instances are created by {@link DeterministicFiniteAutomaton#compile()}. The
+ * original {@link State} objects are retained, so results may be mapped back
+ * to the automaton the CompiledDfa was created from. Automata created from
+ * numbered states, e.g. by {@link IndexedDfa#compile()}, only hold the
+ * acceptance and identifiers of their states; a State object is created when
+ * a state is first requested and is the same for all later requests.
+ *
+ * A CompiledDfa is thread-safe: its states, symbols and transitions are
+ * final and never modified after construction, so an instance may be shared
+ * by any number of threads without locking, even if it was published without
+ * synchronization. The few results computed lazily, see {@link #isDead(int)},
+ * are immutable and at worst computed more than once; State objects are
+ * published by compare-and-set, so every thread sees the same one.
+ * Many inputs may be evaluated in parallel with {@link #evaluateAll(List)}
+ * and {@link #acceptsAll(List)}, a single long input with
+ * {@link #evaluateInParallel(List)}.
+ *
+ * @author 2d6
+ */
+public class CompiledDfa<T> implements IDeterministicFiniteAutomaton<T> {
+
+	/**
+	 * The state id denoting that no transition was defined
+	 */
+	public static final int DEAD_STATE = -1;
+
+	private static final int STARTING_STATE = 0;
+
+	/*
+	 * The outcomes of the states, see outcomes()
+	 */
+	static final byte UNDECIDED = 0;
+	static final byte DEAD = 1;
+	static final byte ACCEPTING_SINK = 2;
+
+	private final int stateCount;
+	private final boolean[] accepting;
+	private final StateIdentifiers identifiers;
+
+	private final Object[] symbols;
+	private final Map<T, Integer> symbolColumns;
+	private final Set<T> symbolSet;
+	private final CharColumnTable charColumns;
+
+	private final int[] transitions;
+
+	/*
+	 * The State objects, indexed by id; allocated on the first request
+	 */
+	private volatile StateTable states;
+
+	/*
+	 * The result of a missing transition for each column, created on demand
+	 * and published by compare-and-set
+	 */
+	private final AtomicReferenceArray<State> missingTransitionStates;
+	private volatile byte[] outcomes;
+
+	/**
+	 * Creates a new CompiledDfa. The starting state must be the first state.
+	 *
+	 * @param states
+	 *            The states of the automaton, indexed by their id
+	 * @param symbols
+	 *            The symbols of the automaton, indexed by their column
+	 * @param transitions
+	 *            The transition table; the target of state s and column c is
+	 *            found at s * symbols.length + c
+	 */
+	CompiledDfa(State[] states, Object[] symbols, int[] transitions) {
+		this(acceptance(states), StateIdentifiers.of(states), null, symbols, transitions);
+		this.states = StateTable.of(states);
+	}
+
+	/**
+	 * Creates a new CompiledDfa without State objects. The starting state
+	 * must be the first state.
+	 *
+	 * @param accepting
+	 *            The acceptance of the states, indexed by their id
+	 * @param identifiers
+	 *            The identifiers of the states; must not be modified
+	 *            afterwards
+	 * @param states
+	 *            The State objects created so far, or null; the table is
+	 *            shared, so states created by this automaton are visible to
+	 *            its owner and vice versa
+	 * @param symbols
+	 *            The symbols of the automaton, indexed by their column
+	 * @param transitions
+	 *            The transition table; the target of state s and column c is
+	 *            found at s * symbols.length + c
+	 */
+	CompiledDfa(boolean[] accepting, StateIdentifiers identifiers, StateTable states,
+			Object[] symbols, int[] transitions) {
+		if (accepting.length == 0) {
+			throw new IllegalArgumentException("A compiled automaton needs a starting state");
+		}
+		else if (transitions.length != accepting.length * symbols.length) {
+			throw new IllegalArgumentException("Transition table does not match states and symbols");
+		}
+		this.stateCount = accepting.length;
+		this.accepting = accepting;
+		this.identifiers = identifiers;
+		this.states = states;
+
+		this.symbols = symbols;
+		this.symbolColumns = new HashMap<>();
+		Set<T> symbolSet = new LinkedHashSet<>();
+		for (int column = 0; column < symbols.length; column++) {
+			T symbol = symbol(column);
+			symbolColumns.put(symbol, column);
+			symbolSet.add(symbol);
+		}
+		this.symbolSet = Collections.unmodifiableSet(symbolSet);
+		this.charColumns = newCharColumnTable(symbols);
+
+		this.transitions = transitions;
+		this.missingTransitionStates = new AtomicReferenceArray<>(symbols.length);
+	}
+
+	/*
+	 * Creates a view of the original which shares everything except the
+	 * State objects
+	 */
+	private CompiledDfa(CompiledDfa<T> original) {
+		this.stateCount = original.stateCount;
+		this.accepting = original.accepting;
+		this.identifiers = original.identifiers;
+		this.symbols = original.symbols;
+		this.symbolColumns = original.symbolColumns;
+		this.symbolSet = original.symbolSet;
+		this.charColumns = original.charColumns;
+		this.transitions = original.transitions;
+		this.missingTransitionStates = new AtomicReferenceArray<>(symbols.length);
+		this.outcomes = original.outcomes;
+	}
+
+	/**
+	 * Creates a CompiledDfa with the same states, symbols and transitions but
+	 * State objects of its own, which are created when they are first
+	 * requested. Nothing is copied, so this takes constant time.
+	 *
+	 * @return The new automaton
+	 */
+	CompiledDfa<T> withOwnStates() {
+		return new CompiledDfa<>(this);
+	}
+
+	/**
+	 * @return The id of the starting state
+	 */
+	public int getStartingStateId() {
+		return STARTING_STATE;
+	}
+
+	/**
+	 * @return The number of states
+	 */
+	public int getStateCount() {
+		return stateCount;
+	}
+
+	/**
+	 * @return The number of symbols, i.e. columns of the transition table
+	 */
+	public int getSymbolCount() {
+		return symbols.length;
+	}
+
+	/**
+	 * Returns the original state with the given id, creating it on the first
+	 * request if the automaton was created without State objects
+	 *
+	 * @param stateId
+	 *            The id of the state
+	 * @return The state, or null for {@link #DEAD_STATE}
+	 */
+	public State getState(int stateId) {
+		if (stateId == DEAD_STATE) {
+			return null;
+		}
+		StateTable states = states();
+		State state = states.get(stateId);
+		if (state == null) {
+			state = states.publish(stateId, new IndexedState(stateId, identifiers.get(stateId), accepting[stateId]));
+		}
+		return state;
+	}
+
+	/**
+	 * Returns the identifier of the state with the given id without creating
+	 * its State object
+	 *
+	 * @param stateId
+	 *            The id of the state
+	 * @return The identifier of the state
+	 */
+	public String getIdentifier(int stateId) {
+		if (stateId < 0 || stateId >= stateCount) {
+			throw new IndexOutOfBoundsException("The automaton does not contain a state with id " + stateId);
+		}
+		StateTable states = this.states;
+		State state = states == null ? null : states.get(stateId);
+		return state == null ? identifiers.get(stateId) : state.getIdentifier();
+	}
+
+	/**
+	 * Returns the id of the state with the given identifier
+	 *
+	 * @param identifier
+	 *            The identifier of the state
+	 * @return The id of the state, or {@link #DEAD_STATE} if the automaton
+	 *         does not contain such a state
+	 */
+	public int getStateId(String identifier) {
+		return identifiers.getStateId(identifier, stateCount);
+	}
+
+	/**
+	 * Returns the id of a state of this automaton
+	 *
+	 * @param state
+	 *            The state
+	 * @return The id of the state, or {@link #DEAD_STATE} if the state does
+	 *         not belong to the automaton
+	 */
+	public int getStateId(State state) {
+		StateTable states = this.states;
+		if (state == null || states == null) {
+			return DEAD_STATE;
+		}
+		if (state instanceof IndexedState) {
+			// States created by this automaton know their id
+			int stateId = ((IndexedState) state).getId();
+			if (stateId < stateCount && states.get(stateId) == state) {
+				return stateId;
+			}
+		}
+		int stateId = getStateId(state.getIdentifier());
+		if (stateId == DEAD_STATE || states.get(stateId) != state) {
+			return DEAD_STATE;
+		}
+		return stateId;
+	}
+
+	/**
+	 * Returns the column of a symbol in the transition table
+	 *
+	 * @param symbol
+	 *            The symbol
+	 * @return The column of the symbol, or -1 if it is not part of the
+	 *         alphabet
+	 */
+	public int getColumn(T symbol) {
+		Integer column = symbolColumns.get(symbol);
+		return column == null ? -1 : column;
+	}
+
+	/**
+	 * Returns the column of a char symbol without boxing it, if the alphabet
+	 * consists of {@link Character}s.
+	 *
+	 * @param symbol
+	 *            The symbol
+	 * @return The column of the symbol, or -1 if it is not part of the
+	 *         alphabet
+	 */
+	@SuppressWarnings("unchecked")
+	public int getColumn(char symbol) {
+		if (charColumns != null) {
+			return charColumns.getColumn(symbol);
+		}
+		return getColumn((T) Character.valueOf(symbol));
+	}
+
+	/**
+	 * @param column
+	 *            A column of the transition table
+	 * @return The symbol belonging to the column
+	 */
+	public T getSymbol(int column) {
+		return symbol(column);
+	}
+
+	/**
+	 * Determines whether the state with the given id is accepting
+	 *
+	 * @param stateId
+	 *            The id of the state
+	 * @return True if the state is accepting, false if it is not accepting
+	 *         or {@link #DEAD_STATE}
+	 */
+	public boolean isAccepting(int stateId) {
+		return stateId != DEAD_STATE && accepting[stateId];
+	}
+
+	/**
+	 * Returns the target of the transition for a state and column.
+	 *
+	 * @param stateId
+	 *            The id of the current state; must not be {@link #DEAD_STATE}
+	 * @param column
+	 *            The column of the symbol being evaluated
+	 * @return The id of the next state, or {@link #DEAD_STATE}
+	 */
+	public int step(int stateId, int column) {
+		return transitions[stateId * symbols.length + column];
+	}
+
+	/**
+	 * Returns the target of the transition for a state and symbol.
+	 *
+	 * @param stateId
+	 *            The id of the current state
+	 * @param symbol
+	 *            The symbol being evaluated
+	 * @return The id of the next state, or {@link #DEAD_STATE}
+	 */
+	public int step(int stateId, T symbol) {
+		int column = getColumn(symbol);
+		if (column < 0) {
+			throw new IllegalArgumentException(
+					"Symbol was not defined in the alphabet");
+		}
+		if (stateId == DEAD_STATE) {
+			return DEAD_STATE;
+		}
+		return step(stateId, column);
+	}
+
+	/**
+	 * Determines whether no accepting state can be reached from a state, i.e.
+	 * whether every input starting in the state is rejected. The analysis of
+	 * all states is computed on the first call.
+	 *
+	 * @param stateId
+	 *            The id of the state
+	 * @return True if the state cannot lead to acceptance; always true for
+	 *         {@link #DEAD_STATE}
+	 */
+	public boolean isDead(int stateId) {
+		return stateId == DEAD_STATE || outcomes()[stateId] == DEAD;
+	}
+
+	/**
+	 * Determines whether a state is an accepting sink, i.e. whether every
+	 * input starting in the state is accepted.
+	 *
+	 * @param stateId
+	 *            The id of the state
+	 * @return True if the state and every state reachable from it are
+	 *         accepting and have a transition for every symbol
+	 */
+	public boolean isAcceptingSink(int stateId) {
+		return stateId != DEAD_STATE && outcomes()[stateId] == ACCEPTING_SINK;
+	}
+
+	/**
+	 * Determines whether the automaton accepts an input. The evaluation stops
+	 * as soon as it reaches a state which is dead or an accepting sink, see
+	 * {@link #isDead(int)} and {@link #isAcceptingSink(int)}, so the rest of
+	 * the input is neither read nor checked against the alphabet.
+	 *
+	 * @param input
+	 *            The symbols to be evaluated
+	 * @return True if the input is accepted
+	 */
+	public boolean accepts(Iterable<T> input) {
+		byte[] outcomes = outcomes();
+		int currentState = STARTING_STATE;
+		for (T symbol : input) {
+			if (outcomes[currentState] != UNDECIDED) {
+				return outcomes[currentState] == ACCEPTING_SINK;
+			}
+			currentState = step(currentState, checkedColumn(symbol));
+			if (currentState == DEAD_STATE) {
+				return false;
+			}
+		}
+		return accepting[currentState];
+	}
+
+	/**
+	 * Returns the outcome of each state: {@link #UNDECIDED}, {@link #DEAD} or
+	 * {@link #ACCEPTING_SINK}. The array must not be modified.
+	 */
+	byte[] outcomes() {
+		byte[] outcomes = this.outcomes;
+		if (outcomes == null) {
+			outcomes = analyzeOutcomes();
+			this.outcomes = outcomes;
+		}
+		return outcomes;
+	}
+
+	/*
+	 * Dead states are those from which no accepting state is reachable
+	 * backwards; accepting sinks are the greatest set of accepting states
+	 * with complete rows leading into the set. Both are computed on the
+	 * reversed transition graph in compressed sparse row form.
+	 */
+	private byte[] analyzeOutcomes() {
+		int symbolCount = symbols.length;
+		int[] predecessorStarts = new int[stateCount + 1];
+		for (int target : transitions) {
+			if (target != DEAD_STATE) {
+				predecessorStarts[target + 1]++;
+			}
+		}
+		for (int stateId = 0; stateId < stateCount; stateId++) {
+			predecessorStarts[stateId + 1] += predecessorStarts[stateId];
+		}
+		int[] predecessors = new int[predecessorStarts[stateCount]];
+		int[] fill = predecessorStarts.clone();
+		for (int index = 0; index < transitions.length; index++) {
+			if (transitions[index] != DEAD_STATE) {
+				predecessors[fill[transitions[index]]++] = index / symbolCount;
+			}
+		}
+
+		byte[] outcomes = new byte[stateCount];
+		int[] queue = new int[stateCount];
+
+		// Backward search from the accepting states; unreached states are dead
+		boolean[] coAccessible = new boolean[stateCount];
+		int queueEnd = 0;
+		for (int stateId = 0; stateId < stateCount; stateId++) {
+			if (accepting[stateId]) {
+				coAccessible[stateId] = true;
+				queue[queueEnd++] = stateId;
+			}
+		}
+		for (int head = 0; head < queueEnd; head++) {
+			int stateId = queue[head];
+			for (int i = predecessorStarts[stateId]; i < predecessorStarts[stateId + 1]; i++) {
+				if (!coAccessible[predecessors[i]]) {
+					coAccessible[predecessors[i]] = true;
+					queue[queueEnd++] = predecessors[i];
+				}
+			}
+		}
+
+		// Remove states leaving the candidate set until no such state is left
+		boolean[] sink = new boolean[stateCount];
+		for (int stateId = 0; stateId < stateCount; stateId++) {
+			sink[stateId] = accepting[stateId];
+		}
+		queueEnd = 0;
+		for (int stateId = 0; stateId < stateCount; stateId++) {
+			if (sink[stateId]) {
+				for (int column = 0; column < symbolCount; column++) {
+					int target = step(stateId, column);
+					if (target == DEAD_STATE || !accepting[target]) {
+						sink[stateId] = false;
+						queue[queueEnd++] = stateId;
+						break;
+					}
+				}
+			}
+		}
+		for (int head = 0; head < queueEnd; head++) {
+			int stateId = queue[head];
+			for (int i = predecessorStarts[stateId]; i < predecessorStarts[stateId + 1]; i++) {
+				if (sink[predecessors[i]]) {
+					sink[predecessors[i]] = false;
+					queue[queueEnd++] = predecessors[i];
+				}
+			}
+		}
+
+		for (int stateId = 0; stateId < stateCount; stateId++) {
+			if (!coAccessible[stateId]) {
+				outcomes[stateId] = DEAD;
+			}
+			else if (sink[stateId]) {
+				outcomes[stateId] = ACCEPTING_SINK;
+			}
+		}
+		return outcomes;
+	}
+
+	/**
+	 * Returns the result of evaluating a symbol without a transition. The
+	 * State is shared by all evaluations ending on the symbol, also across
+	 * threads.
+	 *
+	 * @param column
+	 *            The column of the symbol
+	 * @return A non-accepting State named after the symbol
+	 */
+	State missingTransition(int column) {
+		return missingTransition(missingTransitionStates, column, symbols[column]);
+	}
+
+	/**
+	 * Returns the State of a missing transition from a cache indexed by
+	 * column, creating it if necessary. Concurrent callers receive the same
+	 * State.
+	 *
+	 * @param cache
+	 *            The States created so far
+	 * @param column
+	 *            The column of the symbol
+	 * @param symbol
+	 *            The symbol
+	 * @return A non-accepting State named after the symbol
+	 */
+	static State missingTransition(AtomicReferenceArray<State> cache, int column, Object symbol) {
+		State state = cache.get(column);
+		if (state == null) {
+			state = new State(String.valueOf(symbol), false);
+			if (!cache.compareAndSet(column, null, state)) {
+				state = cache.get(column);
+			}
+		}
+		return state;
+	}
+
+	/**
+	 * Evaluates the input like {@link #evaluate(Iterable)}, but returns the
+	 * id of the final state.
+	 *
+	 * @param input
+	 *            The symbols to be evaluated
+	 * @return The id of the final state, or {@link #DEAD_STATE} if a
+	 *         transition was missing
+	 */
+	public int evaluateToStateId(Iterable<T> input) {
+		int currentState = STARTING_STATE;
+		for (T symbol : input) {
+			currentState = step(currentState, checkedColumn(symbol));
+			if (currentState == DEAD_STATE) {
+				return DEAD_STATE;
+			}
+		}
+		return currentState;
+	}
+
+	/**
+	 * Evaluates many inputs in parallel on a pool shared by all compiled
+	 * automata, which uses all available processors.
+	 *
+	 * @param inputs
+	 *            The inputs to be evaluated
+	 * @return The ids of the final states as returned by
+	 *         {@link #evaluateToStateId(Iterable)}, indexed like the inputs
+	 */
+	public int[] evaluateAll(List<? extends Iterable<T>> inputs) {
+		return evaluateAll(inputs, SharedPool.POOL);
+	}
+
+	/**
+	 * Evaluates many inputs in parallel on the given pool.
+	 *
+	 * @param inputs
+	 *            The inputs to be evaluated
+	 * @param pool
+	 *            The pool whose threads evaluate the inputs
+	 * @return The ids of the final states as returned by
+	 *         {@link #evaluateToStateId(Iterable)}, indexed like the inputs
+	 */
+	public int[] evaluateAll(List<? extends Iterable<T>> inputs, ForkJoinPool pool) {
+		return new BatchEvaluation<>(this, inputs, pool).evaluateAll();
+	}
+
+	/**
+	 * Determines in parallel which inputs are accepted, using a pool shared
+	 * by all compiled automata.
+	 *
+	 * @param inputs
+	 *            The inputs to be evaluated
+	 * @return A bitset in which the bit of each accepted input is set
+	 */
+	public BitSet acceptsAll(List<? extends Iterable<T>> inputs) {
+		return acceptsAll(inputs, SharedPool.POOL);
+	}
+
+	/**
+	 * Determines in parallel which inputs are accepted.
+	 *
+	 * @param inputs
+	 *            The inputs to be evaluated
+	 * @param pool
+	 *            The pool whose threads evaluate the inputs
+	 * @return A bitset in which the bit of each accepted input is set
+	 */
+	public BitSet acceptsAll(List<? extends Iterable<T>> inputs, ForkJoinPool pool) {
+		return new BatchEvaluation<>(this, inputs, pool).acceptsAll();
+	}
+
+	/**
+	 * Evaluates a single long input like {@link #evaluate(Iterable)}, but
+	 * splits it into chunks which are evaluated in parallel on a pool shared
+	 * by all compiled automata. The result is identical to the sequential
+	 * evaluation. Inputs shorter than a few thousand symbols are evaluated
+	 * sequentially.
+	 *
+	 * @param input
+	 *            The symbols to be evaluated; lists without random access are
+	 *            copied first
+	 * @return The state the automaton was in after evaluating the last
+	 *         symbol, or a new non-accepting State named after the symbol for
+	 *         which no transition has been defined.
+	 */
+	public State evaluateInParallel(List<? extends T> input) {
+		return evaluateInParallel(input, SharedPool.POOL);
+	}
+
+	/**
+	 * Evaluates a single long input in parallel on the given pool.
+	 *
+	 * @param input
+	 *            The symbols to be evaluated
+	 * @param pool
+	 *            The pool whose threads evaluate the chunks of the input
+	 * @return The state the automaton was in after evaluating the last
+	 *         symbol, or a new non-accepting State named after the symbol for
+	 *         which no transition has been defined.
+	 * @see #evaluateInParallel(List)
+	 */
+	public State evaluateInParallel(List<? extends T> input, ForkJoinPool pool) {
+		return new ParallelEvaluation<>(this, new ParallelEvaluation.ListSymbols<>(this, input), pool).evaluate();
+	}
+
+	/**
+	 * Evaluates a long sequence of chars in parallel without boxing them,
+	 * using a pool shared by all compiled automata.
+	 *
+	 * @param input
+	 *            The chars to be evaluated
+	 * @return The state the automaton was in after evaluating the last
+	 *         char, or a new non-accepting State named after the char for
+	 *         which no transition has been defined.
+	 * @see #evaluateInParallel(List)
+	 */
+	public State evaluateInParallel(CharSequence input) {
+		return evaluateInParallel(input, SharedPool.POOL);
+	}
+
+	/**
+	 * Evaluates a long sequence of chars in parallel on the given pool.
+	 *
+	 * @param input
+	 *            The chars to be evaluated
+	 * @param pool
+	 *            The pool whose threads evaluate the chunks of the input
+	 * @return The state the automaton was in after evaluating the last
+	 *         char, or a new non-accepting State named after the char for
+	 *         which no transition has been defined.
+	 * @see #evaluateInParallel(List)
+	 */
+	public State evaluateInParallel(CharSequence input, ForkJoinPool pool) {
+		return new ParallelEvaluation<>(this, new ParallelEvaluation.CharSymbols(this, input), pool).evaluate();
+	}
+
+	@Override
+	public State evaluate(Iterable<T> input) {
+		int currentState = STARTING_STATE;
+		for (T symbol : input) {
+			int column = checkedColumn(symbol);
+			currentState = step(currentState, column);
+			if (currentState == DEAD_STATE) {
+				return missingTransition(column);
+			}
+		}
+		return getState(currentState);
+	}
+
+	/**
+	 * Evaluates the input like {@link #evaluate(Iterable)} and reports each
+	 * step to a listener. Evaluations without a listener are not affected by
+	 * instrumentation.
+	 *
+	 * @param input
+	 *            The symbols to be evaluated
+	 * @param listener
+	 *            The listener receiving the steps
+	 * @return The state the automaton was in after evaluating the last
+	 *         symbol, or a new non-accepting State named after the symbol for
+	 *         which no transition has been defined.
+	 */
+	public State evaluate(Iterable<T> input, EvaluationListener listener) {
+		int currentState = STARTING_STATE;
+		int length = 0;
+		listener.onStart(currentState);
+		for (T symbol : input) {
+			int column = checkedColumn(symbol);
+			int nextState = step(currentState, column);
+			listener.onTransition(currentState, column, nextState);
+			length++;
+			if (nextState == DEAD_STATE) {
+				listener.onEnd(DEAD_STATE, length);
+				return missingTransition(column);
+			}
+			currentState = nextState;
+		}
+		listener.onEnd(currentState, length);
+		return getState(currentState);
+	}
+
+	@Override
+	public State getStartingState() {
+		return getState(STARTING_STATE);
+	}
+
+	@Override
+	public State getState(String identifier) {
+		return getState(getStateId(identifier));
+	}
+
+	@Override
+	public DfaRunner<T> newRunner() {
+		return new DfaRunner<>(this);
+	}
+
+	@Override
+	public State getNextState(State currentState, T symbol) {
+		int column = checkedColumn(symbol);
+		int stateId = getStateId(currentState);
+		if (stateId == DEAD_STATE) {
+			return null;
+		}
+		return getState(step(stateId, column));
+	}
+
+	@Override
+	public Set<T> getValidSymbols(State currentState) {
+		Set<T> validSymbols = new HashSet<>();
+		int stateId = getStateId(currentState);
+		if (stateId == DEAD_STATE) {
+			return validSymbols;
+		}
+		for (int column = 0; column < symbols.length; column++) {
+			if (step(stateId, column) != DEAD_STATE) {
+				validSymbols.add(symbol(column));
+			}
+		}
+		return validSymbols;
+	}
+
+	/**
+	 * @return The symbols of the automaton
+	 */
+	@Override
+	public Set<T> getSymbols() {
+		return symbolSet;
+	}
+
+	/**
+	 * Compiled automata are immutable.
+	 *
+	 * @throws UnsupportedOperationException
+	 *             always
+	 */
+	@Override
+	public void addState(String identifier, boolean isAccepting) {
+		throw new UnsupportedOperationException("Compiled automata are immutable");
+	}
+
+	/**
+	 * Compiled automata are immutable.
+	 *
+	 * @throws UnsupportedOperationException
+	 *             always
+	 */
+	@Override
+	public void addTransition(String initialStateIdentifier,
+			String targetStateIdentifier, T symbol) {
+		throw new UnsupportedOperationException("Compiled automata are immutable");
+	}
+
+	/**
+	 * Compiled automata are immutable, so the automaton itself is returned.
+	 *
+	 * @return This automaton
+	 */
+	@Override
+	public CompiledDfa<T> copy() {
+		return this;
+	}
+
+	/**
+	 * Minimizes the automaton using Hopcroft's algorithm.
+	 *
+	 * @return A new, modifiable automaton with the minimal number of states
+	 * @see DeterministicFiniteAutomaton#minimize()
+	 */
+	@Override
+	public DeterministicFiniteAutomaton<T> minimize() {
+		return new HopcroftMinimizer<>(this).minimize();
+	}
+
+	@Override
+	public boolean isStructurallyEqualTo(IDeterministicFiniteAutomaton<T> otherDfa) {
+		return new DfaStructureComparator<T>().structurallyEqual(this, otherDfa);
+	}
+
+	@Override
+	public boolean isEquivalentTo(IDeterministicFiniteAutomaton<T> otherDfa) {
+		return findDistinguishingInput(otherDfa) == null;
+	}
+
+	@Override
+	public List<T> findDistinguishingInput(IDeterministicFiniteAutomaton<T> otherDfa) {
+		return new DfaEquivalenceChecker<>(this, otherDfa).findDistinguishingInput();
+	}
+
+	@Override
+	public ProductDfa<T> intersect(IDeterministicFiniteAutomaton<T> otherDfa) {
+		return new ProductDfa<>(this, otherDfa, ProductDfa.Operation.INTERSECTION);
+	}
+
+	@Override
+	public ProductDfa<T> union(IDeterministicFiniteAutomaton<T> otherDfa) {
+		return new ProductDfa<>(this, otherDfa, ProductDfa.Operation.UNION);
+	}
+
+	@Override
+	public ProductDfa<T> difference(IDeterministicFiniteAutomaton<T> otherDfa) {
+		return new ProductDfa<>(this, otherDfa, ProductDfa.Operation.DIFFERENCE);
+	}
+
+	@Override
+	public ProductDfa<T> symmetricDifference(IDeterministicFiniteAutomaton<T> otherDfa) {
+		return new ProductDfa<>(this, otherDfa, ProductDfa.Operation.SYMMETRIC_DIFFERENCE);
+	}
+
+	private int checkedColumn(T symbol) {
+		int column = getColumn(symbol);
+		if (column < 0) {
+			throw new IllegalArgumentException(
+					"Symbol was not defined in the alphabet");
+		}
+		return column;
+	}
+
+	private StateTable states() {
+		StateTable states = this.states;
+		if (states == null) {
+			synchronized (this) {
+				states = this.states;
+				if (states == null) {
+					states = new StateTable(stateCount);
+					this.states = states;
+				}
+			}
+		}
+		return states;
+	}
+
+	private static boolean[] acceptance(State[] states) {
+		boolean[] accepting = new boolean[states.length];
+		for (int id = 0; id < states.length; id++) {
+			accepting[id] = states[id].isAccepting();
+		}
+		return accepting;
+	}
+
+	private static CharColumnTable newCharColumnTable(Object[] symbols) {
+		char[] charSymbols = new char[symbols.length];
+		for (int column = 0; column < symbols.length; column++) {
+			if (!(symbols[column] instanceof Character)) {
+				return null;
+			}
+			charSymbols[column] = (Character) symbols[column];
+		}
+		return new CharColumnTable(charSymbols);
+	}
+
+	@SuppressWarnings("unchecked")
+	private T symbol(int column) {
+		return (T) symbols[column];
+	}
+
+	/**
+	 * Holds the pool used by the parallel methods, which is only created when
+	 * they are first called. Its threads are daemon threads, so it never
+	 * keeps the JVM alive. It is also used by {@link SubsetConstruction}.
+	 */
+	static final class SharedPool {
+		static final ForkJoinPool POOL = new ForkJoinPool();
+	}
+}
@@ -0,0 +1,328 @@
+package automata;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import automata.interfaces.IAlphabet;
+
+/**
+ * Builds a {@link CompiledDfa} from states and transitions which are added by
+ * several threads at once, e.g. one thread per shard of the source data.
+ *
+ * State ids are handed out by an atomic counter and identifiers are
+ * registered in a {@link ConcurrentHashMap}. Transitions are written into a
+ * paged transition table without locks: each entry is claimed by a single
+ * compare-and-set, so two threads adding a transition for the same state and
+ * symbol are detected reliably. Adding a transition which already exists with
+ * the same target has no effect; adding one with another target throws an
+ * IllegalArgumentException. Only allocating a new page takes a lock.
+ *
+ * {@link #freeze()} must only be called after all threads have finished
+ * adding, e.g. after they have been joined; it creates the automaton in a
+ * single pass and the builder cannot be used afterwards.
+ *
+ * @author 2d6
+ */
+public class ConcurrentDfaBuilder<T> {
+
+	private static final int TRANSITIONS_PER_PAGE = 1 << 20;
+
+	private static final byte EXISTS = 1;
+	private static final byte ACCEPTING = 2;
+
+	private final IAlphabet<T> alphabet;
+	private final int symbolCount;
+	private final int pageShift;
+	private final int pageMask;
+
+	private final AtomicInteger nextStateId = new AtomicInteger();
+	private final Map<String, Integer> stateIds = new ConcurrentHashMap<>();
+
+	private final Object pageLock = new Object();
+	private volatile Page[] pages = new Page[16];
+	private volatile boolean frozen;
+
+	/**
+	 * Creates a new builder with a starting state.
+	 *
+	 * @param identifier
+	 *            The identifier of the starting state
+	 * @param isAccepting
+	 *            Acceptance status of the starting state. True if the starting
+	 *            state is accepting.
+	 * @param symbols
+	 *            The valid symbols of the automaton
+	 */
+	public ConcurrentDfaBuilder(String identifier, boolean isAccepting, Set<T> symbols) {
+		if (symbols == null) {
+			throw new IllegalArgumentException("The list of symbols must not be null");
+		}
+		this.alphabet = new Alphabet<>(symbols);
+		this.symbolCount = alphabet.size();
+		int statesPerPage = Integer.highestOneBit(Math.max(1, TRANSITIONS_PER_PAGE / Math.max(1, symbolCount)));
+		this.pageShift = Integer.numberOfTrailingZeros(statesPerPage);
+		this.pageMask = statesPerPage - 1;
+		addState(identifier, isAccepting);
+	}
+
+	/**
+	 * Adds a state. May be called by several threads at once.
+	 *
+	 * @param identifier
+	 *            The identifier of the new state
+	 * @param isAccepting
+	 *            Acceptance status of the state. True if the state is
+	 *            accepting.
+	 * @return The id of the new state
+	 * @throws IllegalArgumentException
+	 *             if a state with the identifier has already been added, or
+	 *             the identifier has the form "#" followed by digits, which is
+	 *             reserved for states without an identifier
+	 */
+	public int addState(String identifier, boolean isAccepting) {
+		if (identifier == null) {
+			throw new NullPointerException("Identifier may not be null");
+		}
+		StateIdentifiers.checkExplicit(identifier);
+		checkNotFrozen();
+		if (stateIds.containsKey(identifier)) {
+			throw new IllegalArgumentException(
+					"The automaton already contained a state with the given identifier");
+		}
+		int stateId = nextStateId.getAndIncrement();
+		if (stateIds.putIfAbsent(identifier, stateId) != null) {
+			// The id remains unused and is skipped by freeze()
+			throw new IllegalArgumentException(
+					"The automaton already contained a state with the given identifier");
+		}
+		markExisting(stateId, isAccepting);
+		return stateId;
+	}
+
+	/**
+	 * Adds a state without an identifier; it is identified by "#" followed by
+	 * its id in the frozen automaton. May be called by several threads at
+	 * once.
+	 *
+	 * @param isAccepting
+	 *            Acceptance status of the state. True if the state is
+	 *            accepting.
+	 * @return The id of the new state
+	 */
+	public int addState(boolean isAccepting) {
+		checkNotFrozen();
+		int stateId = nextStateId.getAndIncrement();
+		markExisting(stateId, isAccepting);
+		return stateId;
+	}
+
+	/**
+	 * Returns the id of the state with the given identifier
+	 *
+	 * @param identifier
+	 *            The identifier of the state
+	 * @return The id of the state, or {@link CompiledDfa#DEAD_STATE} if no
+	 *         state with the identifier has been added
+	 */
+	public int getStateId(String identifier) {
+		Integer stateId = stateIds.get(identifier);
+		return stateId == null ? CompiledDfa.DEAD_STATE : stateId;
+	}
+
+	/**
+	 * Adds a transition between two states with identifiers. May be called by
+	 * several threads at once; both states must have been added before.
+	 *
+	 * @param initialStateIdentifier
+	 *            The identifier of the state the transition starts in
+	 * @param targetStateIdentifier
+	 *            The identifier of the state the transition leads to
+	 * @param symbol
+	 *            The symbol of the transition
+	 */
+	public void addTransition(String initialStateIdentifier, String targetStateIdentifier, T symbol) {
+		int initialStateId = getStateId(initialStateIdentifier);
+		int targetStateId = getStateId(targetStateIdentifier);
+		if (initialStateId == CompiledDfa.DEAD_STATE) {
+			throw new NullPointerException("Initial state may not be null");
+		}
+		else if (targetStateId == CompiledDfa.DEAD_STATE) {
+			throw new NullPointerException("Target state may not be null");
+		}
+		addTransition(initialStateId, targetStateId, symbol);
+	}
+
+	/**
+	 * Adds a transition between two states. May be called by several threads
+	 * at once. The states may still be in the process of being added by
+	 * other threads; {@link #freeze()} checks that they exist.
+	 *
+	 * @param initialStateId
+	 *            The id of the state the transition starts in
+	 * @param targetStateId
+	 *            The id of the state the transition leads to
+	 * @param symbol
+	 *            The symbol of the transition
+	 */
+	public void addTransition(int initialStateId, int targetStateId, T symbol) {
+		if (initialStateId < 0 || initialStateId >= nextStateId.get()) {
+			throw new IndexOutOfBoundsException("The builder does not contain a state with id " + initialStateId);
+		}
+		else if (targetStateId < 0 || targetStateId >= nextStateId.get()) {
+			throw new IndexOutOfBoundsException("The builder does not contain a state with id " + targetStateId);
+		}
+		else if (symbol == null) {
+			throw new NullPointerException("Symbol may not be null");
+		}
+		int column = alphabet.indexOf(symbol);
+		if (column < 0) {
+			throw new IllegalArgumentException(
+					"Symbol was not defined in the alphabet");
+		}
+		checkNotFrozen();
+
+		// Entries hold the target id + 1, so 0 marks a missing transition
+		AtomicIntegerArray transitions = page(initialStateId).transitions;
+		int index = (initialStateId & pageMask) * symbolCount + column;
+		if (!transitions.compareAndSet(index, 0, targetStateId + 1)
+				&& transitions.get(index) != targetStateId + 1) {
+			throw new IllegalArgumentException(
+					"Transition was already defined within the automaton");
+		}
+	}
+
+	/**
+	 * @return The number of state ids handed out so far
+	 */
+	public int getStateCount() {
+		return nextStateId.get();
+	}
+
+	/**
+	 * Creates the automaton from all states and transitions added so far.
+	 * All threads adding to the builder must have finished. State ids which
+	 * were handed out for rejected duplicate identifiers are skipped, so the
+	 * ids of the result may be lower than those returned by the builder.
+	 *
+	 * @return The compiled automaton
+	 * @throws IllegalArgumentException
+	 *             if a transition refers to a state which was not added
+	 * @throws IllegalStateException
+	 *             if the builder has already been frozen
+	 */
+	public CompiledDfa<T> freeze() {
+		synchronized (pageLock) {
+			if (frozen) {
+				throw new IllegalStateException("The builder has already been frozen");
+			}
+			frozen = true;
+		}
+
+		int idCount = nextStateId.get();
+		int[] compactIds = new int[idCount];
+		int stateCount = 0;
+		for (int stateId = 0; stateId < idCount; stateId++) {
+			compactIds[stateId] = (flags(stateId) & EXISTS) != 0 ? stateCount++ : CompiledDfa.DEAD_STATE;
+		}
+		if ((long) stateCount * symbolCount > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("The transition table exceeds 2^31 entries");
+		}
+
+		StateIdentifiers identifiers = new StateIdentifiers();
+		for (Map.Entry<String, Integer> entry : stateIds.entrySet()) {
+			if (compactIds[entry.getValue()] != CompiledDfa.DEAD_STATE) {
+				identifiers.set(compactIds[entry.getValue()], entry.getKey());
+			}
+		}
+
+		boolean[] accepting = new boolean[stateCount];
+		int[] transitions = new int[stateCount * symbolCount];
+		Arrays.fill(transitions, CompiledDfa.DEAD_STATE);
+		for (int stateId = 0; stateId < idCount; stateId++) {
+			int compactId = compactIds[stateId];
+			if (compactId == CompiledDfa.DEAD_STATE) {
+				continue;
+			}
+			Page page = pages[stateId >>> pageShift];
+			accepting[compactId] = (flags(stateId) & ACCEPTING) != 0;
+			int offset = (stateId & pageMask) * symbolCount;
+			for (int column = 0; column < symbolCount; column++) {
+				int target = page.transitions.get(offset + column) - 1;
+				if (target != CompiledDfa.DEAD_STATE) {
+					if (compactIds[target] == CompiledDfa.DEAD_STATE) {
+						throw new IllegalArgumentException("A transition leads to the state id " + target
+								+ ", which was not added");
+					}
+					transitions[compactId * symbolCount + column] = compactIds[target];
+				}
+			}
+		}
+
+		Object[] symbols = new Object[symbolCount];
+		for (int column = 0; column < symbolCount; column++) {
+			symbols[column] = alphabet.getSymbol(column);
+		}
+		pages = null;
+		return new CompiledDfa<>(accepting, identifiers, null, symbols, transitions);
+	}
+
+	private void markExisting(int stateId, boolean isAccepting) {
+		page(stateId).flags[stateId & pageMask] = isAccepting ? EXISTS | ACCEPTING : EXISTS;
+	}
+
+	private byte flags(int stateId) {
+		int pageIndex = stateId >>> pageShift;
+		if (pageIndex >= pages.length || pages[pageIndex] == null) {
+			return 0;
+		}
+		return pages[pageIndex].flags[stateId & pageMask];
+	}
+
+	/*
+	 * Returns the page of a state, allocating it if necessary. Pages are
+	 * only allocated and the directory only grown while holding the lock, so
+	 * no page is lost when the directory is replaced.
+	 */
+	private Page page(int stateId) {
+		int pageIndex = stateId >>> pageShift;
+		Page[] directory = pages;
+		if (directory != null && pageIndex < directory.length && directory[pageIndex] != null) {
+			return directory[pageIndex];
+		}
+		synchronized (pageLock) {
+			checkNotFrozen();
+			directory = pages;
+			if (pageIndex >= directory.length) {
+				directory = Arrays.copyOf(directory, Math.max(pageIndex + 1, directory.length * 2));
+			}
+			if (directory[pageIndex] == null) {
+				directory[pageIndex] = new Page(pageMask + 1, symbolCount);
+			}
+			pages = directory;
+			return directory[pageIndex];
+		}
+	}
+
+	private void checkNotFrozen() {
+		if (frozen) {
+			throw new IllegalStateException("The builder has already been frozen");
+		}
+	}
+
+	/**
+	 * The flags and transitions of a block of consecutive states
+	 */
+	private static final class Page {
+		private final byte[] flags;
+		private final AtomicIntegerArray transitions;
+
+		private Page(int stateCount, int symbolCount) {
+			this.flags = new byte[stateCount];
+			this.transitions = new AtomicIntegerArray(stateCount * symbolCount);
+		}
+	}
+}
@@ -0,0 +1,163 @@
+package automata;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import automata.interfaces.IFastLookup;
+import automata.interfaces.ITransitionFunction;
+
+/**
+ * The transition function of a copied {@link DeterministicFiniteAutomaton}.
+ * It reads the transitions of the original from an immutable
+ * {@link CompiledDfa} snapshot, which is shared by all copies made of the
+ * same version of the original, and keeps transitions added later in a
+ * separate transition function of its own. Copying an automaton therefore
+ * does not copy its transitions; only the changes made to a copy take up
+ * memory.
+ *
+ * The copy does not share State objects with the original: it reads the
+ * snapshot through a view created by {@link CompiledDfa#withOwnStates()},
+ * which shares the transition table, acceptance and identifiers of the
+ * snapshot. The State of a snapshot state is created by the view the first
+ * time it is requested, so creating the transition function takes constant
+ * time.
+ *
+ * @author 2d6
+ */
+class CopyOnWriteTransitionFunction<T> implements ITransitionFunction<T>, IFastLookup {
+
+	private final CompiledDfa<T> snapshot;
+	private ITransitionFunction<T> addedTransitions;
+
+	/**
+	 * Creates a new transition function based on a snapshot
+	 *
+	 * @param snapshot
+	 *            The compiled original automaton
+	 */
+	CopyOnWriteTransitionFunction(CompiledDfa<T> snapshot) {
+		this.snapshot = snapshot.withOwnStates();
+	}
+
+	/**
+	 * @return The number of states of the snapshot
+	 */
+	int getSnapshotStateCount() {
+		return snapshot.getStateCount();
+	}
+
+	/**
+	 * Returns the State of a snapshot state, creating it on the first request
+	 *
+	 * @param stateId
+	 *            The id of the state in the snapshot
+	 * @return The state, or null for {@link CompiledDfa#DEAD_STATE}
+	 */
+	State getSnapshotState(int stateId) {
+		return snapshot.getState(stateId);
+	}
+
+	/**
+	 * Returns the State of the snapshot state with the given identifier
+	 *
+	 * @param identifier
+	 *            The identifier of the state
+	 * @return The state, or null if the snapshot does not contain such a
+	 *         state
+	 */
+	State getSnapshotState(String identifier) {
+		return getSnapshotState(snapshot.getStateId(identifier));
+	}
+
+	/**
+	 * Determines whether transitions have been added since the snapshot was
+	 * taken
+	 *
+	 * @return True if the transitions differ from those of the snapshot
+	 */
+	boolean isModified() {
+		return addedTransitions != null;
+	}
+
+	/**
+	 * Returns the snapshot with the States of this transition function. No
+	 * State objects are created and nothing is copied.
+	 *
+	 * @return The compiled automaton
+	 */
+	CompiledDfa<T> compileSnapshot() {
+		return snapshot;
+	}
+
+	@Override
+	public void addTransition(State initialState, State targetState, T symbol) {
+		int stateId = snapshot.getStateId(initialState);
+		int column = snapshot.getColumn(symbol);
+		if (stateId != CompiledDfa.DEAD_STATE && column >= 0
+				&& snapshot.step(stateId, column) != CompiledDfa.DEAD_STATE) {
+			throw new IllegalArgumentException(
+					"Transition was already defined within the transition function");
+		}
+		if (addedTransitions == null) {
+			addedTransitions = new IndexedTransitionFunction<>(snapshot.getSymbols());
+		}
+		addedTransitions.addTransition(initialState, targetState, symbol);
+	}
+
+	@Override
+	public State getNextState(State currentState, T symbol) {
+		int column = snapshot.getColumn(symbol);
+		if (addedTransitions != null) {
+			State nextState = addedTransitions.getNextState(currentState, symbol);
+			if (nextState != null) {
+				return nextState;
+			}
+		}
+		else if (column < 0) {
+			throw new IllegalArgumentException(
+					"Symbol was not defined in the alphabet");
+		}
+
+		int stateId = snapshot.getStateId(currentState);
+		if (stateId == CompiledDfa.DEAD_STATE || column < 0) {
+			return null;
+		}
+		return getSnapshotState(snapshot.step(stateId, column));
+	}
+
+	@Override
+	public void setSymbols(Set<T> symbols) {
+		if (!getSymbols().isEmpty()) {
+			throw new IllegalArgumentException("An alphabet has already been defined");
+		}
+		else if (symbols == null) {
+			throw new IllegalArgumentException("The list of symbols must not be null");
+		}
+		addedTransitions = new IndexedTransitionFunction<>(symbols);
+	}
+
+	@Override
+	public Set<T> getSymbols() {
+		if (addedTransitions != null) {
+			return addedTransitions.getSymbols();
+		}
+		return snapshot.getSymbols();
+	}
+
+	@Override
+	public Set<T> getValidSymbols(State currentState) {
+		Set<T> validSymbols = new HashSet<>();
+		int stateId = snapshot.getStateId(currentState);
+		if (stateId != CompiledDfa.DEAD_STATE) {
+			for (int column = 0; column < snapshot.getSymbolCount(); column++) {
+				if (snapshot.step(stateId, column) != CompiledDfa.DEAD_STATE) {
+					validSymbols.add(snapshot.getSymbol(column));
+				}
+			}
+		}
+		if (addedTransitions != null) {
+			validSymbols.addAll(addedTransitions.getValidSymbols(currentState));
+		}
+		return validSymbols;
+	}
+}
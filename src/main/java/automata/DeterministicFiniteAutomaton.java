@@ -1,26 +1,59 @@
 package automata;
 
-import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import automata.interfaces.IDeterministicFiniteAutomaton;
+import automata.interfaces.IFastLookup;
 import automata.interfaces.ITransitionFunction;
 
 /**
  * Implements a deterministic finite automaton. For further information, see
  * https://en.wikipedia.org/wiki/Deterministic_finite_automaton
  *
+ * A DeterministicFiniteAutomaton is not thread-safe. To evaluate it from
+ * several threads, use the immutable snapshot returned by {@link #compile()},
+ * which may be shared freely.
+ *
+ * The compiled snapshot is cached and only discarded by
+ * {@link #addState(String, boolean)} and
+ * {@link #addTransition(String, String, Object)}. If the transition function
+ * is modified directly, {@link #invalidate()} must be called before the
+ * automaton is evaluated again.
+ *
  * @author 2d6
  */
 public class DeterministicFiniteAutomaton<T> implements IDeterministicFiniteAutomaton<T> {
 
+	/*
+	 * In a copy, states only contains the states added after copying; the
+	 * other states belong to the snapshot
+	 */
 	protected HashMap<String, State> states;
 	protected State startingState;
 	protected ITransitionFunction<T> transitionFunction;
 
+	/*
+	 * Automata whose transition table would have more entries are not
+	 * compiled for evaluating a single input, see compilesImplicitly()
+	 */
+	static final long MAX_COMPACT_TRANSITIONS = 1 << 24;
+
+	private CompiledDfa<T> compiled;
+	private CopyOnWriteTransitionFunction<T> snapshot;
+
+	/*
+	 * The results of missing transitions, shared by all evaluations ending on
+	 * a symbol; evaluations may run concurrently
+	 */
+	private final ConcurrentMap<T, State> missingTransitionStates = new ConcurrentHashMap<>();
+
 	/**
 	 * Creates a new automaton with a starting state.
 	 *
@@ -29,6 +62,10 @@ public class DeterministicFiniteAutomaton<T> implements IDeterministicFiniteAuto
 	 * @param isAccepting
 	 *            Acceptance status of the starting state. True if the starting
 	 *            state is accepting.
+	 * @param transitionFunction
+	 *            The transition function, which is used by the automaton
+	 *            without copying it; see {@link #invalidate()} on modifying it
+	 *            directly
 	 */
 	public DeterministicFiniteAutomaton(String identifier, boolean isAccepting,
 			ITransitionFunction<T> transitionFunction) {
@@ -43,41 +80,20 @@ public class DeterministicFiniteAutomaton<T> implements IDeterministicFiniteAuto
 	}
 
 	/**
-	 * Copy-constructor; creates a new CharDfa<T> with semantics identical to the
-	 * supplied originalDfa
+	 * Copy-constructor; creates a new automaton with semantics identical to
+	 * the supplied originalDfa. The copy reads the transitions of the
+	 * original from its compiled snapshot and only stores the states and
+	 * transitions added to it later, see {@link CopyOnWriteTransitionFunction}.
 	 * 
 	 * @param originalDfa
-	 *            CharDfa<T> to be used as a blueprint for the new CharDfa<T>
+	 *            Automaton to be used as a blueprint for the new automaton
 	 */
 	private DeterministicFiniteAutomaton(DeterministicFiniteAutomaton<T> originalDfa) {
-		// Copy the states
+		CompiledDfa<T> original = originalDfa.compile();
 		this.states = new HashMap<>();
-		Collection<State> originalStates = originalDfa.states.values();
-		for (State originalState : originalStates) {
-			this.addState(originalState.getIdentifier(),
-					originalState.isAccepting());
-		}
-		this.startingState = this.getState(originalDfa.getStartingState()
-				.getIdentifier());
-
-		// Copy the transition function, using references to the original
-		// symbols
-		this.transitionFunction = new TransitionFunction<>();
-		Set<T> symbols = originalDfa.transitionFunction.getSymbols();
-		this.transitionFunction.setSymbols(symbols);
-
-		// Create transitions for all State/symbol combinations which had
-		// transitions in the original DFA
-		for (State originalState : originalStates) {
-			for (T symbol : symbols) {
-				State targetState = originalDfa.transitionFunction
-						.getNextState(originalState, symbol);
-				if (targetState != null) {
-					this.addTransition(originalState.getIdentifier(),
-							targetState.getIdentifier(), symbol);
-				}
-			}
-		}
+		this.snapshot = new CopyOnWriteTransitionFunction<>(original);
+		this.transitionFunction = snapshot;
+		this.startingState = snapshot.getSnapshotState(original.getStartingStateId());
 	}
 
 	@Override
@@ -87,16 +103,21 @@ public class DeterministicFiniteAutomaton<T> implements IDeterministicFiniteAuto
 
 	@Override
 	public State getState(String identifier) {
-		return states.get(identifier);
+		State state = states.get(identifier);
+		if (state == null && snapshot != null) {
+			state = snapshot.getSnapshotState(identifier);
+		}
+		return state;
 	}
 
 	@Override
 	public void addState(String identifier, boolean isAccepting) {
-		if (states.containsKey(identifier)) {
+		if (getState(identifier) != null) {
 			throw new IllegalArgumentException(
 					"The automaton already contained a state with the given identifier");
 		}
 		states.put(identifier, new State(identifier, isAccepting));
+		compiled = null;
 	}
 
 	@Override
@@ -105,6 +126,7 @@ public class DeterministicFiniteAutomaton<T> implements IDeterministicFiniteAuto
 		State initialState = getState(initialStateIdentifier);
 		State targetState = getState(targetStateIdentifier);
 		transitionFunction.addTransition(initialState, targetState, symbol);
+		compiled = null;
 	}
 
 	@Override
@@ -114,13 +136,61 @@ public class DeterministicFiniteAutomaton<T> implements IDeterministicFiniteAuto
 		for (T symbol : input) {
 			nextState = evaluate(currentState, symbol);
 			if (nextState == null) {
-				return new State(symbol.toString(), false);
+				return missingTransition(symbol);
 			}
 			currentState = nextState;
 		}
 		return currentState;
 	}
 
+	private State missingTransition(T symbol) {
+		State state = missingTransitionStates.get(symbol);
+		if (state == null) {
+			State newState = new State(symbol.toString(), false);
+			state = missingTransitionStates.putIfAbsent(symbol, newState);
+			if (state == null) {
+				state = newState;
+			}
+		}
+		return state;
+	}
+
+	/**
+	 * Determines whether the automaton accepts an input. If the automaton
+	 * compiles itself implicitly, see {@link #compilesImplicitly()}, the input
+	 * is evaluated on the {@link CompiledDfa} of the automaton, which stops as
+	 * soon as the result is decided, see {@link CompiledDfa#accepts(Iterable)};
+	 * otherwise it is evaluated like {@link #evaluate(Iterable)}.
+	 *
+	 * @param input
+	 *            list of symbols to be evaluated
+	 * @return True if the input is accepted
+	 */
+	public boolean accepts(Iterable<T> input) {
+		if (!compilesImplicitly()) {
+			return evaluate(input).isAccepting();
+		}
+		return compile().accepts(input);
+	}
+
+	/**
+	 * Evaluates the input on the {@link CompiledDfa} of the automaton and
+	 * reports each step to a listener, which receives the ids of the states
+	 * and the columns of the symbols in the compiled automaton.
+	 *
+	 * @param input
+	 *            list of symbols to be evaluated
+	 * @param listener
+	 *            The listener receiving the steps
+	 * @return The state the automaton was in after evaluating the last symbol
+	 *         of the input, or a new non-accepting State object with the output
+	 *         of the symbol.toString() method as its identifier.
+	 * @see CompiledDfa#evaluate(Iterable, EvaluationListener)
+	 */
+	public State evaluate(Iterable<T> input, EvaluationListener listener) {
+		return compile().evaluate(input, listener);
+	}
+
 	/**
 	 * Evaluates a single symbol according to the logic of the automaton given
 	 * by its states and transition function. Returns the new state the automaton
@@ -138,89 +208,228 @@ public class DeterministicFiniteAutomaton<T> implements IDeterministicFiniteAuto
 	}
 
 	/**
-	 * Creates a new CharDfa<T> semantically identical to the current one
+	 * Creates a new automaton semantically identical to the current one. The
+	 * copy shares the transitions of this automaton through its compiled
+	 * snapshot; changes to either automaton do not affect the other one.
+	 * Copying compiles this automaton if it has been modified since it was
+	 * last compiled, which takes O(n * k + t) time for n states, k symbols
+	 * and t transitions; otherwise copying takes constant time. The copy has its own State
+	 * objects, which are created when they are first requested.
 	 * 
-	 * @return The new CharDfa<T>
+	 * @return The new automaton
 	 */
 	@Override
 	public DeterministicFiniteAutomaton<T> copy() {
 		return new DeterministicFiniteAutomaton<>(this);
 	}
 
+	/**
+	 * Freezes the current states and transitions into a {@link CompiledDfa}.
+	 * Later changes to this automaton do not affect the compiled one. The
+	 * result is cached until a state or transition is added through
+	 * {@link #addState(String, boolean)} or
+	 * {@link #addTransition(String, String, Object)}, or until
+	 * {@link #invalidate()} is called.
+	 * 
+	 * @return The compiled automaton
+	 */
+	public CompiledDfa<T> compile() {
+		if (compiled == null) {
+			compiled = compileStates();
+		}
+		return compiled;
+	}
+
+	/**
+	 * Discards the cached {@link CompiledDfa}, so that the automaton is
+	 * compiled again when it is next needed. This is only necessary after the
+	 * transition function has been modified other than through
+	 * {@link #addState(String, boolean)} and
+	 * {@link #addTransition(String, String, Object)}; until then, evaluations
+	 * on the compiled automaton do not see the modification.
+	 */
+	public void invalidate() {
+		compiled = null;
+	}
+
+	/**
+	 * Determines whether the automaton is compiled for evaluating a single
+	 * input. Compiling probes every state and symbol, which can cost far more
+	 * than the evaluation itself, so this is only done if the transition
+	 * function finds transitions without scanning, see {@link IFastLookup},
+	 * and the transition table has at most {@link #MAX_COMPACT_TRANSITIONS}
+	 * entries.
+	 *
+	 * @return True if the automaton has already been compiled, or if it may
+	 *         be compiled for evaluating a single input
+	 */
+	boolean compilesImplicitly() {
+		if (compiled != null) {
+			return true;
+		}
+		else if (!(transitionFunction instanceof IFastLookup)) {
+			return false;
+		}
+		long stateCount = states.size() + (snapshot == null ? 0 : snapshot.getSnapshotStateCount());
+		return stateCount * transitionFunction.getSymbols().size() <= MAX_COMPACT_TRANSITIONS;
+	}
+
+	private CompiledDfa<T> compileStates() {
+		int snapshotStateCount = snapshot == null ? 0 : snapshot.getSnapshotStateCount();
+		if (snapshot != null && states.isEmpty() && !snapshot.isModified()) {
+			return snapshot.compileSnapshot();
+		}
+
+		State[] compiledStates = new State[snapshotStateCount + states.size()];
+		Map<State, Integer> stateIds = new IdentityHashMap<>();
+		compiledStates[0] = startingState;
+		stateIds.put(startingState, 0);
+		int nextId = 1;
+		for (int snapshotId = 0; snapshotId < snapshotStateCount; snapshotId++) {
+			State state = snapshot.getSnapshotState(snapshotId);
+			if (state != startingState) {
+				compiledStates[nextId] = state;
+				stateIds.put(state, nextId++);
+			}
+		}
+		for (State state : states.values()) {
+			if (state != startingState) {
+				compiledStates[nextId] = state;
+				stateIds.put(state, nextId++);
+			}
+		}
+
+		Object[] symbols = transitionFunction.getSymbols().toArray();
+		int[] transitions = new int[compiledStates.length * symbols.length];
+		if (transitionFunction instanceof TransitionFunction) {
+			// Probing would scan the list of transitions for every entry
+			compileTransitions((TransitionFunction<T>) transitionFunction, stateIds, symbols, transitions);
+			return new CompiledDfa<>(compiledStates, symbols, transitions);
+		}
+		for (int stateId = 0; stateId < compiledStates.length; stateId++) {
+			for (int column = 0; column < symbols.length; column++) {
+				@SuppressWarnings("unchecked")
+				State targetState = transitionFunction.getNextState(
+						compiledStates[stateId], (T) symbols[column]);
+				Integer targetId = stateIds.get(targetState);
+				transitions[stateId * symbols.length + column] = 
+						targetId == null ? CompiledDfa.DEAD_STATE : targetId;
+			}
+		}
+		return new CompiledDfa<>(compiledStates, symbols, transitions);
+	}
+
+	/*
+	 * Fills the transition table from the list of a TransitionFunction, which
+	 * compares symbols by identity
+	 */
+	private static <T> void compileTransitions(TransitionFunction<T> transitionFunction,
+			Map<State, Integer> stateIds, Object[] symbols, int[] transitions) {
+		Map<Object, Integer> columns = new HashMap<>();
+		for (int column = 0; column < symbols.length; column++) {
+			columns.put(symbols[column], column);
+		}
+		Arrays.fill(transitions, CompiledDfa.DEAD_STATE);
+		for (Transition<T> transition : transitionFunction.getTransitions()) {
+			Integer stateId = stateIds.get(transition.getInitialState());
+			Integer column = columns.get(transition.getSymbol());
+			Integer targetId = stateIds.get(transition.getTargetState());
+			if (stateId != null && column != null && targetId != null
+					&& symbols[column] == transition.getSymbol()) {
+				transitions[stateId * symbols.length + column] = targetId;
+			}
+		}
+	}
+
+	/**
+	 * Minimizes the automaton using Hopcroft's algorithm. The states of the
+	 * result keep the identifiers of one of the states they replace; the
+	 * starting state keeps its identifier.
+	 * 
+	 * @return The minimal automaton
+	 */
+	@Override
+	public DeterministicFiniteAutomaton<T> minimize() {
+		return new HopcroftMinimizer<>(compile()).minimize();
+	}
+
 	@Override
 	public boolean isStructurallyEqualTo(IDeterministicFiniteAutomaton<T> otherCharDfa) {
-		return new DfaStructureComparator().structurallyEqual(this, otherCharDfa);
+		return new DfaStructureComparator<T>().structurallyEqual(this, otherCharDfa);
 	}
-	
+
 	@Override
-	public State getNextState(State currentState, T symbol) {
-		return this.transitionFunction.getNextState(currentState, symbol);
+	public boolean isEquivalentTo(IDeterministicFiniteAutomaton<T> otherDfa) {
+		return findDistinguishingInput(otherDfa) == null;
 	}
 
 	@Override
-	public Set<T> getValidSymbols(State currentState) {
-		return this.transitionFunction.getValidSymbols(currentState);
+	public List<T> findDistinguishingInput(IDeterministicFiniteAutomaton<T> otherDfa) {
+		return new DfaEquivalenceChecker<>(this, otherDfa).findDistinguishingInput();
 	}
 	
-	protected class DfaStructureComparator {
-		private IDeterministicFiniteAutomaton<T> dfaA;
-		private List<State> visitedStatesA;
-		
-		private IDeterministicFiniteAutomaton<T> dfaB;
-		private List<State> visitedStatesB;
-		
-		protected boolean structurallyEqual(
-				IDeterministicFiniteAutomaton<T> dfaA, 
-				IDeterministicFiniteAutomaton<T> dfaB) {
-			
-			this.dfaA = dfaA;
-			this.visitedStatesA = new ArrayList<>();
-
-			this.dfaB = dfaB;
-			this.visitedStatesB = new ArrayList<>();
-			
-			return this.stateSubGraphIsEqual(dfaA.getStartingState(), dfaB.getStartingState());
-		}
-		
-		private boolean stateSubGraphIsEqual(State currentStateA, State currentStateB) {
+	@Override
+	public ProductDfa<T> intersect(IDeterministicFiniteAutomaton<T> otherDfa) {
+		return new ProductDfa<>(this, otherDfa, ProductDfa.Operation.INTERSECTION);
+	}
 
-			if (currentStateA.isAccepting() != currentStateB.isAccepting()) {
-				return false;
-			} 
-			else if (visitedStatesA.contains(currentStateA) || visitedStatesB.contains(currentStateB)) {
-				return visitedStatesA.indexOf(currentStateA) == visitedStatesB.indexOf(currentStateB);
-			}
+	@Override
+	public ProductDfa<T> union(IDeterministicFiniteAutomaton<T> otherDfa) {
+		return new ProductDfa<>(this, otherDfa, ProductDfa.Operation.UNION);
+	}
 
-			/* 
-			 * If the states have already been visited, check whether the are
-			 * equal by their position in the visit history
-			 */
+	@Override
+	public ProductDfa<T> difference(IDeterministicFiniteAutomaton<T> otherDfa) {
+		return new ProductDfa<>(this, otherDfa, ProductDfa.Operation.DIFFERENCE);
+	}
 
-			visitedStatesA.add(currentStateA);
-			visitedStatesB.add(currentStateB);
+	@Override
+	public ProductDfa<T> symmetricDifference(IDeterministicFiniteAutomaton<T> otherDfa) {
+		return new ProductDfa<>(this, otherDfa, ProductDfa.Operation.SYMMETRIC_DIFFERENCE);
+	}
 
-			Set<T> validSymbolsA = dfaA.getValidSymbols(currentStateA);
-			Set<T> validSymbolsB = dfaB.getValidSymbols(currentStateB);
+	@Override
+	public DfaRunner<T> newRunner() {
+		return compile().newRunner();
+	}
 
-			if (validSymbolsA.equals(validSymbolsB)) {
+	/**
+	 * Creates a searcher which finds all parts of an input accepted by this
+	 * automaton. The searcher is based on the current states and transitions;
+	 * creating it requires a determinization, so it should be reused.
+	 *
+	 * @return A new searcher
+	 */
+	public DfaSearcher<T> newSearcher() {
+		return new DfaSearcher<>(compile());
+	}
 
-				/*
-				 * Recursively check all subgraphs of the current State; simply returns true if the 
-				 * State has no valid Symbols (i.e. transitions) 
-				 */
+	/**
+	 * Creates a searcher which finds all parts of an input accepted by this
+	 * automaton, optionally only those starting at the beginning of the
+	 * input. The searcher is based on the current states and transitions.
+	 *
+	 * @param anchored
+	 *            True if matches must start at the beginning of the input
+	 * @return A new searcher
+	 */
+	public DfaSearcher<T> newSearcher(boolean anchored) {
+		return new DfaSearcher<>(compile(), anchored);
+	}
 
-				for (T symbol : validSymbolsA) {
-					State nextStateA = dfaA.getNextState(currentStateA, symbol);
-					State nextStateB = dfaB.getNextState(currentStateB, symbol);
-					if (!stateSubGraphIsEqual(nextStateA, nextStateB)) {
-						return false;  
-					}
-				}
-				return true;
-			}
-			return false;
-		}
-		
+	@Override
+	public State getNextState(State currentState, T symbol) {
+		return this.transitionFunction.getNextState(currentState, symbol);
 	}
-	
+
+	@Override
+	public Set<T> getValidSymbols(State currentState) {
+		return this.transitionFunction.getValidSymbols(currentState);
+	}
+
+	@Override
+	public Set<T> getSymbols() {
+		return this.transitionFunction.getSymbols();
+	}
+
 }
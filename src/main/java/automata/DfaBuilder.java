@@ -0,0 +1,331 @@
+package automata;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Builds a {@link CompiledDfa} from states and transitions added in bulk.
+ * States are numbered 0..n-1 in the order they are added; the first state is
+ * the starting state. Transitions are only collected in flat int arrays when
+ * they are added and are validated all at once by {@link #build()}, which
+ * writes them into the transition table in a single pass. Loading millions
+ * of transitions therefore costs no more than a few array writes per
+ * transition.
+ *
+ * Transitions which are added twice with the same target are merged;
+ * transitions with the same state and symbol but different targets are
+ * rejected. A DfaBuilder is not thread-safe.
+ *
+ * The built automaton holds the acceptance and identifiers of the states in
+ * arrays and creates their State objects only when they are requested.
+ *
+ * @author 2d6
+ */
+public class DfaBuilder<T> {
+
+	private static final int INITIAL_CAPACITY = 16;
+
+	private final Object[] symbols;
+	private final Map<T, Integer> symbolColumns;
+
+	private final StateIdentifiers identifiers = new StateIdentifiers();
+	private boolean[] accepting = new boolean[INITIAL_CAPACITY];
+	private int stateCount;
+
+	private int[] initialStates = new int[INITIAL_CAPACITY];
+	private int[] columns = new int[INITIAL_CAPACITY];
+	private int[] targetStates = new int[INITIAL_CAPACITY];
+	private int transitionCount;
+
+	/**
+	 * Creates a new builder for automata with the given symbols.
+	 *
+	 * @param symbols
+	 *            The valid symbols of the automaton
+	 */
+	public DfaBuilder(Set<T> symbols) {
+		if (symbols == null) {
+			throw new IllegalArgumentException("The list of symbols must not be null");
+		}
+		this.symbols = symbols.toArray();
+		this.symbolColumns = new HashMap<>();
+		for (int column = 0; column < this.symbols.length; column++) {
+			symbolColumns.put(symbol(column), column);
+		}
+	}
+
+	/**
+	 * Adds a state. The first state added is the starting state.
+	 *
+	 * @param identifier
+	 *            The identifier of the new state
+	 * @param isAccepting
+	 *            Acceptance status of the state. True if the state is
+	 *            accepting.
+	 * @return The id of the new state
+	 * @throws IllegalArgumentException
+	 *             if a state with the identifier has already been added, or
+	 *             the identifier has the form "#" followed by digits, which is
+	 *             reserved for states without an identifier
+	 */
+	public int addState(String identifier, boolean isAccepting) {
+		if (identifier == null) {
+			throw new NullPointerException("Identifier may not be null");
+		}
+		StateIdentifiers.checkExplicit(identifier);
+		if (getStateId(identifier) != CompiledDfa.DEAD_STATE) {
+			throw new IllegalArgumentException(
+					"The automaton already contained a state with the given identifier");
+		}
+		int stateId = newState(isAccepting);
+		identifiers.set(stateId, identifier);
+		return stateId;
+	}
+
+	/**
+	 * Adds a state without an identifier; it is identified by "#" followed by
+	 * its id in the built automaton.
+	 *
+	 * @param isAccepting
+	 *            Acceptance status of the state. True if the state is
+	 *            accepting.
+	 * @return The id of the new state
+	 */
+	public int addState(boolean isAccepting) {
+		return newState(isAccepting);
+	}
+
+	/**
+	 * Adds one unnamed state per element of the array, see
+	 * {@link #addState(boolean)}.
+	 *
+	 * @param isAccepting
+	 *            Acceptance status of the new states
+	 * @return The id of the first new state; the others follow consecutively
+	 */
+	public int addStates(boolean[] isAccepting) {
+		int firstStateId = stateCount;
+		ensureStateCapacity(stateCount + isAccepting.length);
+		System.arraycopy(isAccepting, 0, accepting, stateCount, isAccepting.length);
+		stateCount += isAccepting.length;
+		return firstStateId;
+	}
+
+	/**
+	 * Returns the id of the state with the given identifier
+	 *
+	 * @param identifier
+	 *            The identifier of the state
+	 * @return The id of the state, or {@link CompiledDfa#DEAD_STATE} if no
+	 *         state with the identifier was added
+	 */
+	public int getStateId(String identifier) {
+		return identifiers.getStateId(identifier, stateCount);
+	}
+
+	/**
+	 * Returns the column of a symbol, which may be passed to
+	 * {@link #addTransitions(int[], int[], int[])}
+	 *
+	 * @param symbol
+	 *            The symbol
+	 * @return The column of the symbol
+	 * @throws IllegalArgumentException
+	 *             if the symbol is not part of the alphabet
+	 */
+	public int getColumn(T symbol) {
+		if (symbol == null) {
+			throw new NullPointerException("Symbol may not be null");
+		}
+		Integer column = symbolColumns.get(symbol);
+		if (column == null) {
+			throw new IllegalArgumentException(
+					"Symbol was not defined in the alphabet");
+		}
+		return column;
+	}
+
+	/**
+	 * Adds a transition between two states. The state ids are validated by
+	 * {@link #build()}.
+	 *
+	 * @param initialStateId
+	 *            The id of the state the transition starts in
+	 * @param symbol
+	 *            The symbol of the transition
+	 * @param targetStateId
+	 *            The id of the state the transition leads to
+	 */
+	public void addTransition(int initialStateId, T symbol, int targetStateId) {
+		ensureTransitionCapacity(transitionCount + 1);
+		initialStates[transitionCount] = initialStateId;
+		columns[transitionCount] = getColumn(symbol);
+		targetStates[transitionCount] = targetStateId;
+		transitionCount++;
+	}
+
+	/**
+	 * Adds a transition between two states with identifiers.
+	 *
+	 * @param initialStateIdentifier
+	 *            The identifier of the state the transition starts in
+	 * @param symbol
+	 *            The symbol of the transition
+	 * @param targetStateIdentifier
+	 *            The identifier of the state the transition leads to
+	 */
+	public void addTransition(String initialStateIdentifier, T symbol, String targetStateIdentifier) {
+		int initialStateId = getStateId(initialStateIdentifier);
+		int targetStateId = getStateId(targetStateIdentifier);
+		if (initialStateId == CompiledDfa.DEAD_STATE) {
+			throw new NullPointerException("Initial state may not be null");
+		}
+		else if (targetStateId == CompiledDfa.DEAD_STATE) {
+			throw new NullPointerException("Target state may not be null");
+		}
+		addTransition(initialStateId, symbol, targetStateId);
+	}
+
+	/**
+	 * Adds the transitions (initialStateIds[i], symbols[i], targetStateIds[i])
+	 * for all i.
+	 *
+	 * @param initialStateIds
+	 *            The ids of the states the transitions start in
+	 * @param symbols
+	 *            The symbols of the transitions
+	 * @param targetStateIds
+	 *            The ids of the states the transitions lead to
+	 */
+	public void addTransitions(int[] initialStateIds, T[] symbols, int[] targetStateIds) {
+		checkLengths(initialStateIds.length, symbols.length, targetStateIds.length);
+		ensureTransitionCapacity(transitionCount + symbols.length);
+		for (int i = 0; i < symbols.length; i++) {
+			columns[transitionCount + i] = getColumn(symbols[i]);
+		}
+		appendStates(initialStateIds, targetStateIds);
+	}
+
+	/**
+	 * Adds the transitions (initialStateIds[i], columns[i], targetStateIds[i])
+	 * for all i, the symbols being given by their columns, see
+	 * {@link #getColumn(Object)}. The arrays are copied without looking up
+	 * any symbol.
+	 *
+	 * @param initialStateIds
+	 *            The ids of the states the transitions start in
+	 * @param columns
+	 *            The columns of the symbols of the transitions
+	 * @param targetStateIds
+	 *            The ids of the states the transitions lead to
+	 */
+	public void addTransitions(int[] initialStateIds, int[] columns, int[] targetStateIds) {
+		checkLengths(initialStateIds.length, columns.length, targetStateIds.length);
+		ensureTransitionCapacity(transitionCount + columns.length);
+		System.arraycopy(columns, 0, this.columns, transitionCount, columns.length);
+		appendStates(initialStateIds, targetStateIds);
+	}
+
+	/**
+	 * @return The number of states added so far
+	 */
+	public int getStateCount() {
+		return stateCount;
+	}
+
+	/**
+	 * @return The number of transitions added so far, including duplicates
+	 */
+	public int getTransitionCount() {
+		return transitionCount;
+	}
+
+	/**
+	 * Validates all transitions and freezes the states and transitions into
+	 * a {@link CompiledDfa}. The builder may be used further afterwards.
+	 *
+	 * @return The compiled automaton
+	 * @throws IndexOutOfBoundsException
+	 *             if a transition refers to a state which was not added
+	 * @throws IllegalArgumentException
+	 *             if two transitions with the same state and symbol lead to
+	 *             different states, or a column is invalid
+	 */
+	public CompiledDfa<T> build() {
+		if (stateCount == 0) {
+			throw new IllegalArgumentException("A compiled automaton needs a starting state");
+		}
+		else if ((long) stateCount * symbols.length > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("The transition table exceeds 2^31 entries");
+		}
+
+		int[] transitions = new int[stateCount * symbols.length];
+		Arrays.fill(transitions, CompiledDfa.DEAD_STATE);
+		for (int i = 0; i < transitionCount; i++) {
+			int initialStateId = initialStates[i];
+			int column = columns[i];
+			int targetStateId = targetStates[i];
+			if (initialStateId < 0 || initialStateId >= stateCount) {
+				throw new IndexOutOfBoundsException("The builder does not contain a state with id " + initialStateId);
+			}
+			else if (targetStateId < 0 || targetStateId >= stateCount) {
+				throw new IndexOutOfBoundsException("The builder does not contain a state with id " + targetStateId);
+			}
+			else if (column < 0 || column >= symbols.length) {
+				throw new IllegalArgumentException(
+						"Symbol was not defined in the alphabet");
+			}
+			int index = initialStateId * symbols.length + column;
+			if (transitions[index] == CompiledDfa.DEAD_STATE) {
+				transitions[index] = targetStateId;
+			}
+			else if (transitions[index] != targetStateId) {
+				throw new IllegalArgumentException(
+						"Transition was already defined within the automaton");
+			}
+		}
+
+		return new CompiledDfa<>(Arrays.copyOf(accepting, stateCount), identifiers.copy(), null,
+				symbols.clone(), transitions);
+	}
+
+	private int newState(boolean isAccepting) {
+		ensureStateCapacity(stateCount + 1);
+		accepting[stateCount] = isAccepting;
+		return stateCount++;
+	}
+
+	private void appendStates(int[] initialStateIds, int[] targetStateIds) {
+		System.arraycopy(initialStateIds, 0, initialStates, transitionCount, initialStateIds.length);
+		System.arraycopy(targetStateIds, 0, targetStates, transitionCount, targetStateIds.length);
+		transitionCount += initialStateIds.length;
+	}
+
+	private void ensureStateCapacity(int capacity) {
+		if (capacity > accepting.length) {
+			accepting = Arrays.copyOf(accepting, Math.max(capacity, accepting.length * 2));
+		}
+	}
+
+	private void ensureTransitionCapacity(int capacity) {
+		if (capacity > columns.length) {
+			int length = Math.max(capacity, columns.length * 2);
+			initialStates = Arrays.copyOf(initialStates, length);
+			columns = Arrays.copyOf(columns, length);
+			targetStates = Arrays.copyOf(targetStates, length);
+		}
+	}
+
+	private static void checkLengths(int initialStates, int symbols, int targetStates) {
+		if (initialStates != symbols || symbols != targetStates) {
+			throw new IllegalArgumentException("The arrays of a transition must have the same length");
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private T symbol(int column) {
+		return (T) symbols[column];
+	}
+}
@@ -0,0 +1,183 @@
+package automata;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import automata.interfaces.IDeterministicFiniteAutomaton;
+
+/**
+ * Determines whether two automata accept the same language using the
+ * union-find algorithm of Hopcroft and Karp, which runs in near-linear time
+ * in the number of states.
+ *
+ * Pairs of states are explored breadth-first from the pair of starting
+ * states. A pair is only explored if its states are not yet known to be
+ * equivalent; otherwise their classes are merged. The first explored pair
+ * whose states differ in acceptance yields a shortest input on which the
+ * automata differ. Missing transitions lead to a shared dead state which
+ * accepts nothing, so states from which no accepting state can be reached are
+ * equivalent to missing transitions.
+ *
+ * @author 2d6
+ */
+class DfaEquivalenceChecker<T> {
+
+	private static final int DEAD_STATE = 0;
+	private static final int NO_PAIR = -1;
+
+	private final IDeterministicFiniteAutomaton<T> dfaA;
+	private final IDeterministicFiniteAutomaton<T> dfaB;
+
+	private final Map<State, Integer> idsA = new IdentityHashMap<>();
+	private final Map<State, Integer> idsB = new IdentityHashMap<>();
+	private int[] parents = new int[16];
+	private int[] classSizes = new int[16];
+	private int stateCount;
+
+	/*
+	 * Explored pairs; pairs are only appended, and each pair remembers the
+	 * pair and symbol it was reached by
+	 */
+	private final List<State> pairStatesA = new ArrayList<>();
+	private final List<State> pairStatesB = new ArrayList<>();
+	private final List<T> pairSymbols = new ArrayList<>();
+	private int[] pairPredecessors = new int[16];
+
+	DfaEquivalenceChecker(IDeterministicFiniteAutomaton<T> dfaA,
+			IDeterministicFiniteAutomaton<T> dfaB) {
+		this.dfaA = dfaA;
+		this.dfaB = dfaB;
+		newClass();
+	}
+
+	/**
+	 * Searches for a shortest input on which the automata differ
+	 *
+	 * @return The input, or null if the automata accept the same language
+	 */
+	List<T> findDistinguishingInput() {
+		State startingStateA = dfaA.getStartingState();
+		State startingStateB = dfaB.getStartingState();
+		union(id(startingStateA, idsA), id(startingStateB, idsB));
+		if (isAccepting(startingStateA) != isAccepting(startingStateB)) {
+			return new ArrayList<>();
+		}
+		addPair(startingStateA, startingStateB, null, NO_PAIR);
+
+		for (int pair = 0; pair < pairStatesA.size(); pair++) {
+			State currentStateA = pairStatesA.get(pair);
+			State currentStateB = pairStatesB.get(pair);
+			Set<T> validSymbolsA = validSymbols(dfaA, currentStateA);
+			Set<T> validSymbolsB = validSymbols(dfaB, currentStateB);
+			Set<T> symbols = new LinkedHashSet<>(validSymbolsA);
+			symbols.addAll(validSymbolsB);
+
+			for (T symbol : symbols) {
+				State nextStateA = validSymbolsA.contains(symbol)
+						? dfaA.getNextState(currentStateA, symbol) : null;
+				State nextStateB = validSymbolsB.contains(symbol)
+						? dfaB.getNextState(currentStateB, symbol) : null;
+				if (union(id(nextStateA, idsA), id(nextStateB, idsB))) {
+					addPair(nextStateA, nextStateB, symbol, pair);
+					if (isAccepting(nextStateA) != isAccepting(nextStateB)) {
+						return inputLeadingTo(pairStatesA.size() - 1);
+					}
+				}
+			}
+		}
+		return null;
+	}
+
+	private List<T> inputLeadingTo(int pair) {
+		List<T> input = new ArrayList<>();
+		while (pairPredecessors[pair] != NO_PAIR) {
+			input.add(pairSymbols.get(pair));
+			pair = pairPredecessors[pair];
+		}
+		Collections.reverse(input);
+		return input;
+	}
+
+	private void addPair(State stateA, State stateB, T symbol, int predecessor) {
+		int pair = pairStatesA.size();
+		if (pair == pairPredecessors.length) {
+			pairPredecessors = grow(pairPredecessors);
+		}
+		pairStatesA.add(stateA);
+		pairStatesB.add(stateB);
+		pairSymbols.add(symbol);
+		pairPredecessors[pair] = predecessor;
+	}
+
+	private int id(State state, Map<State, Integer> ids) {
+		if (state == null) {
+			return DEAD_STATE;
+		}
+		Integer id = ids.get(state);
+		if (id == null) {
+			id = newClass();
+			ids.put(state, id);
+		}
+		return id;
+	}
+
+	private int newClass() {
+		if (stateCount == parents.length) {
+			parents = grow(parents);
+			classSizes = grow(classSizes);
+		}
+		parents[stateCount] = stateCount;
+		classSizes[stateCount] = 1;
+		return stateCount++;
+	}
+
+	private int find(int id) {
+		while (parents[id] != id) {
+			parents[id] = parents[parents[id]];
+			id = parents[id];
+		}
+		return id;
+	}
+
+	/*
+	 * Merges the classes of both states; returns false if they already were
+	 * in the same class
+	 */
+	private boolean union(int idA, int idB) {
+		int rootA = find(idA);
+		int rootB = find(idB);
+		if (rootA == rootB) {
+			return false;
+		}
+		if (classSizes[rootA] < classSizes[rootB]) {
+			int swap = rootA;
+			rootA = rootB;
+			rootB = swap;
+		}
+		parents[rootB] = rootA;
+		classSizes[rootA] += classSizes[rootB];
+		return true;
+	}
+
+	private static boolean isAccepting(State state) {
+		return state != null && state.isAccepting();
+	}
+
+	private static <T> Set<T> validSymbols(IDeterministicFiniteAutomaton<T> dfa, State state) {
+		if (state == null) {
+			return Collections.emptySet();
+		}
+		return dfa.getValidSymbols(state);
+	}
+
+	private static int[] grow(int[] array) {
+		int[] grown = new int[array.length * 2];
+		System.arraycopy(array, 0, grown, 0, array.length);
+		return grown;
+	}
+}
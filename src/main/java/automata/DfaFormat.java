@@ -0,0 +1,238 @@
+package automata;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A versioned binary file format for {@link CompiledDfa}s. Files are loaded
+ * by mapping them into memory, see {@link #map(Path)}; the resulting
+ * {@link MappedDfa} evaluates inputs directly on the mapped transition table,
+ * so loading takes constant time regardless of the size of the automaton,
+ * and processes mapping the same file share its pages.
+ *
+ * All numbers are stored big-endian. A file consists of:
+ * <ul>
+ * <li>a header of 64 bytes: the magic number "ADFA", the format version, the
+ * number of states, the number of symbols, the id of the starting state, four
+ * reserved bytes, the offsets of the four following sections and the length
+ * of the file</li>
+ * <li>the acceptance bitmap: one bit per state in longs, state i being bit
+ * i % 64 of long i / 64</li>
+ * <li>the symbol table: its length in bytes followed by the symbols in column
+ * order, written by a {@link SymbolCodec}</li>
+ * <li>the state identifiers: the length of the identifier data, the offsets
+ * of the n identifiers followed by the end offset, and the identifiers in
+ * UTF-8</li>
+ * <li>the transition table, aligned to 8 bytes: n * k ints, the target of
+ * state s and column c being found at s * k + c, or
+ * {@link CompiledDfa#DEAD_STATE}</li>
+ * </ul>
+ *
+ * @author 2d6
+ */
+public class DfaFormat<T> {
+
+	/**
+	 * The magic number at the beginning of each file, "ADFA" in ASCII
+	 */
+	public static final int MAGIC = 0x41444641;
+
+	/**
+	 * The version of the format written by this class
+	 */
+	public static final int VERSION = 1;
+
+	static final int HEADER_SIZE = 64;
+
+	private final SymbolCodec<T> codec;
+
+	/**
+	 * Creates a new format.
+	 *
+	 * @param codec
+	 *            The codec for the symbols of the automata
+	 */
+	public DfaFormat(SymbolCodec<T> codec) {
+		if (codec == null) {
+			throw new NullPointerException("Codec may not be null");
+		}
+		this.codec = codec;
+	}
+
+	/**
+	 * Writes an automaton to a file, replacing its previous content.
+	 *
+	 * @param dfa
+	 *            The automaton
+	 * @param file
+	 *            The file
+	 * @throws IOException
+	 *             if the file cannot be written
+	 */
+	public void write(CompiledDfa<T> dfa, Path file) throws IOException {
+		int stateCount = dfa.getStateCount();
+		int symbolCount = dfa.getSymbolCount();
+
+		ByteArrayOutputStream symbolBytes = new ByteArrayOutputStream();
+		DataOutputStream symbolOutput = new DataOutputStream(symbolBytes);
+		for (int column = 0; column < symbolCount; column++) {
+			codec.write(dfa.getSymbol(column), symbolOutput);
+		}
+		symbolOutput.flush();
+
+		byte[][] identifiers = new byte[stateCount][];
+		long identifierLength = 0;
+		for (int stateId = 0; stateId < stateCount; stateId++) {
+			identifiers[stateId] = dfa.getIdentifier(stateId).getBytes(StandardCharsets.UTF_8);
+			identifierLength += identifiers[stateId].length;
+		}
+		if (identifierLength > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("The state identifiers exceed 2 GB");
+		}
+
+		long acceptanceOffset = HEADER_SIZE;
+		long symbolsOffset = acceptanceOffset + (long) acceptanceWords(stateCount) * Long.SIZE / Byte.SIZE;
+		long identifiersOffset = symbolsOffset + 4 + symbolBytes.size();
+		long transitionsOffset = align(identifiersOffset + 4 + (stateCount + 1L) * 4 + identifierLength);
+		long fileLength = transitionsOffset + (long) stateCount * symbolCount * 4;
+
+		try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(
+				Files.newOutputStream(file), 1 << 16))) {
+			output.writeInt(MAGIC);
+			output.writeInt(VERSION);
+			output.writeInt(stateCount);
+			output.writeInt(symbolCount);
+			output.writeInt(dfa.getStartingStateId());
+			output.writeInt(0);
+			output.writeLong(acceptanceOffset);
+			output.writeLong(symbolsOffset);
+			output.writeLong(identifiersOffset);
+			output.writeLong(transitionsOffset);
+			output.writeLong(fileLength);
+
+			long[] acceptance = new long[acceptanceWords(stateCount)];
+			for (int stateId = 0; stateId < stateCount; stateId++) {
+				if (dfa.isAccepting(stateId)) {
+					acceptance[stateId / Long.SIZE] |= 1L << stateId;
+				}
+			}
+			for (long word : acceptance) {
+				output.writeLong(word);
+			}
+
+			output.writeInt(symbolBytes.size());
+			symbolBytes.writeTo(output);
+
+			output.writeInt((int) identifierLength);
+			int identifierOffset = 0;
+			for (byte[] identifier : identifiers) {
+				output.writeInt(identifierOffset);
+				identifierOffset += identifier.length;
+			}
+			output.writeInt(identifierOffset);
+			for (byte[] identifier : identifiers) {
+				output.write(identifier);
+			}
+			for (long padding = identifiersOffset + 4 + (stateCount + 1L) * 4 + identifierLength;
+					padding < transitionsOffset; padding++) {
+				output.writeByte(0);
+			}
+
+			for (int stateId = 0; stateId < stateCount; stateId++) {
+				for (int column = 0; column < symbolCount; column++) {
+					output.writeInt(dfa.step(stateId, column));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Maps a file written by {@link #write(CompiledDfa, Path)} into memory.
+	 * Only the header and the symbol table are read; all other sections are
+	 * used in place. The file must not be modified while it is mapped.
+	 *
+	 * @param file
+	 *            The file
+	 * @return An automaton evaluating inputs on the mapped file
+	 * @throws IOException
+	 *             if the file cannot be read, is not an automaton file or has
+	 *             an unsupported version
+	 */
+	public MappedDfa<T> map(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			ByteBuffer header = map(channel, 0, HEADER_SIZE);
+			if (header.getInt(0) != MAGIC) {
+				throw new IOException("Not an automaton file: " + file);
+			}
+			else if (header.getInt(4) != VERSION) {
+				throw new IOException("Unsupported automaton file version " + header.getInt(4));
+			}
+			int stateCount = header.getInt(8);
+			int symbolCount = header.getInt(12);
+			int startingState = header.getInt(16);
+			long acceptanceOffset = header.getLong(24);
+			long symbolsOffset = header.getLong(32);
+			long identifiersOffset = header.getLong(40);
+			long transitionsOffset = header.getLong(48);
+			long fileLength = header.getLong(56);
+			if (stateCount < 1 || symbolCount < 0 || startingState < 0 || startingState >= stateCount
+					|| fileLength != channel.size()
+					|| transitionsOffset + (long) stateCount * symbolCount * 4 != fileLength) {
+				throw new IOException("Corrupt automaton file: " + file);
+			}
+
+			LongBuffer acceptance = map(channel, acceptanceOffset,
+					(long) acceptanceWords(stateCount) * Long.SIZE / Byte.SIZE).asLongBuffer();
+
+			ByteBuffer symbolSection = map(channel, symbolsOffset, 4);
+			byte[] symbolBytes = new byte[symbolSection.getInt(0)];
+			map(channel, symbolsOffset + 4, symbolBytes.length).get(symbolBytes);
+			DataInputStream symbolInput = new DataInputStream(new ByteArrayInputStream(symbolBytes));
+			Object[] symbols = new Object[symbolCount];
+			for (int column = 0; column < symbolCount; column++) {
+				symbols[column] = codec.read(symbolInput);
+			}
+
+			int identifierLength = map(channel, identifiersOffset, 4).getInt(0);
+			IntBuffer identifierOffsets = map(channel, identifiersOffset + 4, (stateCount + 1L) * 4).asIntBuffer();
+			ByteBuffer identifiers = map(channel, identifiersOffset + 4 + (stateCount + 1L) * 4, identifierLength);
+
+			long transitionCount = (long) stateCount * symbolCount;
+			IntBuffer[] transitions = new IntBuffer[(int) ((transitionCount + MappedDfa.SEGMENT_SIZE - 1)
+					/ MappedDfa.SEGMENT_SIZE)];
+			for (int segment = 0; segment < transitions.length; segment++) {
+				long segmentStart = (long) segment * MappedDfa.SEGMENT_SIZE;
+				long segmentLength = Math.min(MappedDfa.SEGMENT_SIZE, transitionCount - segmentStart);
+				transitions[segment] = map(channel, transitionsOffset + segmentStart * 4, segmentLength * 4)
+						.asIntBuffer();
+			}
+
+			return new MappedDfa<>(stateCount, startingState, acceptance, symbols,
+					identifierOffsets, identifiers, transitions);
+		}
+	}
+
+	private static ByteBuffer map(FileChannel channel, long offset, long length) throws IOException {
+		return channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+	}
+
+	private static int acceptanceWords(int stateCount) {
+		return (stateCount + Long.SIZE - 1) / Long.SIZE;
+	}
+
+	private static long align(long offset) {
+		return (offset + 7) & ~7L;
+	}
+}
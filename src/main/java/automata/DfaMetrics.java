@@ -0,0 +1,198 @@
+package automata;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Collects statistics of evaluations on a {@link CompiledDfa}: how often each
+ * state is visited, how often each transition is taken, and histograms of the
+ * input lengths and evaluation latencies. Transitions are only counted on
+ * request, as their counters take one long per state, symbol and stripe.
+ *
+ * The counters are split into a fixed number of stripes, at least one per
+ * processor, and every thread counts into the stripe selected by its id, so
+ * concurrent evaluations rarely contend and the memory does not grow with
+ * the number of threads. The getters sum the counters of all stripes; while
+ * evaluations are running they may miss the most recent counts. Histogram
+ * bucket i
+ * counts the values v with 2^(i-1) &lt;= v &lt; 2^i; bucket 0 counts zeros.
+ * Latencies are measured in nanoseconds from {@link #onStart(int)} to
+ * {@link #onEnd(int, int)}.
+ *
+ * @author 2d6
+ */
+public class DfaMetrics implements EvaluationListener {
+
+	/**
+	 * The number of histogram buckets
+	 */
+	public static final int BUCKET_COUNT = Long.SIZE + 1;
+
+	/*
+	 * A power of two, so a stripe is selected by masking
+	 */
+	private static final int STRIPE_COUNT = Integer.highestOneBit(
+			Runtime.getRuntime().availableProcessors() * 2 - 1);
+
+	private final int stateCount;
+	private final int symbolCount;
+	private final boolean countTransitions;
+
+	private final Counters[] stripes = new Counters[STRIPE_COUNT];
+	private final ThreadLocal<long[]> startTimes = new ThreadLocal<long[]>() {
+		@Override
+		protected long[] initialValue() {
+			return new long[1];
+		}
+	};
+
+	/**
+	 * Creates metrics for an automaton which count state visits and
+	 * histograms, but not transitions.
+	 *
+	 * @param dfa
+	 *            The automaton being evaluated
+	 */
+	public DfaMetrics(CompiledDfa<?> dfa) {
+		this(dfa, false);
+	}
+
+	/**
+	 * Creates metrics for an automaton.
+	 *
+	 * @param dfa
+	 *            The automaton being evaluated
+	 * @param countTransitions
+	 *            True if each transition should be counted; this takes one
+	 *            long per state and symbol and stripe
+	 * @throws IllegalArgumentException
+	 *             if transitions are counted and the automaton has more than
+	 *             2^31 transitions
+	 */
+	public DfaMetrics(CompiledDfa<?> dfa, boolean countTransitions) {
+		this.stateCount = dfa.getStateCount();
+		this.symbolCount = dfa.getSymbolCount();
+		this.countTransitions = countTransitions;
+		if (countTransitions && (long) stateCount * symbolCount > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("The transition table exceeds 2^31 entries");
+		}
+		for (int stripe = 0; stripe < stripes.length; stripe++) {
+			stripes[stripe] = new Counters();
+		}
+	}
+
+	@Override
+	public void onStart(int stateId) {
+		stripe().stateVisits.incrementAndGet(stateId);
+		startTimes.get()[0] = System.nanoTime();
+	}
+
+	@Override
+	public void onTransition(int stateId, int column, int nextStateId) {
+		Counters stripe = stripe();
+		if (nextStateId != CompiledDfa.DEAD_STATE) {
+			stripe.stateVisits.incrementAndGet(nextStateId);
+		}
+		if (countTransitions) {
+			stripe.transitions.incrementAndGet(stateId * symbolCount + column);
+		}
+	}
+
+	@Override
+	public void onEnd(int stateId, int length) {
+		Counters stripe = stripe();
+		stripe.lengths.incrementAndGet(bucket(length));
+		stripe.latencies.incrementAndGet(bucket(System.nanoTime() - startTimes.get()[0]));
+	}
+
+	/**
+	 * @param stateId
+	 *            The id of a state
+	 * @return The number of times the state was entered, including as
+	 *         starting state
+	 */
+	public long getStateVisits(int stateId) {
+		long visits = 0;
+		for (Counters stripe : stripes) {
+			visits += stripe.stateVisits.get(stateId);
+		}
+		return visits;
+	}
+
+	/**
+	 * @param stateId
+	 *            The id of the state the transition starts in
+	 * @param column
+	 *            The column of the symbol of the transition
+	 * @return The number of times the transition was taken, or 0 if
+	 *         transitions are not counted
+	 */
+	public long getTransitionCount(int stateId, int column) {
+		if (!countTransitions) {
+			return 0;
+		}
+		long count = 0;
+		for (Counters stripe : stripes) {
+			count += stripe.transitions.get(stateId * symbolCount + column);
+		}
+		return count;
+	}
+
+	/**
+	 * @return The histogram of the lengths of the evaluated inputs
+	 */
+	public long[] getInputLengthHistogram() {
+		long[] histogram = new long[BUCKET_COUNT];
+		for (Counters stripe : stripes) {
+			add(histogram, stripe.lengths);
+		}
+		return histogram;
+	}
+
+	/**
+	 * @return The histogram of the evaluation latencies in nanoseconds
+	 */
+	public long[] getLatencyHistogram() {
+		long[] histogram = new long[BUCKET_COUNT];
+		for (Counters stripe : stripes) {
+			add(histogram, stripe.latencies);
+		}
+		return histogram;
+	}
+
+	/**
+	 * Returns the bucket of the histograms counting a value
+	 *
+	 * @param value
+	 *            A non-negative value
+	 * @return The bucket
+	 */
+	public static int bucket(long value) {
+		return value <= 0 ? 0 : Long.SIZE - Long.numberOfLeadingZeros(value);
+	}
+
+	private static void add(long[] histogram, AtomicLongArray counts) {
+		for (int i = 0; i < histogram.length; i++) {
+			histogram[i] += counts.get(i);
+		}
+	}
+
+	/*
+	 * Selects the stripe of the current thread; the id is mixed, so threads
+	 * with consecutive ids spread over the stripes
+	 */
+	private Counters stripe() {
+		long id = Thread.currentThread().getId() * 0x9E3779B97F4A7C15L;
+		return stripes[(int) (id >>> 32) & (stripes.length - 1)];
+	}
+
+	/**
+	 * The counters of one stripe
+	 */
+	private final class Counters {
+		private final AtomicLongArray stateVisits = new AtomicLongArray(stateCount);
+		private final AtomicLongArray transitions = new AtomicLongArray(countTransitions ? stateCount
+				* symbolCount : 0);
+		private final AtomicLongArray lengths = new AtomicLongArray(BUCKET_COUNT);
+		private final AtomicLongArray latencies = new AtomicLongArray(BUCKET_COUNT);
+	}
+}
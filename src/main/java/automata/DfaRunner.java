@@ -0,0 +1,128 @@
+package automata;
+
+/**
+ * A cursor which evaluates symbols as they arrive. In contrast to
+ * {@link automata.interfaces.IDeterministicFiniteAutomaton#evaluate(Iterable)},
+ * the input may be fed in any number of chunks and may be unbounded.
+ *
+ * A runner only holds the id of its current state and a reference to the
+ * immutable {@link CompiledDfa} it runs on, so millions of runners can be
+ * live at the same time. A single runner must not be used by several threads
+ * at once; different runners of the same automaton may.
+ *
+ * Once a symbol without a transition has been fed, the runner stays in the
+ * dead state and ignores further symbols until it is reset.
+ *
+ * @author 2d6
+ */
+public class DfaRunner<T> {
+
+	private final CompiledDfa<T> dfa;
+	private int currentState;
+
+	/**
+	 * Creates a new runner in the starting state of the automaton.
+	 *
+	 * @param dfa
+	 *            The automaton to run on
+	 */
+	public DfaRunner(CompiledDfa<T> dfa) {
+		if (dfa == null) {
+			throw new NullPointerException("Automaton may not be null");
+		}
+		this.dfa = dfa;
+		this.currentState = dfa.getStartingStateId();
+	}
+
+	/**
+	 * Evaluates a single symbol.
+	 *
+	 * @param symbol
+	 *            The symbol
+	 */
+	public void feed(T symbol) {
+		if (currentState != CompiledDfa.DEAD_STATE) {
+			currentState = dfa.step(currentState, symbol);
+		}
+	}
+
+	/**
+	 * Evaluates a range of an array of symbols.
+	 *
+	 * @param symbols
+	 *            Array containing the symbols
+	 * @param offset
+	 *            Index of the first symbol to be evaluated
+	 * @param length
+	 *            Number of symbols to be evaluated
+	 */
+	public void feed(T[] symbols, int offset, int length) {
+		checkRange(symbols.length, offset, length);
+		int state = currentState;
+		for (int i = offset; i < offset + length && state != CompiledDfa.DEAD_STATE; i++) {
+			state = dfa.step(state, symbols[i]);
+		}
+		currentState = state;
+	}
+
+	/**
+	 * Evaluates a range of a char array without boxing the chars. The
+	 * automaton's symbols must be {@link Character}s.
+	 *
+	 * @param symbols
+	 *            Array containing the symbols
+	 * @param offset
+	 *            Index of the first symbol to be evaluated
+	 * @param length
+	 *            Number of symbols to be evaluated
+	 */
+	public void feed(char[] symbols, int offset, int length) {
+		checkRange(symbols.length, offset, length);
+		int state = currentState;
+		for (int i = offset; i < offset + length && state != CompiledDfa.DEAD_STATE; i++) {
+			int column = dfa.getColumn(symbols[i]);
+			if (column < 0) {
+				throw new IllegalArgumentException(
+						"Symbol was not defined in the alphabet");
+			}
+			state = dfa.step(state, column);
+		}
+		currentState = state;
+	}
+
+	/**
+	 * @return The current state, or null if a symbol without a transition
+	 *         has been fed
+	 */
+	public State currentState() {
+		return dfa.getState(currentState);
+	}
+
+	/**
+	 * @return The id of the current state in the {@link CompiledDfa}, or
+	 *         {@link CompiledDfa#DEAD_STATE}
+	 */
+	public int currentStateId() {
+		return currentState;
+	}
+
+	/**
+	 * @return True if the current state is accepting
+	 */
+	public boolean isAccepting() {
+		return dfa.isAccepting(currentState);
+	}
+
+	/**
+	 * Returns the runner to the starting state.
+	 */
+	public void reset() {
+		currentState = dfa.getStartingStateId();
+	}
+
+	private static void checkRange(int arrayLength, int offset, int length) {
+		if (offset < 0 || length < 0 || offset > arrayLength - length) {
+			throw new IndexOutOfBoundsException("Invalid range of the input array");
+		}
+	}
+}
@@ -0,0 +1,374 @@
+package automata;
+
+import java.nio.LongBuffer;
+
+/**
+ * Finds all matches of an automaton within a stream of symbols, i.e. every
+ * offset at which some part of the input ending there is accepted by the
+ * automaton. This corresponds to evaluating the input with an implicit
+ * "any symbols" prefix.
+ *
+ * The searcher adds a self-loop for every symbol to the starting state of the
+ * automaton, which yields a nondeterministic automaton, and determinizes it
+ * with a {@link SubsetConstruction}. Searching then takes a single step of the
+ * resulting {@link CompiledDfa} per symbol. The offset after the last symbol
+ * of each match is reported either to a caller-supplied {@link LongBuffer} or
+ * to a {@link MatchListener}; nothing is allocated per symbol or match.
+ * Matches of the empty input are not reported.
+ *
+ * An anchored searcher only finds matches which start at the beginning of
+ * the stream, like an expression starting with "^". It evaluates the
+ * automaton itself, so no determinization is required; once the automaton has
+ * no transition for a symbol, the remaining symbols are only counted.
+ *
+ * A searcher is immutable and may be shared by several threads. The position
+ * within a stream is kept by a {@link Cursor}, which must only be used by one
+ * thread at a time.
+ *
+ * @author 2d6
+ */
+public class DfaSearcher<T> {
+
+	private final CompiledDfa<T> searchDfa;
+	private final boolean anchored;
+
+	/**
+	 * Creates a new searcher.
+	 *
+	 * @param dfa
+	 *            The automaton accepting the matches
+	 * @throws IllegalStateException
+	 *             if the search automaton would have more than
+	 *             {@link SubsetConstruction#DEFAULT_MAXIMUM_STATE_COUNT}
+	 *             states
+	 */
+	public DfaSearcher(CompiledDfa<T> dfa) {
+		this(dfa, SubsetConstruction.DEFAULT_MAXIMUM_STATE_COUNT);
+	}
+
+	/**
+	 * Creates a new searcher.
+	 *
+	 * @param dfa
+	 *            The automaton accepting the matches
+	 * @param maximumStateCount
+	 *            The maximum number of states of the search automaton
+	 * @throws IllegalStateException
+	 *             if the search automaton would have more than the maximum
+	 *             number of states
+	 */
+	public DfaSearcher(CompiledDfa<T> dfa, int maximumStateCount) {
+		this(dfa, false, maximumStateCount);
+	}
+
+	/**
+	 * Creates a new searcher.
+	 *
+	 * @param dfa
+	 *            The automaton accepting the matches
+	 * @param anchored
+	 *            True if matches must start at the beginning of the stream
+	 * @throws IllegalStateException
+	 *             if the search automaton of an unanchored searcher would have
+	 *             more than {@link SubsetConstruction#DEFAULT_MAXIMUM_STATE_COUNT}
+	 *             states
+	 */
+	public DfaSearcher(CompiledDfa<T> dfa, boolean anchored) {
+		this(dfa, anchored, SubsetConstruction.DEFAULT_MAXIMUM_STATE_COUNT);
+	}
+
+	/**
+	 * Creates a new searcher.
+	 *
+	 * @param dfa
+	 *            The automaton accepting the matches
+	 * @param anchored
+	 *            True if matches must start at the beginning of the stream
+	 * @param maximumStateCount
+	 *            The maximum number of states of the search automaton of an
+	 *            unanchored searcher; an anchored searcher searches with the
+	 *            automaton itself
+	 * @throws IllegalStateException
+	 *             if the search automaton of an unanchored searcher would have
+	 *             more than the maximum number of states
+	 */
+	public DfaSearcher(CompiledDfa<T> dfa, boolean anchored, int maximumStateCount) {
+		if (dfa == null) {
+			throw new NullPointerException("Automaton may not be null");
+		}
+		this.searchDfa = anchored ? dfa : new SubsetConstruction<T>(maximumStateCount)
+				.determinize(newUnanchoredNfa(dfa)).compile();
+		this.anchored = anchored;
+	}
+
+	/**
+	 * @return True if matches must start at the beginning of the stream
+	 */
+	public boolean isAnchored() {
+		return anchored;
+	}
+
+	/**
+	 * @return The deterministic automaton which is in an accepting state
+	 *         whenever a match ends; the automaton itself if the searcher is
+	 *         anchored
+	 */
+	public CompiledDfa<T> getSearchAutomaton() {
+		return searchDfa;
+	}
+
+	/**
+	 * @return A new cursor at the beginning of a stream
+	 */
+	public Cursor newCursor() {
+		return new Cursor();
+	}
+
+	/**
+	 * Receives the end offsets of matches
+	 */
+	public interface MatchListener {
+
+		/**
+		 * Called for each match.
+		 *
+		 * @param endOffset
+		 *            The offset after the last symbol of the match, counted
+		 *            from the beginning of the stream
+		 */
+		void onMatch(long endOffset);
+	}
+
+	/**
+	 * The position of a search within a stream. The input may be fed in any
+	 * number of chunks; matches spanning several chunks are found as well.
+	 */
+	public final class Cursor {
+		private int currentState;
+		private long position;
+
+		private Cursor() {
+			reset();
+		}
+
+		/**
+		 * Searches a range of an array until all symbols have been evaluated
+		 * or the buffer is full. Each match end offset is put into the
+		 * buffer.
+		 *
+		 * @param input
+		 *            Array containing the symbols
+		 * @param offset
+		 *            Index of the first symbol to be evaluated
+		 * @param length
+		 *            Number of symbols to be evaluated
+		 * @param matchEnds
+		 *            Receives the end offsets of the matches
+		 * @return The number of symbols evaluated; less than length if the
+		 *         buffer became full
+		 */
+		public int search(T[] input, int offset, int length, LongBuffer matchEnds) {
+			checkRange(input.length, offset, length);
+			int state = currentState;
+			int i = offset;
+			while (i < offset + length && matchEnds.hasRemaining()) {
+				state = step(state, column(input[i++]));
+				if (searchDfa.isAccepting(state)) {
+					matchEnds.put(position + i - offset);
+				}
+			}
+			return advance(state, i - offset);
+		}
+
+		/**
+		 * Searches a range of a char array without boxing the chars, until
+		 * all chars have been evaluated or the buffer is full. The
+		 * automaton's symbols must be {@link Character}s.
+		 *
+		 * @param input
+		 *            Array containing the chars
+		 * @param offset
+		 *            Index of the first char to be evaluated
+		 * @param length
+		 *            Number of chars to be evaluated
+		 * @param matchEnds
+		 *            Receives the end offsets of the matches
+		 * @return The number of chars evaluated; less than length if the
+		 *         buffer became full
+		 */
+		public int search(char[] input, int offset, int length, LongBuffer matchEnds) {
+			checkRange(input.length, offset, length);
+			int state = currentState;
+			int i = offset;
+			while (i < offset + length && matchEnds.hasRemaining()) {
+				state = step(state, column(input[i++]));
+				if (searchDfa.isAccepting(state)) {
+					matchEnds.put(position + i - offset);
+				}
+			}
+			return advance(state, i - offset);
+		}
+
+		/**
+		 * Searches a range of an array, reporting each match to a listener.
+		 *
+		 * @param input
+		 *            Array containing the symbols
+		 * @param offset
+		 *            Index of the first symbol to be evaluated
+		 * @param length
+		 *            Number of symbols to be evaluated
+		 * @param listener
+		 *            Receives the end offsets of the matches
+		 */
+		public void search(T[] input, int offset, int length, MatchListener listener) {
+			checkRange(input.length, offset, length);
+			int state = currentState;
+			for (int i = offset; i < offset + length; i++) {
+				state = step(state, column(input[i]));
+				if (searchDfa.isAccepting(state)) {
+					listener.onMatch(position + i + 1 - offset);
+				}
+			}
+			advance(state, length);
+		}
+
+		/**
+		 * Searches a range of a char array without boxing the chars,
+		 * reporting each match to a listener.
+		 *
+		 * @param input
+		 *            Array containing the chars
+		 * @param offset
+		 *            Index of the first char to be evaluated
+		 * @param length
+		 *            Number of chars to be evaluated
+		 * @param listener
+		 *            Receives the end offsets of the matches
+		 */
+		public void search(char[] input, int offset, int length, MatchListener listener) {
+			checkRange(input.length, offset, length);
+			int state = currentState;
+			for (int i = offset; i < offset + length; i++) {
+				state = step(state, column(input[i]));
+				if (searchDfa.isAccepting(state)) {
+					listener.onMatch(position + i + 1 - offset);
+				}
+			}
+			advance(state, length);
+		}
+
+		/**
+		 * Searches a sequence of symbols, reporting each match to a listener.
+		 *
+		 * @param input
+		 *            The symbols to be evaluated
+		 * @param listener
+		 *            Receives the end offsets of the matches
+		 */
+		public void search(Iterable<T> input, MatchListener listener) {
+			for (T symbol : input) {
+				currentState = step(currentState, column(symbol));
+				position++;
+				if (searchDfa.isAccepting(currentState)) {
+					listener.onMatch(position);
+				}
+			}
+		}
+
+		/**
+		 * @return The number of symbols evaluated since the cursor was
+		 *         created or reset
+		 */
+		public long position() {
+			return position;
+		}
+
+		/**
+		 * @return True if a match ends at the current position
+		 */
+		public boolean isMatch() {
+			return position > 0 && searchDfa.isAccepting(currentState);
+		}
+
+		/**
+		 * Returns the cursor to the beginning of a new stream.
+		 */
+		public void reset() {
+			currentState = searchDfa.getStartingStateId();
+			position = 0;
+		}
+
+		private int advance(int state, int evaluated) {
+			currentState = state;
+			position += evaluated;
+			return evaluated;
+		}
+	}
+
+	/*
+	 * Only the automaton of an anchored searcher can reach the dead state;
+	 * the starting set of an unanchored one is part of every set
+	 */
+	private int step(int state, int column) {
+		return state == CompiledDfa.DEAD_STATE ? state : searchDfa.step(state, column);
+	}
+
+	private int column(T symbol) {
+		int column = searchDfa.getColumn(symbol);
+		if (column < 0) {
+			throw new IllegalArgumentException(
+					"Symbol was not defined in the alphabet");
+		}
+		return column;
+	}
+
+	private int column(char symbol) {
+		int column = searchDfa.getColumn(symbol);
+		if (column < 0) {
+			throw new IllegalArgumentException(
+					"Symbol was not defined in the alphabet");
+		}
+		return column;
+	}
+
+	private static void checkRange(int arrayLength, int offset, int length) {
+		if (offset < 0 || length < 0 || offset > arrayLength - length) {
+			throw new IndexOutOfBoundsException("Invalid range of the input array");
+		}
+	}
+
+	/*
+	 * Copies the automaton into an NFA whose starting state may additionally
+	 * stay in place on every symbol. Paths which leave the starting state for
+	 * the last time are paths of the original automaton, so the NFA accepts
+	 * exactly the inputs which end with a match.
+	 */
+	private static <T> NondeterministicFiniteAutomaton<T> newUnanchoredNfa(CompiledDfa<T> dfa) {
+		int startingState = dfa.getStartingStateId();
+		NondeterministicFiniteAutomaton<T> nfa = new NondeterministicFiniteAutomaton<>(
+				dfa.getIdentifier(startingState), dfa.isAccepting(startingState),
+				dfa.getSymbols());
+		for (int stateId = 0; stateId < dfa.getStateCount(); stateId++) {
+			if (stateId != startingState) {
+				nfa.addState(dfa.getIdentifier(stateId), dfa.isAccepting(stateId));
+			}
+		}
+		for (int stateId = 0; stateId < dfa.getStateCount(); stateId++) {
+			for (int column = 0; column < dfa.getSymbolCount(); column++) {
+				int target = dfa.step(stateId, column);
+				if (target != CompiledDfa.DEAD_STATE) {
+					nfa.addTransition(dfa.getIdentifier(stateId),
+							dfa.getIdentifier(target), dfa.getSymbol(column));
+				}
+			}
+		}
+		String startingIdentifier = dfa.getIdentifier(startingState);
+		for (int column = 0; column < dfa.getSymbolCount(); column++) {
+			if (dfa.step(startingState, column) != startingState) {
+				nfa.addTransition(startingIdentifier, startingIdentifier, dfa.getSymbol(column));
+			}
+		}
+		return nfa;
+	}
+}
@@ -0,0 +1,223 @@
+package automata;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * A live stream of symbol batches evaluated by a {@link DfaStreamProcessor}.
+ * The producer offers batches and finally completes the stream; the
+ * {@link StateSubscriber} requests state changes and may cancel the stream.
+ *
+ * A stream only holds the id of its current state, its queued batches and a
+ * few counters; the counters are updated by field updaters, so no atomic
+ * objects are allocated per stream. The batches of a stream are evaluated by
+ * one task of the executor at a time, in the order in which they were
+ * offered. A stream should be fed by one thread at a time.
+ *
+ * @author 2d6
+ */
+public class DfaStream<T> {
+
+	/*
+	 * Field updaters can only be created for the raw class
+	 */
+	@SuppressWarnings("rawtypes")
+	private static final AtomicIntegerFieldUpdater<DfaStream> WORK_IN_PROGRESS = AtomicIntegerFieldUpdater
+			.newUpdater(DfaStream.class, "workInProgress");
+	@SuppressWarnings("rawtypes")
+	private static final AtomicIntegerFieldUpdater<DfaStream> QUEUED = AtomicIntegerFieldUpdater
+			.newUpdater(DfaStream.class, "queued");
+	@SuppressWarnings("rawtypes")
+	private static final AtomicLongFieldUpdater<DfaStream> DEMAND = AtomicLongFieldUpdater
+			.newUpdater(DfaStream.class, "demand");
+
+	private final DfaRunner<T> runner;
+	private final StateSubscriber subscriber;
+	private final Executor executor;
+	private final int bufferSize;
+	private final Queue<T[]> batches = new ConcurrentLinkedQueue<>();
+	private final Runnable drainTask = new Runnable() {
+		@Override
+		public void run() {
+			int missed = 1;
+			do {
+				drain();
+				missed = WORK_IN_PROGRESS.addAndGet(DfaStream.this, -missed);
+			}
+			while (missed != 0);
+		}
+	};
+
+	private volatile int stateId;
+	private volatile int workInProgress;
+	private volatile int queued;
+	private volatile long demand;
+	private volatile boolean completed;
+	private volatile boolean cancelled;
+
+	/*
+	 * Only accessed by the draining task, or by schedule() if the executor
+	 * rejected it
+	 */
+	private boolean terminated;
+
+	DfaStream(DfaRunner<T> runner, StateSubscriber subscriber, Executor executor, int bufferSize) {
+		this.runner = runner;
+		this.subscriber = subscriber;
+		this.executor = executor;
+		this.bufferSize = bufferSize;
+		this.stateId = runner.currentStateId();
+	}
+
+	/**
+	 * Queues a batch of symbols for evaluation. The array must not be
+	 * modified afterwards.
+	 *
+	 * @param symbols
+	 *            The symbols
+	 * @return True if the batch was queued, false if the queue of the stream
+	 *         is full or the stream was cancelled
+	 * @throws IllegalStateException
+	 *             if the stream has already been completed
+	 */
+	public boolean offer(T[] symbols) {
+		if (symbols == null) {
+			throw new NullPointerException("Symbols may not be null");
+		}
+		else if (completed) {
+			throw new IllegalStateException("The stream has already been completed");
+		}
+		if (cancelled) {
+			return false;
+		}
+		if (QUEUED.incrementAndGet(this) > bufferSize) {
+			QUEUED.decrementAndGet(this);
+			return false;
+		}
+		batches.add(symbols);
+		schedule();
+		return true;
+	}
+
+	/**
+	 * Marks the end of the stream. The subscriber is completed after all
+	 * queued batches have been evaluated.
+	 */
+	public void complete() {
+		completed = true;
+		schedule();
+	}
+
+	/**
+	 * Allows the stream to signal more state changes to its subscriber.
+	 *
+	 * @param count
+	 *            The number of additional state changes
+	 */
+	public void request(long count) {
+		if (count <= 0) {
+			throw new IllegalArgumentException("The number of requested state changes must be positive");
+		}
+		long current;
+		do {
+			current = demand;
+		}
+		while (!DEMAND.compareAndSet(this, current, current + count < 0 ? Long.MAX_VALUE : current + count));
+		schedule();
+	}
+
+	/**
+	 * Stops the evaluation and discards the queued batches. The subscriber
+	 * receives no further events.
+	 */
+	public void cancel() {
+		cancelled = true;
+		schedule();
+	}
+
+	/**
+	 * @return The id of the state after the batches evaluated so far, or
+	 *         {@link CompiledDfa#DEAD_STATE}
+	 */
+	public int getStateId() {
+		return stateId;
+	}
+
+	/**
+	 * @return The number of batches waiting for evaluation
+	 */
+	public int getQueuedBatches() {
+		return queued;
+	}
+
+	/*
+	 * Submits the drain task unless it is already running; a running task
+	 * drains again for every call it missed. If the executor rejects the
+	 * task, the stream fails while this call still owns the drain.
+	 */
+	private void schedule() {
+		if (WORK_IN_PROGRESS.getAndIncrement(this) == 0) {
+			try {
+				executor.execute(drainTask);
+			}
+			catch (RejectedExecutionException e) {
+				if (!terminated) {
+					discard();
+					subscriber.onError(e);
+				}
+				WORK_IN_PROGRESS.set(this, 0);
+			}
+		}
+	}
+
+	private void drain() {
+		if (terminated) {
+			return;
+		}
+		if (cancelled) {
+			discard();
+			return;
+		}
+		try {
+			while (demand > 0) {
+				T[] symbols = batches.poll();
+				if (symbols == null) {
+					break;
+				}
+				QUEUED.decrementAndGet(this);
+				int previousStateId = runner.currentStateId();
+				runner.feed(symbols, 0, symbols.length);
+				stateId = runner.currentStateId();
+				if (stateId != previousStateId) {
+					DEMAND.decrementAndGet(this);
+					subscriber.onStateChange(stateId, runner.isAccepting());
+				}
+				if (cancelled) {
+					discard();
+					return;
+				}
+			}
+			// The flag is read before the queue, so no batch offered before
+			// complete() can be missed
+			if (completed && batches.isEmpty()) {
+				terminated = true;
+				subscriber.onComplete(stateId);
+			}
+		}
+		catch (RuntimeException e) {
+			discard();
+			subscriber.onError(e);
+		}
+	}
+
+	private void discard() {
+		terminated = true;
+		cancelled = true;
+		batches.clear();
+		queued = 0;
+	}
+}
@@ -0,0 +1,73 @@
+package automata;
+
+import java.util.concurrent.Executor;
+
+import automata.interfaces.IDeterministicFiniteAutomaton;
+
+/**
+ * Evaluates many live streams of symbols on one automaton. Each stream is
+ * represented by a {@link DfaStream} which holds a {@link DfaRunner} and a
+ * bounded queue of symbol batches; no thread is bound to a stream. Whenever
+ * a stream has batches and demand, a task which drains it is submitted to
+ * the executor, so thousands of streams can share a small pool. On a JVM
+ * with virtual threads, an executor creating a virtual thread per task may
+ * be used as well.
+ *
+ * Backpressure works in both directions: {@link DfaStream#offer(Object[])}
+ * rejects a batch while the stream's queue is full, and batches are only
+ * evaluated while the {@link StateSubscriber} has requested state changes.
+ *
+ * The automaton must not be modified while streams are open. On Java 9 or
+ * later, the module in the flow directory adapts the evaluation to the
+ * interfaces of java.util.concurrent.Flow.
+ *
+ * @author 2d6
+ */
+public class DfaStreamProcessor<T> {
+
+	private final IDeterministicFiniteAutomaton<T> dfa;
+	private final Executor executor;
+	private final int bufferSize;
+
+	/**
+	 * Creates a new processor.
+	 *
+	 * @param dfa
+	 *            The automaton evaluating the streams
+	 * @param executor
+	 *            The executor running the evaluation of the streams
+	 * @param bufferSize
+	 *            The maximum number of batches queued per stream
+	 */
+	public DfaStreamProcessor(IDeterministicFiniteAutomaton<T> dfa, Executor executor, int bufferSize) {
+		if (dfa == null) {
+			throw new NullPointerException("Automaton may not be null");
+		}
+		else if (executor == null) {
+			throw new NullPointerException("Executor may not be null");
+		}
+		else if (bufferSize < 1) {
+			throw new IllegalArgumentException("The buffer size must be positive");
+		}
+		this.dfa = dfa;
+		this.executor = executor;
+		this.bufferSize = bufferSize;
+	}
+
+	/**
+	 * Opens a new stream in the starting state of the automaton and calls
+	 * {@link StateSubscriber#onSubscribe(DfaStream)}.
+	 *
+	 * @param subscriber
+	 *            The subscriber receiving the events of the stream
+	 * @return The stream
+	 */
+	public DfaStream<T> open(StateSubscriber subscriber) {
+		if (subscriber == null) {
+			throw new NullPointerException("Subscriber may not be null");
+		}
+		DfaStream<T> stream = new DfaStream<>(dfa.newRunner(), subscriber, executor, bufferSize);
+		subscriber.onSubscribe(stream);
+		return stream;
+	}
+}
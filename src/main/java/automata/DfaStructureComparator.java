@@ -0,0 +1,74 @@
+package automata;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import automata.interfaces.IDeterministicFiniteAutomaton;
+
+/**
+ * Determines whether two automata are structurally identical by walking both
+ * of them in parallel, starting from their starting states. Two automata are
+ * structurally identical if the states reachable from their starting states
+ * can be paired up such that paired states have the same acceptance status
+ * and the same valid symbols, and lead to paired states for every symbol.
+ *
+ * The walk uses an explicit stack and identity-hashed maps of the paired
+ * states, so it takes linear time and does not overflow the call stack on
+ * deep automata.
+ *
+ * @author 2d6
+ */
+class DfaStructureComparator<T> {
+
+	protected boolean structurallyEqual(
+			IDeterministicFiniteAutomaton<T> dfaA,
+			IDeterministicFiniteAutomaton<T> dfaB) {
+
+		Map<State, State> pairedStatesA = new IdentityHashMap<>();
+		Map<State, State> pairedStatesB = new IdentityHashMap<>();
+		Deque<State> pendingStatesA = new ArrayDeque<>();
+		Deque<State> pendingStatesB = new ArrayDeque<>();
+		pendingStatesA.push(dfaA.getStartingState());
+		pendingStatesB.push(dfaB.getStartingState());
+
+		while (!pendingStatesA.isEmpty()) {
+			State currentStateA = pendingStatesA.pop();
+			State currentStateB = pendingStatesB.pop();
+
+			if (currentStateA.isAccepting() != currentStateB.isAccepting()) {
+				return false;
+			}
+
+			/*
+			 * If one of the states has already been visited, both must have
+			 * been visited together
+			 */
+			State pairedStateB = pairedStatesA.get(currentStateA);
+			State pairedStateA = pairedStatesB.get(currentStateB);
+			if (pairedStateA != null || pairedStateB != null) {
+				if (pairedStateA != currentStateA || pairedStateB != currentStateB) {
+					return false;
+				}
+				continue;
+			}
+			pairedStatesA.put(currentStateA, currentStateB);
+			pairedStatesB.put(currentStateB, currentStateA);
+
+			Set<T> validSymbolsA = dfaA.getValidSymbols(currentStateA);
+			Set<T> validSymbolsB = dfaB.getValidSymbols(currentStateB);
+			if (!validSymbolsA.equals(validSymbolsB)) {
+				return false;
+			}
+
+			for (T symbol : validSymbolsA) {
+				pendingStatesA.push(dfaA.getNextState(currentStateA, symbol));
+				pendingStatesB.push(dfaB.getNextState(currentStateB, symbol));
+			}
+		}
+		return true;
+	}
+
+}
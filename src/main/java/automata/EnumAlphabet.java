@@ -0,0 +1,98 @@
+package automata;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import automata.interfaces.IAlphabet;
+
+/**
+ * An alphabet of enum constants. The index of a symbol is found by its
+ * {@link Enum#ordinal()} in an array, without hashing.
+ *
+ * @author 2d6
+ */
+public class EnumAlphabet<E extends Enum<E>> implements IAlphabet<E> {
+
+	private final Set<E> symbols = new AlphabetSymbols<>(this);
+	private final List<E> symbolsByIndex = new ArrayList<>();
+
+	/*
+	 * The index + 1 of each ordinal, or 0 if the constant is not a symbol
+	 */
+	private final int[] indices;
+
+	/**
+	 * Creates an empty alphabet for the constants of an enum
+	 *
+	 * @param enumClass
+	 *            The class of the enum
+	 */
+	public EnumAlphabet(Class<E> enumClass) {
+		this.indices = new int[enumClass.getEnumConstants().length];
+	}
+
+	/**
+	 * Creates an alphabet of all constants of an enum, indexed by their
+	 * ordinals
+	 *
+	 * @param enumClass
+	 *            The class of the enum
+	 * @return The alphabet
+	 */
+	public static <E extends Enum<E>> EnumAlphabet<E> of(Class<E> enumClass) {
+		EnumAlphabet<E> alphabet = new EnumAlphabet<>(enumClass);
+		alphabet.addAll(EnumSet.allOf(enumClass));
+		return alphabet;
+	}
+
+	@Override
+	public void add(E symbol) {
+		if (symbol == null) {
+			throw new NullPointerException("Symbol T may not be null");
+		}
+		if (indices[symbol.ordinal()] == 0) {
+			symbolsByIndex.add(symbol);
+			indices[symbol.ordinal()] = symbolsByIndex.size();
+		}
+	}
+
+	@Override
+	public void addAll(Set<E> symbols) {
+		if (symbols == null) {
+			throw new NullPointerException("List of symbol Ts may not be null");
+		}
+		for (E symbol : symbols) {
+			add(symbol);
+		}
+	}
+
+	@Override
+	public boolean isValid(E symbol) {
+		return indexOf(symbol) >= 0;
+	}
+
+	@Override
+	public int indexOf(E symbol) {
+		if (symbol == null) {
+			return -1;
+		}
+		return indices[symbol.ordinal()] - 1;
+	}
+
+	@Override
+	public E getSymbol(int index) {
+		return symbolsByIndex.get(index);
+	}
+
+	@Override
+	public int size() {
+		return symbolsByIndex.size();
+	}
+
+	@Override
+	public Set<E> getSymbols() {
+		return symbols;
+	}
+}
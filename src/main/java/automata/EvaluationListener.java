@@ -0,0 +1,48 @@
+package automata;
+
+/**
+ * Receives the steps of an evaluation on a {@link CompiledDfa}, see
+ * {@link CompiledDfa#evaluate(Iterable, EvaluationListener)}. States are
+ * given by their ids and symbols by their columns in the compiled automaton,
+ * so no objects are created for the notifications.
+ *
+ * Listeners are only called by the evaluation methods which take a listener;
+ * all other evaluation methods are unaffected by instrumentation. A listener
+ * shared by several threads must be thread-safe.
+ *
+ * @author 2d6
+ */
+public interface EvaluationListener {
+
+	/**
+	 * Called before the first symbol is evaluated
+	 *
+	 * @param stateId
+	 *            The id of the starting state
+	 */
+	void onStart(int stateId);
+
+	/**
+	 * Called after each step of the evaluation
+	 *
+	 * @param stateId
+	 *            The id of the state before the step
+	 * @param column
+	 *            The column of the evaluated symbol
+	 * @param nextStateId
+	 *            The id of the state after the step, or
+	 *            {@link CompiledDfa#DEAD_STATE} if no transition was defined
+	 */
+	void onTransition(int stateId, int column, int nextStateId);
+
+	/**
+	 * Called after the evaluation has finished. It is not called if the
+	 * evaluation failed because of a symbol outside of the alphabet.
+	 *
+	 * @param stateId
+	 *            The id of the final state, or {@link CompiledDfa#DEAD_STATE}
+	 * @param length
+	 *            The number of evaluated symbols
+	 */
+	void onEnd(int stateId, int length);
+}
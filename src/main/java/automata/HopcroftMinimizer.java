@@ -0,0 +1,331 @@
+package automata;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Minimizes a {@link CompiledDfa} with Hopcroft's partition refinement in
+ * O(n * k * log n) time for n states and k symbols.
+ *
+ * Missing transitions are routed to an explicit dead state before refining.
+ * All states which cannot reach an accepting state end up in the block of the
+ * dead state, which is dropped from the result again, so the minimal
+ * automaton is partial just like the original. Unreachable states are
+ * removed up front. The partition is kept in flat int arrays and the
+ * refinement runs without recursion, so automata with millions of states can
+ * be minimized.
+ *
+ * @author 2d6
+ */
+class HopcroftMinimizer<T> {
+
+	private final CompiledDfa<T> dfa;
+	private final int symbolCount;
+
+	/*
+	 * Reachable states of the original automaton, renumbered 0..stateCount-2;
+	 * the last state is the dead state
+	 */
+	private int stateCount;
+	private int deadState;
+	private int[] originalIds;
+	private int[] targets;
+
+	/*
+	 * Predecessors of state q under column c are found at
+	 * predecessors[predecessorStart[c * stateCount + q] ..
+	 * predecessorStart[c * stateCount + q + 1] - 1]
+	 */
+	private int[] predecessorStart;
+	private int[] predecessors;
+
+	/*
+	 * The partition: the states of block b are elements[blockStart[b] ..
+	 * blockEnd[b] - 1], position[q] is the index of q in elements
+	 */
+	private int[] elements;
+	private int[] position;
+	private int[] blockOf;
+	private int[] blockStart;
+	private int[] blockEnd;
+	private int[] markedCount;
+	private int blockCount;
+
+	/*
+	 * Splitters (block, column) waiting to be processed
+	 */
+	private int[] splitterBlocks;
+	private int[] splitterColumns;
+	private int splitterCount;
+	private boolean[] isSplitter;
+
+	HopcroftMinimizer(CompiledDfa<T> dfa) {
+		this.dfa = dfa;
+		this.symbolCount = dfa.getSymbolCount();
+	}
+
+	/**
+	 * @return A new automaton with the minimal number of states accepting the
+	 *         same language as the original one
+	 */
+	DeterministicFiniteAutomaton<T> minimize() {
+		collectReachableStates();
+		collectPredecessors();
+		initializePartition();
+		refine();
+		return buildAutomaton();
+	}
+
+	private void collectReachableStates() {
+		int originalCount = dfa.getStateCount();
+		int[] newIds = new int[originalCount];
+		originalIds = new int[originalCount];
+		int reachableCount = 0;
+
+		// Breadth-first search; originalIds doubles as the queue
+		newIds[dfa.getStartingStateId()] = ++reachableCount;
+		originalIds[0] = dfa.getStartingStateId();
+		for (int head = 0; head < reachableCount; head++) {
+			int state = originalIds[head];
+			for (int column = 0; column < symbolCount; column++) {
+				int target = dfa.step(state, column);
+				if (target != CompiledDfa.DEAD_STATE && newIds[target] == 0) {
+					originalIds[reachableCount] = target;
+					newIds[target] = ++reachableCount;
+				}
+			}
+		}
+
+		stateCount = reachableCount + 1;
+		deadState = reachableCount;
+		targets = new int[stateCount * symbolCount];
+		for (int state = 0; state < stateCount; state++) {
+			for (int column = 0; column < symbolCount; column++) {
+				int target = state == deadState ? CompiledDfa.DEAD_STATE
+						: dfa.step(originalIds[state], column);
+				targets[state * symbolCount + column] =
+						target == CompiledDfa.DEAD_STATE ? deadState : newIds[target] - 1;
+			}
+		}
+	}
+
+	private void collectPredecessors() {
+		predecessorStart = new int[symbolCount * stateCount + 1];
+		for (int state = 0; state < stateCount; state++) {
+			for (int column = 0; column < symbolCount; column++) {
+				predecessorStart[column * stateCount + targets[state * symbolCount + column] + 1]++;
+			}
+		}
+		for (int i = 1; i < predecessorStart.length; i++) {
+			predecessorStart[i] += predecessorStart[i - 1];
+		}
+		predecessors = new int[stateCount * symbolCount];
+		int[] fill = new int[predecessorStart.length - 1];
+		for (int state = 0; state < stateCount; state++) {
+			for (int column = 0; column < symbolCount; column++) {
+				int slot = column * stateCount + targets[state * symbolCount + column];
+				predecessors[predecessorStart[slot] + fill[slot]++] = state;
+			}
+		}
+	}
+
+	private void initializePartition() {
+		elements = new int[stateCount];
+		position = new int[stateCount];
+		blockOf = new int[stateCount];
+		blockStart = new int[stateCount];
+		blockEnd = new int[stateCount];
+		markedCount = new int[stateCount];
+
+		// Accepting states first, then the non-accepting ones
+		int next = 0;
+		for (int state = 0; state < stateCount; state++) {
+			if (isAccepting(state)) {
+				place(state, next++);
+			}
+		}
+		int acceptingCount = next;
+		for (int state = 0; state < stateCount; state++) {
+			if (!isAccepting(state)) {
+				place(state, next++);
+			}
+		}
+
+		blockCount = 0;
+		if (acceptingCount > 0) {
+			newBlock(0, acceptingCount);
+		}
+		newBlock(acceptingCount, stateCount);
+
+		splitterBlocks = new int[Math.max(1, symbolCount)];
+		splitterColumns = new int[Math.max(1, symbolCount)];
+		isSplitter = new boolean[stateCount * symbolCount];
+		int smallerBlock = blockCount == 2 && acceptingCount * 2 > stateCount ? 1 : 0;
+		for (int column = 0; column < symbolCount; column++) {
+			addSplitter(smallerBlock, column);
+		}
+	}
+
+	private void refine() {
+		int[] touchedStates = new int[stateCount];
+		int[] touchedBlocks = new int[stateCount];
+		boolean[] touched = new boolean[stateCount];
+
+		while (splitterCount > 0) {
+			splitterCount--;
+			int splitter = splitterBlocks[splitterCount];
+			int column = splitterColumns[splitterCount];
+			isSplitter[splitter * symbolCount + column] = false;
+
+			// Collect all states leading into the splitter under the column
+			int touchedStateCount = 0;
+			for (int i = blockStart[splitter]; i < blockEnd[splitter]; i++) {
+				int slot = column * stateCount + elements[i];
+				for (int p = predecessorStart[slot]; p < predecessorStart[slot + 1]; p++) {
+					int predecessor = predecessors[p];
+					if (!touched[predecessor]) {
+						touched[predecessor] = true;
+						touchedStates[touchedStateCount++] = predecessor;
+					}
+				}
+			}
+
+			// Move the collected states to the front of their blocks
+			int touchedBlockCount = 0;
+			for (int i = 0; i < touchedStateCount; i++) {
+				int state = touchedStates[i];
+				touched[state] = false;
+				int block = blockOf[state];
+				if (markedCount[block] == 0) {
+					touchedBlocks[touchedBlockCount++] = block;
+				}
+				swap(position[state], blockStart[block] + markedCount[block]);
+				markedCount[block]++;
+			}
+
+			for (int i = 0; i < touchedBlockCount; i++) {
+				split(touchedBlocks[i]);
+			}
+		}
+	}
+
+	/*
+	 * Splits the marked states off a block, if the block is not marked
+	 * completely
+	 */
+	private void split(int block) {
+		int marked = markedCount[block];
+		markedCount[block] = 0;
+		if (marked == blockEnd[block] - blockStart[block]) {
+			return;
+		}
+
+		int newBlock = newBlock(blockStart[block], blockStart[block] + marked);
+		blockStart[block] += marked;
+
+		int smallerBlock = marked <= blockEnd[block] - blockStart[block] ? newBlock : block;
+		for (int column = 0; column < symbolCount; column++) {
+			if (isSplitter[block * symbolCount + column]) {
+				addSplitter(newBlock, column);
+			}
+			else {
+				addSplitter(smallerBlock, column);
+			}
+		}
+	}
+
+	private DeterministicFiniteAutomaton<T> buildAutomaton() {
+		int startingBlock = blockOf[0];
+		int deadBlock = blockOf[deadState];
+
+		// The representative of a block is its member with the lowest id
+		int[] representatives = new int[blockCount];
+		for (int block = 0; block < blockCount; block++) {
+			representatives[block] = Integer.MAX_VALUE;
+		}
+		for (int state = 0; state < deadState; state++) {
+			int block = blockOf[state];
+			representatives[block] = Math.min(representatives[block], state);
+		}
+
+		String startingIdentifier = dfa.getIdentifier(originalIds[0]);
+		Set<T> symbols = new HashSet<>(dfa.getSymbols());
+		DeterministicFiniteAutomaton<T> minimal = new DeterministicFiniteAutomaton<>(
+				startingIdentifier, dfa.isAccepting(originalIds[0]),
+				new IndexedTransitionFunction<>(symbols));
+		if (startingBlock == deadBlock) {
+			return minimal;
+		}
+
+		String[] identifiers = new String[blockCount];
+		for (int block = 0; block < blockCount; block++) {
+			if (block == deadBlock) {
+				continue;
+			}
+			int state = originalIds[representatives[block]];
+			if (block == startingBlock) {
+				identifiers[block] = startingIdentifier;
+			}
+			else {
+				identifiers[block] = dfa.getIdentifier(state);
+				minimal.addState(identifiers[block], dfa.isAccepting(state));
+			}
+		}
+
+		for (int block = 0; block < blockCount; block++) {
+			if (block == deadBlock) {
+				continue;
+			}
+			int state = representatives[block];
+			for (int column = 0; column < symbolCount; column++) {
+				int targetBlock = blockOf[targets[state * symbolCount + column]];
+				if (targetBlock != deadBlock) {
+					minimal.addTransition(identifiers[block], identifiers[targetBlock],
+							dfa.getSymbol(column));
+				}
+			}
+		}
+		return minimal;
+	}
+
+	private boolean isAccepting(int state) {
+		return state != deadState && dfa.isAccepting(originalIds[state]);
+	}
+
+	private void place(int state, int index) {
+		elements[index] = state;
+		position[state] = index;
+	}
+
+	private void swap(int i, int j) {
+		int stateI = elements[i];
+		int stateJ = elements[j];
+		place(stateI, j);
+		place(stateJ, i);
+	}
+
+	private int newBlock(int start, int end) {
+		int block = blockCount++;
+		blockStart[block] = start;
+		blockEnd[block] = end;
+		for (int i = start; i < end; i++) {
+			blockOf[elements[i]] = block;
+		}
+		return block;
+	}
+
+	private void addSplitter(int block, int column) {
+		if (splitterCount == splitterBlocks.length) {
+			int[] grownBlocks = new int[splitterCount * 2];
+			int[] grownColumns = new int[splitterCount * 2];
+			System.arraycopy(splitterBlocks, 0, grownBlocks, 0, splitterCount);
+			System.arraycopy(splitterColumns, 0, grownColumns, 0, splitterCount);
+			splitterBlocks = grownBlocks;
+			splitterColumns = grownColumns;
+		}
+		splitterBlocks[splitterCount] = block;
+		splitterColumns[splitterCount] = column;
+		splitterCount++;
+		isSplitter[block * symbolCount + column] = true;
+	}
+}
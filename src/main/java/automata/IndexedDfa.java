@@ -0,0 +1,503 @@
+package automata;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import automata.interfaces.IDeterministicFiniteAutomaton;
+
+/**
+ * A deterministic finite automaton whose states are numbered 0..n-1 in the
+ * order they are added; the starting state has the id 0. It is meant for
+ * automata with millions of states: a state costs one bit of the acceptance
+ * bitset and one row of a flat int transition table, and no objects are
+ * created per state.
+ *
+ * Identifiers are optional. They are stored in a side table which keeps all
+ * characters in a single array and finds identifiers through an open
+ * addressing hash table of ints, so {@link #getState(String)} and
+ * {@link #addTransition(String, String, Object)} remain available. States
+ * added without an identifier are identified by "#" followed by their id;
+ * explicit identifiers of this form are rejected.
+ *
+ * {@link State} objects are only created when a state is requested through
+ * the methods of {@link IDeterministicFiniteAutomaton}, and are then cached;
+ * they are {@link IndexedState}s which know their id.
+ *
+ * @author 2d6
+ */
+public class IndexedDfa<T> implements IDeterministicFiniteAutomaton<T> {
+
+	private static final int STARTING_STATE = 0;
+	private static final int NO_STATE = CompiledDfa.DEAD_STATE;
+	private static final int INITIAL_CAPACITY = 16;
+
+	private final Object[] symbols;
+	private final Map<T, Integer> symbolColumns;
+	private final Set<T> symbolSet;
+	private final AtomicReferenceArray<State> missingTransitionStates;
+
+	private int stateCount;
+	private int capacity;
+	private final BitSet accepting;
+	private int[] transitions;
+
+	/*
+	 * The identifier side table is shared with the compiled automaton and
+	 * copied before the next identifier is added
+	 */
+	private StateIdentifiers identifiers = new StateIdentifiers();
+	private boolean identifiersShared;
+
+	/*
+	 * Shared with the compiled automata, so all of them return the same State
+	 * objects; growing the table keeps it shared
+	 */
+	private StateTable materializedStates;
+	private CompiledDfa<T> compiled;
+
+	/**
+	 * Creates a new automaton with an unnamed starting state.
+	 *
+	 * @param isAccepting
+	 *            Acceptance status of the starting state. True if the starting
+	 *            state is accepting.
+	 * @param symbols
+	 *            The valid symbols of the automaton
+	 */
+	public IndexedDfa(boolean isAccepting, Set<T> symbols) {
+		if (symbols == null) {
+			throw new IllegalArgumentException("The list of symbols must not be null");
+		}
+		this.symbols = symbols.toArray();
+		this.symbolColumns = new HashMap<>();
+		Set<T> symbolSet = new LinkedHashSet<>();
+		for (int column = 0; column < this.symbols.length; column++) {
+			symbolColumns.put(symbol(column), column);
+			symbolSet.add(symbol(column));
+		}
+		this.symbolSet = Collections.unmodifiableSet(symbolSet);
+		this.missingTransitionStates = new AtomicReferenceArray<>(this.symbols.length);
+
+		this.capacity = INITIAL_CAPACITY;
+		this.accepting = new BitSet();
+		this.transitions = newTransitions(capacity);
+		addState(isAccepting);
+	}
+
+	/**
+	 * Creates a new automaton with a starting state.
+	 *
+	 * @param identifier
+	 *            The identifier of the starting state
+	 * @param isAccepting
+	 *            Acceptance status of the starting state. True if the starting
+	 *            state is accepting.
+	 * @param symbols
+	 *            The valid symbols of the automaton
+	 */
+	public IndexedDfa(String identifier, boolean isAccepting, Set<T> symbols) {
+		this(isAccepting, symbols);
+		StateIdentifiers.checkExplicit(identifier);
+		setIdentifier(STARTING_STATE, identifier);
+	}
+
+	/**
+	 * Adds a state without an identifier.
+	 *
+	 * @param isAccepting
+	 *            Acceptance status of the state. True if the state is
+	 *            accepting.
+	 * @return The id of the new state
+	 */
+	public int addState(boolean isAccepting) {
+		if (stateCount == capacity) {
+			grow();
+		}
+		int stateId = stateCount++;
+		accepting.set(stateId, isAccepting);
+		compiled = null;
+		return stateId;
+	}
+
+	/**
+	 * @throws IllegalArgumentException
+	 *             if the identifier has the form "#" followed by digits, which
+	 *             is reserved for states without an identifier
+	 */
+	@Override
+	public void addState(String identifier, boolean isAccepting) {
+		if (identifier == null) {
+			throw new NullPointerException("Identifier may not be null");
+		}
+		StateIdentifiers.checkExplicit(identifier);
+		if (getStateId(identifier) != NO_STATE) {
+			throw new IllegalArgumentException(
+					"The automaton already contained a state with the given identifier");
+		}
+		setIdentifier(addState(isAccepting), identifier);
+	}
+
+	/**
+	 * Adds a transition between two states.
+	 *
+	 * @param initialStateId
+	 *            The id of the state the transition starts in
+	 * @param targetStateId
+	 *            The id of the state the transition leads to
+	 * @param symbol
+	 *            The symbol of the transition
+	 */
+	public void addTransition(int initialStateId, int targetStateId, T symbol) {
+		checkStateId(initialStateId);
+		checkStateId(targetStateId);
+		int index = initialStateId * symbols.length + checkedColumn(symbol);
+		if (transitions[index] != NO_STATE) {
+			throw new IllegalArgumentException(
+					"Transition was already defined within the automaton");
+		}
+		transitions[index] = targetStateId;
+		compiled = null;
+	}
+
+	@Override
+	public void addTransition(String initialStateIdentifier,
+			String targetStateIdentifier, T symbol) {
+		int initialStateId = getStateId(initialStateIdentifier);
+		int targetStateId = getStateId(targetStateIdentifier);
+		if (initialStateId == NO_STATE) {
+			throw new NullPointerException("Initial state may not be null");
+		}
+		else if (targetStateId == NO_STATE) {
+			throw new NullPointerException("Target state may not be null");
+		}
+		addTransition(initialStateId, targetStateId, symbol);
+	}
+
+	/**
+	 * @return The id of the starting state
+	 */
+	public int getStartingStateId() {
+		return STARTING_STATE;
+	}
+
+	/**
+	 * @return The number of states
+	 */
+	public int getStateCount() {
+		return stateCount;
+	}
+
+	/**
+	 * Returns the id of the state with the given identifier
+	 *
+	 * @param identifier
+	 *            The identifier of the state
+	 * @return The id of the state, or {@link CompiledDfa#DEAD_STATE} if the
+	 *         automaton does not contain such a state
+	 */
+	public int getStateId(String identifier) {
+		return identifiers.getStateId(identifier, stateCount);
+	}
+
+	/**
+	 * @param stateId
+	 *            The id of a state
+	 * @return The identifier of the state
+	 */
+	public String getIdentifier(int stateId) {
+		checkStateId(stateId);
+		return identifiers.get(stateId);
+	}
+
+	/**
+	 * @param stateId
+	 *            The id of a state
+	 * @return True if the state is accepting, false if it is not accepting
+	 *         or {@link CompiledDfa#DEAD_STATE}
+	 */
+	public boolean isAccepting(int stateId) {
+		return stateId != NO_STATE && accepting.get(stateId);
+	}
+
+	/**
+	 * Returns the target of the transition for a state and symbol.
+	 *
+	 * @param stateId
+	 *            The id of the current state
+	 * @param symbol
+	 *            The symbol being evaluated
+	 * @return The id of the next state, or {@link CompiledDfa#DEAD_STATE}
+	 */
+	public int getNextStateId(int stateId, T symbol) {
+		int column = checkedColumn(symbol);
+		if (stateId == NO_STATE) {
+			return NO_STATE;
+		}
+		checkStateId(stateId);
+		return transitions[stateId * symbols.length + column];
+	}
+
+	/**
+	 * Evaluates the input like {@link #evaluate(Iterable)}, but returns the
+	 * id of the final state.
+	 *
+	 * @param input
+	 *            The symbols to be evaluated
+	 * @return The id of the final state, or {@link CompiledDfa#DEAD_STATE} if
+	 *         a transition was missing
+	 */
+	public int evaluateToStateId(Iterable<T> input) {
+		int currentState = STARTING_STATE;
+		for (T symbol : input) {
+			currentState = transitions[currentState * symbols.length + checkedColumn(symbol)];
+			if (currentState == NO_STATE) {
+				return NO_STATE;
+			}
+		}
+		return currentState;
+	}
+
+	/**
+	 * @return The symbols of the automaton
+	 */
+	@Override
+	public Set<T> getSymbols() {
+		return symbolSet;
+	}
+
+	/**
+	 * Returns the state with the given id, creating its State object on the
+	 * first request.
+	 *
+	 * @param stateId
+	 *            The id of the state
+	 * @return The state, or null for {@link CompiledDfa#DEAD_STATE}
+	 */
+	public IndexedState getState(int stateId) {
+		if (stateId == NO_STATE) {
+			return null;
+		}
+		checkStateId(stateId);
+		if (materializedStates == null) {
+			materializedStates = new StateTable(capacity);
+		}
+		State state = materializedStates.get(stateId);
+		if (state == null) {
+			// May have been created concurrently by a compiled automaton
+			state = materializedStates.publish(stateId,
+					new IndexedState(stateId, getIdentifier(stateId), accepting.get(stateId)));
+		}
+		return (IndexedState) state;
+	}
+
+	@Override
+	public State getState(String identifier) {
+		return getState(getStateId(identifier));
+	}
+
+	@Override
+	public State getStartingState() {
+		return getState(STARTING_STATE);
+	}
+
+	@Override
+	public State evaluate(Iterable<T> input) {
+		int currentState = STARTING_STATE;
+		for (T symbol : input) {
+			int column = checkedColumn(symbol);
+			currentState = transitions[currentState * symbols.length + column];
+			if (currentState == NO_STATE) {
+				return CompiledDfa.missingTransition(missingTransitionStates, column, symbol);
+			}
+		}
+		return getState(currentState);
+	}
+
+	@Override
+	public State getNextState(State currentState, T symbol) {
+		int column = checkedColumn(symbol);
+		int stateId = idOf(currentState);
+		if (stateId == NO_STATE) {
+			return null;
+		}
+		return getState(transitions[stateId * symbols.length + column]);
+	}
+
+	@Override
+	public Set<T> getValidSymbols(State currentState) {
+		Set<T> validSymbols = new HashSet<>();
+		int stateId = idOf(currentState);
+		if (stateId == NO_STATE) {
+			return validSymbols;
+		}
+		for (int column = 0; column < symbols.length; column++) {
+			if (transitions[stateId * symbols.length + column] != NO_STATE) {
+				validSymbols.add(symbol(column));
+			}
+		}
+		return validSymbols;
+	}
+
+	/**
+	 * Creates a copy of this automaton. State objects are not shared with
+	 * the copy.
+	 *
+	 * @return The copy
+	 */
+	@Override
+	public IndexedDfa<T> copy() {
+		return new IndexedDfa<>(this);
+	}
+
+	/**
+	 * Freezes the current states and transitions into a {@link CompiledDfa}.
+	 * The result is cached until a state or transition is added. Compiling
+	 * copies the transition table and the acceptance of the states; no State
+	 * objects are created, and the identifiers are shared until the next
+	 * identifier is added. Both automata return the same State objects.
+	 *
+	 * @return The compiled automaton
+	 */
+	public CompiledDfa<T> compile() {
+		if (compiled == null) {
+			boolean[] compiledAccepting = new boolean[stateCount];
+			for (int stateId = accepting.nextSetBit(0); stateId >= 0; stateId = accepting.nextSetBit(stateId + 1)) {
+				compiledAccepting[stateId] = true;
+			}
+			if (materializedStates == null) {
+				materializedStates = new StateTable(capacity);
+			}
+			identifiersShared = true;
+			compiled = new CompiledDfa<>(compiledAccepting, identifiers, materializedStates, symbols,
+					Arrays.copyOf(transitions, stateCount * symbols.length));
+		}
+		return compiled;
+	}
+
+	@Override
+	public DeterministicFiniteAutomaton<T> minimize() {
+		return new HopcroftMinimizer<>(compile()).minimize();
+	}
+
+	@Override
+	public boolean isStructurallyEqualTo(IDeterministicFiniteAutomaton<T> otherDfa) {
+		return new DfaStructureComparator<T>().structurallyEqual(this, otherDfa);
+	}
+
+	@Override
+	public boolean isEquivalentTo(IDeterministicFiniteAutomaton<T> otherDfa) {
+		return findDistinguishingInput(otherDfa) == null;
+	}
+
+	@Override
+	public List<T> findDistinguishingInput(IDeterministicFiniteAutomaton<T> otherDfa) {
+		return new DfaEquivalenceChecker<>(this, otherDfa).findDistinguishingInput();
+	}
+
+	@Override
+	public ProductDfa<T> intersect(IDeterministicFiniteAutomaton<T> otherDfa) {
+		return new ProductDfa<>(this, otherDfa, ProductDfa.Operation.INTERSECTION);
+	}
+
+	@Override
+	public ProductDfa<T> union(IDeterministicFiniteAutomaton<T> otherDfa) {
+		return new ProductDfa<>(this, otherDfa, ProductDfa.Operation.UNION);
+	}
+
+	@Override
+	public ProductDfa<T> difference(IDeterministicFiniteAutomaton<T> otherDfa) {
+		return new ProductDfa<>(this, otherDfa, ProductDfa.Operation.DIFFERENCE);
+	}
+
+	@Override
+	public ProductDfa<T> symmetricDifference(IDeterministicFiniteAutomaton<T> otherDfa) {
+		return new ProductDfa<>(this, otherDfa, ProductDfa.Operation.SYMMETRIC_DIFFERENCE);
+	}
+
+	@Override
+	public DfaRunner<T> newRunner() {
+		return compile().newRunner();
+	}
+
+	/*
+	 * Copy-constructor
+	 */
+	private IndexedDfa(IndexedDfa<T> original) {
+		this.symbols = original.symbols;
+		this.symbolColumns = original.symbolColumns;
+		this.symbolSet = original.symbolSet;
+		this.missingTransitionStates = new AtomicReferenceArray<>(symbols.length);
+		this.stateCount = original.stateCount;
+		this.capacity = original.capacity;
+		this.accepting = (BitSet) original.accepting.clone();
+		this.transitions = original.transitions.clone();
+		this.identifiers = original.identifiers;
+		this.identifiersShared = true;
+		original.identifiersShared = true;
+	}
+
+	private void setIdentifier(int stateId, String identifier) {
+		if (identifiersShared) {
+			identifiers = identifiers.copy();
+			identifiersShared = false;
+		}
+		identifiers.set(stateId, identifier);
+	}
+
+	private void grow() {
+		capacity *= 2;
+		int[] grownTransitions = newTransitions(capacity);
+		System.arraycopy(transitions, 0, grownTransitions, 0, transitions.length);
+		transitions = grownTransitions;
+		if (materializedStates != null) {
+			materializedStates.ensureCapacity(capacity);
+		}
+	}
+
+	private int[] newTransitions(int stateCapacity) {
+		int[] newTransitions = new int[stateCapacity * symbols.length];
+		Arrays.fill(newTransitions, NO_STATE);
+		return newTransitions;
+	}
+
+	private int idOf(State state) {
+		if (state instanceof IndexedState) {
+			int stateId = ((IndexedState) state).getId();
+			if (materializedStates != null && stateId < stateCount && materializedStates.get(stateId) == state) {
+				return stateId;
+			}
+		}
+		return NO_STATE;
+	}
+
+	private void checkStateId(int stateId) {
+		if (stateId < 0 || stateId >= stateCount) {
+			throw new IndexOutOfBoundsException("The automaton does not contain a state with id " + stateId);
+		}
+	}
+
+	private int checkedColumn(T symbol) {
+		if (symbol == null) {
+			throw new NullPointerException("Symbol may not be null");
+		}
+		Integer column = symbolColumns.get(symbol);
+		if (column == null) {
+			throw new IllegalArgumentException(
+					"Symbol was not defined in the alphabet");
+		}
+		return column;
+	}
+
+	@SuppressWarnings("unchecked")
+	private T symbol(int column) {
+		return (T) symbols[column];
+	}
+}
@@ -0,0 +1,28 @@
+package automata;
+
+/**
+ * A state of an {@link IndexedDfa}, which additionally knows its id
+ *
+ * @author 2d6
+ */
+public class IndexedState extends State {
+	private final int id;
+
+	/**
+	 * Creates a new IndexedState
+	 * @param id The id of the state within its automaton
+	 * @param identifier Identifier of the new state
+	 * @param isAccepting Acceptance status of the state. True if the state is accepting.
+	 */
+	IndexedState(int id, String identifier, boolean isAccepting) {
+		super(identifier, isAccepting);
+		this.id = id;
+	}
+
+	/**
+	 * @return The id of the state within its automaton
+	 */
+	public int getId() {
+		return this.id;
+	}
+}
@@ -0,0 +1,220 @@
+package automata;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+import automata.interfaces.IAlphabet;
+import automata.interfaces.IFastLookup;
+import automata.interfaces.ITransitionFunction;
+
+/**
+ * Implements a transition function which indexes its transitions by initial
+ * state and symbol. In contrast to {@link TransitionFunction}, looking up,
+ * adding and checking for duplicate transitions takes constant time regardless
+ * of the number of transitions.
+ *
+ * The transitions of a state are stored in an array indexed by the index of
+ * the symbol in the alphabet, see {@link IAlphabet#indexOf(Object)}, so the
+ * symbol is validated and its transition found by the same lookup. The array
+ * of a state only extends up to the highest index with a transition, as long
+ * as it stays reasonably dense; a transition far beyond the end of the array,
+ * e.g. for symbol 60000 of a state with a handful of transitions, is kept in
+ * a map of the state instead. An {@link EnumAlphabet}, {@link CharAlphabet}
+ * or {@link ByteAlphabet} finds the index without hashing.
+ *
+ * States are compared by identity, symbols by their index in the alphabet.
+ *
+ * @author 2d6
+ *
+ */
+public class IndexedTransitionFunction<T> implements ITransitionFunction<T>, IFastLookup {
+
+	/*
+	 * Arrays of up to this length are allocated regardless of the number of
+	 * transitions of the state
+	 */
+	private static final int MIN_ROW_LENGTH = 16;
+
+	/*
+	 * The array of a state is extended to an index if it is below this
+	 * multiple of the number of transitions of the state
+	 */
+	private static final int MAX_SPARSENESS = 4;
+
+	private Map<State, State[]> transitions;
+	/*
+	 * The transitions with an index beyond the end of the array of their
+	 * initial state
+	 */
+	private Map<State, Map<Integer, State>> sparseTransitions;
+	private IAlphabet<T> alphabet;
+
+	/**
+	 * Creates a new IndexedTransitionFunction with the given symbols.
+	 *
+	 * @param symbols
+	 *            Set of the valid symbols
+	 */
+	public IndexedTransitionFunction(Set<T> symbols) {
+		this();
+		this.setSymbols(symbols);
+	}
+
+	/**
+	 * Creates a new IndexedTransitionFunction without an alphabet.
+	 */
+	public IndexedTransitionFunction() {
+		this.transitions = new IdentityHashMap<>();
+		this.sparseTransitions = new IdentityHashMap<>();
+		this.alphabet = new Alphabet<>();
+	}
+
+	/**
+	 * Creates a new IndexedTransitionFunction on the given alphabet, e.g. an
+	 * {@link EnumAlphabet}. Symbols added to the alphabet later are valid as
+	 * well.
+	 *
+	 * @param alphabet
+	 *            The alphabet of the valid symbols
+	 * @return The new transition function
+	 */
+	public static <T> IndexedTransitionFunction<T> on(IAlphabet<T> alphabet) {
+		if (alphabet == null) {
+			throw new IllegalArgumentException("The alphabet must not be null");
+		}
+		IndexedTransitionFunction<T> transitionFunction = new IndexedTransitionFunction<>();
+		transitionFunction.alphabet = alphabet;
+		return transitionFunction;
+	}
+
+	@Override
+	public void addTransition(State initialState, State targetState, T symbol) {
+		int index = alphabet.indexOf(symbol);
+		State[] stateTransitions = transitions.get(initialState);
+		if (index >= 0 && getNextState(initialState, stateTransitions, index) != null) {
+			throw new IllegalArgumentException(
+					"Transition was already defined within the transition function");
+		}
+
+		if (this.alphabet.size() == 0) {
+			throw new NullPointerException("Alphabet was not defined");
+		} else if (index < 0) {
+			throw new IllegalArgumentException(
+					"Symbol was not defined in the alphabet");
+		}
+
+		if (stateTransitions == null || index >= stateTransitions.length) {
+			Map<Integer, State> sparse = sparseTransitions.get(initialState);
+			int transitionCount = count(stateTransitions) + (sparse == null ? 0 : sparse.size()) + 1;
+			if (index >= Math.max(MIN_ROW_LENGTH, transitionCount * MAX_SPARSENESS)) {
+				if (sparse == null) {
+					sparse = new HashMap<>();
+					sparseTransitions.put(initialState, sparse);
+				}
+				sparse.put(index, targetState);
+				return;
+			}
+			stateTransitions = stateTransitions == null ? new State[index + 1]
+					: Arrays.copyOf(stateTransitions, Math.max(index + 1, stateTransitions.length * 2));
+			transitions.put(initialState, stateTransitions);
+			if (sparse != null) {
+				moveIntoRow(sparse, stateTransitions);
+				if (sparse.isEmpty()) {
+					sparseTransitions.remove(initialState);
+				}
+			}
+		}
+		stateTransitions[index] = targetState;
+	}
+
+	@Override
+	public State getNextState(State currentState, T symbol) {
+
+		int index = alphabet.indexOf(symbol);
+		if (index < 0) {
+			throw new IllegalArgumentException(
+					"Symbol was not defined in the alphabet");
+		}
+
+		return getNextState(currentState, transitions.get(currentState), index);
+	}
+
+	private State getNextState(State currentState, State[] stateTransitions, int index) {
+		if (stateTransitions != null && index < stateTransitions.length) {
+			return stateTransitions[index];
+		}
+		if (sparseTransitions.isEmpty()) {
+			return null;
+		}
+		Map<Integer, State> sparse = sparseTransitions.get(currentState);
+		return sparse == null ? null : sparse.get(index);
+	}
+
+	private static int count(State[] stateTransitions) {
+		int count = 0;
+		if (stateTransitions != null) {
+			for (State targetState : stateTransitions) {
+				if (targetState != null) {
+					count++;
+				}
+			}
+		}
+		return count;
+	}
+
+	/*
+	 * Moves the sparse transitions covered by a grown array into it
+	 */
+	private static void moveIntoRow(Map<Integer, State> sparse, State[] stateTransitions) {
+		Iterator<Map.Entry<Integer, State>> entries = sparse.entrySet().iterator();
+		while (entries.hasNext()) {
+			Map.Entry<Integer, State> entry = entries.next();
+			if (entry.getKey() < stateTransitions.length) {
+				stateTransitions[entry.getKey()] = entry.getValue();
+				entries.remove();
+			}
+		}
+	}
+
+	@Override
+	public void setSymbols(Set<T> symbols) {
+		if (this.alphabet.size() != 0) {
+			throw new IllegalArgumentException("An alphabet has already been defined");
+		}
+		else if (symbols == null) {
+			throw new IllegalArgumentException("The list of symbols must not be null");
+		}
+		this.alphabet.addAll(symbols);
+	}
+
+	@Override
+	public Set<T> getSymbols() {
+		return this.alphabet.getSymbols();
+	}
+
+	@Override
+	public Set<T> getValidSymbols(State currentState) {
+		Set<T> validSymbols = new HashSet<>();
+		State[] stateTransitions = transitions.get(currentState);
+		if (stateTransitions != null) {
+			for (int index = 0; index < stateTransitions.length; index++) {
+				if (stateTransitions[index] != null) {
+					validSymbols.add(alphabet.getSymbol(index));
+				}
+			}
+		}
+		Map<Integer, State> sparse = sparseTransitions.get(currentState);
+		if (sparse != null) {
+			for (int index : sparse.keySet()) {
+				validSymbols.add(alphabet.getSymbol(index));
+			}
+		}
+		return validSymbols;
+	}
+
+}
@@ -0,0 +1,296 @@
+package automata;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A deterministic finite automaton which is evaluated directly on a file
+ * mapped into memory by {@link DfaFormat#map(java.nio.file.Path)}. Like a
+ * {@link CompiledDfa}, states are identified by their ids and symbols by their
+ * columns; no State objects are created unless
+ * {@link #toCompiledDfa()} is called.
+ *
+ * The transition table is split into segments of {@link #SEGMENT_SIZE}
+ * transitions, so automata with more than 2^31 transitions are supported.
+ * A MappedDfa is immutable and may be used by several threads at once. The
+ * contents of the file are trusted; a corrupt transition table may lead to
+ * IndexOutOfBoundsExceptions during evaluation.
+ *
+ * @author 2d6
+ */
+public class MappedDfa<T> {
+
+	/**
+	 * The number of transitions per mapped segment of the transition table
+	 */
+	static final int SEGMENT_SIZE = 1 << 28;
+
+	private static final int SEGMENT_BITS = 28;
+	private static final int SEGMENT_MASK = SEGMENT_SIZE - 1;
+
+	private final int stateCount;
+	private final int startingState;
+	private final LongBuffer acceptance;
+
+	private final Object[] symbols;
+	private final Map<T, Integer> symbolColumns;
+	private final Set<T> symbolSet;
+	private final CharColumnTable charColumns;
+
+	private final IntBuffer identifierOffsets;
+	private final ByteBuffer identifiers;
+	private final IntBuffer[] transitions;
+
+	MappedDfa(int stateCount, int startingState, LongBuffer acceptance, Object[] symbols,
+			IntBuffer identifierOffsets, ByteBuffer identifiers, IntBuffer[] transitions) {
+		this.stateCount = stateCount;
+		this.startingState = startingState;
+		this.acceptance = acceptance;
+
+		this.symbols = symbols;
+		this.symbolColumns = new HashMap<>();
+		Set<T> symbolSet = new LinkedHashSet<>();
+		char[] charSymbols = new char[symbols.length];
+		boolean allCharacters = true;
+		for (int column = 0; column < symbols.length; column++) {
+			symbolColumns.put(symbol(column), column);
+			symbolSet.add(symbol(column));
+			if (symbols[column] instanceof Character) {
+				charSymbols[column] = (Character) symbols[column];
+			}
+			else {
+				allCharacters = false;
+			}
+		}
+		this.symbolSet = Collections.unmodifiableSet(symbolSet);
+		this.charColumns = allCharacters ? new CharColumnTable(charSymbols) : null;
+
+		this.identifierOffsets = identifierOffsets;
+		this.identifiers = identifiers;
+		this.transitions = transitions;
+	}
+
+	/**
+	 * @return The id of the starting state
+	 */
+	public int getStartingStateId() {
+		return startingState;
+	}
+
+	/**
+	 * @return The number of states
+	 */
+	public int getStateCount() {
+		return stateCount;
+	}
+
+	/**
+	 * @return The number of symbols, i.e. columns of the transition table
+	 */
+	public int getSymbolCount() {
+		return symbols.length;
+	}
+
+	/**
+	 * @return The symbols of the automaton
+	 */
+	public Set<T> getSymbols() {
+		return symbolSet;
+	}
+
+	/**
+	 * @param column
+	 *            A column of the transition table
+	 * @return The symbol belonging to the column
+	 */
+	public T getSymbol(int column) {
+		return symbol(column);
+	}
+
+	/**
+	 * Returns the column of a symbol in the transition table
+	 *
+	 * @param symbol
+	 *            The symbol
+	 * @return The column of the symbol, or -1 if it is not part of the
+	 *         alphabet
+	 */
+	public int getColumn(T symbol) {
+		Integer column = symbolColumns.get(symbol);
+		return column == null ? -1 : column;
+	}
+
+	/**
+	 * Returns the column of a char symbol without boxing it, if the alphabet
+	 * consists of {@link Character}s.
+	 *
+	 * @param symbol
+	 *            The symbol
+	 * @return The column of the symbol, or -1 if it is not part of the
+	 *         alphabet
+	 */
+	@SuppressWarnings("unchecked")
+	public int getColumn(char symbol) {
+		if (charColumns != null) {
+			return charColumns.getColumn(symbol);
+		}
+		return getColumn((T) Character.valueOf(symbol));
+	}
+
+	/**
+	 * Returns the identifier of a state. The identifier is decoded from the
+	 * file on each call.
+	 *
+	 * @param stateId
+	 *            The id of the state
+	 * @return The identifier of the state
+	 */
+	public String getStateIdentifier(int stateId) {
+		int start = identifierOffsets.get(stateId);
+		byte[] identifier = new byte[identifierOffsets.get(stateId + 1) - start];
+		for (int i = 0; i < identifier.length; i++) {
+			identifier[i] = identifiers.get(start + i);
+		}
+		return new String(identifier, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Determines whether the state with the given id is accepting
+	 *
+	 * @param stateId
+	 *            The id of the state
+	 * @return True if the state is accepting, false if it is not accepting
+	 *         or {@link CompiledDfa#DEAD_STATE}
+	 */
+	public boolean isAccepting(int stateId) {
+		return stateId != CompiledDfa.DEAD_STATE
+				&& (acceptance.get(stateId / Long.SIZE) & 1L << stateId) != 0;
+	}
+
+	/**
+	 * Returns the target of the transition for a state and column.
+	 *
+	 * @param stateId
+	 *            The id of the current state; must not be
+	 *            {@link CompiledDfa#DEAD_STATE}
+	 * @param column
+	 *            The column of the symbol being evaluated
+	 * @return The id of the next state, or {@link CompiledDfa#DEAD_STATE}
+	 */
+	public int step(int stateId, int column) {
+		long index = (long) stateId * symbols.length + column;
+		return transitions[(int) (index >>> SEGMENT_BITS)].get((int) index & SEGMENT_MASK);
+	}
+
+	/**
+	 * Evaluates the input starting from the starting state.
+	 *
+	 * @param input
+	 *            The symbols to be evaluated
+	 * @return The id of the final state, or {@link CompiledDfa#DEAD_STATE} if
+	 *         a transition was missing
+	 */
+	public int evaluateToStateId(Iterable<T> input) {
+		int currentState = startingState;
+		for (T symbol : input) {
+			currentState = step(currentState, checkedColumn(getColumn(symbol)));
+			if (currentState == CompiledDfa.DEAD_STATE) {
+				return CompiledDfa.DEAD_STATE;
+			}
+		}
+		return currentState;
+	}
+
+	/**
+	 * Evaluates the characters of a CharSequence without boxing them.
+	 *
+	 * @param input
+	 *            The characters to be evaluated
+	 * @return The id of the final state, or {@link CompiledDfa#DEAD_STATE} if
+	 *         a transition was missing
+	 */
+	public int evaluateToStateId(CharSequence input) {
+		int currentState = startingState;
+		for (int i = 0; i < input.length(); i++) {
+			currentState = step(currentState, checkedColumn(getColumn(input.charAt(i))));
+			if (currentState == CompiledDfa.DEAD_STATE) {
+				return CompiledDfa.DEAD_STATE;
+			}
+		}
+		return currentState;
+	}
+
+	/**
+	 * @param input
+	 *            The symbols to be evaluated
+	 * @return True if the input is accepted
+	 */
+	public boolean accepts(Iterable<T> input) {
+		return isAccepting(evaluateToStateId(input));
+	}
+
+	/**
+	 * @param input
+	 *            The characters to be evaluated
+	 * @return True if the input is accepted
+	 */
+	public boolean accepts(CharSequence input) {
+		return isAccepting(evaluateToStateId(input));
+	}
+
+	/**
+	 * Copies the automaton into memory, creating a State for each state.
+	 *
+	 * @return A CompiledDfa with the same states, symbols and transitions
+	 * @throws IllegalStateException
+	 *             if the transition table has more than 2^31 entries, which
+	 *             do not fit into a single array
+	 */
+	public CompiledDfa<T> toCompiledDfa() {
+		if ((long) stateCount * symbols.length > Integer.MAX_VALUE) {
+			throw new IllegalStateException("The transition table exceeds 2^31 entries");
+		}
+		// A CompiledDfa starts in state 0, so the starting state swaps its id
+		// with state 0
+		State[] states = new State[stateCount];
+		for (int stateId = 0; stateId < stateCount; stateId++) {
+			states[compiledId(stateId)] = new State(getStateIdentifier(stateId), isAccepting(stateId));
+		}
+		int[] compiledTransitions = new int[stateCount * symbols.length];
+		for (int stateId = 0; stateId < stateCount; stateId++) {
+			for (int column = 0; column < symbols.length; column++) {
+				int target = step(stateId, column);
+				compiledTransitions[compiledId(stateId) * symbols.length + column] =
+						target == CompiledDfa.DEAD_STATE ? target : compiledId(target);
+			}
+		}
+		return new CompiledDfa<>(states, symbols.clone(), compiledTransitions);
+	}
+
+	private int compiledId(int stateId) {
+		if (stateId == startingState) {
+			return 0;
+		}
+		return stateId == 0 ? startingState : stateId;
+	}
+
+	private int checkedColumn(int column) {
+		if (column < 0) {
+			throw new IllegalArgumentException(
+					"Symbol was not defined in the alphabet");
+		}
+		return column;
+	}
+
+	@SuppressWarnings("unchecked")
+	private T symbol(int column) {
+		return (T) symbols[column];
+	}
+}
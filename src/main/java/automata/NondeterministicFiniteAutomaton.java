@@ -0,0 +1,445 @@
+package automata;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import automata.interfaces.IAlphabet;
+import automata.interfaces.INondeterministicFiniteAutomaton;
+
+/**
+ * Implements a nondeterministic finite automaton. For further information,
+ * see https://en.wikipedia.org/wiki/Nondeterministic_finite_automaton
+ *
+ * The states are numbered in the order they are added. During evaluation,
+ * the set of active states is a bitset of n/64 longs. The successors of each
+ * state and symbol are precomputed before the first evaluation, either as a
+ * bitset which is ORed into the next set, or as a list of states if that is
+ * smaller. Evaluating a symbol therefore allocates nothing, and inputs of any
+ * length are evaluated in constant memory.
+ *
+ * @author 2d6
+ */
+public class NondeterministicFiniteAutomaton<T> implements INondeterministicFiniteAutomaton<T> {
+
+	private static final int NO_STATE = -1;
+
+	private final List<State> states;
+	private final Map<String, Integer> stateIds;
+	private final List<Integer> startingStateIds;
+
+	private final IAlphabet<T> alphabet;
+	private final List<T> symbols;
+	private final Map<T, Integer> symbolColumns;
+
+	private int[] transitionOrigins;
+	private int[] transitionColumns;
+	private int[] transitionTargets;
+	private int transitionCount;
+
+	/*
+	 * Open addressing table of transition index + 1, or 0 for an empty slot,
+	 * which finds duplicate transitions without boxing; kept at most half full
+	 */
+	private int[] transitionSlots;
+
+	private SuccessorTable successorTable;
+
+	/**
+	 * Creates a new automaton with a starting state.
+	 *
+	 * @param identifier
+	 *            The identifier of the starting state
+	 * @param isAccepting
+	 *            Acceptance status of the starting state. True if the starting
+	 *            state is accepting.
+	 * @param symbols
+	 *            The valid symbols of the automaton
+	 */
+	public NondeterministicFiniteAutomaton(String identifier, boolean isAccepting, Set<T> symbols) {
+		if (symbols == null) {
+			throw new IllegalArgumentException("The list of symbols must not be null");
+		}
+		this.states = new ArrayList<>();
+		this.stateIds = new HashMap<>();
+		this.startingStateIds = new ArrayList<>();
+
+		this.alphabet = new Alphabet<>(symbols);
+		this.symbols = new ArrayList<>(symbols);
+		this.symbolColumns = new HashMap<>();
+		for (int column = 0; column < this.symbols.size(); column++) {
+			symbolColumns.put(this.symbols.get(column), column);
+		}
+
+		this.transitionSlots = new int[32];
+		this.transitionOrigins = new int[16];
+		this.transitionColumns = new int[16];
+		this.transitionTargets = new int[16];
+
+		addState(identifier, isAccepting);
+		addStartingState(identifier);
+	}
+
+	@Override
+	public Set<State> getStartingStates() {
+		Set<State> startingStates = new LinkedHashSet<>();
+		for (int stateId : startingStateIds) {
+			startingStates.add(states.get(stateId));
+		}
+		return startingStates;
+	}
+
+	/**
+	 * Declares an existing state to be an additional starting state.
+	 *
+	 * @param identifier
+	 *            The identifier of the state
+	 */
+	public void addStartingState(String identifier) {
+		int stateId = getStateId(identifier);
+		if (stateId == NO_STATE) {
+			throw new IllegalArgumentException(
+					"The automaton does not contain a state with the given identifier");
+		}
+		if (!startingStateIds.contains(stateId)) {
+			startingStateIds.add(stateId);
+			successorTable = null;
+		}
+	}
+
+	@Override
+	public State getState(String identifier) {
+		int stateId = getStateId(identifier);
+		return stateId == NO_STATE ? null : states.get(stateId);
+	}
+
+	@Override
+	public void addState(String identifier, boolean isAccepting) {
+		if (stateIds.containsKey(identifier)) {
+			throw new IllegalArgumentException(
+					"The automaton already contained a state with the given identifier");
+		}
+		stateIds.put(identifier, states.size());
+		states.add(new State(identifier, isAccepting));
+		successorTable = null;
+	}
+
+	/**
+	 * Adds a transition to the automaton. In contrast to deterministic
+	 * automata, a state may have several transitions for the same symbol.
+	 * Adding the same transition twice throws an IllegalArgumentException.
+	 *
+	 * @see automata.interfaces.IAutomaton#addTransition(String, String, Object)
+	 */
+	@Override
+	public void addTransition(String initialStateIdentifier,
+			String targetStateIdentifier, T symbol) {
+		int origin = getStateId(initialStateIdentifier);
+		int target = getStateId(targetStateIdentifier);
+		if (origin == NO_STATE) {
+			throw new NullPointerException("Initial state may not be null");
+		}
+		else if (target == NO_STATE) {
+			throw new NullPointerException("Target state may not be null");
+		}
+		else if (symbol == null) {
+			throw new NullPointerException("Symbol may not be null");
+		}
+		else if (!alphabet.isValid(symbol)) {
+			throw new IllegalArgumentException(
+					"Symbol was not defined in the alphabet");
+		}
+
+		int column = symbolColumns.get(symbol);
+		if (containsTransition(origin, column, target)) {
+			throw new IllegalArgumentException(
+					"Transition was already defined within the automaton");
+		}
+
+		if (transitionCount == transitionOrigins.length) {
+			transitionOrigins = grow(transitionOrigins);
+			transitionColumns = grow(transitionColumns);
+			transitionTargets = grow(transitionTargets);
+		}
+		transitionOrigins[transitionCount] = origin;
+		transitionColumns[transitionCount] = column;
+		transitionTargets[transitionCount] = target;
+		transitionCount++;
+		if (transitionCount * 2 > transitionSlots.length) {
+			transitionSlots = new int[transitionSlots.length * 2];
+			for (int transition = 0; transition < transitionCount; transition++) {
+				insertSlot(transition);
+			}
+		}
+		else {
+			insertSlot(transitionCount - 1);
+		}
+		successorTable = null;
+	}
+
+	/**
+	 * Evaluates the input starting from all starting states.
+	 *
+	 * @see INondeterministicFiniteAutomaton#evaluate(Iterable)
+	 */
+	@Override
+	public Set<State> evaluate(Iterable<T> input) {
+		SuccessorTable table = getSuccessorTable();
+		long[] currentStates = table.startingStates.clone();
+		long[] nextStates = new long[currentStates.length];
+		for (T symbol : input) {
+			if (!table.step(currentStates, nextStates, column(symbol))) {
+				return Collections.singleton(new State(symbol.toString(), false));
+			}
+			long[] swap = currentStates;
+			currentStates = nextStates;
+			nextStates = swap;
+		}
+		return toStates(currentStates);
+	}
+
+	/**
+	 * Determines whether the automaton accepts the input, i.e. whether at
+	 * least one accepting state is active after evaluating the last symbol.
+	 *
+	 * @param input
+	 *            The symbols to be evaluated
+	 * @return True if the input is accepted
+	 */
+	public boolean accepts(Iterable<T> input) {
+		SuccessorTable table = getSuccessorTable();
+		long[] currentStates = table.startingStates.clone();
+		long[] nextStates = new long[currentStates.length];
+		for (T symbol : input) {
+			if (!table.step(currentStates, nextStates, column(symbol))) {
+				return false;
+			}
+			long[] swap = currentStates;
+			currentStates = nextStates;
+			nextStates = swap;
+		}
+		return table.containsAcceptingState(currentStates);
+	}
+
+	/**
+	 * @return The symbols of the automaton
+	 */
+	public Set<T> getSymbols() {
+		return alphabet.getSymbols();
+	}
+
+	/**
+	 * @return The number of states
+	 */
+	int getStateCount() {
+		return states.size();
+	}
+
+	/**
+	 * @param stateId
+	 *            The number of the state
+	 * @return The state with the given number
+	 */
+	State getState(int stateId) {
+		return states.get(stateId);
+	}
+
+	/**
+	 * @return The symbols of the automaton, indexed by their column
+	 */
+	List<T> getColumnSymbols() {
+		return symbols;
+	}
+
+	/**
+	 * @return The precomputed successors of all states, which stay valid
+	 *         until the automaton is modified
+	 */
+	SuccessorTable getSuccessorTable() {
+		if (successorTable == null) {
+			successorTable = new SuccessorTable();
+		}
+		return successorTable;
+	}
+
+	private int getStateId(String identifier) {
+		Integer stateId = stateIds.get(identifier);
+		return stateId == null ? NO_STATE : stateId;
+	}
+
+	private int column(T symbol) {
+		Integer column = symbolColumns.get(symbol);
+		if (column == null) {
+			throw new IllegalArgumentException(
+					"Symbol was not defined in the alphabet");
+		}
+		return column;
+	}
+
+	private boolean containsTransition(int origin, int column, int target) {
+		int mask = transitionSlots.length - 1;
+		for (int slot = hash(origin, column, target) & mask; transitionSlots[slot] != 0; slot = (slot + 1) & mask) {
+			int transition = transitionSlots[slot] - 1;
+			if (transitionOrigins[transition] == origin && transitionColumns[transition] == column
+					&& transitionTargets[transition] == target) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void insertSlot(int transition) {
+		int mask = transitionSlots.length - 1;
+		int slot = hash(transitionOrigins[transition], transitionColumns[transition],
+				transitionTargets[transition]) & mask;
+		while (transitionSlots[slot] != 0) {
+			slot = (slot + 1) & mask;
+		}
+		transitionSlots[slot] = transition + 1;
+	}
+
+	private static int hash(int origin, int column, int target) {
+		int hash = ((origin * 31) + column) * 31 + target;
+		hash *= 0x9E3779B9;
+		return hash ^ (hash >>> 16);
+	}
+
+	private Set<State> toStates(long[] stateSet) {
+		Set<State> result = new LinkedHashSet<>();
+		for (int word = 0; word < stateSet.length; word++) {
+			long bits = stateSet[word];
+			while (bits != 0) {
+				result.add(states.get(word * Long.SIZE + Long.numberOfTrailingZeros(bits)));
+				bits &= bits - 1;
+			}
+		}
+		return result;
+	}
+
+	private static int[] grow(int[] array) {
+		int[] grown = new int[array.length * 2];
+		System.arraycopy(array, 0, grown, 0, array.length);
+		return grown;
+	}
+
+	/**
+	 * The successors of all states for all symbols as a snapshot of the
+	 * automaton. Each successor set is stored as a bitset if it contains at
+	 * least as many states as a bitset has words, and as a list of states
+	 * otherwise.
+	 */
+	final class SuccessorTable {
+
+		final int wordCount;
+		final int symbolCount;
+		final long[] startingStates;
+		final long[] acceptingStates;
+
+		private final long[][] successorSets;
+		private final int[][] successorLists;
+
+		private SuccessorTable() {
+			int stateCount = states.size();
+			wordCount = (stateCount + Long.SIZE - 1) / Long.SIZE;
+			symbolCount = symbols.size();
+
+			startingStates = new long[wordCount];
+			for (int stateId : startingStateIds) {
+				add(startingStates, stateId);
+			}
+			acceptingStates = new long[wordCount];
+			for (int stateId = 0; stateId < stateCount; stateId++) {
+				if (states.get(stateId).isAccepting()) {
+					add(acceptingStates, stateId);
+				}
+			}
+
+			int[] successorCounts = new int[stateCount * symbolCount];
+			for (int i = 0; i < transitionCount; i++) {
+				successorCounts[transitionOrigins[i] * symbolCount + transitionColumns[i]]++;
+			}
+			successorSets = new long[successorCounts.length][];
+			successorLists = new int[successorCounts.length][];
+			for (int row = 0; row < successorCounts.length; row++) {
+				if (successorCounts[row] >= wordCount) {
+					successorSets[row] = new long[wordCount];
+				}
+				else if (successorCounts[row] > 0) {
+					successorLists[row] = new int[successorCounts[row]];
+				}
+			}
+			int[] filled = new int[successorCounts.length];
+			for (int i = 0; i < transitionCount; i++) {
+				int row = transitionOrigins[i] * symbolCount + transitionColumns[i];
+				if (successorSets[row] != null) {
+					add(successorSets[row], transitionTargets[i]);
+				}
+				else {
+					successorLists[row][filled[row]++] = transitionTargets[i];
+				}
+			}
+		}
+
+		/**
+		 * Computes the states reachable from a set of states by a symbol.
+		 *
+		 * @param currentStates
+		 *            The active states
+		 * @param nextStates
+		 *            Receives the states after the step; its previous content
+		 *            is overwritten
+		 * @param column
+		 *            The column of the symbol
+		 * @return True if at least one state is active after the step
+		 */
+		boolean step(long[] currentStates, long[] nextStates, int column) {
+			for (int word = 0; word < wordCount; word++) {
+				nextStates[word] = 0;
+			}
+			boolean anyActive = false;
+			for (int word = 0; word < wordCount; word++) {
+				long bits = currentStates[word];
+				while (bits != 0) {
+					int row = (word * Long.SIZE + Long.numberOfTrailingZeros(bits)) * symbolCount + column;
+					bits &= bits - 1;
+					long[] successorSet = successorSets[row];
+					if (successorSet != null) {
+						for (int i = 0; i < wordCount; i++) {
+							nextStates[i] |= successorSet[i];
+						}
+						anyActive = true;
+					}
+					else if (successorLists[row] != null) {
+						for (int successor : successorLists[row]) {
+							add(nextStates, successor);
+						}
+						anyActive = true;
+					}
+				}
+			}
+			return anyActive;
+		}
+
+		/**
+		 * @param stateSet
+		 *            A set of states
+		 * @return True if the set contains an accepting state
+		 */
+		boolean containsAcceptingState(long[] stateSet) {
+			for (int word = 0; word < wordCount; word++) {
+				if ((stateSet[word] & acceptingStates[word]) != 0) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		private void add(long[] stateSet, int stateId) {
+			stateSet[stateId / Long.SIZE] |= 1L << stateId;
+		}
+	}
+}
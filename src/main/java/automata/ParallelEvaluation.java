@@ -0,0 +1,360 @@
+package automata;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Evaluates a single long input on a {@link CompiledDfa} using several
+ * threads. The input is split into chunks which are evaluated in parallel.
+ * Since the state in which a chunk is entered is not known in advance, each
+ * chunk is evaluated from every state of the automaton at once, yielding a
+ * mapping from entry state to exit state. Paths which reach the same state
+ * at the same position are merged, so in most automata only a few paths
+ * remain after some symbols. The mappings are then composed in order, which
+ * gives exactly the result of the sequential evaluation.
+ *
+ * For automata with more than 256 states, each chunk is only evaluated from
+ * a single speculated entry state: the state reached by evaluating the
+ * symbols just before the chunk from the starting state. If the speculation
+ * turns out to be wrong, the chunk is evaluated again from the actual entry
+ * state.
+ *
+ * @author 2d6
+ */
+class ParallelEvaluation<T> {
+
+	/**
+	 * Inputs shorter than this are evaluated by a single chunk
+	 */
+	static final int MINIMUM_CHUNK_LENGTH = 1 << 14;
+
+	private static final int MAXIMUM_LANES = 256;
+	private static final int CHUNKS_PER_THREAD = 4;
+	private static final int SPECULATION_LENGTH = 64;
+	private static final int MERGE_INTERVAL = 16;
+
+	private static final int INVALID_SYMBOL = -2;
+	private static final int NO_LANE = -1;
+
+	private final CompiledDfa<T> dfa;
+	private final Symbols symbols;
+	private final ForkJoinPool pool;
+
+	/**
+	 * @param dfa
+	 *            The automaton evaluating the input
+	 * @param symbols
+	 *            The input
+	 * @param pool
+	 *            The pool whose threads evaluate the chunks
+	 */
+	ParallelEvaluation(CompiledDfa<T> dfa, Symbols symbols, ForkJoinPool pool) {
+		if (pool == null) {
+			throw new NullPointerException("Pool may not be null");
+		}
+		this.dfa = dfa;
+		this.symbols = symbols;
+		this.pool = pool;
+	}
+
+	/**
+	 * @return The state the automaton was in after evaluating the last
+	 *         symbol, or a new non-accepting State named after the symbol for
+	 *         which no transition has been defined.
+	 */
+	State evaluate() {
+		int length = symbols.length();
+		int chunkCount = (int) Math.min((long) pool.getParallelism() * CHUNKS_PER_THREAD,
+				length / MINIMUM_CHUNK_LENGTH);
+
+		final List<Chunk> chunks = new ArrayList<>();
+		if (chunkCount < 2) {
+			chunks.add(new Chunk(0, length));
+			chunks.get(0).evaluate(new int[] { dfa.getStartingStateId() });
+		}
+		else {
+			for (int chunk = 0; chunk < chunkCount; chunk++) {
+				chunks.add(new Chunk((int) ((long) length * chunk / chunkCount),
+						(int) ((long) length * (chunk + 1) / chunkCount)));
+			}
+			pool.invoke(new RecursiveAction() {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected void compute() {
+					invokeAll(chunks);
+				}
+			});
+		}
+
+		int state = dfa.getStartingStateId();
+		for (Chunk chunk : chunks) {
+			int lane = chunk.laneOf(state);
+			if (lane == NO_LANE) {
+				chunk.evaluate(new int[] { state });
+				lane = 0;
+			}
+			int exit = chunk.exits[lane];
+			if (exit == CompiledDfa.DEAD_STATE) {
+				return symbols.deadState(chunk.stops[lane]);
+			}
+			else if (exit == INVALID_SYMBOL) {
+				throw new IllegalArgumentException(
+						"Symbol was not defined in the alphabet");
+			}
+			state = exit;
+		}
+		return dfa.getState(state);
+	}
+
+	/**
+	 * Random access to the columns of the symbols of an input
+	 */
+	interface Symbols {
+
+		/**
+		 * @return The number of symbols
+		 */
+		int length();
+
+		/**
+		 * @param position
+		 *            The position of a symbol
+		 * @return The column of the symbol, or -1 if it is not part of the
+		 *         alphabet
+		 */
+		int column(int position);
+
+		/**
+		 * @param position
+		 *            The position of a symbol
+		 * @return A new non-accepting State named after the symbol
+		 */
+		State deadState(int position);
+	}
+
+	/**
+	 * The symbols of a list; lists without random access are copied
+	 */
+	static final class ListSymbols<T> implements Symbols {
+		private final CompiledDfa<T> dfa;
+		private final List<? extends T> input;
+
+		ListSymbols(CompiledDfa<T> dfa, List<? extends T> input) {
+			if (input == null) {
+				throw new NullPointerException("Input may not be null");
+			}
+			this.dfa = dfa;
+			this.input = input instanceof RandomAccess ? input : new ArrayList<>(input);
+		}
+
+		@Override
+		public int length() {
+			return input.size();
+		}
+
+		@Override
+		public int column(int position) {
+			return dfa.getColumn(input.get(position));
+		}
+
+		@Override
+		public State deadState(int position) {
+			return dfa.missingTransition(column(position));
+		}
+	}
+
+	/**
+	 * The characters of a CharSequence, which are not boxed
+	 */
+	static final class CharSymbols implements Symbols {
+		private final CompiledDfa<?> dfa;
+		private final CharSequence input;
+
+		CharSymbols(CompiledDfa<?> dfa, CharSequence input) {
+			if (input == null) {
+				throw new NullPointerException("Input may not be null");
+			}
+			this.dfa = dfa;
+			this.input = input;
+		}
+
+		@Override
+		public int length() {
+			return input.length();
+		}
+
+		@Override
+		public int column(int position) {
+			return dfa.getColumn(input.charAt(position));
+		}
+
+		@Override
+		public State deadState(int position) {
+			return dfa.missingTransition(column(position));
+		}
+	}
+
+	/**
+	 * The symbols [start, end) of the input and, once evaluated, the exit of
+	 * each lane. A lane is the path starting in one of the entry states.
+	 */
+	private final class Chunk extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final int start;
+		private final int end;
+
+		private int[] entries;
+		private boolean allStates;
+
+		/*
+		 * The exit of each lane is a state id, DEAD_STATE or INVALID_SYMBOL;
+		 * in the latter two cases, stops holds the position of the symbol.
+		 */
+		private int[] exits;
+		private int[] stops;
+
+		private Chunk(int start, int end) {
+			this.start = start;
+			this.end = end;
+		}
+
+		@Override
+		protected void compute() {
+			if (start == 0) {
+				evaluate(new int[] { dfa.getStartingStateId() });
+			}
+			else if (dfa.getStateCount() <= MAXIMUM_LANES) {
+				int[] allEntries = new int[dfa.getStateCount()];
+				for (int state = 0; state < allEntries.length; state++) {
+					allEntries[state] = state;
+				}
+				evaluate(allEntries);
+				allStates = true;
+			}
+			else {
+				evaluate(new int[] { speculateEntry() });
+			}
+		}
+
+		/*
+		 * Returns the lane of an entry state, or NO_LANE if the chunk was not
+		 * evaluated from that state
+		 */
+		private int laneOf(int state) {
+			if (allStates) {
+				return state;
+			}
+			for (int lane = 0; lane < entries.length; lane++) {
+				if (entries[lane] == state) {
+					return lane;
+				}
+			}
+			return NO_LANE;
+		}
+
+		private int speculateEntry() {
+			int state = dfa.getStartingStateId();
+			for (int position = Math.max(0, start - SPECULATION_LENGTH); position < start; position++) {
+				int column = symbols.column(position);
+				if (column < 0 || (state = dfa.step(state, column)) == CompiledDfa.DEAD_STATE) {
+					return dfa.getStartingStateId();
+				}
+			}
+			return state;
+		}
+
+		private void evaluate(int[] entryStates) {
+			int laneCount = entryStates.length;
+			int[] states = entryStates.clone();
+			int[] exits = new int[laneCount];
+			int[] stops = new int[laneCount];
+			int[] mergedInto = new int[laneCount];
+			Arrays.fill(mergedInto, NO_LANE);
+
+			int[] active = new int[laneCount];
+			for (int lane = 0; lane < laneCount; lane++) {
+				active[lane] = lane;
+			}
+			int activeCount = laneCount;
+			int[] owners = laneCount > 1 ? new int[dfa.getStateCount()] : null;
+			if (owners != null) {
+				Arrays.fill(owners, NO_LANE);
+			}
+
+			for (int position = start; position < end && activeCount > 0; position++) {
+				int column = symbols.column(position);
+				if (column < 0) {
+					for (int i = 0; i < activeCount; i++) {
+						exits[active[i]] = INVALID_SYMBOL;
+						stops[active[i]] = position;
+					}
+					activeCount = 0;
+					break;
+				}
+
+				int remaining = 0;
+				for (int i = 0; i < activeCount; i++) {
+					int lane = active[i];
+					int next = dfa.step(states[lane], column);
+					if (next == CompiledDfa.DEAD_STATE) {
+						exits[lane] = CompiledDfa.DEAD_STATE;
+						stops[lane] = position;
+					}
+					else {
+						states[lane] = next;
+						active[remaining++] = lane;
+					}
+				}
+				activeCount = remaining;
+
+				if (activeCount > 1 && (position - start) % MERGE_INTERVAL == 0) {
+					activeCount = merge(states, active, activeCount, mergedInto, owners);
+				}
+			}
+			for (int i = 0; i < activeCount; i++) {
+				exits[active[i]] = states[active[i]];
+			}
+
+			for (int lane = 0; lane < laneCount; lane++) {
+				int root = lane;
+				while (mergedInto[root] != NO_LANE) {
+					root = mergedInto[root];
+				}
+				exits[lane] = exits[root];
+				stops[lane] = stops[root];
+			}
+			this.entries = entryStates;
+			this.exits = exits;
+			this.stops = stops;
+		}
+
+		/*
+		 * Merges lanes in the same state, since they share all further steps.
+		 * Returns the number of lanes which remain active.
+		 */
+		private int merge(int[] states, int[] active, int activeCount, int[] mergedInto, int[] owners) {
+			int remaining = 0;
+			for (int i = 0; i < activeCount; i++) {
+				int lane = active[i];
+				int owner = owners[states[lane]];
+				if (owner == NO_LANE) {
+					owners[states[lane]] = lane;
+					active[remaining++] = lane;
+				}
+				else {
+					mergedInto[lane] = owner;
+				}
+			}
+			for (int i = 0; i < remaining; i++) {
+				owners[states[active[i]]] = NO_LANE;
+			}
+			return remaining;
+		}
+	}
+}
@@ -0,0 +1,85 @@
+package automata;
+
+import java.util.Arrays;
+
+/**
+ * Records the ids of the states visited by an evaluation, beginning with the
+ * starting state. The buffer is kept between evaluations and only grows, so
+ * tracing many inputs of similar length does not allocate. A missing
+ * transition is recorded as {@link CompiledDfa#DEAD_STATE}.
+ *
+ * A PathTracer records one evaluation at a time and must not be shared by
+ * several threads.
+ *
+ * @author 2d6
+ */
+public class PathTracer implements EvaluationListener {
+
+	private int[] path;
+	private int length;
+
+	/**
+	 * Creates a new tracer
+	 */
+	public PathTracer() {
+		this(16);
+	}
+
+	/**
+	 * Creates a new tracer with a buffer for paths of the given length
+	 *
+	 * @param capacity
+	 *            The initial number of states the buffer can hold
+	 */
+	public PathTracer(int capacity) {
+		this.path = new int[Math.max(1, capacity)];
+	}
+
+	@Override
+	public void onStart(int stateId) {
+		length = 0;
+		append(stateId);
+	}
+
+	@Override
+	public void onTransition(int stateId, int column, int nextStateId) {
+		append(nextStateId);
+	}
+
+	@Override
+	public void onEnd(int stateId, int length) {
+	}
+
+	/**
+	 * @return The number of recorded states
+	 */
+	public int getLength() {
+		return length;
+	}
+
+	/**
+	 * @param index
+	 *            The position within the path; 0 is the starting state
+	 * @return The id of the state at the position
+	 */
+	public int getStateId(int index) {
+		if (index < 0 || index >= length) {
+			throw new IndexOutOfBoundsException("The path does not contain index " + index);
+		}
+		return path[index];
+	}
+
+	/**
+	 * @return A copy of the recorded state ids
+	 */
+	public int[] toArray() {
+		return Arrays.copyOf(path, length);
+	}
+
+	private void append(int stateId) {
+		if (length == path.length) {
+			path = Arrays.copyOf(path, length * 2);
+		}
+		path[length++] = stateId;
+	}
+}
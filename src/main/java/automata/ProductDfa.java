@@ -0,0 +1,457 @@
+package automata;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import automata.interfaces.IDeterministicFiniteAutomaton;
+
+/**
+ * The product of two deterministic finite automata, accepting the
+ * intersection, union, difference or symmetric difference of their languages.
+ *
+ * The product is constructed lazily: a state of the product is a pair of
+ * states of the operands, and it is only created when it is reached during
+ * evaluation or exploration. Combining two large automata therefore costs
+ * only as much as the part of the product that is actually visited. Missing
+ * transitions of an operand lead to a dead state which accepts nothing; the
+ * product has a transition for a symbol unless the resulting pair can never
+ * be accepting.
+ *
+ * The operands must not be changed while the product is in use. A
+ * ProductDfa caches the pairs it has created and is not thread-safe; to
+ * share it between threads, use the snapshot returned by {@link #compile()}.
+ *
+ * @author 2d6
+ */
+public class ProductDfa<T> implements IDeterministicFiniteAutomaton<T> {
+
+	/**
+	 * The ways of combining the acceptance status of two states
+	 */
+	enum Operation {
+		INTERSECTION {
+			@Override
+			boolean accepts(boolean acceptingA, boolean acceptingB) {
+				return acceptingA && acceptingB;
+			}
+
+			@Override
+			boolean isDead(State stateA, State stateB) {
+				return stateA == null || stateB == null;
+			}
+		},
+		UNION {
+			@Override
+			boolean accepts(boolean acceptingA, boolean acceptingB) {
+				return acceptingA || acceptingB;
+			}
+
+			@Override
+			boolean isDead(State stateA, State stateB) {
+				return stateA == null && stateB == null;
+			}
+		},
+		DIFFERENCE {
+			@Override
+			boolean accepts(boolean acceptingA, boolean acceptingB) {
+				return acceptingA && !acceptingB;
+			}
+
+			@Override
+			boolean isDead(State stateA, State stateB) {
+				return stateA == null;
+			}
+		},
+		SYMMETRIC_DIFFERENCE {
+			@Override
+			boolean accepts(boolean acceptingA, boolean acceptingB) {
+				return acceptingA != acceptingB;
+			}
+
+			@Override
+			boolean isDead(State stateA, State stateB) {
+				return stateA == null && stateB == null;
+			}
+		};
+
+		abstract boolean accepts(boolean acceptingA, boolean acceptingB);
+
+		/*
+		 * Determines whether a pair can never be accepting, no matter which
+		 * symbols follow; a missing state stands for the dead state
+		 */
+		abstract boolean isDead(State stateA, State stateB);
+	}
+
+	private final IDeterministicFiniteAutomaton<T> dfaA;
+	private final IDeterministicFiniteAutomaton<T> dfaB;
+	private final Operation operation;
+
+	private final Map<Pair, State> productStates = new HashMap<>();
+	private final Map<State, Pair> pairs = new IdentityHashMap<>();
+	private final Map<String, State> statesByIdentifier = new HashMap<>();
+	private final Map<T, State> missingTransitionStates = new HashMap<>();
+	private final State startingState;
+
+	private Set<T> symbolSet;
+	private CompiledDfa<T> compiled;
+
+	ProductDfa(IDeterministicFiniteAutomaton<T> dfaA,
+			IDeterministicFiniteAutomaton<T> dfaB, Operation operation) {
+		if (dfaA == null || dfaB == null) {
+			throw new NullPointerException("Automaton may not be null");
+		}
+		this.dfaA = dfaA;
+		this.dfaB = dfaB;
+		this.operation = operation;
+		this.startingState = productState(dfaA.getStartingState(), dfaB.getStartingState());
+	}
+
+	/**
+	 * Determines whether the product accepts no input at all. The product is
+	 * explored breadth-first from its starting state until an accepting state
+	 * is found, so only the states closer to the starting state than the
+	 * nearest accepting state are created.
+	 *
+	 * @return True if no input is accepted
+	 */
+	public boolean isEmpty() {
+		return findAcceptedInput() == null;
+	}
+
+	/**
+	 * Searches for a shortest input accepted by the product.
+	 *
+	 * @return A shortest accepted input, or null if no input is accepted
+	 */
+	public List<T> findAcceptedInput() {
+		List<State> explored = new ArrayList<>();
+		Map<State, Integer> predecessors = new IdentityHashMap<>();
+		List<T> symbols = new ArrayList<>();
+		explored.add(startingState);
+		predecessors.put(startingState, -1);
+		symbols.add(null);
+
+		for (int index = 0; index < explored.size(); index++) {
+			State currentState = explored.get(index);
+			if (currentState.isAccepting()) {
+				List<T> input = new ArrayList<>();
+				for (int step = index; step > 0; step = predecessors.get(explored.get(step))) {
+					input.add(symbols.get(step));
+				}
+				Collections.reverse(input);
+				return input;
+			}
+			for (T symbol : getValidSymbols(currentState)) {
+				State nextState = getNextState(currentState, symbol);
+				if (!predecessors.containsKey(nextState)) {
+					predecessors.put(nextState, index);
+					explored.add(nextState);
+					symbols.add(symbol);
+				}
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public State getStartingState() {
+		return startingState;
+	}
+
+	/**
+	 * Returns a state of the product which has already been created. The
+	 * identifier of a product state consists of the identifiers of its pair,
+	 * e.g. "(a,b)", with "-" standing for a missing state.
+	 *
+	 * @param identifier
+	 *            The identifier of the requested state
+	 * @return The state, or null if it does not exist or has not been
+	 *         reached yet
+	 */
+	@Override
+	public State getState(String identifier) {
+		return statesByIdentifier.get(identifier);
+	}
+
+	@Override
+	public State getNextState(State currentState, T symbol) {
+		Pair pair = pairs.get(currentState);
+		if (pair == null) {
+			return null;
+		}
+		State nextStateA = null;
+		State nextStateB = null;
+		IllegalArgumentException invalidSymbol = null;
+		// The operands may have different alphabets; a symbol missing from
+		// the alphabet of one operand leads that operand to its dead state
+		try {
+			nextStateA = pair.stateA == null ? null : dfaA.getNextState(pair.stateA, symbol);
+		}
+		catch (IllegalArgumentException e) {
+			invalidSymbol = e;
+		}
+		try {
+			nextStateB = pair.stateB == null ? null : dfaB.getNextState(pair.stateB, symbol);
+		}
+		catch (IllegalArgumentException e) {
+			if (invalidSymbol != null) {
+				throw e;
+			}
+		}
+		if (operation.isDead(nextStateA, nextStateB)) {
+			return null;
+		}
+		return productState(nextStateA, nextStateB);
+	}
+
+	@Override
+	public Set<T> getValidSymbols(State currentState) {
+		Set<T> validSymbols = new LinkedHashSet<>();
+		Pair pair = pairs.get(currentState);
+		if (pair == null) {
+			return validSymbols;
+		}
+		if (pair.stateA != null) {
+			validSymbols.addAll(dfaA.getValidSymbols(pair.stateA));
+		}
+		if (operation != Operation.DIFFERENCE && pair.stateB != null) {
+			if (operation == Operation.INTERSECTION) {
+				validSymbols.retainAll(dfaB.getValidSymbols(pair.stateB));
+			}
+			else {
+				validSymbols.addAll(dfaB.getValidSymbols(pair.stateB));
+			}
+		}
+		return validSymbols;
+	}
+
+	/**
+	 * @return The symbols of both operands
+	 */
+	@Override
+	public Set<T> getSymbols() {
+		if (symbolSet == null) {
+			Set<T> symbols = new LinkedHashSet<>(dfaA.getSymbols());
+			symbols.addAll(dfaB.getSymbols());
+			symbolSet = Collections.unmodifiableSet(symbols);
+		}
+		return symbolSet;
+	}
+
+	@Override
+	public State evaluate(Iterable<T> input) {
+		State currentState = startingState;
+		for (T symbol : input) {
+			State nextState = getNextState(currentState, symbol);
+			if (nextState == null) {
+				return missingTransition(symbol);
+			}
+			currentState = nextState;
+		}
+		return currentState;
+	}
+
+	/**
+	 * Determines whether the product accepts an input
+	 *
+	 * @param input
+	 *            The symbols to be evaluated
+	 * @return True if the input is accepted
+	 */
+	public boolean accepts(Iterable<T> input) {
+		return evaluate(input).isAccepting();
+	}
+
+	/**
+	 * Creates the product of this product and another automaton, accepting
+	 * the inputs accepted by both.
+	 *
+	 * @param otherDfa
+	 *            The other automaton
+	 * @return The lazily constructed product
+	 */
+	@Override
+	public ProductDfa<T> intersect(IDeterministicFiniteAutomaton<T> otherDfa) {
+		return new ProductDfa<>(this, otherDfa, Operation.INTERSECTION);
+	}
+
+	@Override
+	public ProductDfa<T> union(IDeterministicFiniteAutomaton<T> otherDfa) {
+		return new ProductDfa<>(this, otherDfa, Operation.UNION);
+	}
+
+	@Override
+	public ProductDfa<T> difference(IDeterministicFiniteAutomaton<T> otherDfa) {
+		return new ProductDfa<>(this, otherDfa, Operation.DIFFERENCE);
+	}
+
+	@Override
+	public ProductDfa<T> symmetricDifference(IDeterministicFiniteAutomaton<T> otherDfa) {
+		return new ProductDfa<>(this, otherDfa, Operation.SYMMETRIC_DIFFERENCE);
+	}
+
+	/**
+	 * Creates all states of the product reachable from its starting state
+	 * and freezes them into a {@link CompiledDfa}. The alphabet of the result
+	 * consists of the symbols of both operands, so the result evaluates the
+	 * same inputs as the product. The result is cached.
+	 *
+	 * @return The compiled automaton
+	 */
+	public CompiledDfa<T> compile() {
+		if (compiled == null) {
+			Map<State, Integer> stateIds = new IdentityHashMap<>();
+			List<State> reachableStates = new ArrayList<>();
+			stateIds.put(startingState, 0);
+			reachableStates.add(startingState);
+			for (int stateId = 0; stateId < reachableStates.size(); stateId++) {
+				State currentState = reachableStates.get(stateId);
+				for (T symbol : getValidSymbols(currentState)) {
+					State nextState = getNextState(currentState, symbol);
+					if (!stateIds.containsKey(nextState)) {
+						stateIds.put(nextState, reachableStates.size());
+						reachableStates.add(nextState);
+					}
+				}
+			}
+
+			Object[] symbols = getSymbols().toArray();
+			int[] transitions = new int[reachableStates.size() * symbols.length];
+			for (int stateId = 0; stateId < reachableStates.size(); stateId++) {
+				for (int column = 0; column < symbols.length; column++) {
+					@SuppressWarnings("unchecked")
+					T symbol = (T) symbols[column];
+					State nextState = getNextState(reachableStates.get(stateId), symbol);
+					transitions[stateId * symbols.length + column] =
+							nextState == null ? CompiledDfa.DEAD_STATE : stateIds.get(nextState);
+				}
+			}
+			compiled = new CompiledDfa<>(reachableStates.toArray(new State[reachableStates.size()]),
+					symbols, transitions);
+		}
+		return compiled;
+	}
+
+	/**
+	 * Products are immutable.
+	 *
+	 * @throws UnsupportedOperationException
+	 *             always
+	 */
+	@Override
+	public void addState(String identifier, boolean isAccepting) {
+		throw new UnsupportedOperationException("Product automata are immutable");
+	}
+
+	/**
+	 * Products are immutable.
+	 *
+	 * @throws UnsupportedOperationException
+	 *             always
+	 */
+	@Override
+	public void addTransition(String initialStateIdentifier,
+			String targetStateIdentifier, T symbol) {
+		throw new UnsupportedOperationException("Product automata are immutable");
+	}
+
+	/**
+	 * Creates all reachable states of the product, see {@link #compile()}.
+	 *
+	 * @return An immutable automaton independent of the operands
+	 */
+	@Override
+	public CompiledDfa<T> copy() {
+		return compile();
+	}
+
+	@Override
+	public DeterministicFiniteAutomaton<T> minimize() {
+		return new HopcroftMinimizer<>(compile()).minimize();
+	}
+
+	@Override
+	public boolean isStructurallyEqualTo(IDeterministicFiniteAutomaton<T> otherDfa) {
+		return new DfaStructureComparator<T>().structurallyEqual(this, otherDfa);
+	}
+
+	@Override
+	public boolean isEquivalentTo(IDeterministicFiniteAutomaton<T> otherDfa) {
+		return findDistinguishingInput(otherDfa) == null;
+	}
+
+	@Override
+	public List<T> findDistinguishingInput(IDeterministicFiniteAutomaton<T> otherDfa) {
+		return new DfaEquivalenceChecker<>(this, otherDfa).findDistinguishingInput();
+	}
+
+	@Override
+	public DfaRunner<T> newRunner() {
+		return compile().newRunner();
+	}
+
+	private State productState(State stateA, State stateB) {
+		Pair pair = new Pair(stateA, stateB);
+		State state = productStates.get(pair);
+		if (state == null) {
+			state = new State("(" + identifier(stateA) + "," + identifier(stateB) + ")",
+					operation.accepts(stateA != null && stateA.isAccepting(),
+							stateB != null && stateB.isAccepting()));
+			productStates.put(pair, state);
+			pairs.put(state, pair);
+			statesByIdentifier.put(state.getIdentifier(), state);
+		}
+		return state;
+	}
+
+	/*
+	 * Returns the result of evaluating a symbol without a transition, which
+	 * is shared by all evaluations ending on the symbol
+	 */
+	private State missingTransition(T symbol) {
+		State state = missingTransitionStates.get(symbol);
+		if (state == null) {
+			state = new State(symbol.toString(), false);
+			missingTransitionStates.put(symbol, state);
+		}
+		return state;
+	}
+
+	private static String identifier(State state) {
+		return state == null ? "-" : state.getIdentifier();
+	}
+
+	/**
+	 * A pair of operand states, compared by identity
+	 */
+	private static final class Pair {
+		private final State stateA;
+		private final State stateB;
+
+		private Pair(State stateA, State stateB) {
+			this.stateA = stateA;
+			this.stateB = stateB;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (!(other instanceof Pair)) {
+				return false;
+			}
+			Pair otherPair = (Pair) other;
+			return stateA == otherPair.stateA && stateB == otherPair.stateB;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * System.identityHashCode(stateA) + System.identityHashCode(stateB);
+		}
+	}
+}
@@ -0,0 +1,248 @@
+package automata;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import automata.interfaces.IAlphabet;
+import automata.interfaces.IFastLookup;
+import automata.interfaces.ITransitionFunction;
+
+/**
+ * Implements a transition function for ordered symbols which stores the
+ * transitions of each state as sorted, non-overlapping ranges of symbols.
+ * A transition may cover a whole range such as 'a'..'z' by
+ * {@link #addTransition(State, State, Comparable, Comparable)}; adjacent
+ * ranges leading to the same state are merged. Memory is therefore
+ * proportional to the number of distinct ranges rather than to the size of
+ * the alphabet, and a lookup is a binary search over the ranges of a state.
+ *
+ * A range covers all symbols of the alphabet between its bounds. States are
+ * compared by identity. The alphabet is fixed once it has been set, so the
+ * set returned by {@link #getSymbols()} cannot be modified.
+ *
+ * @author 2d6
+ *
+ */
+public class RangeTransitionFunction<T extends Comparable<? super T>> implements ITransitionFunction<T>, IFastLookup {
+
+	private Map<State, Ranges> transitions;
+	private IAlphabet<T> alphabet;
+	private Object[] sortedSymbols;
+
+	/**
+	 * Creates a new RangeTransitionFunction with the given symbols.
+	 *
+	 * @param symbols
+	 *            Set of the valid symbols
+	 */
+	public RangeTransitionFunction(Set<T> symbols) {
+		this();
+		this.setSymbols(symbols);
+	}
+
+	/**
+	 * Creates a new RangeTransitionFunction without an alphabet.
+	 */
+	public RangeTransitionFunction() {
+		this.transitions = new IdentityHashMap<>();
+		this.alphabet = new Alphabet<>();
+	}
+
+	@Override
+	public void addTransition(State initialState, State targetState, T symbol) {
+		addTransition(initialState, targetState, symbol, symbol);
+	}
+
+	/**
+	 * Adds a transition for all symbols between two bounds.
+	 *
+	 * @param initialState
+	 *            The initial state
+	 * @param targetState
+	 *            The state the transition points to
+	 * @param from
+	 *            The lowest symbol triggering the transition
+	 * @param to
+	 *            The highest symbol triggering the transition
+	 */
+	public void addTransition(State initialState, State targetState, T from, T to) {
+		if (this.alphabet.getSymbols().isEmpty()) {
+			throw new NullPointerException("Alphabet was not defined");
+		}
+		else if (!alphabet.isValid(from) || !alphabet.isValid(to)) {
+			throw new IllegalArgumentException(
+					"Symbol was not defined in the alphabet");
+		}
+		else if (from.compareTo(to) > 0) {
+			throw new IllegalArgumentException("The range of symbols is empty");
+		}
+
+		Ranges ranges = transitions.get(initialState);
+		if (ranges == null) {
+			ranges = new Ranges();
+			transitions.put(initialState, ranges);
+		}
+		ranges.add(from, to, targetState);
+	}
+
+	@Override
+	public State getNextState(State currentState, T symbol) {
+		if (!alphabet.isValid(symbol)) {
+			throw new IllegalArgumentException(
+					"Symbol was not defined in the alphabet");
+		}
+
+		Ranges ranges = transitions.get(currentState);
+		if (ranges == null) {
+			return null;
+		}
+		return ranges.find(symbol);
+	}
+
+	@Override
+	public void setSymbols(Set<T> symbols) {
+		if (!this.alphabet.getSymbols().isEmpty()) {
+			throw new IllegalArgumentException("An alphabet has already been defined");
+		}
+		else if (symbols == null) {
+			throw new IllegalArgumentException("The list of symbols must not be null");
+		}
+		this.alphabet.addAll(symbols);
+		this.sortedSymbols = symbols.toArray();
+		Arrays.sort(sortedSymbols);
+	}
+
+	@Override
+	public Set<T> getSymbols() {
+		return Collections.unmodifiableSet(this.alphabet.getSymbols());
+	}
+
+	@Override
+	public Set<T> getValidSymbols(State currentState) {
+		Set<T> validSymbols = new HashSet<>();
+		Ranges ranges = transitions.get(currentState);
+		if (ranges == null) {
+			return validSymbols;
+		}
+		for (int range = 0; range < ranges.count; range++) {
+			int index = Arrays.binarySearch(sortedSymbols, ranges.lows[range]);
+			while (index < sortedSymbols.length && compare(sortedSymbols[index], ranges.highs[range]) <= 0) {
+				validSymbols.add(symbol(sortedSymbols[index++]));
+			}
+		}
+		return validSymbols;
+	}
+
+	@SuppressWarnings("unchecked")
+	private T symbol(Object symbol) {
+		return (T) symbol;
+	}
+
+	@SuppressWarnings("unchecked")
+	private int compare(Object a, Object b) {
+		return ((T) a).compareTo((T) b);
+	}
+
+	/**
+	 * The ranges of one state, sorted by their lower bound
+	 */
+	private final class Ranges {
+		private Object[] lows = new Object[2];
+		private Object[] highs = new Object[2];
+		private State[] targets = new State[2];
+		private int count;
+
+		private State find(T symbol) {
+			int index = floor(symbol);
+			if (index >= 0 && compare(symbol, highs[index]) <= 0) {
+				return targets[index];
+			}
+			return null;
+		}
+
+		private void add(T from, T to, State target) {
+			int index = floor(from) + 1;
+			if (index > 0 && compare(from, highs[index - 1]) <= 0
+					|| index < count && compare(lows[index], to) <= 0) {
+				throw new IllegalArgumentException(
+						"Transition was already defined within the transition function");
+			}
+
+			boolean mergesBelow = index > 0 && targets[index - 1] == target
+					&& adjacent(highs[index - 1], from);
+			boolean mergesAbove = index < count && targets[index] == target
+					&& adjacent(to, lows[index]);
+			if (mergesBelow && mergesAbove) {
+				highs[index - 1] = highs[index];
+				remove(index);
+			}
+			else if (mergesBelow) {
+				highs[index - 1] = to;
+			}
+			else if (mergesAbove) {
+				lows[index] = from;
+			}
+			else {
+				insert(index, from, to, target);
+			}
+		}
+
+		/*
+		 * Returns the index of the last range whose lower bound is not
+		 * greater than the symbol, or -1
+		 */
+		private int floor(T symbol) {
+			int low = 0;
+			int high = count - 1;
+			while (low <= high) {
+				int middle = (low + high) >>> 1;
+				int comparison = compare(lows[middle], symbol);
+				if (comparison <= 0) {
+					low = middle + 1;
+				}
+				else {
+					high = middle - 1;
+				}
+			}
+			return high;
+		}
+
+		/*
+		 * Two ranges are adjacent if no symbol of the alphabet lies between
+		 * them
+		 */
+		private boolean adjacent(Object high, Object low) {
+			int index = Arrays.binarySearch(sortedSymbols, high);
+			return index + 1 < sortedSymbols.length && compare(sortedSymbols[index + 1], low) == 0;
+		}
+
+		private void insert(int index, T from, T to, State target) {
+			if (count == lows.length) {
+				lows = Arrays.copyOf(lows, count * 2);
+				highs = Arrays.copyOf(highs, count * 2);
+				targets = Arrays.copyOf(targets, count * 2);
+			}
+			System.arraycopy(lows, index, lows, index + 1, count - index);
+			System.arraycopy(highs, index, highs, index + 1, count - index);
+			System.arraycopy(targets, index, targets, index + 1, count - index);
+			lows[index] = from;
+			highs[index] = to;
+			targets[index] = target;
+			count++;
+		}
+
+		private void remove(int index) {
+			System.arraycopy(lows, index + 1, lows, index, count - index - 1);
+			System.arraycopy(highs, index + 1, highs, index, count - index - 1);
+			System.arraycopy(targets, index + 1, targets, index, count - index - 1);
+			count--;
+			lows[count] = null;
+			highs[count] = null;
+			targets[count] = null;
+		}
+	}
+}
@@ -0,0 +1,805 @@
+package automata;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Compiles regular expressions into automata. Matching an input with the
+ * resulting {@link StringDfa} takes a single transition per character, so
+ * unlike java.util.regex there is no backtracking and every input is matched
+ * in linear time.
+ *
+ * The expression is parsed into a syntax tree from which a Glushkov automaton
+ * is built: a {@link NondeterministicFiniteAutomaton} without epsilon
+ * transitions whose states are the starting state and the positions of the
+ * characters and classes in the expression. It is determinized with a
+ * {@link SubsetConstruction} and minimized.
+ *
+ * Since automata have a finite alphabet, the compiler is created with the set
+ * of characters inputs may consist of; "." and negated classes match every
+ * character of this alphabet. The supported syntax is:
+ * <ul>
+ * <li>literal characters and the escapes \t, \n, \r, \f, \e, \\uXXXX and
+ * backslash followed by any non-alphanumeric character</li>
+ * <li>"." matching every character of the alphabet, including line
+ * terminators, and the classes \d, \D, \s, \S, \w and \W</li>
+ * <li>character classes such as [abc], [a-z0-9_] and [^"\\]; a range
+ * contains the characters of the alphabet between its bounds, which must
+ * both be part of the alphabet</li>
+ * <li>alternation a|b, groups (ab) and (?:ab)</li>
+ * <li>repetition a*, a+, a?, a{n}, a{m,} and a{m,n}</li>
+ * <li>the anchors ^ and $ at the beginning and end of the expression</li>
+ * </ul>
+ * The automaton created by {@link #compile(String)} always matches the whole
+ * input, like {@link java.util.regex.Matcher#matches()}, so the anchors have
+ * no effect on it. To find matches within an input, use
+ * {@link #newSearcher(String)}: a leading ^ anchors the search at the
+ * beginning of the stream, while a trailing $ is rejected since the end of a
+ * stream is not known while searching; check
+ * {@link DfaSearcher.Cursor#isMatch()} after the last chunk instead.
+ *
+ * Syntax errors and characters which are not part of the alphabet are
+ * reported as {@link PatternSyntaxException}s.
+ *
+ * @author 2d6
+ */
+public class RegexCompiler {
+
+	/**
+	 * The maximum number of repetitions in a bounded repetition such as a{m,n}
+	 */
+	public static final int MAXIMUM_REPETITIONS = 1000;
+
+	private static final String STARTING_STATE = "q0";
+
+	private final Set<Character> alphabet;
+	private final char[] symbols;
+
+	/**
+	 * Creates a new compiler.
+	 *
+	 * @param alphabet
+	 *            The characters inputs may consist of
+	 */
+	public RegexCompiler(Set<Character> alphabet) {
+		if (alphabet == null) {
+			throw new IllegalArgumentException("The list of symbols must not be null");
+		}
+		this.alphabet = new HashSet<>(alphabet);
+		this.symbols = new char[alphabet.size()];
+		int index = 0;
+		for (char symbol : this.alphabet) {
+			symbols[index++] = symbol;
+		}
+		Arrays.sort(symbols);
+	}
+
+	/**
+	 * Compiles a regular expression into a minimal deterministic automaton.
+	 *
+	 * @param regex
+	 *            The regular expression
+	 * @return An automaton accepting exactly the inputs matching the
+	 *         expression
+	 * @throws PatternSyntaxException
+	 *             if the expression is invalid
+	 */
+	public StringDfa compile(String regex) {
+		CompiledDfa<Character> dfa = new SubsetConstruction<Character>()
+				.determinize(toNfa(regex)).minimize().compile();
+
+		StringDfa stringDfa = new StringDfa(dfa.getStartingState().getIdentifier(),
+				dfa.getStartingState().isAccepting(), new IndexedTransitionFunction<>(alphabet));
+		for (int stateId = 0; stateId < dfa.getStateCount(); stateId++) {
+			if (stateId != dfa.getStartingStateId()) {
+				stringDfa.addState(dfa.getIdentifier(stateId), dfa.isAccepting(stateId));
+			}
+		}
+		for (int stateId = 0; stateId < dfa.getStateCount(); stateId++) {
+			for (int column = 0; column < dfa.getSymbolCount(); column++) {
+				int target = dfa.step(stateId, column);
+				if (target != CompiledDfa.DEAD_STATE) {
+					stringDfa.addTransition(dfa.getIdentifier(stateId),
+							dfa.getIdentifier(target), dfa.getSymbol(column));
+				}
+			}
+		}
+		return stringDfa;
+	}
+
+	/**
+	 * Compiles a regular expression into a searcher which finds all matches
+	 * of the expression within an input. If the expression starts with ^,
+	 * only matches starting at the beginning of the input are found.
+	 *
+	 * @param regex
+	 *            The regular expression
+	 * @return The searcher
+	 * @throws PatternSyntaxException
+	 *             if the expression is invalid or ends with the anchor $
+	 */
+	public DfaSearcher<Character> newSearcher(String regex) {
+		StringDfa dfa = compile(regex);
+		if (regex.endsWith("$") && !isEscaped(regex, regex.length() - 1)) {
+			throw new PatternSyntaxException("The anchor $ is not supported when searching", regex,
+					regex.length() - 1);
+		}
+		return new DfaSearcher<>(dfa.compile(), regex.startsWith("^"));
+	}
+
+	/**
+	 * Compiles a regular expression into a Glushkov automaton, which has one
+	 * state per character or class in the expression plus a starting state.
+	 *
+	 * @param regex
+	 *            The regular expression
+	 * @return An automaton accepting exactly the inputs matching the
+	 *         expression
+	 * @throws PatternSyntaxException
+	 *             if the expression is invalid
+	 */
+	public NondeterministicFiniteAutomaton<Character> toNfa(String regex) {
+		if (regex == null) {
+			throw new NullPointerException("Regular expression may not be null");
+		}
+		Node root = new Parser(regex).parse();
+		List<BitSet> positions = new ArrayList<>();
+		root.number(positions);
+		List<BitSet> follow = new ArrayList<>();
+		for (int position = 0; position < positions.size(); position++) {
+			follow.add(new BitSet());
+		}
+		root.addFollow(follow);
+		BitSet first = root.first();
+		BitSet last = root.last();
+
+		NondeterministicFiniteAutomaton<Character> nfa = new NondeterministicFiniteAutomaton<>(
+				STARTING_STATE, root.isNullable(), alphabet);
+		for (int position = 0; position < positions.size(); position++) {
+			nfa.addState(identifier(position), last.get(position));
+		}
+		addTransitions(nfa, STARTING_STATE, first, positions);
+		for (int position = 0; position < positions.size(); position++) {
+			addTransitions(nfa, identifier(position), follow.get(position), positions);
+		}
+		return nfa;
+	}
+
+	private void addTransitions(NondeterministicFiniteAutomaton<Character> nfa, String origin,
+			BitSet targets, List<BitSet> positions) {
+		for (int target = targets.nextSetBit(0); target >= 0; target = targets.nextSetBit(target + 1)) {
+			BitSet symbolIndices = positions.get(target);
+			for (int index = symbolIndices.nextSetBit(0); index >= 0; index = symbolIndices.nextSetBit(index + 1)) {
+				nfa.addTransition(origin, identifier(target), symbols[index]);
+			}
+		}
+	}
+
+	private static String identifier(int position) {
+		return "q" + (position + 1);
+	}
+
+	private static boolean isEscaped(String regex, int index) {
+		int backslashes = 0;
+		while (index - backslashes > 0 && regex.charAt(index - backslashes - 1) == '\\') {
+			backslashes++;
+		}
+		return backslashes % 2 == 1;
+	}
+
+	/*
+	 * SYNTAX TREE
+	 *
+	 * The symbols of a position are stored as a bitset of indices into the
+	 * sorted alphabet. first, last and follow are bitsets of positions.
+	 */
+
+	private abstract static class Node {
+
+		abstract boolean isNullable();
+
+		abstract BitSet first();
+
+		abstract BitSet last();
+
+		/**
+		 * Assigns the next free numbers to the positions of this node, in
+		 * order of their appearance
+		 */
+		abstract void number(List<BitSet> positions);
+
+		/**
+		 * Adds the positions which may follow each position
+		 */
+		abstract void addFollow(List<BitSet> follow);
+
+		/**
+		 * @return A copy of this node with new positions
+		 */
+		abstract Node copy();
+	}
+
+	private static final class Empty extends Node {
+
+		@Override
+		boolean isNullable() {
+			return true;
+		}
+
+		@Override
+		BitSet first() {
+			return new BitSet();
+		}
+
+		@Override
+		BitSet last() {
+			return new BitSet();
+		}
+
+		@Override
+		void number(List<BitSet> positions) {
+		}
+
+		@Override
+		void addFollow(List<BitSet> follow) {
+		}
+
+		@Override
+		Node copy() {
+			return this;
+		}
+	}
+
+	private static final class Position extends Node {
+		private final BitSet symbolIndices;
+		private int position;
+
+		private Position(BitSet symbolIndices) {
+			this.symbolIndices = symbolIndices;
+		}
+
+		@Override
+		boolean isNullable() {
+			return false;
+		}
+
+		@Override
+		BitSet first() {
+			BitSet first = new BitSet();
+			first.set(position);
+			return first;
+		}
+
+		@Override
+		BitSet last() {
+			return first();
+		}
+
+		@Override
+		void number(List<BitSet> positions) {
+			position = positions.size();
+			positions.add(symbolIndices);
+		}
+
+		@Override
+		void addFollow(List<BitSet> follow) {
+		}
+
+		@Override
+		Node copy() {
+			return new Position(symbolIndices);
+		}
+	}
+
+	private static final class Concatenation extends Node {
+		private final List<Node> children;
+
+		private Concatenation(List<Node> children) {
+			this.children = children;
+		}
+
+		@Override
+		boolean isNullable() {
+			for (Node child : children) {
+				if (!child.isNullable()) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		@Override
+		BitSet first() {
+			BitSet first = new BitSet();
+			for (Node child : children) {
+				first.or(child.first());
+				if (!child.isNullable()) {
+					break;
+				}
+			}
+			return first;
+		}
+
+		@Override
+		BitSet last() {
+			BitSet last = new BitSet();
+			for (int i = children.size() - 1; i >= 0; i--) {
+				last.or(children.get(i).last());
+				if (!children.get(i).isNullable()) {
+					break;
+				}
+			}
+			return last;
+		}
+
+		@Override
+		void number(List<BitSet> positions) {
+			for (Node child : children) {
+				child.number(positions);
+			}
+		}
+
+		@Override
+		void addFollow(List<BitSet> follow) {
+			// The last positions of a prefix are followed by the first
+			// positions of the next child, and of the children after it as
+			// long as they are nullable
+			BitSet previousLast = new BitSet();
+			for (Node child : children) {
+				child.addFollow(follow);
+				BitSet first = child.first();
+				for (int p = previousLast.nextSetBit(0); p >= 0; p = previousLast.nextSetBit(p + 1)) {
+					follow.get(p).or(first);
+				}
+				if (!child.isNullable()) {
+					previousLast.clear();
+				}
+				previousLast.or(child.last());
+			}
+		}
+
+		@Override
+		Node copy() {
+			List<Node> copies = new ArrayList<>();
+			for (Node child : children) {
+				copies.add(child.copy());
+			}
+			return new Concatenation(copies);
+		}
+	}
+
+	private static final class Alternation extends Node {
+		private final List<Node> children;
+
+		private Alternation(List<Node> children) {
+			this.children = children;
+		}
+
+		@Override
+		boolean isNullable() {
+			for (Node child : children) {
+				if (child.isNullable()) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		@Override
+		BitSet first() {
+			BitSet first = new BitSet();
+			for (Node child : children) {
+				first.or(child.first());
+			}
+			return first;
+		}
+
+		@Override
+		BitSet last() {
+			BitSet last = new BitSet();
+			for (Node child : children) {
+				last.or(child.last());
+			}
+			return last;
+		}
+
+		@Override
+		void number(List<BitSet> positions) {
+			for (Node child : children) {
+				child.number(positions);
+			}
+		}
+
+		@Override
+		void addFollow(List<BitSet> follow) {
+			for (Node child : children) {
+				child.addFollow(follow);
+			}
+		}
+
+		@Override
+		Node copy() {
+			List<Node> copies = new ArrayList<>();
+			for (Node child : children) {
+				copies.add(child.copy());
+			}
+			return new Alternation(copies);
+		}
+	}
+
+	/**
+	 * Covers *, + and ?: the child may be skipped if the repetition is
+	 * optional and repeated if it is unbounded
+	 */
+	private static final class Repetition extends Node {
+		private final Node child;
+		private final boolean optional;
+		private final boolean unbounded;
+
+		private Repetition(Node child, boolean optional, boolean unbounded) {
+			this.child = child;
+			this.optional = optional;
+			this.unbounded = unbounded;
+		}
+
+		@Override
+		boolean isNullable() {
+			return optional || child.isNullable();
+		}
+
+		@Override
+		BitSet first() {
+			return child.first();
+		}
+
+		@Override
+		BitSet last() {
+			return child.last();
+		}
+
+		@Override
+		void number(List<BitSet> positions) {
+			child.number(positions);
+		}
+
+		@Override
+		void addFollow(List<BitSet> follow) {
+			child.addFollow(follow);
+			if (unbounded) {
+				BitSet first = child.first();
+				BitSet last = child.last();
+				for (int p = last.nextSetBit(0); p >= 0; p = last.nextSetBit(p + 1)) {
+					follow.get(p).or(first);
+				}
+			}
+		}
+
+		@Override
+		Node copy() {
+			return new Repetition(child.copy(), optional, unbounded);
+		}
+	}
+
+	/*
+	 * PARSER
+	 */
+
+	private final class Parser {
+		private final String regex;
+		private int index;
+
+		private Parser(String regex) {
+			this.regex = regex;
+		}
+
+		private Node parse() {
+			if (peek('^')) {
+				index++;
+			}
+			Node root = parseAlternation();
+			if (peek('$')) {
+				index++;
+			}
+			if (index < regex.length()) {
+				throw error(regex.charAt(index) == ')' ? "Unmatched closing ')'"
+						: "Anchors are only supported at the beginning and end");
+			}
+			return root;
+		}
+
+		private Node parseAlternation() {
+			List<Node> alternatives = new ArrayList<>();
+			alternatives.add(parseConcatenation());
+			while (peek('|')) {
+				index++;
+				alternatives.add(parseConcatenation());
+			}
+			return alternatives.size() == 1 ? alternatives.get(0) : new Alternation(alternatives);
+		}
+
+		private Node parseConcatenation() {
+			List<Node> children = new ArrayList<>();
+			while (index < regex.length() && !peek('|') && !peek(')')) {
+				if (peek('$') && index == regex.length() - 1) {
+					break;
+				}
+				children.add(parseRepetition(parseAtom()));
+			}
+			if (children.isEmpty()) {
+				return new Empty();
+			}
+			return children.size() == 1 ? children.get(0) : new Concatenation(children);
+		}
+
+		private Node parseRepetition(Node atom) {
+			Node node = atom;
+			while (index < regex.length()) {
+				char ch = regex.charAt(index);
+				if (ch == '*') {
+					node = new Repetition(node, true, true);
+				}
+				else if (ch == '+') {
+					node = new Repetition(node, false, true);
+				}
+				else if (ch == '?') {
+					node = new Repetition(node, true, false);
+				}
+				else if (ch == '{') {
+					node = parseBounds(node);
+					continue;
+				}
+				else {
+					break;
+				}
+				index++;
+			}
+			return node;
+		}
+
+		private Node parseBounds(Node node) {
+			int start = index++;
+			int minimum = parseNumber();
+			int maximum = minimum;
+			if (peek(',')) {
+				index++;
+				maximum = peek('}') ? -1 : parseNumber();
+			}
+			if (!peek('}')) {
+				throw error("Unclosed repetition", start);
+			}
+			index++;
+			if (maximum != -1 && maximum < minimum) {
+				throw error("Illegal repetition range", start);
+			}
+
+			// a{m,n} is expanded to m copies of a followed by n-m optional
+			// copies, a{m,} to m copies followed by a*
+			List<Node> copies = new ArrayList<>();
+			for (int i = 0; i < minimum; i++) {
+				copies.add(i == 0 ? node : node.copy());
+			}
+			if (maximum == -1) {
+				copies.add(new Repetition(minimum == 0 ? node : node.copy(), true, true));
+			}
+			for (int i = minimum; i < maximum; i++) {
+				copies.add(new Repetition(i == 0 ? node : node.copy(), true, false));
+			}
+			if (copies.isEmpty()) {
+				return new Empty();
+			}
+			return copies.size() == 1 ? copies.get(0) : new Concatenation(copies);
+		}
+
+		private int parseNumber() {
+			int start = index;
+			while (index < regex.length() && Character.isDigit(regex.charAt(index))) {
+				index++;
+			}
+			if (start == index || index - start > 4) {
+				throw error("Invalid repetition count", start);
+			}
+			int number = Integer.parseInt(regex.substring(start, index));
+			if (number > MAXIMUM_REPETITIONS) {
+				throw error("Repetition count exceeds " + MAXIMUM_REPETITIONS, start);
+			}
+			return number;
+		}
+
+		private Node parseAtom() {
+			char ch = regex.charAt(index);
+			switch (ch) {
+			case '(':
+				int start = index++;
+				if (regex.startsWith("?:", index)) {
+					index += 2;
+				}
+				Node group = parseAlternation();
+				if (!peek(')')) {
+					throw error("Unclosed group", start);
+				}
+				index++;
+				return group;
+			case '[':
+				return new Position(parseClass());
+			case '.':
+				index++;
+				BitSet any = new BitSet();
+				any.set(0, symbols.length);
+				return new Position(any);
+			case '\\':
+				return new Position(parseEscape());
+			case '*':
+			case '+':
+			case '?':
+			case '{':
+				throw error("Dangling meta character '" + ch + "'");
+			case '^':
+			case '$':
+				throw error("Anchors are only supported at the beginning and end");
+			default:
+				index++;
+				return new Position(literal(ch, index - 1));
+			}
+		}
+
+		private BitSet parseClass() {
+			int start = index++;
+			boolean negated = peek('^');
+			if (negated) {
+				index++;
+			}
+			BitSet symbolIndices = new BitSet();
+			boolean first = true;
+			while (index < regex.length() && (first || !peek(']'))) {
+				first = false;
+				if (peek('\\') && index + 1 < regex.length()
+						&& "dDsSwW".indexOf(regex.charAt(index + 1)) >= 0) {
+					symbolIndices.or(parseEscape());
+					continue;
+				}
+				int fromIndex = parseClassSymbolIndex();
+				int toIndex = fromIndex;
+				if (peek('-') && index + 1 < regex.length() && regex.charAt(index + 1) != ']') {
+					index++;
+					toIndex = parseClassSymbolIndex();
+					if (toIndex < fromIndex) {
+						throw error("Illegal character range", start);
+					}
+				}
+				// The symbols are sorted, so a range covers consecutive indices
+				symbolIndices.set(fromIndex, toIndex + 1);
+			}
+			if (!peek(']')) {
+				throw error("Unclosed character class", start);
+			}
+			index++;
+			if (negated) {
+				symbolIndices.flip(0, symbols.length);
+			}
+			return symbolIndices;
+		}
+
+		/*
+		 * Parses a character of a class and returns its index in the
+		 * alphabet
+		 */
+		private int parseClassSymbolIndex() {
+			int position = index;
+			int symbolIndex = Arrays.binarySearch(symbols, parseClassCharacter());
+			if (symbolIndex < 0) {
+				throw error("Symbol was not defined in the alphabet", position);
+			}
+			return symbolIndex;
+		}
+
+		private char parseClassCharacter() {
+			if (!peek('\\')) {
+				return regex.charAt(index++);
+			}
+			int start = index++;
+			if (index >= regex.length()) {
+				throw error("Unexpected end of expression", start);
+			}
+			return escapedCharacter(start);
+		}
+
+		/*
+		 * Parses an escape sequence starting at the backslash
+		 */
+		private BitSet parseEscape() {
+			int start = index++;
+			if (index >= regex.length()) {
+				throw error("Unexpected end of expression", start);
+			}
+			char ch = regex.charAt(index);
+			if ("dDsSwW".indexOf(ch) >= 0) {
+				index++;
+				BitSet symbolIndices = new BitSet();
+				for (int i = 0; i < symbols.length; i++) {
+					if (inPredefinedClass(symbols[i], Character.toLowerCase(ch))) {
+						symbolIndices.set(i);
+					}
+				}
+				if (Character.isUpperCase(ch)) {
+					symbolIndices.flip(0, symbols.length);
+				}
+				return symbolIndices;
+			}
+			return literal(escapedCharacter(start), start);
+		}
+
+		/*
+		 * Parses the character after a backslash; index points to it
+		 */
+		private char escapedCharacter(int start) {
+			char ch = regex.charAt(index++);
+			switch (ch) {
+			case 't':
+				return '\t';
+			case 'n':
+				return '\n';
+			case 'r':
+				return '\r';
+			case 'f':
+				return '\f';
+			case 'e':
+				return '\u001B';
+			case 'u':
+				if (index + 4 > regex.length()) {
+					throw error("Illegal Unicode escape sequence", start);
+				}
+				try {
+					char unicode = (char) Integer.parseInt(regex.substring(index, index + 4), 16);
+					index += 4;
+					return unicode;
+				}
+				catch (NumberFormatException e) {
+					throw error("Illegal Unicode escape sequence", start);
+				}
+			default:
+				if (Character.isLetterOrDigit(ch)) {
+					throw error("Unsupported escape sequence", start);
+				}
+				return ch;
+			}
+		}
+
+		private boolean inPredefinedClass(char ch, char predefinedClass) {
+			switch (predefinedClass) {
+			case 'd':
+				return ch >= '0' && ch <= '9';
+			case 's':
+				return ch == ' ' || ch == '\t' || ch == '\n' || ch == '\u000B' || ch == '\f' || ch == '\r';
+			default:
+				return ch >= 'a' && ch <= 'z' || ch >= 'A' && ch <= 'Z' || ch >= '0' && ch <= '9' || ch == '_';
+			}
+		}
+
+		private BitSet literal(char ch, int position) {
+			int symbolIndex = Arrays.binarySearch(symbols, ch);
+			if (symbolIndex < 0) {
+				throw error("Symbol was not defined in the alphabet", position);
+			}
+			BitSet symbolIndices = new BitSet();
+			symbolIndices.set(symbolIndex);
+			return symbolIndices;
+		}
+
+		private boolean peek(char ch) {
+			return index < regex.length() && regex.charAt(index) == ch;
+		}
+
+		private PatternSyntaxException error(String description) {
+			return error(description, index);
+		}
+
+		private PatternSyntaxException error(String description, int position) {
+			return new PatternSyntaxException(description, regex, position);
+		}
+	}
+}
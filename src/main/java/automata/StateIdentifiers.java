@@ -0,0 +1,247 @@
+package automata;
+
+import java.util.Arrays;
+
+/**
+ * The identifiers of numbered states. All characters are kept in a single
+ * array and identifiers are found through an open addressing hash table of
+ * ints, so no String or map entry is stored per state.
+ *
+ * Identifiers are optional; a state without one is identified by "#"
+ * followed by its id. Automata which number their states reject explicit
+ * identifiers of this form, see {@link #checkExplicit(String)}, so an
+ * identifier always denotes a single state.
+ *
+ * @author 2d6
+ */
+final class StateIdentifiers {
+
+	private static final int NO_STATE = CompiledDfa.DEAD_STATE;
+	private static final int NO_IDENTIFIER = -1;
+	private static final int INITIAL_CAPACITY = 16;
+
+	/*
+	 * The identifier of state s occupies chars[starts[s], starts[s] +
+	 * lengths[s]); states beyond the end of starts have no identifier. slots
+	 * holds state id + 1, or 0 for an empty slot. The arrays are allocated
+	 * when the first identifier is set.
+	 */
+	private int[] starts;
+	private int[] lengths;
+	private char[] chars;
+	private int charCount;
+	private int[] slots;
+	private int count;
+
+	StateIdentifiers() {
+	}
+
+	/*
+	 * Copy-constructor
+	 */
+	private StateIdentifiers(StateIdentifiers original) {
+		if (original.starts != null) {
+			this.starts = original.starts.clone();
+			this.lengths = original.lengths.clone();
+			this.chars = original.chars.clone();
+			this.charCount = original.charCount;
+			this.slots = original.slots.clone();
+			this.count = original.count;
+		}
+	}
+
+	/**
+	 * Creates the identifiers of the given states, which are stored as
+	 * explicit identifiers even if they have the form "#id".
+	 *
+	 * @param states
+	 *            The states, indexed by their id
+	 * @return The identifiers
+	 */
+	static StateIdentifiers of(State[] states) {
+		StateIdentifiers identifiers = new StateIdentifiers();
+		for (int stateId = 0; stateId < states.length; stateId++) {
+			identifiers.set(stateId, states[stateId].getIdentifier());
+		}
+		return identifiers;
+	}
+
+	/**
+	 * Checks that an identifier may be given to a numbered state explicitly.
+	 *
+	 * @param identifier
+	 *            The identifier
+	 * @throws IllegalArgumentException
+	 *             if the identifier has the form "#" followed by digits,
+	 *             which is reserved for states without an identifier
+	 */
+	static void checkExplicit(String identifier) {
+		if (identifier.length() < 2 || identifier.charAt(0) != '#') {
+			return;
+		}
+		for (int i = 1; i < identifier.length(); i++) {
+			if (identifier.charAt(i) < '0' || identifier.charAt(i) > '9') {
+				return;
+			}
+		}
+		throw new IllegalArgumentException(
+				"Identifiers of the form '#<id>' are reserved for states without an identifier");
+	}
+
+	/**
+	 * @return A copy which is not affected by later changes to this table
+	 */
+	StateIdentifiers copy() {
+		return new StateIdentifiers(this);
+	}
+
+	/**
+	 * Sets the identifier of a state which does not have one yet
+	 *
+	 * @param stateId
+	 *            The id of the state
+	 * @param identifier
+	 *            The identifier
+	 */
+	void set(int stateId, String identifier) {
+		if (starts == null) {
+			starts = new int[Math.max(INITIAL_CAPACITY, stateId + 1)];
+			Arrays.fill(starts, NO_IDENTIFIER);
+			lengths = new int[starts.length];
+			chars = new char[INITIAL_CAPACITY * 4];
+			slots = new int[INITIAL_CAPACITY * 2];
+		}
+		else if (stateId >= starts.length) {
+			int capacity = Math.max(stateId + 1, starts.length * 2);
+			int oldCapacity = starts.length;
+			starts = Arrays.copyOf(starts, capacity);
+			Arrays.fill(starts, oldCapacity, capacity, NO_IDENTIFIER);
+			lengths = Arrays.copyOf(lengths, capacity);
+		}
+		if (charCount + identifier.length() > chars.length) {
+			chars = Arrays.copyOf(chars, Math.max(charCount + identifier.length(), chars.length * 2));
+		}
+		identifier.getChars(0, identifier.length(), chars, charCount);
+		starts[stateId] = charCount;
+		lengths[stateId] = identifier.length();
+		charCount += identifier.length();
+
+		if (++count * 2 > slots.length) {
+			rehash(slots.length * 2);
+		}
+		else {
+			insertSlot(stateId, identifier.hashCode());
+		}
+	}
+
+	/**
+	 * @param stateId
+	 *            The id of a state
+	 * @return The identifier of the state, or "#" followed by its id if it has
+	 *         none
+	 */
+	String get(int stateId) {
+		if (!hasIdentifier(stateId)) {
+			return "#" + stateId;
+		}
+		return new String(chars, starts[stateId], lengths[stateId]);
+	}
+
+	/**
+	 * Returns the id of the state with the given identifier
+	 *
+	 * @param identifier
+	 *            The identifier of the state
+	 * @param stateCount
+	 *            The number of states
+	 * @return The id of the state, or {@link CompiledDfa#DEAD_STATE} if no
+	 *         state has the identifier
+	 */
+	int getStateId(String identifier, int stateCount) {
+		if (identifier == null) {
+			return NO_STATE;
+		}
+		if (slots != null) {
+			int mask = slots.length - 1;
+			for (int slot = mix(identifier.hashCode()) & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+				int stateId = slots[slot] - 1;
+				if (identifierEquals(stateId, identifier)) {
+					return stateId;
+				}
+			}
+		}
+		int stateId = unnamedStateId(identifier, stateCount);
+		if (stateId != NO_STATE && hasIdentifier(stateId)) {
+			return NO_STATE;
+		}
+		return stateId;
+	}
+
+	private boolean hasIdentifier(int stateId) {
+		return starts != null && stateId < starts.length && starts[stateId] != NO_IDENTIFIER;
+	}
+
+	private void rehash(int slotCount) {
+		slots = new int[slotCount];
+		for (int stateId = 0; stateId < starts.length; stateId++) {
+			if (starts[stateId] != NO_IDENTIFIER) {
+				insertSlot(stateId, identifierHash(stateId));
+			}
+		}
+	}
+
+	private void insertSlot(int stateId, int hash) {
+		int mask = slots.length - 1;
+		int slot = mix(hash) & mask;
+		while (slots[slot] != 0) {
+			slot = (slot + 1) & mask;
+		}
+		slots[slot] = stateId + 1;
+	}
+
+	/*
+	 * Computes String.hashCode() of a stored identifier
+	 */
+	private int identifierHash(int stateId) {
+		int hash = 0;
+		for (int i = starts[stateId]; i < starts[stateId] + lengths[stateId]; i++) {
+			hash = 31 * hash + chars[i];
+		}
+		return hash;
+	}
+
+	private boolean identifierEquals(int stateId, String identifier) {
+		if (lengths[stateId] != identifier.length()) {
+			return false;
+		}
+		int start = starts[stateId];
+		for (int i = 0; i < identifier.length(); i++) {
+			if (chars[start + i] != identifier.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/*
+	 * Parses identifiers of the form "#<id>"
+	 */
+	private static int unnamedStateId(String identifier, int stateCount) {
+		if (identifier.length() < 2 || identifier.length() > 11 || identifier.charAt(0) != '#') {
+			return NO_STATE;
+		}
+		long stateId = 0;
+		for (int i = 1; i < identifier.length(); i++) {
+			char digit = identifier.charAt(i);
+			if (digit < '0' || digit > '9' || (i == 1 && digit == '0' && identifier.length() > 2)) {
+				return NO_STATE;
+			}
+			stateId = stateId * 10 + digit - '0';
+		}
+		return stateId < stateCount ? (int) stateId : NO_STATE;
+	}
+
+	private static int mix(int hash) {
+		return hash ^ (hash >>> 16);
+	}
+}
@@ -0,0 +1,53 @@
+package automata;
+
+/**
+ * Receives the events of a {@link DfaStream}. The methods follow the
+ * subscriber of the reactive streams protocol: after
+ * {@link #onSubscribe(DfaStream)}, at most as many state changes are
+ * signalled as have been requested by {@link DfaStream#request(long)},
+ * followed by either {@link #onComplete(int)} or {@link #onError(Throwable)}.
+ *
+ * The methods of a subscriber are never called concurrently for the same
+ * stream, but successive calls may come from different threads of the
+ * executor.
+ *
+ * @author 2d6
+ */
+public interface StateSubscriber {
+
+	/**
+	 * Called once when the stream is opened, before any other method
+	 *
+	 * @param stream
+	 *            The stream, used to request state changes or to cancel
+	 */
+	void onSubscribe(DfaStream<?> stream);
+
+	/**
+	 * Called when a batch of symbols has led to another state
+	 *
+	 * @param stateId
+	 *            The id of the new state, or {@link CompiledDfa#DEAD_STATE}
+	 *            if a symbol without a transition was evaluated
+	 * @param isAccepting
+	 *            True if the new state is accepting
+	 */
+	void onStateChange(int stateId, boolean isAccepting);
+
+	/**
+	 * Called after all batches of a completed stream have been evaluated
+	 *
+	 * @param stateId
+	 *            The id of the final state, or {@link CompiledDfa#DEAD_STATE}
+	 */
+	void onComplete(int stateId);
+
+	/**
+	 * Called if the evaluation failed, e.g. because of a symbol outside of
+	 * the alphabet. No further methods are called.
+	 *
+	 * @param error
+	 *            The cause of the failure
+	 */
+	void onError(Throwable error);
+}
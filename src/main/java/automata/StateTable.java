@@ -0,0 +1,121 @@
+package automata;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The State objects of numbered states, which are created on demand and may
+ * be shared between an automaton and its compiled snapshots. The table is
+ * split into pages which double in size; growing the table only adds pages,
+ * so a State published in a page is seen by every holder of the table,
+ * however often it grows.
+ *
+ * @author 2d6
+ */
+final class StateTable {
+
+	/*
+	 * The first page holds 2^firstPageShift states, page p > 0 holds the ids
+	 * from 2^(firstPageShift + p - 1) to 2^(firstPageShift + p) - 1
+	 */
+	private final int firstPageShift;
+
+	/*
+	 * Replaced by a longer copy when the table grows; the pages themselves
+	 * are never replaced
+	 */
+	private volatile AtomicReferenceArray<State>[] pages;
+
+	/**
+	 * Creates an empty table
+	 *
+	 * @param capacity
+	 *            The number of states the table can hold before growing
+	 */
+	StateTable(int capacity) {
+		this.firstPageShift = Math.min(30, 32 - Integer.numberOfLeadingZeros(Math.max(capacity, 1) - 1));
+		this.pages = newPages(0, 1);
+	}
+
+	/**
+	 * Creates a table holding the given states
+	 *
+	 * @param states
+	 *            The states, indexed by their id
+	 * @return The table
+	 */
+	static StateTable of(State[] states) {
+		StateTable table = new StateTable(states.length);
+		for (int stateId = 0; stateId < states.length; stateId++) {
+			table.publish(stateId, states[stateId]);
+		}
+		return table;
+	}
+
+	/**
+	 * @param stateId
+	 *            The id of a state within the capacity of the table
+	 * @return The State of the state, or null if it has not been created
+	 */
+	State get(int stateId) {
+		int page = page(stateId);
+		return pages[page].get(offset(stateId, page));
+	}
+
+	/**
+	 * Publishes the State of a state unless another one has been published
+	 * before
+	 *
+	 * @param stateId
+	 *            The id of a state within the capacity of the table
+	 * @param state
+	 *            The new State
+	 * @return The published State, which is the given one unless another
+	 *         thread was faster
+	 */
+	State publish(int stateId, State state) {
+		int page = page(stateId);
+		int offset = offset(stateId, page);
+		AtomicReferenceArray<State> states = pages[page];
+		if (states.compareAndSet(offset, null, state)) {
+			return state;
+		}
+		return states.get(offset);
+	}
+
+	/**
+	 * Grows the table to hold at least the given number of states. Only the
+	 * owner of the table may grow it.
+	 *
+	 * @param capacity
+	 *            The minimum capacity
+	 */
+	void ensureCapacity(int capacity) {
+		AtomicReferenceArray<State>[] pages = this.pages;
+		int pageCount = page(capacity - 1) + 1;
+		if (pageCount > pages.length) {
+			AtomicReferenceArray<State>[] grownPages = newPages(pages.length, pageCount);
+			System.arraycopy(pages, 0, grownPages, 0, pages.length);
+			this.pages = grownPages;
+		}
+	}
+
+	private int page(int stateId) {
+		return 32 - Integer.numberOfLeadingZeros(stateId >>> firstPageShift);
+	}
+
+	private int offset(int stateId, int page) {
+		return page == 0 ? stateId : stateId - (1 << (firstPageShift + page - 1));
+	}
+
+	/*
+	 * Allocates the pages from the given index up to the page count
+	 */
+	private AtomicReferenceArray<State>[] newPages(int from, int pageCount) {
+		@SuppressWarnings("unchecked")
+		AtomicReferenceArray<State>[] pages = new AtomicReferenceArray[pageCount];
+		for (int page = from; page < pageCount; page++) {
+			pages[page] = new AtomicReferenceArray<>(1 << Math.max(firstPageShift + page - 1, firstPageShift));
+		}
+		return pages;
+	}
+}
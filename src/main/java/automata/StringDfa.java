@@ -1,6 +1,8 @@
 package automata;
 
-import java.util.ArrayList;
+import java.nio.CharBuffer;
+import java.util.AbstractList;
+import java.util.List;
 
 import automata.interfaces.ITransitionFunction;
 
@@ -10,7 +12,7 @@ public class StringDfa extends DeterministicFiniteAutomaton<Character> {
 			ITransitionFunction<Character> transitionFunction) {
 		super(identifier, isAccepting, transitionFunction);
 	}
-	
+
 	/**
 	 * Evaluates the characters in a String according to the internal logic of
 	 * the automaton.
@@ -21,11 +23,179 @@ public class StringDfa extends DeterministicFiniteAutomaton<Character> {
 	 *         character in the string
 	 */
 	public State evaluate(String input) {
-		ArrayList<Character> charList = new ArrayList<>();
-		for (char ch : input.toCharArray()) {
-			charList.add(ch);
+		return evaluate(asList(input));
+	}
+
+	/**
+	 * Evaluates the characters in a CharSequence according to the internal
+	 * logic of the automaton. If the automaton has been compiled, or if its
+	 * transition function finds transitions in constant time and its
+	 * transition table has at most {@link #MAX_COMPACT_TRANSITIONS} entries,
+	 * the characters are evaluated on the {@link CompiledDfa} of the
+	 * automaton and are not boxed. Otherwise they are boxed and evaluated on
+	 * the transition function like {@link #evaluate(Iterable)}.
+	 *
+	 * @param input
+	 *            Characters to be evaluated
+	 * @return The state the automaton was in after evaluating the last
+	 *         character, or a new non-accepting State named after the
+	 *         character for which no transition has been defined.
+	 */
+	public State evaluate(CharSequence input) {
+		if (!compilesImplicitly()) {
+			return evaluate(asList(input));
+		}
+		CompiledDfa<Character> dfa = compile();
+		int currentState = dfa.getStartingStateId();
+		for (int i = 0; i < input.length(); i++) {
+			int column = column(dfa, input.charAt(i));
+			currentState = dfa.step(currentState, column);
+			if (currentState == CompiledDfa.DEAD_STATE) {
+				return dfa.missingTransition(column);
+			}
+		}
+		return dfa.getState(currentState);
+	}
+
+	/**
+	 * Evaluates a long CharSequence like {@link #evaluate(CharSequence)}, but
+	 * splits it into chunks which are evaluated on several threads.
+	 *
+	 * @param input
+	 *            Characters to be evaluated
+	 * @return The state the automaton was in after evaluating the last
+	 *         character, or a new non-accepting State named after the
+	 *         character for which no transition has been defined.
+	 * @see CompiledDfa#evaluateInParallel(CharSequence)
+	 */
+	public State evaluateInParallel(CharSequence input) {
+		return compile().evaluateInParallel(input);
+	}
+
+	/**
+	 * Evaluates a range of a char array according to the internal logic of
+	 * the automaton, see {@link #evaluate(CharSequence)}.
+	 *
+	 * @param input
+	 *            Array containing the characters to be evaluated
+	 * @param offset
+	 *            Index of the first character to be evaluated
+	 * @param length
+	 *            Number of characters to be evaluated
+	 * @return The state the automaton was in after evaluating the last
+	 *         character, or a new non-accepting State named after the
+	 *         character for which no transition has been defined.
+	 */
+	public State evaluate(char[] input, int offset, int length) {
+		checkRange(input, offset, length);
+		if (!compilesImplicitly()) {
+			return evaluate(asList(CharBuffer.wrap(input, offset, length)));
+		}
+		CompiledDfa<Character> dfa = compile();
+		int currentState = dfa.getStartingStateId();
+		for (int i = offset; i < offset + length; i++) {
+			int column = column(dfa, input[i]);
+			currentState = dfa.step(currentState, column);
+			if (currentState == CompiledDfa.DEAD_STATE) {
+				return dfa.missingTransition(column);
+			}
+		}
+		return dfa.getState(currentState);
+	}
+
+	/**
+	 * Determines whether the automaton accepts a CharSequence. Like
+	 * {@link CompiledDfa#accepts(Iterable)}, the evaluation stops as soon as
+	 * the result is decided. Large automata are evaluated as described in
+	 * {@link #evaluate(CharSequence)}.
+	 *
+	 * @param input
+	 *            Characters to be evaluated
+	 * @return True if the automaton is in an accepting state after evaluating
+	 *         the last character
+	 */
+	public boolean accepts(CharSequence input) {
+		if (!compilesImplicitly()) {
+			return evaluate(asList(input)).isAccepting();
+		}
+		CompiledDfa<Character> dfa = compile();
+		byte[] outcomes = dfa.outcomes();
+		int currentState = dfa.getStartingStateId();
+		for (int i = 0; i < input.length(); i++) {
+			if (outcomes[currentState] != CompiledDfa.UNDECIDED) {
+				return outcomes[currentState] == CompiledDfa.ACCEPTING_SINK;
+			}
+			currentState = dfa.step(currentState, column(dfa, input.charAt(i)));
+			if (currentState == CompiledDfa.DEAD_STATE) {
+				return false;
+			}
+		}
+		return dfa.isAccepting(currentState);
+	}
+
+	/**
+	 * Determines whether the automaton accepts a range of a char array, see
+	 * {@link #accepts(CharSequence)}.
+	 *
+	 * @param input
+	 *            Array containing the characters to be evaluated
+	 * @param offset
+	 *            Index of the first character to be evaluated
+	 * @param length
+	 *            Number of characters to be evaluated
+	 * @return True if the automaton is in an accepting state after evaluating
+	 *         the last character
+	 */
+	public boolean accepts(char[] input, int offset, int length) {
+		checkRange(input, offset, length);
+		if (!compilesImplicitly()) {
+			return evaluate(asList(CharBuffer.wrap(input, offset, length))).isAccepting();
+		}
+		CompiledDfa<Character> dfa = compile();
+		byte[] outcomes = dfa.outcomes();
+		int currentState = dfa.getStartingStateId();
+		for (int i = offset; i < offset + length; i++) {
+			if (outcomes[currentState] != CompiledDfa.UNDECIDED) {
+				return outcomes[currentState] == CompiledDfa.ACCEPTING_SINK;
+			}
+			currentState = dfa.step(currentState, column(dfa, input[i]));
+			if (currentState == CompiledDfa.DEAD_STATE) {
+				return false;
+			}
+		}
+		return dfa.isAccepting(currentState);
+	}
+
+	private static int column(CompiledDfa<Character> dfa, char symbol) {
+		int column = dfa.getColumn(symbol);
+		if (column < 0) {
+			throw new IllegalArgumentException(
+					"Symbol was not defined in the alphabet");
+		}
+		return column;
+	}
+
+	/*
+	 * Boxes the characters one at a time while they are evaluated
+	 */
+	private static List<Character> asList(final CharSequence input) {
+		return new AbstractList<Character>() {
+			@Override
+			public Character get(int index) {
+				return input.charAt(index);
+			}
+
+			@Override
+			public int size() {
+				return input.length();
+			}
+		};
+	}
+
+	private static void checkRange(char[] input, int offset, int length) {
+		if (offset < 0 || length < 0 || offset > input.length - length) {
+			throw new IndexOutOfBoundsException("Invalid range of the input array");
 		}
-		return evaluate(charList);
 	}
 
 }
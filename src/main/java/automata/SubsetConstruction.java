@@ -0,0 +1,310 @@
+package automata;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Converts a {@link NondeterministicFiniteAutomaton} into a
+ * {@link DeterministicFiniteAutomaton} accepting the same language using the
+ * powerset construction. For further information, see
+ * https://en.wikipedia.org/wiki/Powerset_construction
+ *
+ * Sets of NFA states are represented as bitsets and hash-consed, so each DFA
+ * state costs a single long[]. The sets are discovered breadth-first; the
+ * sets of a level are expanded in parallel on a ForkJoinPool, but only if the
+ * level holds more than a few dozen sets, so small automata are determinized
+ * on the calling thread without any tasks. By default the pool shared with
+ * the parallel methods of {@link CompiledDfa} is used. Since the
+ * number of DFA states may grow exponentially, the construction fails with an
+ * IllegalStateException as soon as it exceeds a configurable maximum.
+ *
+ * The empty set of NFA states is not turned into a state; the corresponding
+ * transitions are left undefined instead. The identifier of each DFA state
+ * lists the identifiers of its NFA states, e.g. "{S1,S3}"; ',', '{', '}' and
+ * '\' within an NFA identifier are escaped with a backslash.
+ *
+ * @author 2d6
+ */
+public class SubsetConstruction<T> {
+
+	/**
+	 * The maximum number of DFA states used by default
+	 */
+	public static final int DEFAULT_MAXIMUM_STATE_COUNT = 1000000;
+
+	private static final int EMPTY_SET = -1;
+	private static final int SEQUENTIAL_THRESHOLD = 64;
+
+	private final int maximumStateCount;
+	private final ForkJoinPool pool;
+
+	/**
+	 * Creates a new SubsetConstruction which uses the shared pool and creates
+	 * at most {@link #DEFAULT_MAXIMUM_STATE_COUNT} states.
+	 */
+	public SubsetConstruction() {
+		this(DEFAULT_MAXIMUM_STATE_COUNT);
+	}
+
+	/**
+	 * Creates a new SubsetConstruction which uses the shared pool.
+	 *
+	 * @param maximumStateCount
+	 *            The maximum number of states of the resulting automaton
+	 */
+	public SubsetConstruction(int maximumStateCount) {
+		this(maximumStateCount, CompiledDfa.SharedPool.POOL);
+	}
+
+	/**
+	 * Creates a new SubsetConstruction. The pool is not shut down by the
+	 * construction.
+	 *
+	 * @param maximumStateCount
+	 *            The maximum number of states of the resulting automaton
+	 * @param pool
+	 *            The pool expanding large levels of sets, or null to expand
+	 *            all sets on the calling thread
+	 */
+	public SubsetConstruction(int maximumStateCount, ForkJoinPool pool) {
+		if (maximumStateCount < 1) {
+			throw new IllegalArgumentException("The maximum number of states must be positive");
+		}
+		this.maximumStateCount = maximumStateCount;
+		this.pool = pool;
+	}
+
+	/**
+	 * Creates a deterministic automaton accepting the same language as the
+	 * given nondeterministic one.
+	 *
+	 * @param nfa
+	 *            The nondeterministic automaton
+	 * @return The deterministic automaton
+	 * @throws IllegalStateException
+	 *             if the automaton would have more than the maximum number of
+	 *             states
+	 */
+	public DeterministicFiniteAutomaton<T> determinize(NondeterministicFiniteAutomaton<T> nfa) {
+		return new Construction(nfa).run();
+	}
+
+	/**
+	 * A set of NFA states with a precomputed hash code
+	 */
+	private static final class StateSet {
+		private final long[] words;
+		private final int hash;
+
+		private StateSet(long[] words) {
+			this.words = words;
+			this.hash = Arrays.hashCode(words);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			return other instanceof StateSet && hash == ((StateSet) other).hash
+					&& Arrays.equals(words, ((StateSet) other).words);
+		}
+	}
+
+	/**
+	 * The state of a single determinization
+	 */
+	private final class Construction {
+		private final NondeterministicFiniteAutomaton<T> nfa;
+		private final NondeterministicFiniteAutomaton<T>.SuccessorTable table;
+		private final int symbolCount;
+
+		private final ConcurrentMap<StateSet, Integer> ids = new ConcurrentHashMap<>();
+
+		/*
+		 * Sets and transitions are indexed by DFA state; both are only
+		 * appended to between two levels. The sets discovered while
+		 * expanding a level are collected in discovered, indexed by their id
+		 * minus the end of the level.
+		 */
+		private final List<StateSet> sets = new ArrayList<>();
+		private int[] transitions = new int[16];
+		private StateSet[] discovered;
+		private int levelEnd;
+		private int stateCount;
+
+		private Construction(NondeterministicFiniteAutomaton<T> nfa) {
+			this.nfa = nfa;
+			this.table = nfa.getSuccessorTable();
+			this.symbolCount = table.symbolCount;
+		}
+
+		private DeterministicFiniteAutomaton<T> run() {
+			StateSet startingSet = new StateSet(table.startingStates.clone());
+			ids.put(startingSet, stateCount++);
+			sets.add(startingSet);
+
+			int levelStart = 0;
+			while (levelStart < sets.size()) {
+				levelEnd = sets.size();
+				long maximumDiscoveries = Math.min((long) (levelEnd - levelStart) * symbolCount,
+						maximumStateCount - levelEnd);
+				discovered = new StateSet[(int) maximumDiscoveries];
+				int[] levelTransitions = new int[(levelEnd - levelStart) * symbolCount];
+
+				Expansion expansion = new Expansion(levelStart, levelStart, levelEnd, levelTransitions);
+				if (pool != null && levelEnd - levelStart > SEQUENTIAL_THRESHOLD) {
+					pool.invoke(expansion);
+				}
+				else {
+					expansion.compute();
+				}
+
+				appendTransitions(levelStart, levelTransitions);
+				sets.addAll(Arrays.asList(discovered).subList(0, stateCount - levelEnd));
+				levelStart = levelEnd;
+			}
+			return buildAutomaton();
+		}
+
+		private void appendTransitions(int levelStart, int[] levelTransitions) {
+			int requiredLength = levelStart * symbolCount + levelTransitions.length;
+			if (requiredLength > transitions.length) {
+				transitions = Arrays.copyOf(transitions, Math.max(requiredLength, transitions.length * 2));
+			}
+			System.arraycopy(levelTransitions, 0, transitions, levelStart * symbolCount,
+					levelTransitions.length);
+		}
+
+		/*
+		 * Returns the id of a set of states, creating a new DFA state if the
+		 * set is unknown. Lookups of known sets do not lock; new sets are
+		 * numbered under a lock so the ids stay dense.
+		 */
+		private int intern(long[] words) {
+			Integer id = ids.get(new StateSet(words));
+			if (id != null) {
+				return id;
+			}
+			synchronized (ids) {
+				StateSet set = new StateSet(words.clone());
+				id = ids.get(set);
+				if (id != null) {
+					return id;
+				}
+				int newId = stateCount;
+				if (newId >= maximumStateCount) {
+					throw new IllegalStateException("The deterministic automaton exceeded the maximum of "
+							+ maximumStateCount + " states");
+				}
+				discovered[newId - levelEnd] = set;
+				ids.put(set, newId);
+				stateCount++;
+				return newId;
+			}
+		}
+
+		private DeterministicFiniteAutomaton<T> buildAutomaton() {
+			String[] identifiers = new String[sets.size()];
+			for (int id = 0; id < identifiers.length; id++) {
+				identifiers[id] = identifier(sets.get(id).words);
+			}
+
+			DeterministicFiniteAutomaton<T> dfa = new DeterministicFiniteAutomaton<>(
+					identifiers[0], table.containsAcceptingState(sets.get(0).words),
+					new IndexedTransitionFunction<>(new HashSet<>(nfa.getSymbols())));
+			for (int id = 1; id < identifiers.length; id++) {
+				dfa.addState(identifiers[id], table.containsAcceptingState(sets.get(id).words));
+			}
+			List<T> symbols = nfa.getColumnSymbols();
+			for (int id = 0; id < identifiers.length; id++) {
+				for (int column = 0; column < symbolCount; column++) {
+					int target = transitions[id * symbolCount + column];
+					if (target != EMPTY_SET) {
+						dfa.addTransition(identifiers[id], identifiers[target], symbols.get(column));
+					}
+				}
+			}
+			return dfa;
+		}
+
+		private String identifier(long[] words) {
+			StringBuilder identifier = new StringBuilder("{");
+			for (int word = 0; word < words.length; word++) {
+				long bits = words[word];
+				while (bits != 0) {
+					if (identifier.length() > 1) {
+						identifier.append(',');
+					}
+					int stateId = word * Long.SIZE + Long.numberOfTrailingZeros(bits);
+					appendEscaped(identifier, nfa.getState(stateId).getIdentifier());
+					bits &= bits - 1;
+				}
+			}
+			return identifier.append('}').toString();
+		}
+
+		/*
+		 * Escapes the characters which separate the identifiers of a set, so
+		 * different sets never get the same identifier
+		 */
+		private void appendEscaped(StringBuilder identifier, String nfaIdentifier) {
+			for (int i = 0; i < nfaIdentifier.length(); i++) {
+				char c = nfaIdentifier.charAt(i);
+				if (c == ',' || c == '{' || c == '}' || c == '\\') {
+					identifier.append('\\');
+				}
+				identifier.append(c);
+			}
+		}
+
+		/**
+		 * Computes the successor sets of the DFA states [start, end) of one
+		 * level, splitting the range until it is small enough
+		 */
+		private final class Expansion extends RecursiveAction {
+			private static final long serialVersionUID = 1L;
+
+			private final int levelStart;
+			private final int start;
+			private final int end;
+			private final int[] levelTransitions;
+
+			private Expansion(int levelStart, int start, int end, int[] levelTransitions) {
+				this.levelStart = levelStart;
+				this.start = start;
+				this.end = end;
+				this.levelTransitions = levelTransitions;
+			}
+
+			@Override
+			protected void compute() {
+				if (pool != null && end - start > SEQUENTIAL_THRESHOLD) {
+					int middle = (start + end) >>> 1;
+					invokeAll(new Expansion(levelStart, start, middle, levelTransitions),
+							new Expansion(levelStart, middle, end, levelTransitions));
+					return;
+				}
+				long[] successors = new long[table.wordCount];
+				for (int id = start; id < end; id++) {
+					long[] words = sets.get(id).words;
+					for (int column = 0; column < symbolCount; column++) {
+						int target = EMPTY_SET;
+						if (table.step(words, successors, column)) {
+							target = intern(successors);
+						}
+						levelTransitions[(id - levelStart) * symbolCount + column] = target;
+					}
+				}
+			}
+		}
+	}
+}
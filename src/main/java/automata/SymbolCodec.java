@@ -0,0 +1,98 @@
+package automata;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Writes symbols to and reads them from the symbol table of a
+ * {@link DfaFormat} file. Codecs for the common symbol types are provided as
+ * constants.
+ *
+ * @author 2d6
+ */
+public abstract class SymbolCodec<T> {
+
+	/**
+	 * Stores Characters as two bytes
+	 */
+	public static final SymbolCodec<Character> CHARACTER = new SymbolCodec<Character>() {
+		@Override
+		public void write(Character symbol, DataOutput output) throws IOException {
+			output.writeChar(symbol);
+		}
+
+		@Override
+		public Character read(DataInput input) throws IOException {
+			return input.readChar();
+		}
+	};
+
+	/**
+	 * Stores Bytes as a single byte
+	 */
+	public static final SymbolCodec<Byte> BYTE = new SymbolCodec<Byte>() {
+		@Override
+		public void write(Byte symbol, DataOutput output) throws IOException {
+			output.writeByte(symbol);
+		}
+
+		@Override
+		public Byte read(DataInput input) throws IOException {
+			return input.readByte();
+		}
+	};
+
+	/**
+	 * Stores Integers as four bytes
+	 */
+	public static final SymbolCodec<Integer> INTEGER = new SymbolCodec<Integer>() {
+		@Override
+		public void write(Integer symbol, DataOutput output) throws IOException {
+			output.writeInt(symbol);
+		}
+
+		@Override
+		public Integer read(DataInput input) throws IOException {
+			return input.readInt();
+		}
+	};
+
+	/**
+	 * Stores Strings in modified UTF-8
+	 */
+	public static final SymbolCodec<String> STRING = new SymbolCodec<String>() {
+		@Override
+		public void write(String symbol, DataOutput output) throws IOException {
+			output.writeUTF(symbol);
+		}
+
+		@Override
+		public String read(DataInput input) throws IOException {
+			return input.readUTF();
+		}
+	};
+
+	/**
+	 * Writes a symbol.
+	 *
+	 * @param symbol
+	 *            The symbol
+	 * @param output
+	 *            The output the symbol is written to
+	 * @throws IOException
+	 *             if the symbol cannot be written
+	 */
+	public abstract void write(T symbol, DataOutput output) throws IOException;
+
+	/**
+	 * Reads a symbol written by {@link #write(Object, DataOutput)}.
+	 *
+	 * @param input
+	 *            The input the symbol is read from
+	 * @return The symbol
+	 * @throws IOException
+	 *             if the symbol cannot be read
+	 */
+	public abstract T read(DataInput input) throws IOException;
+}
@@ -1,6 +1,7 @@
 package automata;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -11,6 +12,10 @@ import automata.interfaces.ITransitionFunction;
 /**
  * Implements a simple char-based transition function
  * 
+ * The transitions are kept in a list, so looking up a transition takes time
+ * linear in the number of transitions; {@link IndexedTransitionFunction}
+ * finds a transition in constant time.
+ * 
  * @author 2d6
  *
  */
@@ -84,6 +89,13 @@ public class TransitionFunction<T> implements ITransitionFunction<T> {
 		return null;
 	}
 
+	/**
+	 * @return The transitions in the order in which they were added
+	 */
+	List<Transition<T>> getTransitions() {
+		return Collections.unmodifiableList(transitions);
+	}
+
 	@Override
 	public void setSymbols(Set<T> symbols) {
 		if (!this.alphabet.getSymbols().isEmpty()) {
@@ -3,7 +3,10 @@ package automata.interfaces;
 import java.util.Set;
 
 /**
- * An alphabet of symbols
+ * An alphabet of symbols. Each symbol is assigned a dense index: the symbols
+ * are numbered 0..n-1 in the order they are added, and the index of a symbol
+ * never changes. Transition functions may use the index to find the
+ * transitions of a symbol and to validate it in the same step.
  * @author 2d6
  *
  * @param <T>
@@ -29,9 +32,30 @@ public interface IAlphabet<T> {
 	 */
 	public boolean isValid(T symbol);
 	
+	/**
+	 * Returns the index of a symbol
+	 * @param symbol Symbol under scrutiny
+	 * @return The index of the symbol, or -1 if it is not contained in the alphabet
+	 */
+	public int indexOf(T symbol);
+	
+	/**
+	 * Returns the symbol with the given index
+	 * @param index Index of the symbol, between 0 and {@link #size()} - 1
+	 * @return The symbol
+	 */
+	public T getSymbol(int index);
+	
+	/**
+	 * @return The number of symbols in the alphabet
+	 */
+	public int size();
+	
 	/**
 	 * Returns the symbols contained in the alphabet
-	 * @return
+	 * @return A live view of the symbols in the order of their indices;
+	 *         symbols added to it are added to the alphabet, removing symbols
+	 *         is not supported as it would change the indices
 	 */
 	public Set<T> getSymbols();
 }
@@ -1,7 +1,10 @@
 package automata.interfaces;
 
+import java.util.List;
 import java.util.Set;
 
+import automata.DfaRunner;
+import automata.ProductDfa;
 import automata.State;
 
 /**
@@ -26,6 +29,16 @@ public interface IDeterministicFiniteAutomaton<T> extends IAutomaton<T> {
 	 */
 	public IDeterministicFiniteAutomaton<T> copy();
 
+	/**
+	 * Creates a new automaton which accepts the same language as this one with
+	 * the minimal number of states. Unreachable states and states from which
+	 * no accepting state can be reached are removed; the latter are
+	 * represented by missing transitions instead.
+	 * 
+	 * @return The minimal automaton
+	 */
+	public IDeterministicFiniteAutomaton<T> minimize();
+
 	/**
 	 * Determines whether two automata are structurally identical, i.e. will
 	 * evaluate identical input to identical output
@@ -35,6 +48,29 @@ public interface IDeterministicFiniteAutomaton<T> extends IAutomaton<T> {
 	 * @return True, if the CharDfa are structurally identical
 	 */
 	boolean isStructurallyEqualTo(IDeterministicFiniteAutomaton<T> otherDfa);
+
+	/**
+	 * Determines whether two automata accept the same language, i.e. accept
+	 * exactly the same inputs. In contrast to
+	 * {@link #isStructurallyEqualTo(IDeterministicFiniteAutomaton)}, the
+	 * automata may differ in their states and transitions.
+	 * 
+	 * @param otherDfa
+	 *            Automaton to compare to
+	 * @return True, if the automata accept the same language
+	 */
+	public boolean isEquivalentTo(IDeterministicFiniteAutomaton<T> otherDfa);
+
+	/**
+	 * Searches for a shortest input which is accepted by exactly one of two
+	 * automata.
+	 * 
+	 * @param otherDfa
+	 *            Automaton to compare to
+	 * @return A shortest distinguishing input, or null if the automata accept
+	 *         the same language
+	 */
+	public List<T> findDistinguishingInput(IDeterministicFiniteAutomaton<T> otherDfa);
 	
 	/**
 	 * Returns the next state of the automaton for a given current {@link State} and symbol combination.
@@ -52,6 +88,13 @@ public interface IDeterministicFiniteAutomaton<T> extends IAutomaton<T> {
 	 */
 	public Set<T> getValidSymbols(State currentState);
 	
+	/**
+	 * Returns the symbols of the alphabet of the automaton, i.e. those symbols
+	 * which may be evaluated, whether or not a transition has been defined
+	 * @return A Set of symbols
+	 */
+	public Set<T> getSymbols();
+	
 	/**
 	 * Evaluates a List of symbols according to the logic of the automaton given
 	 * by its states and transition function. Returns the state the automaton
@@ -66,4 +109,56 @@ public interface IDeterministicFiniteAutomaton<T> extends IAutomaton<T> {
 	 */
 	public State evaluate(Iterable<T> input);
 
-}
\ No newline at end of file
+	/**
+	 * Creates an automaton accepting the inputs accepted by both this and the
+	 * other automaton. The product states are created lazily, when they are
+	 * reached; neither automaton may be changed while the product is in use.
+	 * 
+	 * @param otherDfa
+	 *            The other automaton
+	 * @return The product automaton
+	 */
+	public ProductDfa<T> intersect(IDeterministicFiniteAutomaton<T> otherDfa);
+
+	/**
+	 * Creates an automaton accepting the inputs accepted by this or the other
+	 * automaton, see {@link #intersect(IDeterministicFiniteAutomaton)}.
+	 * 
+	 * @param otherDfa
+	 *            The other automaton
+	 * @return The product automaton
+	 */
+	public ProductDfa<T> union(IDeterministicFiniteAutomaton<T> otherDfa);
+
+	/**
+	 * Creates an automaton accepting the inputs accepted by this automaton but
+	 * not by the other one, see
+	 * {@link #intersect(IDeterministicFiniteAutomaton)}.
+	 * 
+	 * @param otherDfa
+	 *            The other automaton
+	 * @return The product automaton
+	 */
+	public ProductDfa<T> difference(IDeterministicFiniteAutomaton<T> otherDfa);
+
+	/**
+	 * Creates an automaton accepting the inputs accepted by exactly one of
+	 * this and the other automaton, see
+	 * {@link #intersect(IDeterministicFiniteAutomaton)}.
+	 * 
+	 * @param otherDfa
+	 *            The other automaton
+	 * @return The product automaton
+	 */
+	public ProductDfa<T> symmetricDifference(IDeterministicFiniteAutomaton<T> otherDfa);
+
+	/**
+	 * Creates a runner which evaluates symbols as they arrive, starting in
+	 * the starting state. The runner works on a snapshot of the automaton;
+	 * later changes to the automaton do not affect it.
+	 * 
+	 * @return A new runner
+	 */
+	public DfaRunner<T> newRunner();
+
+}
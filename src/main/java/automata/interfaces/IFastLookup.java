@@ -0,0 +1,14 @@
+package automata.interfaces;
+
+/**
+ * Marker interface for transition functions which find the transition of a
+ * state and symbol without scanning the transitions of other states, like
+ * {@link java.util.RandomAccess} for lists. Compiling an automaton probes
+ * every state and symbol, so automata only compile themselves implicitly if
+ * their transition function is marked with this interface.
+ *
+ * @author 2d6
+ *
+ */
+public interface IFastLookup {
+}
@@ -1,10 +1,12 @@
 package automata;
 
+import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
 
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import org.testng.annotations.Test;
 
@@ -44,4 +46,48 @@ public class AlphabetTest {
 		Alphabet<Character> charAlphabet = new Alphabet<>();
 		charAlphabet.addAll(null);
 	}
+
+	@Test
+	public void symbolsAreIndexedInTheOrderTheyAreAdded() {
+		Alphabet<String> alphabet = new Alphabet<>();
+		for (int i = 0; i < 1000; i++) {
+			alphabet.add("symbol" + i);
+		}
+		alphabet.add("symbol0");
+		assertEquals(alphabet.size(), 1000);
+		for (int i = 0; i < 1000; i++) {
+			assertEquals(alphabet.indexOf("symbol" + i), i);
+			assertEquals(alphabet.getSymbol(i), "symbol" + i);
+		}
+		assertEquals(alphabet.indexOf("symbol1000"), -1);
+		assertEquals(alphabet.indexOf(null), -1);
+	}
+	
+	@Test
+	public void theSetOfSymbolsIsBackedByTheAlphabet() {
+		Alphabet<Character> alphabet = new Alphabet<>();
+		Set<Character> symbols = alphabet.getSymbols();
+		alphabet.add('0');
+		assertTrue(symbols.add('1'));
+		assertFalse(symbols.add('0'));
+		assertEquals(alphabet.indexOf('1'), 1);
+		assertEquals(symbols.size(), 2);
+		assertTrue(symbols.contains('0'));
+		assertFalse(symbols.contains("0"));
+		assertEquals(symbols.iterator().next(), Character.valueOf('0'));
+	}
+
+	@Test
+	public void theSetOfEnumSymbolsOnlyContainsItsOwnConstants() {
+		EnumAlphabet<Thread.State> alphabet = EnumAlphabet.of(Thread.State.class);
+		assertTrue(alphabet.getSymbols().contains(Thread.State.NEW));
+		assertFalse(alphabet.getSymbols().contains(TimeUnit.NANOSECONDS));
+	}
+
+	@Test(expectedExceptions = UnsupportedOperationException.class)
+	public void symbolsMayNotBeRemovedThroughTheSetOfSymbols() {
+		Alphabet<Character> alphabet = new Alphabet<>();
+		alphabet.add('0');
+		alphabet.getSymbols().remove('0');
+	}
 }
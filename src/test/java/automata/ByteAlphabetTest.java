@@ -0,0 +1,32 @@
+package automata;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import org.testng.annotations.Test;
+
+public class ByteAlphabetTest {
+
+	@Test
+	public void allBytesAreIndexedByUnsignedValue() {
+		ByteAlphabet alphabet = ByteAlphabet.allBytes();
+		assertEquals(alphabet.size(), 256);
+		assertEquals(alphabet.indexOf((byte) 0), 0);
+		assertEquals(alphabet.indexOf((byte) -1), 255);
+		assertEquals(alphabet.getSymbol(128), Byte.valueOf((byte) -128));
+	}
+
+	@Test
+	public void bytesAreIndexedInTheOrderTheyAreAdded() {
+		ByteAlphabet alphabet = new ByteAlphabet();
+		alphabet.add((byte) -5);
+		alphabet.add((byte) 7);
+		alphabet.add((byte) -5);
+		assertEquals(alphabet.indexOf(Byte.valueOf((byte) -5)), 0);
+		assertEquals(alphabet.indexOf((byte) 7), 1);
+		assertTrue(alphabet.isValid((byte) 7));
+		assertFalse(alphabet.isValid((byte) 8));
+		assertEquals(alphabet.size(), 2);
+	}
+}
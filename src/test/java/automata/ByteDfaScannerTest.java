@@ -0,0 +1,139 @@
+package automata;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class ByteDfaScannerTest {
+
+	private static final boolean ACCEPTING = true;
+	private static final boolean NOT_ACCEPTING = false;
+
+	@Test
+	public void filesAreScannedAcrossWindows() throws IOException {
+		CompiledDfa<Byte> dfa = newContainsErrorDfa().compile();
+		Path file = Files.createTempFile("automata", ".log");
+		try {
+			Files.write(file, "info\ninfo\nERROR\ninfo\n".getBytes(StandardCharsets.US_ASCII));
+			for (int windowSize = 1; windowSize <= 8; windowSize++) {
+				ByteDfaScanner scanner = new ByteDfaScanner(dfa, windowSize);
+				Assert.assertTrue(scanner.accepts(file));
+				Assert.assertSame(scanner.scan(file), dfa.getState("Found"));
+			}
+
+			Files.write(file, "info\nERRO\nR\n".getBytes(StandardCharsets.US_ASCII));
+			Assert.assertFalse(new ByteDfaScanner(dfa, 3).accepts(file));
+		}
+		finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	public void emptyFilesEvaluateToStartingState() throws IOException {
+		CompiledDfa<Byte> dfa = newContainsErrorDfa().compile();
+		Path file = Files.createTempFile("automata", ".log");
+		try {
+			Assert.assertSame(new ByteDfaScanner(dfa).scan(file), dfa.getStartingState());
+		}
+		finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	public void buffersAreScannedWithoutChangingTheirPosition() {
+		CompiledDfa<Byte> dfa = newContainsErrorDfa().compile();
+		ByteDfaScanner scanner = new ByteDfaScanner(dfa);
+		ByteBuffer buffer = ByteBuffer.allocateDirect(16);
+		buffer.put("xxERROR".getBytes(StandardCharsets.US_ASCII));
+		buffer.flip();
+
+		Assert.assertTrue(scanner.accepts(buffer));
+		Assert.assertEquals(buffer.position(), 0);
+		buffer.position(3);
+		Assert.assertFalse(scanner.accepts(buffer));
+	}
+
+	@Test
+	public void scansMayBeContinued() {
+		CompiledDfa<Byte> dfa = newContainsErrorDfa().compile();
+		ByteDfaScanner scanner = new ByteDfaScanner(dfa);
+
+		int state = scanner.scan(dfa.getStartingStateId(), ByteBuffer.wrap("ER".getBytes(StandardCharsets.US_ASCII)));
+		state = scanner.scan(state, ByteBuffer.wrap("ROR".getBytes(StandardCharsets.US_ASCII)));
+		Assert.assertTrue(dfa.isAccepting(state));
+	}
+
+	@Test
+	public void missingTransitionsEvaluateToNewNonAcceptingState() {
+		DeterministicFiniteAutomaton<Byte> dfa = newByteDfa("S1", ACCEPTING);
+		dfa.addTransition("S1", "S1", (byte) 'a');
+		ByteDfaScanner scanner = new ByteDfaScanner(dfa.compile());
+		ByteBuffer buffer = ByteBuffer.wrap("aab".getBytes(StandardCharsets.US_ASCII));
+
+		State finalState = scanner.scan(buffer);
+		Assert.assertEquals(finalState.getIdentifier(), Byte.toString((byte) 'b'));
+		Assert.assertFalse(finalState.isAccepting());
+		Assert.assertEquals(scanner.scan(0, buffer), CompiledDfa.DEAD_STATE);
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void bytesNotInAlphabetAreRejected() {
+		Set<Byte> alphabet = new HashSet<>();
+		alphabet.add((byte) 'a');
+		DeterministicFiniteAutomaton<Byte> dfa = new DeterministicFiniteAutomaton<>("S1", ACCEPTING,
+				new IndexedTransitionFunction<>(alphabet));
+		dfa.addTransition("S1", "S1", (byte) 'a');
+		new ByteDfaScanner(dfa.compile()).scan(ByteBuffer.wrap(new byte[] { 'a', 'b' }));
+	}
+
+	/*
+	 * Helper Methods
+	 */
+
+	private DeterministicFiniteAutomaton<Byte> newByteDfa(String identifier, boolean isAccepting) {
+		Set<Byte> alphabet = new HashSet<>();
+		for (int value = 0; value < 256; value++) {
+			alphabet.add((byte) value);
+		}
+		return new DeterministicFiniteAutomaton<>(identifier, isAccepting,
+				new IndexedTransitionFunction<>(alphabet));
+	}
+
+	/*
+	 * Accepts all inputs containing "ERROR"
+	 */
+	private DeterministicFiniteAutomaton<Byte> newContainsErrorDfa() {
+		String word = "ERROR";
+		DeterministicFiniteAutomaton<Byte> dfa = newByteDfa("P0", NOT_ACCEPTING);
+		for (int i = 1; i < word.length(); i++) {
+			dfa.addState("P" + i, NOT_ACCEPTING);
+		}
+		dfa.addState("Found", ACCEPTING);
+		for (int i = 0; i < word.length(); i++) {
+			for (int value = 0; value < 256; value++) {
+				// No proper suffix of a prefix of "ERROR" is a longer prefix than "E"
+				String target = "P0";
+				if (value == word.charAt(i)) {
+					target = i + 1 == word.length() ? "Found" : "P" + (i + 1);
+				}
+				else if (value == 'E') {
+					target = "P1";
+				}
+				dfa.addTransition("P" + i, target, (byte) value);
+			}
+		}
+		for (int value = 0; value < 256; value++) {
+			dfa.addTransition("Found", "Found", (byte) value);
+		}
+		return dfa;
+	}
+}
@@ -0,0 +1,52 @@
+package automata;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.testng.annotations.Test;
+
+public class CharAlphabetTest {
+
+	@Test
+	public void charactersAreIndexedInTheOrderTheyAreAdded() {
+		CharAlphabet alphabet = new CharAlphabet();
+		alphabet.add('z');
+		alphabet.add('a');
+		alphabet.add('\uffff');
+		assertEquals(alphabet.indexOf('z'), 0);
+		assertEquals(alphabet.indexOf('a'), 1);
+		assertEquals(alphabet.indexOf(Character.valueOf('\uffff')), 2);
+		assertEquals(alphabet.indexOf('b'), -1);
+		assertEquals(alphabet.getSymbol(1), Character.valueOf('a'));
+		assertEquals(alphabet.size(), 3);
+	}
+
+	@Test
+	public void charactersBeyondTheHighestSymbolAreInvalid() {
+		Set<Character> symbols = new HashSet<>();
+		symbols.add('0');
+		symbols.add('1');
+		CharAlphabet alphabet = new CharAlphabet(symbols);
+		assertTrue(alphabet.isValid('1'));
+		assertFalse(alphabet.isValid('2'));
+		assertFalse(alphabet.isValid(null));
+	}
+
+	@Test
+	public void charAlphabetsDriveTransitionFunctions() {
+		Set<Character> symbols = new HashSet<>();
+		symbols.add('0');
+		symbols.add('1');
+		StringDfa dfa = new StringDfa("S1", true, IndexedTransitionFunction.on(new CharAlphabet(symbols)));
+		dfa.addState("S2", false);
+		dfa.addTransition("S1", "S2", '0');
+		dfa.addTransition("S1", "S1", '1');
+		dfa.addTransition("S2", "S1", '0');
+		dfa.addTransition("S2", "S2", '1');
+		assertTrue(dfa.isStructurallyEqualTo(new EvenNumberOfZeros()));
+	}
+}
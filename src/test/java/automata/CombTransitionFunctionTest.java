@@ -0,0 +1,174 @@
+package automata;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+
+public class CombTransitionFunctionTest {
+	
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void alphabetMayNotBeNull() {
+		new CombTransitionFunction<Character>(null);
+	}
+	
+	@Test(dataProvider = "testSymbols")
+	public void transitionsMayBeAddedAndRetrieved(Character symbol) {
+		CombTransitionFunction<Character> function = newSingleCharTransitionFunction(symbol);
+		State initialState = new State("initialState", true);
+		State targetState = new State("targetState", false);
+		function.addTransition(initialState, targetState, symbol);
+		assertEquals(function.getNextState(initialState, symbol), targetState);
+	}
+	
+	@DataProvider(name = "testSymbols")
+	public static Object[][] symbols() {
+		return new Object[][] {
+				{'0'},
+				{'a'},
+				{'ä'}
+		};
+	}
+	
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void duplicateTransitionsAreNotAllowed() {
+		Character symbol = '0';
+		CombTransitionFunction<Character> function = newSingleCharTransitionFunction(symbol);
+		State initialState = new State("initialState", true);
+		State targetState = new State("targetState", false);
+		function.addTransition(initialState, targetState, symbol);
+		function.addTransition(initialState, targetState, symbol);
+	}
+	
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void transitionsWithSymbolsNotInAlphabetAreRejected() {
+		CombTransitionFunction<Character> function = new CombTransitionFunction<>();
+		State initialState = new State("initialState", true);
+		State targetState = new State("targetState", false);
+		Set<Character> symbols = new HashSet<>();
+		symbols.add('1');
+		function.setSymbols(symbols);
+		function.addTransition(initialState, targetState, '0');
+	}
+	
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void throwsIllegalArgumentExceptionIfSymbolsSetTwice() {
+		CombTransitionFunction<Character> function = newSingleCharTransitionFunction('x');
+		Set<Character> symbols = new HashSet<>();
+		function.setSymbols(symbols);
+	}
+	
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void throwsIllegalArgumentExceptionIfSymbolsAreNull() {
+		CombTransitionFunction<Character> function = new CombTransitionFunction<>();
+		function.setSymbols(null);
+	}
+	
+	@Test(expectedExceptions = NullPointerException.class)
+	public void alphabetMustBeSetBeforeAddingTransitions() {
+		CombTransitionFunction<Character> function = new CombTransitionFunction<>();
+		State initialState = new State("initialState", true);
+		State targetState = new State("targetState", false);
+		function.addTransition(initialState, targetState, '0');
+	}
+	
+	@Test
+	public void nullStatesAreAccepted() {
+		CombTransitionFunction<Character> function = newSingleCharTransitionFunction('0');
+		State targetState = new State("targetState", false);
+		function.addTransition(null, targetState, '0');
+		function.addTransition(targetState, null, '0');
+		assertEquals(function.getNextState(null, '0'), targetState);
+		assertNull(function.getNextState(targetState, '0'));
+	}
+	
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void nullSymbolsAreRejected() {
+		CombTransitionFunction<Character> function = newSingleCharTransitionFunction('0');
+		State initialState = new State("initialState", true);
+		State targetState = new State("targetState", false);
+		function.addTransition(initialState, targetState, null);
+	}
+	
+	@Test
+	public void missingTransitionsReturnNull() {
+		CombTransitionFunction<Character> function = newSingleCharTransitionFunction('0');
+		State initialState = new State("initialState", true);
+		assertNull(function.getNextState(initialState, '0'));
+	}
+	
+	@Test
+	public void equalSymbolsFindTheSameTransition() {
+		CombTransitionFunction<String> function = new CombTransitionFunction<>();
+		Set<String> symbols = new HashSet<>();
+		symbols.add("symbol");
+		function.setSymbols(symbols);
+		State initialState = new State("initialState", true);
+		State targetState = new State("targetState", false);
+		function.addTransition(initialState, targetState, new String("symbol"));
+		assertEquals(function.getNextState(initialState, new String("symbol")), targetState);
+	}
+	
+	@Test
+	public void validSymbolsAreThoseWithTransitions() {
+		Set<Character> symbols = new HashSet<>();
+		symbols.add('0');
+		symbols.add('1');
+		CombTransitionFunction<Character> function = new CombTransitionFunction<>(symbols);
+		State initialState = new State("initialState", true);
+		State targetState = new State("targetState", false);
+		function.addTransition(initialState, targetState, '1');
+		assertEquals(function.getValidSymbols(initialState).size(), 1);
+		assertTrue(function.getValidSymbols(initialState).contains('1'));
+		assertTrue(function.getValidSymbols(targetState).isEmpty());
+	}
+	
+	@Test
+	public void sparseRowsAreCompressed() {
+		Set<Integer> symbols = new HashSet<>();
+		for (int symbol = 0; symbol < 10000; symbol++) {
+			symbols.add(symbol);
+		}
+		CombTransitionFunction<Integer> function = new CombTransitionFunction<>(symbols);
+		Random random = new Random(37);
+		State[] states = new State[1000];
+		for (int i = 0; i < states.length; i++) {
+			states[i] = new State("S" + i, false);
+		}
+		Map<String, State> expected = new HashMap<>();
+		for (int i = 0; i < 5000; i++) {
+			State initialState = states[random.nextInt(states.length)];
+			int symbol = random.nextInt(10000);
+			String key = initialState.getIdentifier() + "/" + symbol;
+			if (!expected.containsKey(key)) {
+				State targetState = states[random.nextInt(states.length)];
+				function.addTransition(initialState, targetState, symbol);
+				expected.put(key, targetState);
+			}
+		}
+		for (State state : states) {
+			for (int symbol = 0; symbol < 10000; symbol += 7) {
+				assertEquals(function.getNextState(state, symbol), expected.get(state.getIdentifier() + "/" + symbol));
+			}
+			for (int symbol : function.getValidSymbols(state)) {
+				assertEquals(function.getNextState(state, symbol), expected.get(state.getIdentifier() + "/" + symbol));
+			}
+		}
+	}
+
+	private CombTransitionFunction<Character> newSingleCharTransitionFunction(Character symbol) {
+		Set<Character> symbols = new HashSet<>();
+		symbols.add(symbol);
+		return new CombTransitionFunction<>(symbols);
+	}
+}
+
@@ -0,0 +1,262 @@
+package automata;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+public class CompiledDfaTest {
+
+	private static final boolean ACCEPTING = true;
+	private static final boolean NOT_ACCEPTING = false;
+
+	private static final String S1 = "S1";
+	private static final String S2 = "S2";
+	private static final String S3 = "S3";
+
+	@Test(dataProvider = "testStrings")
+	public void compiledDfaEvaluatesToOriginalStates(String testString) {
+		DeterministicFiniteAutomaton<Character> dfa = newSampleDfa();
+		CompiledDfa<Character> compiled = dfa.compile();
+
+		Assert.assertSame(compiled.evaluate(stringToCharacterList(testString)),
+				dfa.evaluate(stringToCharacterList(testString)));
+	}
+
+	@DataProvider(name = "testStrings")
+	private Object[][] getStrings() {
+		return new Object[][] {
+				{""},
+				{"0"},
+				{"01"},
+				{"0101"},
+				{"1101"}
+		};
+	}
+
+	@Test
+	public void missingTransitionsEvaluateToNewNonAcceptingState() {
+		DeterministicFiniteAutomaton<Character> dfa = newSampleDfa();
+		CompiledDfa<Character> compiled = dfa.compile();
+
+		State finalState = compiled.evaluate(stringToCharacterList("00"));
+		Assert.assertFalse(finalState.isAccepting());
+		Assert.assertEquals(finalState.getIdentifier(), "0");
+		Assert.assertEquals(compiled.evaluateToStateId(stringToCharacterList("00")),
+				CompiledDfa.DEAD_STATE);
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void compiledDfaRejectsSymbolsNotInAlphabet() {
+		newSampleDfa().compile().evaluate(stringToCharacterList("012"));
+	}
+
+	@Test
+	public void startingStateHasIdZero() {
+		CompiledDfa<Character> compiled = newSampleDfa().compile();
+
+		Assert.assertEquals(compiled.getStartingStateId(), 0);
+		Assert.assertEquals(compiled.getState(0).getIdentifier(), S1);
+		Assert.assertEquals(compiled.getStateCount(), 3);
+		Assert.assertEquals(compiled.getSymbolCount(), 2);
+	}
+
+	@Test
+	public void statesMayBeMappedToIdsAndBack() {
+		DeterministicFiniteAutomaton<Character> dfa = newSampleDfa();
+		CompiledDfa<Character> compiled = dfa.compile();
+
+		int stateId = compiled.getStateId(S2);
+		Assert.assertSame(compiled.getState(stateId), dfa.getState(S2));
+		Assert.assertEquals(compiled.getStateId(dfa.getState(S2)), stateId);
+		Assert.assertEquals(compiled.getStateId(new State(S2, NOT_ACCEPTING)), CompiledDfa.DEAD_STATE);
+		Assert.assertEquals(compiled.getStateId("unknown"), CompiledDfa.DEAD_STATE);
+	}
+
+	@Test
+	public void compiledDfaIsNotAffectedByLaterChanges() {
+		DeterministicFiniteAutomaton<Character> dfa = newSampleDfa();
+		CompiledDfa<Character> compiled = dfa.compile();
+		dfa.addTransition(S2, S2, '0');
+
+		Assert.assertEquals(compiled.evaluateToStateId(stringToCharacterList("00")),
+				CompiledDfa.DEAD_STATE);
+		Assert.assertNull(compiled.getNextState(compiled.getState(S2), '0'));
+	}
+
+	@Test
+	public void compiledDfaIsStructurallyEqualToOriginal() {
+		DeterministicFiniteAutomaton<Character> dfa = newSampleDfa();
+		CompiledDfa<Character> compiled = dfa.compile();
+
+		Assert.assertTrue(compiled.isStructurallyEqualTo(dfa));
+		Assert.assertTrue(dfa.isStructurallyEqualTo(compiled));
+		Assert.assertEquals(compiled.getValidSymbols(compiled.getState(S3)),
+				dfa.getValidSymbols(dfa.getState(S3)));
+	}
+
+	@Test(expectedExceptions = UnsupportedOperationException.class)
+	public void compiledDfaIsImmutable() {
+		newSampleDfa().compile().addState("S4", ACCEPTING);
+	}
+
+	@Test
+	public void batchEvaluationMatchesSequentialEvaluation() {
+		CompiledDfa<Character> compiled = newSampleDfa().compile();
+		Random random = new Random(3);
+		List<List<Character>> inputs = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			StringBuilder input = new StringBuilder();
+			int length = random.nextInt(20);
+			for (int j = 0; j < length; j++) {
+				input.append(random.nextBoolean() ? '0' : '1');
+			}
+			inputs.add(stringToCharacterList(input.toString()));
+		}
+
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			int[] finalStates = compiled.evaluateAll(inputs, pool);
+			BitSet accepted = compiled.acceptsAll(inputs, pool);
+			Assert.assertEquals(finalStates.length, inputs.size());
+			for (int i = 0; i < inputs.size(); i++) {
+				Assert.assertEquals(finalStates[i], compiled.evaluateToStateId(inputs.get(i)));
+				Assert.assertEquals(accepted.get(i), compiled.evaluate(inputs.get(i)).isAccepting());
+			}
+			Assert.assertEquals(compiled.acceptsAll(inputs), accepted);
+		}
+		finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	public void batchEvaluationOfNoInputsIsEmpty() {
+		CompiledDfa<Character> compiled = newSampleDfa().compile();
+		List<List<Character>> inputs = new ArrayList<>();
+
+		Assert.assertEquals(compiled.evaluateAll(inputs).length, 0);
+		Assert.assertTrue(compiled.acceptsAll(inputs).isEmpty());
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void batchEvaluationRejectsSymbolsNotInAlphabet() {
+		CompiledDfa<Character> compiled = newSampleDfa().compile();
+		List<List<Character>> inputs = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			inputs.add(stringToCharacterList(i == 500 ? "012" : "01"));
+		}
+		compiled.acceptsAll(inputs);
+	}
+
+	@Test
+	public void missingTransitionsShareTheirResult() {
+		CompiledDfa<Character> compiled = newSampleDfa().compile();
+
+		Assert.assertSame(compiled.evaluate(stringToCharacterList("00")),
+				compiled.evaluate(stringToCharacterList("100")));
+	}
+
+	@Test
+	public void deadStatesAndAcceptingSinksAreDetected() {
+		DeterministicFiniteAutomaton<Character> dfa = newSampleDfa();
+		dfa.addState("Trap", NOT_ACCEPTING);
+		dfa.addState("Sink", ACCEPTING);
+		dfa.addTransition(S2, "Trap", '0');
+		dfa.addTransition("Trap", "Trap", '0');
+		dfa.addTransition("Trap", "Sink", '1');
+		dfa.addTransition("Sink", "Sink", '0');
+		dfa.addTransition("Sink", "Sink", '1');
+		CompiledDfa<Character> compiled = dfa.compile();
+
+		Assert.assertFalse(compiled.isDead(compiled.getStateId(S1)));
+		Assert.assertFalse(compiled.isDead(compiled.getStateId("Trap")));
+		Assert.assertTrue(compiled.isAcceptingSink(compiled.getStateId("Sink")));
+		Assert.assertFalse(compiled.isAcceptingSink(compiled.getStateId(S3)));
+		Assert.assertTrue(compiled.isDead(CompiledDfa.DEAD_STATE));
+
+		DeterministicFiniteAutomaton<Character> rejecting = newSampleDfa();
+		rejecting.addState("Dead", NOT_ACCEPTING);
+		rejecting.addTransition(S2, "Dead", '0');
+		rejecting.addTransition("Dead", "Dead", '0');
+		CompiledDfa<Character> compiledRejecting = rejecting.compile();
+		Assert.assertTrue(compiledRejecting.isDead(compiledRejecting.getStateId("Dead")));
+		Assert.assertFalse(compiledRejecting.isAcceptingSink(compiledRejecting.getStateId(S3)));
+	}
+
+	@Test
+	public void acceptsStopsAsSoonAsTheResultIsDecided() {
+		DeterministicFiniteAutomaton<Character> dfa = newSampleDfa();
+		dfa.addState("Sink", ACCEPTING);
+		dfa.addTransition(S2, "Sink", '0');
+		dfa.addTransition("Sink", "Sink", '0');
+		dfa.addTransition("Sink", "Sink", '1');
+		CompiledDfa<Character> compiled = dfa.compile();
+
+		// The invalid symbol is never read
+		Assert.assertTrue(compiled.accepts(stringToCharacterList("0002")));
+		Assert.assertTrue(dfa.accepts(stringToCharacterList("00")));
+		Assert.assertFalse(compiled.accepts(stringToCharacterList("0")));
+	}
+
+	@Test
+	public void acceptsAgreesWithEvaluate() {
+		DeterministicFiniteAutomaton<Character> dfa = newSampleDfa();
+		dfa.addState("Fork", NOT_ACCEPTING);
+		dfa.addState("Dead", NOT_ACCEPTING);
+		dfa.addState("Sink", ACCEPTING);
+		dfa.addTransition(S2, "Fork", '0');
+		dfa.addTransition("Fork", "Dead", '0');
+		dfa.addTransition("Fork", "Sink", '1');
+		dfa.addTransition("Dead", "Dead", '1');
+		dfa.addTransition("Sink", "Sink", '0');
+		dfa.addTransition("Sink", "Sink", '1');
+		CompiledDfa<Character> compiled = dfa.compile();
+
+		Random random = new Random(3);
+		for (int i = 0; i < 1000; i++) {
+			List<Character> input = new ArrayList<>();
+			int length = random.nextInt(10);
+			for (int j = 0; j < length; j++) {
+				input.add(random.nextBoolean() ? '0' : '1');
+			}
+			Assert.assertEquals(compiled.accepts(input), compiled.evaluate(input).isAccepting());
+		}
+	}
+
+	/*
+	 * Helper Methods
+	 */
+
+	private DeterministicFiniteAutomaton<Character> newSampleDfa() {
+		Set<Character> alphabet = new HashSet<>();
+		alphabet.add('0');
+		alphabet.add('1');
+
+		DeterministicFiniteAutomaton<Character> dfa = new DeterministicFiniteAutomaton<>(
+				S1, NOT_ACCEPTING, new IndexedTransitionFunction<>(alphabet));
+		dfa.addState(S2, NOT_ACCEPTING);
+		dfa.addState(S3, ACCEPTING);
+		dfa.addTransition(S1, S2, '0');
+		dfa.addTransition(S1, S1, '1');
+		dfa.addTransition(S2, S3, '1');
+		dfa.addTransition(S3, S2, '0');
+		dfa.addTransition(S3, S3, '1');
+		return dfa;
+	}
+
+	private List<Character> stringToCharacterList(String string) {
+		ArrayList<Character> characterList = new ArrayList<>();
+		for (char ch : string.toCharArray()) {
+			characterList.add(ch);
+		}
+		return characterList;
+	}
+}
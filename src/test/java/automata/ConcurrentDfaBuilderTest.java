@@ -0,0 +1,183 @@
+package automata;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class ConcurrentDfaBuilderTest {
+
+	private static final boolean ACCEPTING = true;
+	private static final boolean NOT_ACCEPTING = false;
+
+	@Test
+	public void frozenAutomatonIsEquivalentToAutomatonBuiltStateByState() {
+		ConcurrentDfaBuilder<Character> builder = new ConcurrentDfaBuilder<>("S1", ACCEPTING, binarySymbols());
+		builder.addState("S2", NOT_ACCEPTING);
+		builder.addTransition("S1", "S2", '0');
+		builder.addTransition("S1", "S1", '1');
+		builder.addTransition("S2", "S1", '0');
+		builder.addTransition("S2", "S2", '1');
+		CompiledDfa<Character> dfa = builder.freeze();
+
+		Assert.assertTrue(dfa.isStructurallyEqualTo(new EvenNumberOfZeros()));
+		Assert.assertEquals(dfa.getState(dfa.getStartingStateId()).getIdentifier(), "S1");
+	}
+
+	@Test
+	public void duplicateTransitionsAreMerged() {
+		ConcurrentDfaBuilder<Character> builder = new ConcurrentDfaBuilder<>("S1", NOT_ACCEPTING, binarySymbols());
+		builder.addState("S2", ACCEPTING);
+		builder.addTransition("S1", "S2", '0');
+		builder.addTransition("S1", "S2", '0');
+
+		Assert.assertTrue(builder.freeze().accepts(toList("0")));
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void conflictingTransitionsAreRejected() {
+		ConcurrentDfaBuilder<Character> builder = new ConcurrentDfaBuilder<>("S1", NOT_ACCEPTING, binarySymbols());
+		builder.addState("S2", ACCEPTING);
+		builder.addTransition("S1", "S2", '0');
+		builder.addTransition("S1", "S1", '0');
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void duplicateIdentifiersAreRejected() {
+		ConcurrentDfaBuilder<Character> builder = new ConcurrentDfaBuilder<>("S1", NOT_ACCEPTING, binarySymbols());
+		builder.addState("S1", ACCEPTING);
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void identifiersOfUnnamedStatesAreReserved() {
+		ConcurrentDfaBuilder<Character> builder = new ConcurrentDfaBuilder<>("S1", NOT_ACCEPTING, binarySymbols());
+		builder.addState(ACCEPTING);
+		builder.addState("#1", ACCEPTING);
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void symbolsMustBeInTheAlphabet() {
+		ConcurrentDfaBuilder<Character> builder = new ConcurrentDfaBuilder<>("S1", NOT_ACCEPTING, binarySymbols());
+		builder.addTransition("S1", "S1", '2');
+	}
+
+	@Test(expectedExceptions = NullPointerException.class)
+	public void transitionsToUnknownStatesAreRejected() {
+		ConcurrentDfaBuilder<Character> builder = new ConcurrentDfaBuilder<>("S1", NOT_ACCEPTING, binarySymbols());
+		builder.addTransition("S1", "S2", '0');
+	}
+
+	@Test(expectedExceptions = IndexOutOfBoundsException.class)
+	public void transitionsToUnknownStateIdsAreRejected() {
+		ConcurrentDfaBuilder<Character> builder = new ConcurrentDfaBuilder<>("S1", NOT_ACCEPTING, binarySymbols());
+		builder.addTransition(0, 1, '0');
+	}
+
+	@Test(expectedExceptions = IllegalStateException.class)
+	public void builderCannotBeUsedAfterFreezing() {
+		ConcurrentDfaBuilder<Character> builder = new ConcurrentDfaBuilder<>("S1", NOT_ACCEPTING, binarySymbols());
+		builder.freeze();
+		builder.addState("S2", ACCEPTING);
+	}
+
+	@Test
+	public void idsOfRejectedDuplicatesAreSkipped() {
+		ConcurrentDfaBuilder<Character> builder = new ConcurrentDfaBuilder<>("S1", NOT_ACCEPTING, binarySymbols());
+		try {
+			builder.addState("S1", ACCEPTING);
+			Assert.fail();
+		}
+		catch (IllegalArgumentException e) {
+			// expected
+		}
+		int s2 = builder.addState(ACCEPTING);
+		builder.addTransition(0, s2, '1');
+		CompiledDfa<Character> dfa = builder.freeze();
+
+		Assert.assertEquals(dfa.getStateCount(), 2);
+		Assert.assertEquals(dfa.getState(1).getIdentifier(), "#1");
+		Assert.assertEquals(dfa.getStateId("#1"), 1);
+		Assert.assertTrue(dfa.accepts(toList("1")));
+	}
+
+	@Test
+	public void statesAndTransitionsCanBeAddedByManyThreads() throws Exception {
+		final int threadCount = 8;
+		final int statesPerThread = 20000;
+		final ConcurrentDfaBuilder<Character> builder = new ConcurrentDfaBuilder<>("start", NOT_ACCEPTING,
+				binarySymbols());
+		final AtomicInteger duplicates = new AtomicInteger();
+
+		// Every thread adds the same chain: state i leads to state i + 1 on '0'
+		// and back to the starting state on '1'. Each identifier and each
+		// transition is therefore added by all threads at once.
+		ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int thread = 0; thread < threadCount; thread++) {
+				futures.add(executor.submit(new Callable<Void>() {
+					@Override
+					public Void call() {
+						String previous = "start";
+						for (int i = 0; i < statesPerThread; i++) {
+							String identifier = "S" + i;
+							try {
+								builder.addState(identifier, i == statesPerThread - 1);
+							}
+							catch (IllegalArgumentException e) {
+								duplicates.incrementAndGet();
+							}
+							builder.addTransition(previous, identifier, '0');
+							builder.addTransition(identifier, "start", '1');
+							previous = identifier;
+						}
+						return null;
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		}
+		finally {
+			executor.shutdown();
+		}
+		CompiledDfa<Character> dfa = builder.freeze();
+
+		Assert.assertEquals(duplicates.get(), (threadCount - 1) * statesPerThread);
+		Assert.assertEquals(dfa.getStateCount(), statesPerThread + 1);
+		int zero = dfa.getColumn('0');
+		int one = dfa.getColumn('1');
+		int stateId = dfa.getStartingStateId();
+		for (int i = 0; i < statesPerThread; i++) {
+			stateId = dfa.step(stateId, zero);
+			Assert.assertEquals(dfa.getState(stateId).getIdentifier(), "S" + i);
+			Assert.assertEquals(dfa.step(stateId, one), dfa.getStartingStateId());
+		}
+		Assert.assertTrue(dfa.isAccepting(stateId));
+		Assert.assertEquals(dfa.step(stateId, zero), CompiledDfa.DEAD_STATE);
+	}
+
+	private List<Character> toList(String input) {
+		List<Character> list = new ArrayList<>();
+		for (char symbol : input.toCharArray()) {
+			list.add(symbol);
+		}
+		return list;
+	}
+
+	private Set<Character> binarySymbols() {
+		Set<Character> symbols = new HashSet<>();
+		symbols.add('0');
+		symbols.add('1');
+		return symbols;
+	}
+}
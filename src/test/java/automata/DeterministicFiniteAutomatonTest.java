@@ -106,6 +106,17 @@ public class DeterministicFiniteAutomatonTest {
 				dfa.getState(S2));
 	}
 	
+	@Test
+	public void missingTransitionsShareTheirResult() {
+		DeterministicFiniteAutomaton<Character> dfa = newBoolCharDfa(S1, ACCEPTING);
+		dfa.addTransition(S1, S1, '1');
+		
+		State missing = dfa.evaluate(stringToCharacterList("0"));
+		Assert.assertEquals(missing.getIdentifier(), "0");
+		Assert.assertFalse(missing.isAccepting());
+		Assert.assertSame(dfa.evaluate(stringToCharacterList("110")), missing);
+	}
+	
 	@Test(expectedExceptions = IllegalArgumentException.class)
 	public void charDfaThrowsIllegalArgumentExceptionForinputContainingIllegalCharacters() {
 		DeterministicFiniteAutomaton<Character> dfa = newBoolCharDfa(S1, ACCEPTING);
@@ -152,6 +163,101 @@ public class DeterministicFiniteAutomatonTest {
 		Assert.assertFalse(original.getState(S1) == copy.getState(S1));
 	}
 
+	@Test
+	public void changesToCopyDoNotAffectOriginal() {
+		DeterministicFiniteAutomaton<Character> original = newBoolCharDfa(S1, NOT_ACCEPTING);
+		original.addState(S2, ACCEPTING);
+		original.addTransition(S1, S2, '0');
+
+		DeterministicFiniteAutomaton<Character> copy = original.copy();
+		copy.addState("S3", ACCEPTING);
+		copy.addTransition(S1, "S3", '1');
+		copy.addTransition(S2, S2, '0');
+
+		Assert.assertEquals(copy.evaluate(stringToCharacterList("1")).getIdentifier(), "S3");
+		Assert.assertEquals(copy.evaluate(stringToCharacterList("000")).getIdentifier(), S2);
+		Assert.assertNull(original.getState("S3"));
+		Assert.assertNull(original.getNextState(original.getState(S1), '1'));
+		Assert.assertNull(original.getNextState(original.getState(S2), '0'));
+		Assert.assertEquals(copy.getValidSymbols(copy.getState(S1)).size(), 2);
+		Assert.assertEquals(copy.compile().getStateCount(), 3);
+	}
+
+	@Test
+	public void changesToOriginalDoNotAffectCopy() {
+		DeterministicFiniteAutomaton<Character> original = newBoolCharDfa(S1, NOT_ACCEPTING);
+		original.addState(S2, ACCEPTING);
+		original.addTransition(S1, S2, '0');
+
+		DeterministicFiniteAutomaton<Character> copy = original.copy();
+		original.addTransition(S2, S1, '1');
+
+		Assert.assertNull(copy.getNextState(copy.getState(S2), '1'));
+		Assert.assertFalse(copy.isEquivalentTo(original));
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void copiedTransitionsCannotBeRedefined() {
+		DeterministicFiniteAutomaton<Character> original = newBoolCharDfa(S1, NOT_ACCEPTING);
+		original.addState(S2, ACCEPTING);
+		original.addTransition(S1, S2, '0');
+
+		original.copy().addTransition(S1, S1, '0');
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void copiedStatesCannotBeAddedAgain() {
+		DeterministicFiniteAutomaton<Character> original = newBoolCharDfa(S1, NOT_ACCEPTING);
+		original.addState(S2, ACCEPTING);
+
+		original.copy().addState(S2, ACCEPTING);
+	}
+
+	@Test
+	public void copiesOfCopiesAreIndependent() {
+		DeterministicFiniteAutomaton<Character> original = newBoolCharDfa(S1, NOT_ACCEPTING);
+		original.addState(S2, ACCEPTING);
+		original.addTransition(S1, S2, '0');
+		DeterministicFiniteAutomaton<Character> copy = original.copy();
+		DeterministicFiniteAutomaton<Character> copyOfCopy = copy.copy();
+		copyOfCopy.addTransition(S2, S1, '0');
+
+		Assert.assertTrue(copy.isStructurallyEqualTo(original));
+		Assert.assertTrue(copyOfCopy.evaluate(stringToCharacterList("000")).isAccepting());
+		Assert.assertFalse(copy.evaluate(stringToCharacterList("000")).isAccepting());
+		Assert.assertFalse(copyOfCopy.getState(S1) == copy.getState(S1));
+	}
+
+	@Test
+	public void unmodifiedCopiesShareTheCompiledSnapshot() {
+		DeterministicFiniteAutomaton<Character> original = newBoolCharDfa(S1, NOT_ACCEPTING);
+		original.addState(S2, ACCEPTING);
+		original.addTransition(S1, S2, '0');
+		DeterministicFiniteAutomaton<Character> copy = original.copy();
+		CompiledDfa<Character> compiledCopy = copy.compile();
+
+		Assert.assertSame(copy.compile(), compiledCopy);
+		Assert.assertEquals(compiledCopy.getStateId(copy.getState(S2)), original.compile().getStateId(S2));
+		Assert.assertSame(compiledCopy.evaluate(stringToCharacterList("0")), copy.getState(S2));
+		Assert.assertEquals(compiledCopy.getStateId(original.getState(S2)), CompiledDfa.DEAD_STATE);
+	}
+
+	@Test
+	public void listBasedAutomataAreCompiledFromTheirTransitions() {
+		DeterministicFiniteAutomaton<Character> original = newBoolCharDfa("#0", NOT_ACCEPTING);
+		for (int stateId = 1; stateId < 2000; stateId++) {
+			original.addState("#" + stateId, stateId % 3 == 0);
+			original.addTransition("#" + (stateId - 1), "#" + stateId, stateId % 2 == 0 ? '0' : '1');
+		}
+		original.addTransition("#1999", "#0", '1');
+		CompiledDfa<Character> compiled = original.compile();
+
+		Assert.assertEquals(compiled.getStateCount(), 2000);
+		Assert.assertEquals(compiled.evaluate(stringToCharacterList("1010")).getIdentifier(), "#4");
+		Assert.assertEquals(compiled.evaluate(stringToCharacterList("0")).getIdentifier(), "0");
+		Assert.assertTrue(original.copy().isStructurallyEqualTo(original));
+	}
+
 	/*
 	 * Helper Methods
 	 */
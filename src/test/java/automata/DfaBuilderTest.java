@@ -0,0 +1,138 @@
+package automata;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class DfaBuilderTest {
+
+	private static final boolean ACCEPTING = true;
+	private static final boolean NOT_ACCEPTING = false;
+
+	@Test
+	public void builtAutomatonIsEquivalentToAutomatonBuiltStateByState() {
+		DfaBuilder<Character> builder = new DfaBuilder<>(binarySymbols());
+		int s1 = builder.addState("S1", ACCEPTING);
+		int s2 = builder.addState("S2", NOT_ACCEPTING);
+		builder.addTransitions(new int[] { s1, s1, s2 }, new Character[] { '0', '1', '0' },
+				new int[] { s2, s1, s1 });
+		builder.addTransition("S2", '1', "S2");
+		CompiledDfa<Character> dfa = builder.build();
+
+		Assert.assertTrue(dfa.isStructurallyEqualTo(new EvenNumberOfZeros()));
+		Assert.assertEquals(dfa.getState(dfa.getStartingStateId()).getIdentifier(), "S1");
+	}
+
+	@Test
+	public void duplicateTransitionsAreMerged() {
+		DfaBuilder<Character> builder = new DfaBuilder<>(binarySymbols());
+		builder.addState("S1", NOT_ACCEPTING);
+		builder.addState("S2", ACCEPTING);
+		builder.addTransition("S1", '0', "S2");
+		builder.addTransition("S1", '0', "S2");
+		CompiledDfa<Character> dfa = builder.build();
+
+		Assert.assertEquals(builder.getTransitionCount(), 2);
+		Assert.assertTrue(dfa.evaluate(toList("0")).isAccepting());
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void conflictingTransitionsAreRejected() {
+		DfaBuilder<Character> builder = new DfaBuilder<>(binarySymbols());
+		builder.addState("S1", NOT_ACCEPTING);
+		builder.addState("S2", ACCEPTING);
+		builder.addTransition("S1", '0', "S2");
+		builder.addTransition("S1", '0', "S1");
+		builder.build();
+	}
+
+	@Test(expectedExceptions = IndexOutOfBoundsException.class)
+	public void transitionsToUnknownStatesAreRejected() {
+		DfaBuilder<Character> builder = new DfaBuilder<>(binarySymbols());
+		builder.addState(NOT_ACCEPTING);
+		builder.addTransitions(new int[] { 0 }, new int[] { 0 }, new int[] { 1 });
+		builder.build();
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void symbolsMustBeInTheAlphabet() {
+		DfaBuilder<Character> builder = new DfaBuilder<>(binarySymbols());
+		builder.addState(NOT_ACCEPTING);
+		builder.addTransition(0, '2', 0);
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void duplicateIdentifiersAreRejected() {
+		DfaBuilder<Character> builder = new DfaBuilder<>(binarySymbols());
+		builder.addState("S1", NOT_ACCEPTING);
+		builder.addState("S1", ACCEPTING);
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void identifiersOfUnnamedStatesAreReserved() {
+		DfaBuilder<Character> builder = new DfaBuilder<>(binarySymbols());
+		builder.addState(NOT_ACCEPTING);
+		builder.addState("#0", ACCEPTING);
+	}
+
+	@Test
+	public void unnamedStatesAreIdentifiedByTheirId() {
+		DfaBuilder<Character> builder = new DfaBuilder<>(binarySymbols());
+		builder.addState("Start", NOT_ACCEPTING);
+		int unnamed = builder.addState(ACCEPTING);
+		builder.addTransition("Start", '1', "#" + unnamed);
+		CompiledDfa<Character> dfa = builder.build();
+
+		Assert.assertEquals(dfa.getIdentifier(unnamed), "#1");
+		Assert.assertEquals(dfa.getStateId("#1"), unnamed);
+		Assert.assertEquals(dfa.getStateId("#0"), CompiledDfa.DEAD_STATE);
+		Assert.assertSame(dfa.getNextState(dfa.getState("Start"), '1'), dfa.getState(unnamed));
+	}
+
+	@Test
+	public void manyTransitionsCanBeAddedByColumn() {
+		int stateCount = 10000;
+		DfaBuilder<Character> builder = new DfaBuilder<>(binarySymbols());
+		boolean[] accepting = new boolean[stateCount];
+		accepting[stateCount - 1] = true;
+		Assert.assertEquals(builder.addStates(accepting), 0);
+
+		Random random = new Random(5);
+		int[] initialStates = new int[2 * stateCount];
+		int[] columns = new int[2 * stateCount];
+		int[] targetStates = new int[2 * stateCount];
+		for (int i = 0; i < initialStates.length; i++) {
+			initialStates[i] = i / 2;
+			columns[i] = i % 2;
+			targetStates[i] = random.nextInt(stateCount);
+		}
+		builder.addTransitions(initialStates, columns, targetStates);
+		CompiledDfa<Character> dfa = builder.build();
+
+		Assert.assertEquals(dfa.getStateCount(), stateCount);
+		Assert.assertEquals(dfa.getState(5).getIdentifier(), "#5");
+		for (int i = 0; i < initialStates.length; i++) {
+			Assert.assertEquals(dfa.step(initialStates[i], columns[i]), targetStates[i]);
+		}
+	}
+
+	private List<Character> toList(String input) {
+		List<Character> list = new ArrayList<>();
+		for (char symbol : input.toCharArray()) {
+			list.add(symbol);
+		}
+		return list;
+	}
+
+	private Set<Character> binarySymbols() {
+		Set<Character> symbols = new HashSet<>();
+		symbols.add('0');
+		symbols.add('1');
+		return symbols;
+	}
+}
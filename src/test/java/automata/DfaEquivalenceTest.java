@@ -0,0 +1,175 @@
+package automata;
+
+import static automata.RandomDfas.newRandomDfa;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class DfaEquivalenceTest {
+
+	private static final boolean ACCEPTING = true;
+	private static final boolean NOT_ACCEPTING = false;
+
+	@Test
+	public void automataWithDifferentStructureMayBeEquivalent() {
+		DeterministicFiniteAutomaton<Character> dfa = newBoolCharDfa("S1", ACCEPTING);
+		dfa.addState("S2", NOT_ACCEPTING);
+		dfa.addState("S3", ACCEPTING);
+		dfa.addState("S4", NOT_ACCEPTING);
+		dfa.addTransition("S1", "S2", '0');
+		dfa.addTransition("S1", "S3", '1');
+		dfa.addTransition("S2", "S3", '0');
+		dfa.addTransition("S2", "S4", '1');
+		dfa.addTransition("S3", "S4", '0');
+		dfa.addTransition("S3", "S1", '1');
+		dfa.addTransition("S4", "S1", '0');
+		dfa.addTransition("S4", "S2", '1');
+		EvenNumberOfZeros evenNumberOfZeros = new EvenNumberOfZeros();
+
+		Assert.assertFalse(dfa.isStructurallyEqualTo(evenNumberOfZeros));
+		Assert.assertTrue(dfa.isEquivalentTo(evenNumberOfZeros));
+		Assert.assertTrue(evenNumberOfZeros.isEquivalentTo(dfa));
+		Assert.assertNull(dfa.findDistinguishingInput(evenNumberOfZeros));
+	}
+
+	@Test
+	public void statesWhichCannotAcceptAreEquivalentToMissingTransitions() {
+		DeterministicFiniteAutomaton<Character> a = newBoolCharDfa("S1", NOT_ACCEPTING);
+		a.addState("S2", NOT_ACCEPTING);
+		a.addTransition("S1", "S2", '0');
+		a.addTransition("S2", "S2", '1');
+		DeterministicFiniteAutomaton<Character> b = newBoolCharDfa("T1", NOT_ACCEPTING);
+
+		Assert.assertTrue(a.isEquivalentTo(b));
+		Assert.assertTrue(b.isEquivalentTo(a));
+	}
+
+	@Test
+	public void differentStartingStatesAreDistinguishedByEmptyInput() {
+		DeterministicFiniteAutomaton<Character> a = newBoolCharDfa("S1", ACCEPTING);
+		DeterministicFiniteAutomaton<Character> b = newBoolCharDfa("T1", NOT_ACCEPTING);
+
+		Assert.assertEquals(a.findDistinguishingInput(b), new ArrayList<Character>());
+	}
+
+	@Test
+	public void distinguishingInputIsShortest() {
+		DeterministicFiniteAutomaton<Character> a = newBoolCharDfa("S1", NOT_ACCEPTING);
+		a.addState("S2", NOT_ACCEPTING);
+		a.addState("S3", ACCEPTING);
+		a.addTransition("S1", "S2", '0');
+		a.addTransition("S1", "S1", '1');
+		a.addTransition("S2", "S3", '0');
+		a.addTransition("S2", "S1", '1');
+		a.addTransition("S3", "S3", '0');
+		a.addTransition("S3", "S3", '1');
+		DeterministicFiniteAutomaton<Character> b = newBoolCharDfa("T1", NOT_ACCEPTING);
+		b.addState("T2", NOT_ACCEPTING);
+		b.addState("T3", NOT_ACCEPTING);
+		b.addState("T4", ACCEPTING);
+		b.addTransition("T1", "T2", '0');
+		b.addTransition("T1", "T1", '1');
+		b.addTransition("T2", "T3", '0');
+		b.addTransition("T2", "T1", '1');
+		b.addTransition("T3", "T4", '0');
+		b.addTransition("T3", "T4", '1');
+		b.addTransition("T4", "T4", '0');
+		b.addTransition("T4", "T4", '1');
+
+		Assert.assertEquals(a.findDistinguishingInput(b), toList("00"));
+	}
+
+	@Test
+	public void distinguishingInputsOfRandomAutomataAreShortest() {
+		Random random = new Random(7);
+		for (int run = 0; run < 50; run++) {
+			DeterministicFiniteAutomaton<Character> a = newRandomDfa(random, 6, Arrays.asList('0', '1'), 1.0 / 3, 0.75);
+			DeterministicFiniteAutomaton<Character> b = newRandomDfa(random, 6, Arrays.asList('0', '1'), 1.0 / 3, 0.75);
+			List<Character> input = a.findDistinguishingInput(b);
+			List<Character> expected = shortestDistinguishingInput(a, b, 12);
+			if (expected == null) {
+				Assert.assertNull(input);
+				Assert.assertTrue(a.isEquivalentTo(b));
+			}
+			else {
+				Assert.assertNotNull(input);
+				Assert.assertEquals(input.size(), expected.size());
+				Assert.assertNotEquals(a.evaluate(input).isAccepting(), b.evaluate(input).isAccepting());
+			}
+		}
+	}
+
+	@Test
+	public void longChainsAreComparedWithoutRecursion() {
+		int stateCount = 200000;
+		DeterministicFiniteAutomaton<Character> a = newChainDfa(stateCount);
+		DeterministicFiniteAutomaton<Character> b = newChainDfa(stateCount);
+
+		Assert.assertTrue(a.isStructurallyEqualTo(b));
+		Assert.assertTrue(a.isEquivalentTo(b));
+
+		b.addState("Extra", ACCEPTING);
+		b.addTransition("S" + (stateCount - 1), "Extra", '1');
+		List<Character> input = a.findDistinguishingInput(b);
+		Assert.assertEquals(input.size(), stateCount);
+		Assert.assertFalse(a.isStructurallyEqualTo(b));
+	}
+
+	/*
+	 * Helper Methods
+	 */
+
+	private DeterministicFiniteAutomaton<Character> newBoolCharDfa(String identifier, boolean isAccepting) {
+		Set<Character> alphabet = new HashSet<>();
+		alphabet.add('0');
+		alphabet.add('1');
+		return new DeterministicFiniteAutomaton<>(identifier, isAccepting,
+				new IndexedTransitionFunction<>(alphabet));
+	}
+
+	private DeterministicFiniteAutomaton<Character> newChainDfa(int stateCount) {
+		DeterministicFiniteAutomaton<Character> dfa = newBoolCharDfa("S0", NOT_ACCEPTING);
+		for (int i = 1; i < stateCount; i++) {
+			dfa.addState("S" + i, NOT_ACCEPTING);
+		}
+		for (int i = 0; i < stateCount - 1; i++) {
+			dfa.addTransition("S" + i, "S" + (i + 1), '0');
+		}
+		dfa.addTransition("S" + (stateCount - 1), "S0", '0');
+		return dfa;
+	}
+
+	/*
+	 * Brute force: tries all inputs in order of their length
+	 */
+	private List<Character> shortestDistinguishingInput(DeterministicFiniteAutomaton<Character> a,
+			DeterministicFiniteAutomaton<Character> b, int maximumLength) {
+		for (int length = 0; length <= maximumLength; length++) {
+			for (int bits = 0; bits < 1 << length; bits++) {
+				List<Character> input = new ArrayList<>();
+				for (int i = 0; i < length; i++) {
+					input.add((bits & 1 << i) == 0 ? '0' : '1');
+				}
+				if (a.evaluate(input).isAccepting() != b.evaluate(input).isAccepting()) {
+					return input;
+				}
+			}
+		}
+		return null;
+	}
+
+	private List<Character> toList(String string) {
+		List<Character> input = new ArrayList<>();
+		for (char ch : string.toCharArray()) {
+			input.add(ch);
+		}
+		return input;
+	}
+}
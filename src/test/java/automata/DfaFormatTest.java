@@ -0,0 +1,130 @@
+package automata;
+
+import static automata.RandomDfas.newRandomDfa;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class DfaFormatTest {
+
+	@Test
+	public void mappedAutomataEvaluateLikeTheWrittenOnes() throws IOException {
+		CompiledDfa<Character> dfa = newRandomDfa(new Random(23), 300, Arrays.asList('a', 'b'), 1.0 / 3, 0.95).compile();
+		Path file = Files.createTempFile("automata", ".dfa");
+		try {
+			DfaFormat<Character> format = new DfaFormat<>(SymbolCodec.CHARACTER);
+			format.write(dfa, file);
+			MappedDfa<Character> mappedDfa = format.map(file);
+
+			Assert.assertEquals(mappedDfa.getStateCount(), dfa.getStateCount());
+			Assert.assertEquals(mappedDfa.getSymbols(), dfa.getSymbols());
+			Assert.assertEquals(mappedDfa.getStateIdentifier(mappedDfa.getStartingStateId()),
+					dfa.getStartingState().getIdentifier());
+			Random random = new Random(29);
+			for (int run = 0; run < 500; run++) {
+				StringBuilder input = new StringBuilder();
+				int length = random.nextInt(30);
+				for (int i = 0; i < length; i++) {
+					input.append(random.nextBoolean() ? 'a' : 'b');
+				}
+				int stateId = dfa.evaluateToStateId(toList(input));
+				Assert.assertEquals(mappedDfa.evaluateToStateId(input), stateId);
+				Assert.assertEquals(mappedDfa.evaluateToStateId(toList(input)), stateId);
+				Assert.assertEquals(mappedDfa.accepts(input), dfa.isAccepting(stateId));
+			}
+		}
+		finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	public void mappedAutomataMayBeCopiedIntoMemory() throws IOException {
+		CompiledDfa<Character> dfa = newRandomDfa(new Random(31), 50, Arrays.asList('a', 'b'), 1.0 / 3, 0.95).compile();
+		Path file = Files.createTempFile("automata", ".dfa");
+		try {
+			DfaFormat<Character> format = new DfaFormat<>(SymbolCodec.CHARACTER);
+			format.write(dfa, file);
+			CompiledDfa<Character> copy = format.map(file).toCompiledDfa();
+
+			Assert.assertTrue(copy.isStructurallyEqualTo(dfa));
+		}
+		finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	public void stringSymbolsAreSupported() throws IOException {
+		Set<String> alphabet = new HashSet<>();
+		alphabet.add("GET");
+		alphabet.add("PUT");
+		DeterministicFiniteAutomaton<String> dfa = new DeterministicFiniteAutomaton<>("Idle", false,
+				new IndexedTransitionFunction<>(alphabet));
+		dfa.addState("Döne", true);
+		dfa.addTransition("Idle", "Döne", "GET");
+		Path file = Files.createTempFile("automata", ".dfa");
+		try {
+			DfaFormat<String> format = new DfaFormat<>(SymbolCodec.STRING);
+			format.write(dfa.compile(), file);
+			MappedDfa<String> mappedDfa = format.map(file);
+
+			List<String> input = new ArrayList<>();
+			input.add("GET");
+			int stateId = mappedDfa.evaluateToStateId(input);
+			Assert.assertTrue(mappedDfa.isAccepting(stateId));
+			Assert.assertEquals(mappedDfa.getStateIdentifier(stateId), "Döne");
+			input.add("PUT");
+			Assert.assertEquals(mappedDfa.evaluateToStateId(input), CompiledDfa.DEAD_STATE);
+		}
+		finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test(expectedExceptions = IOException.class)
+	public void filesWithoutMagicNumberAreRejected() throws IOException {
+		Path file = Files.createTempFile("automata", ".dfa");
+		try {
+			try (OutputStream output = Files.newOutputStream(file)) {
+				output.write(new byte[DfaFormat.HEADER_SIZE]);
+			}
+			new DfaFormat<>(SymbolCodec.CHARACTER).map(file);
+		}
+		finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test(expectedExceptions = IllegalStateException.class)
+	public void tablesWithMoreThanIntegerRangeEntriesAreNotCopiedIntoMemory() {
+		Object[] symbols = new Object[1 << 12];
+		for (int column = 0; column < symbols.length; column++) {
+			symbols[column] = (char) column;
+		}
+		new MappedDfa<Character>(1 << 20, 0, null, symbols, null, null, null).toCompiledDfa();
+	}
+
+	/*
+	 * Helper Methods
+	 */
+
+	private List<Character> toList(CharSequence input) {
+		List<Character> list = new ArrayList<>();
+		for (int i = 0; i < input.length(); i++) {
+			list.add(input.charAt(i));
+		}
+		return list;
+	}
+}
@@ -0,0 +1,90 @@
+package automata;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class DfaMetricsTest {
+
+	@Test
+	public void statesAndTransitionsAreCounted() {
+		CompiledDfa<Character> dfa = new EvenNumberOfZeros().compile();
+		DfaMetrics metrics = new DfaMetrics(dfa, true);
+		dfa.evaluate(toList("001"), metrics);
+		dfa.evaluate(toList(""), metrics);
+
+		int s1 = dfa.getStateId("S1");
+		int s2 = dfa.getStateId("S2");
+		int zero = dfa.getColumn('0');
+		Assert.assertEquals(metrics.getStateVisits(s1), 4);
+		Assert.assertEquals(metrics.getStateVisits(s2), 1);
+		Assert.assertEquals(metrics.getTransitionCount(s1, zero), 1);
+		Assert.assertEquals(metrics.getTransitionCount(s2, zero), 1);
+		Assert.assertEquals(metrics.getTransitionCount(s1, dfa.getColumn('1')), 1);
+	}
+
+	@Test
+	public void inputLengthsAndLatenciesAreRecordedInHistograms() {
+		CompiledDfa<Character> dfa = new EvenNumberOfZeros().compile();
+		DfaMetrics metrics = new DfaMetrics(dfa);
+		dfa.evaluate(toList(""), metrics);
+		dfa.evaluate(toList("0"), metrics);
+		dfa.evaluate(toList("0101"), metrics);
+		dfa.evaluate(toList("0110"), metrics);
+
+		long[] lengths = metrics.getInputLengthHistogram();
+		Assert.assertEquals(lengths[0], 1);
+		Assert.assertEquals(lengths[1], 1);
+		Assert.assertEquals(lengths[DfaMetrics.bucket(4)], 2);
+		long latencies = 0;
+		for (long count : metrics.getLatencyHistogram()) {
+			latencies += count;
+		}
+		Assert.assertEquals(latencies, 4);
+		Assert.assertEquals(metrics.getTransitionCount(0, 0), 0);
+	}
+
+	@Test
+	public void countersOfAllThreadsAreSummed() throws InterruptedException {
+		final CompiledDfa<Character> dfa = new EvenNumberOfZeros().compile();
+		final DfaMetrics metrics = new DfaMetrics(dfa);
+		final List<Character> input = toList("0000");
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		for (int i = 0; i < 100; i++) {
+			executor.execute(new Runnable() {
+				@Override
+				public void run() {
+					dfa.evaluate(input, metrics);
+				}
+			});
+		}
+		executor.shutdown();
+		Assert.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+		Assert.assertEquals(metrics.getStateVisits(dfa.getStateId("S1")), 300);
+		Assert.assertEquals(metrics.getStateVisits(dfa.getStateId("S2")), 200);
+		Assert.assertEquals(metrics.getInputLengthHistogram()[DfaMetrics.bucket(4)], 100);
+	}
+
+	@Test
+	public void bucketsGrowByPowersOfTwo() {
+		Assert.assertEquals(DfaMetrics.bucket(0), 0);
+		Assert.assertEquals(DfaMetrics.bucket(1), 1);
+		Assert.assertEquals(DfaMetrics.bucket(3), 2);
+		Assert.assertEquals(DfaMetrics.bucket(4), 3);
+		Assert.assertEquals(DfaMetrics.bucket(Long.MAX_VALUE), 63);
+	}
+
+	private List<Character> toList(String input) {
+		List<Character> list = new ArrayList<>();
+		for (char symbol : input.toCharArray()) {
+			list.add(symbol);
+		}
+		return list;
+	}
+}
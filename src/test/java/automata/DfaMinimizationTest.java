@@ -0,0 +1,139 @@
+package automata;
+
+import static automata.RandomDfas.newRandomDfa;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class DfaMinimizationTest {
+
+	private static final boolean ACCEPTING = true;
+	private static final boolean NOT_ACCEPTING = false;
+
+	@Test
+	public void equivalentStatesAreMerged() {
+		DeterministicFiniteAutomaton<Character> dfa = newBoolCharDfa("S1", ACCEPTING);
+		dfa.addState("S2", NOT_ACCEPTING);
+		dfa.addState("S3", ACCEPTING);
+		dfa.addState("S4", NOT_ACCEPTING);
+		dfa.addTransition("S1", "S2", '0');
+		dfa.addTransition("S1", "S3", '1');
+		dfa.addTransition("S2", "S3", '0');
+		dfa.addTransition("S2", "S4", '1');
+		dfa.addTransition("S3", "S4", '0');
+		dfa.addTransition("S3", "S1", '1');
+		dfa.addTransition("S4", "S1", '0');
+		dfa.addTransition("S4", "S2", '1');
+
+		DeterministicFiniteAutomaton<Character> minimal = dfa.minimize();
+
+		Assert.assertEquals(minimal.compile().getStateCount(), 2);
+		Assert.assertEquals(minimal.getStartingState().getIdentifier(), "S1");
+		Assert.assertTrue(minimal.isStructurallyEqualTo(new EvenNumberOfZeros()));
+	}
+
+	@Test
+	public void unreachableAndDeadStatesAreRemoved() {
+		DeterministicFiniteAutomaton<Character> dfa = newBoolCharDfa("S1", NOT_ACCEPTING);
+		dfa.addState("S2", ACCEPTING);
+		dfa.addState("Dead", NOT_ACCEPTING);
+		dfa.addState("Unreachable", ACCEPTING);
+		dfa.addTransition("S1", "S2", '1');
+		dfa.addTransition("S1", "Dead", '0');
+		dfa.addTransition("Dead", "Dead", '0');
+		dfa.addTransition("Dead", "Dead", '1');
+		dfa.addTransition("Unreachable", "S1", '0');
+
+		DeterministicFiniteAutomaton<Character> minimal = dfa.minimize();
+
+		Assert.assertEquals(minimal.compile().getStateCount(), 2);
+		Assert.assertNull(minimal.getState("Dead"));
+		Assert.assertNull(minimal.getState("Unreachable"));
+		Assert.assertNull(minimal.getNextState(minimal.getStartingState(), '0'));
+		Assert.assertTrue(minimal.evaluate(toList("1")).isAccepting());
+		Assert.assertFalse(minimal.evaluate(toList("01")).isAccepting());
+	}
+
+	@Test
+	public void automatonWithEmptyLanguageIsMinimizedToSingleState() {
+		DeterministicFiniteAutomaton<Character> dfa = newBoolCharDfa("S1", NOT_ACCEPTING);
+		dfa.addState("S2", NOT_ACCEPTING);
+		dfa.addTransition("S1", "S2", '0');
+		dfa.addTransition("S2", "S1", '1');
+
+		DeterministicFiniteAutomaton<Character> minimal = dfa.minimize();
+
+		Assert.assertEquals(minimal.compile().getStateCount(), 1);
+		Assert.assertTrue(minimal.getValidSymbols(minimal.getStartingState()).isEmpty());
+	}
+
+	@Test
+	public void minimizedRandomAutomataAcceptTheSameLanguage() {
+		Random random = new Random(42);
+		for (int run = 0; run < 20; run++) {
+			DeterministicFiniteAutomaton<Character> dfa = newRandomDfa(random, 30, Arrays.asList('0', '1'), 0.25, 0.8);
+			DeterministicFiniteAutomaton<Character> minimal = dfa.minimize();
+
+			Assert.assertTrue(minimal.compile().getStateCount() <= dfa.compile().getStateCount());
+			Assert.assertEquals(minimal.minimize().compile().getStateCount(),
+					minimal.compile().getStateCount());
+			for (int input = 0; input < 200; input++) {
+				List<Character> symbols = newRandomInput(random, random.nextInt(12));
+				Assert.assertEquals(minimal.evaluate(symbols).isAccepting(),
+						dfa.evaluate(symbols).isAccepting());
+			}
+		}
+	}
+
+	@Test
+	public void largeAutomataAreMinimized() {
+		int stateCount = 300000;
+		DeterministicFiniteAutomaton<Character> dfa = newBoolCharDfa("S0", ACCEPTING);
+		for (int i = 1; i < stateCount; i++) {
+			dfa.addState("S" + i, i % 3 == 0);
+		}
+		for (int i = 0; i < stateCount; i++) {
+			dfa.addTransition("S" + i, "S" + ((i + 1) % stateCount), '1');
+			dfa.addTransition("S" + i, "S" + i, '0');
+		}
+
+		DeterministicFiniteAutomaton<Character> minimal = dfa.minimize();
+
+		Assert.assertEquals(minimal.compile().getStateCount(), 3);
+	}
+
+	/*
+	 * Helper Methods
+	 */
+
+	private DeterministicFiniteAutomaton<Character> newBoolCharDfa(String identifier, boolean isAccepting) {
+		Set<Character> alphabet = new HashSet<>();
+		alphabet.add('0');
+		alphabet.add('1');
+		return new DeterministicFiniteAutomaton<>(identifier, isAccepting,
+				new IndexedTransitionFunction<>(alphabet));
+	}
+
+	private List<Character> newRandomInput(Random random, int length) {
+		List<Character> input = new ArrayList<>();
+		for (int i = 0; i < length; i++) {
+			input.add(random.nextBoolean() ? '1' : '0');
+		}
+		return input;
+	}
+
+	private List<Character> toList(String string) {
+		List<Character> input = new ArrayList<>();
+		for (char ch : string.toCharArray()) {
+			input.add(ch);
+		}
+		return input;
+	}
+}
@@ -0,0 +1,69 @@
+package automata;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class DfaRunnerTest {
+
+	@Test
+	public void runnerStartsInStartingState() {
+		EvenNumberOfZeros dfa = new EvenNumberOfZeros();
+		DfaRunner<Character> runner = dfa.newRunner();
+
+		Assert.assertSame(runner.currentState(), dfa.getStartingState());
+		Assert.assertTrue(runner.isAccepting());
+	}
+
+	@Test
+	public void runnerEvaluatesSymbolsFedInChunks() {
+		EvenNumberOfZeros dfa = new EvenNumberOfZeros();
+		DfaRunner<Character> runner = dfa.newRunner();
+
+		runner.feed('0');
+		Assert.assertFalse(runner.isAccepting());
+		runner.feed("x10".toCharArray(), 1, 1);
+		Assert.assertFalse(runner.isAccepting());
+		runner.feed(new Character[] { '1', '0', '1' }, 1, 2);
+		Assert.assertTrue(runner.isAccepting());
+		Assert.assertSame(runner.currentState(), dfa.evaluate("0101"));
+	}
+
+	@Test
+	public void runnerMayBeReset() {
+		EvenNumberOfZeros dfa = new EvenNumberOfZeros();
+		DfaRunner<Character> runner = dfa.newRunner();
+
+		runner.feed("000".toCharArray(), 0, 3);
+		runner.reset();
+		Assert.assertEquals(runner.currentStateId(), dfa.compile().getStartingStateId());
+	}
+
+	@Test
+	public void runnerStaysDeadAfterMissingTransition() {
+		Set<Character> alphabet = new HashSet<>();
+		alphabet.add('0');
+		alphabet.add('1');
+		StringDfa dfa = new StringDfa("S1", true, new IndexedTransitionFunction<>(alphabet));
+		dfa.addTransition("S1", "S1", '1');
+		DfaRunner<Character> runner = dfa.newRunner();
+
+		runner.feed('0');
+		runner.feed('1');
+		Assert.assertNull(runner.currentState());
+		Assert.assertEquals(runner.currentStateId(), CompiledDfa.DEAD_STATE);
+		Assert.assertFalse(runner.isAccepting());
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void runnerRejectsSymbolsNotInAlphabet() {
+		new EvenNumberOfZeros().newRunner().feed("012".toCharArray(), 0, 3);
+	}
+
+	@Test(expectedExceptions = IndexOutOfBoundsException.class)
+	public void runnerRejectsInvalidRanges() {
+		new EvenNumberOfZeros().newRunner().feed("01".toCharArray(), 1, 2);
+	}
+}
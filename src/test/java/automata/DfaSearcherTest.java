@@ -0,0 +1,185 @@
+package automata;
+
+import static automata.RandomDfas.newRandomDfa;
+
+import java.nio.LongBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class DfaSearcherTest {
+
+	private static final boolean ACCEPTING = true;
+	private static final boolean NOT_ACCEPTING = false;
+
+	@Test
+	public void allMatchEndsAreReported() {
+		DfaSearcher<Character> searcher = newAbaDfa().newSearcher();
+		char[] input = "xababaxaba".toCharArray();
+		LongBuffer matchEnds = LongBuffer.allocate(16);
+
+		int evaluated = searcher.newCursor().search(input, 0, input.length, matchEnds);
+		Assert.assertEquals(evaluated, input.length);
+		Assert.assertEquals(toList(matchEnds), toList(4, 6, 10));
+	}
+
+	@Test
+	public void matchesSpanningChunksAreFound() {
+		DfaSearcher<Character> searcher = newAbaDfa().newSearcher();
+		DfaSearcher<Character>.Cursor cursor = searcher.newCursor();
+		final List<Long> matchEnds = new ArrayList<>();
+		DfaSearcher.MatchListener listener = new DfaSearcher.MatchListener() {
+			@Override
+			public void onMatch(long endOffset) {
+				matchEnds.add(endOffset);
+			}
+		};
+
+		cursor.search("xab".toCharArray(), 0, 3, listener);
+		Assert.assertFalse(cursor.isMatch());
+		cursor.search("-a-".toCharArray(), 1, 1, listener);
+		Assert.assertTrue(cursor.isMatch());
+		cursor.search(new Character[] { 'b', 'a' }, 0, 2, listener);
+		Assert.assertEquals(cursor.position(), 6);
+		Assert.assertEquals(matchEnds, toList(4, 6));
+
+		cursor.reset();
+		Assert.assertEquals(cursor.position(), 0);
+		Assert.assertFalse(cursor.isMatch());
+	}
+
+	@Test(expectedExceptions = IllegalStateException.class)
+	public void unanchoredSearchAutomataAreLimited() {
+		new DfaSearcher<>(newAbaDfa().compile(), false, 2);
+	}
+
+	@Test
+	public void anchoredSearchersIgnoreTheLimit() {
+		CompiledDfa<Character> dfa = newAbaDfa().compile();
+		Assert.assertSame(new DfaSearcher<>(dfa, true, 2).getSearchAutomaton(), dfa);
+	}
+
+	@Test
+	public void searchStopsWhenBufferIsFull() {
+		DfaSearcher<Character> searcher = newAbaDfa().newSearcher();
+		DfaSearcher<Character>.Cursor cursor = searcher.newCursor();
+		char[] input = "abababab".toCharArray();
+		long[] matchEnds = new long[2];
+		LongBuffer buffer = LongBuffer.wrap(matchEnds);
+
+		int evaluated = cursor.search(input, 0, input.length, buffer);
+		Assert.assertEquals(evaluated, 5);
+		Assert.assertEquals(matchEnds, new long[] { 3, 5 });
+
+		buffer.clear();
+		evaluated = cursor.search(input, 5, input.length - 5, buffer);
+		Assert.assertEquals(evaluated, 3);
+		Assert.assertEquals(buffer.position(), 1);
+		Assert.assertEquals(matchEnds[0], 7);
+	}
+
+	@Test
+	public void searchMatchesBruteForce() {
+		Random random = new Random(5);
+		for (int run = 0; run < 20; run++) {
+			DeterministicFiniteAutomaton<Character> dfa = newRandomDfa(random, 5, Arrays.asList('a', 'b'), 1.0 / 3, 2.0 / 3);
+			List<Character> input = new ArrayList<>();
+			for (int i = 0; i < 40; i++) {
+				input.add(random.nextBoolean() ? 'a' : 'b');
+			}
+
+			final List<Long> matchEnds = new ArrayList<>();
+			dfa.newSearcher().newCursor().search(input, new DfaSearcher.MatchListener() {
+				@Override
+				public void onMatch(long endOffset) {
+					matchEnds.add(endOffset);
+				}
+			});
+
+			List<Long> expected = new ArrayList<>();
+			for (int end = 1; end <= input.size(); end++) {
+				for (int start = 0; start <= end; start++) {
+					if (dfa.evaluate(input.subList(start, end)).isAccepting()) {
+						expected.add((long) end);
+						break;
+					}
+				}
+			}
+			Assert.assertEquals(matchEnds, expected);
+		}
+	}
+
+	@Test
+	public void anchoredSearchersOnlyFindMatchesAtTheBeginning() {
+		DfaSearcher<Character> searcher = newAbaDfa().newSearcher(true);
+		DfaSearcher<Character>.Cursor cursor = searcher.newCursor();
+		LongBuffer matchEnds = LongBuffer.allocate(16);
+
+		Assert.assertTrue(searcher.isAnchored());
+		cursor.search("abab".toCharArray(), 0, 4, matchEnds);
+		cursor.search("aba".toCharArray(), 0, 3, matchEnds);
+		Assert.assertEquals(toList(matchEnds), toList(3));
+		Assert.assertEquals(cursor.position(), 7);
+		Assert.assertFalse(cursor.isMatch());
+
+		cursor.reset();
+		cursor.search("aba".toCharArray(), 0, 3, LongBuffer.allocate(4));
+		Assert.assertTrue(cursor.isMatch());
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void symbolsNotInAlphabetAreRejected() {
+		DfaSearcher<Character> searcher = newAbaDfa().newSearcher();
+		searcher.newCursor().search("abc".toCharArray(), 0, 3, LongBuffer.allocate(4));
+	}
+
+	/*
+	 * Helper Methods
+	 */
+
+	private DeterministicFiniteAutomaton<Character> newAbDfa(String identifier, boolean isAccepting) {
+		Set<Character> alphabet = new HashSet<>();
+		alphabet.add('a');
+		alphabet.add('b');
+		alphabet.add('x');
+		return new DeterministicFiniteAutomaton<>(identifier, isAccepting,
+				new IndexedTransitionFunction<>(alphabet));
+	}
+
+	/*
+	 * Accepts exactly "aba"
+	 */
+	private DeterministicFiniteAutomaton<Character> newAbaDfa() {
+		DeterministicFiniteAutomaton<Character> dfa = newAbDfa("S0", NOT_ACCEPTING);
+		dfa.addState("S1", NOT_ACCEPTING);
+		dfa.addState("S2", NOT_ACCEPTING);
+		dfa.addState("S3", ACCEPTING);
+		dfa.addTransition("S0", "S1", 'a');
+		dfa.addTransition("S1", "S2", 'b');
+		dfa.addTransition("S2", "S3", 'a');
+		return dfa;
+	}
+
+	private List<Long> toList(LongBuffer buffer) {
+		List<Long> list = new ArrayList<>();
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			list.add(buffer.get());
+		}
+		return list;
+	}
+
+	private List<Long> toList(long... values) {
+		List<Long> list = new ArrayList<>();
+		for (long value : values) {
+			list.add(value);
+		}
+		return list;
+	}
+}
@@ -0,0 +1,203 @@
+package automata;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class DfaStreamProcessorTest {
+
+	private static final Executor DIRECT = new Executor() {
+		@Override
+		public void execute(Runnable task) {
+			task.run();
+		}
+	};
+
+	@Test
+	public void stateChangesAreSignalledPerBatch() {
+		EvenNumberOfZeros dfa = new EvenNumberOfZeros();
+		RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+		DfaStream<Character> stream = new DfaStreamProcessor<>(dfa, DIRECT, 4).open(subscriber);
+
+		Assert.assertTrue(stream.offer(new Character[] { '1', '0' }));
+		Assert.assertTrue(stream.offer(new Character[] { '1', '1' }));
+		Assert.assertTrue(stream.offer(new Character[] { '0', '1' }));
+		stream.complete();
+
+		Assert.assertEquals(subscriber.events, list("S2 rejecting", "S1 accepting", "completed S1"));
+		Assert.assertEquals(stream.getStateId(), dfa.compile().getStartingStateId());
+	}
+
+	@Test
+	public void batchesWaitForDemand() {
+		RecordingSubscriber subscriber = new RecordingSubscriber(0);
+		DfaStream<Character> stream = new DfaStreamProcessor<>(new EvenNumberOfZeros(), DIRECT, 2)
+				.open(subscriber);
+
+		Assert.assertTrue(stream.offer(new Character[] { '0' }));
+		Assert.assertTrue(stream.offer(new Character[] { '0' }));
+		Assert.assertFalse(stream.offer(new Character[] { '0' }));
+		Assert.assertTrue(subscriber.events.isEmpty());
+		Assert.assertEquals(stream.getQueuedBatches(), 2);
+
+		stream.request(1);
+		Assert.assertEquals(subscriber.events, list("S2 rejecting"));
+		Assert.assertEquals(stream.getQueuedBatches(), 1);
+		Assert.assertTrue(stream.offer(new Character[] { '1' }));
+
+		stream.request(5);
+		stream.complete();
+		Assert.assertEquals(subscriber.events, list("S2 rejecting", "S1 accepting", "completed S1"));
+	}
+
+	@Test
+	public void symbolsOutsideOfTheAlphabetAreSignalledAsError() {
+		RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+		DfaStream<Character> stream = new DfaStreamProcessor<>(new EvenNumberOfZeros(), DIRECT, 2)
+				.open(subscriber);
+
+		stream.offer(new Character[] { '2' });
+		stream.complete();
+
+		Assert.assertEquals(subscriber.events, list("error IllegalArgumentException"));
+	}
+
+	@Test
+	public void cancelledStreamsSignalNothing() {
+		RecordingSubscriber subscriber = new RecordingSubscriber(0);
+		DfaStream<Character> stream = new DfaStreamProcessor<>(new EvenNumberOfZeros(), DIRECT, 2)
+				.open(subscriber);
+
+		stream.offer(new Character[] { '0' });
+		stream.cancel();
+		stream.request(1);
+
+		Assert.assertFalse(stream.offer(new Character[] { '0' }));
+		Assert.assertTrue(subscriber.events.isEmpty());
+		Assert.assertEquals(stream.getQueuedBatches(), 0);
+	}
+
+	@Test
+	public void rejectedTasksAreSignalledAsError() {
+		Executor rejecting = new Executor() {
+			@Override
+			public void execute(Runnable task) {
+				throw new RejectedExecutionException();
+			}
+		};
+		RecordingSubscriber subscriber = new RecordingSubscriber(0);
+		DfaStream<Character> stream = new DfaStreamProcessor<>(new EvenNumberOfZeros(), rejecting, 2)
+				.open(subscriber);
+
+		Assert.assertTrue(stream.offer(new Character[] { '0' }));
+		Assert.assertFalse(stream.offer(new Character[] { '0' }));
+		stream.request(1);
+
+		Assert.assertEquals(subscriber.events, list("error RejectedExecutionException"));
+		Assert.assertEquals(stream.getQueuedBatches(), 0);
+	}
+
+	@Test
+	public void manyStreamsShareASmallPool() throws Exception {
+		EvenNumberOfZeros dfa = new EvenNumberOfZeros();
+		int streamCount = 2000;
+		final CountDownLatch completed = new CountDownLatch(streamCount);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			DfaStreamProcessor<Character> processor = new DfaStreamProcessor<>(dfa, executor, 8);
+			Random random = new Random(3);
+			List<DfaStream<Character>> streams = new ArrayList<>();
+			List<StringBuilder> inputs = new ArrayList<>();
+			final int[] finalStates = new int[streamCount];
+			for (int i = 0; i < streamCount; i++) {
+				final int index = i;
+				streams.add(processor.open(new RecordingSubscriber(Long.MAX_VALUE) {
+					@Override
+					public void onComplete(int stateId) {
+						finalStates[index] = stateId;
+						completed.countDown();
+					}
+				}));
+				inputs.add(new StringBuilder());
+			}
+
+			// Interleave the batches of all streams; retry while a queue is full
+			for (int round = 0; round < 20; round++) {
+				for (int i = 0; i < streamCount; i++) {
+					Character[] batch = new Character[1 + random.nextInt(16)];
+					for (int j = 0; j < batch.length; j++) {
+						batch[j] = random.nextBoolean() ? '0' : '1';
+						inputs.get(i).append(batch[j]);
+					}
+					while (!streams.get(i).offer(batch)) {
+						Thread.yield();
+					}
+				}
+			}
+			for (DfaStream<Character> stream : streams) {
+				stream.complete();
+			}
+
+			Assert.assertTrue(completed.await(30, TimeUnit.SECONDS));
+			for (int i = 0; i < streamCount; i++) {
+				Assert.assertEquals(finalStates[i], dfa.compile().getStateId(dfa.evaluate(inputs.get(i).toString())));
+			}
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+
+	private static List<String> list(String... events) {
+		List<String> list = new ArrayList<>();
+		for (String event : events) {
+			list.add(event);
+		}
+		return list;
+	}
+
+	private static class RecordingSubscriber implements StateSubscriber {
+		private final long initialDemand;
+		private final List<String> events = new ArrayList<>();
+
+		private RecordingSubscriber(long initialDemand) {
+			this.initialDemand = initialDemand;
+		}
+
+		@Override
+		public void onSubscribe(DfaStream<?> stream) {
+			if (initialDemand > 0) {
+				stream.request(initialDemand);
+			}
+		}
+
+		@Override
+		public void onStateChange(int stateId, boolean isAccepting) {
+			events.add(describe(stateId) + (isAccepting ? " accepting" : " rejecting"));
+		}
+
+		@Override
+		public void onComplete(int stateId) {
+			events.add("completed " + describe(stateId));
+		}
+
+		@Override
+		public void onError(Throwable error) {
+			events.add("error " + error.getClass().getSimpleName());
+		}
+
+		private String describe(int stateId) {
+			return stateId == CompiledDfa.DEAD_STATE ? "dead" : new EvenNumberOfZeros().compile().getState(stateId)
+					.getIdentifier();
+		}
+	}
+}
@@ -0,0 +1,54 @@
+package automata;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.util.EnumSet;
+
+import org.testng.annotations.Test;
+
+public class EnumAlphabetTest {
+
+	private enum Signal {
+		RED, YELLOW, GREEN
+	}
+
+	@Test
+	public void allConstantsAreIndexedByOrdinal() {
+		EnumAlphabet<Signal> alphabet = EnumAlphabet.of(Signal.class);
+		for (Signal signal : Signal.values()) {
+			assertEquals(alphabet.indexOf(signal), signal.ordinal());
+			assertEquals(alphabet.getSymbol(signal.ordinal()), signal);
+		}
+		assertEquals(alphabet.size(), 3);
+	}
+
+	@Test
+	public void subsetsAreIndexedDensely() {
+		EnumAlphabet<Signal> alphabet = new EnumAlphabet<>(Signal.class);
+		alphabet.addAll(EnumSet.of(Signal.GREEN, Signal.RED));
+		assertTrue(alphabet.isValid(Signal.GREEN));
+		assertFalse(alphabet.isValid(Signal.YELLOW));
+		assertEquals(alphabet.indexOf(Signal.YELLOW), -1);
+		assertEquals(alphabet.size(), 2);
+		assertEquals(alphabet.getSymbols(), EnumSet.of(Signal.GREEN, Signal.RED));
+	}
+
+	@Test
+	public void enumAlphabetsDriveTransitionFunctions() {
+		DeterministicFiniteAutomaton<Signal> dfa = new DeterministicFiniteAutomaton<>("Stop", false,
+				IndexedTransitionFunction.on(EnumAlphabet.of(Signal.class)));
+		dfa.addState("Go", true);
+		dfa.addTransition("Stop", "Go", Signal.GREEN);
+		dfa.addTransition("Go", "Stop", Signal.RED);
+		assertTrue(dfa.evaluate(EnumSet.of(Signal.GREEN)).isAccepting());
+		assertEquals(dfa.getValidSymbols(dfa.getState("Go")), EnumSet.of(Signal.RED));
+		assertEquals(dfa.compile().getSymbolCount(), 3);
+	}
+
+	@Test(expectedExceptions = NullPointerException.class)
+	public void nullMayNotBeAdded() {
+		new EnumAlphabet<>(Signal.class).add(null);
+	}
+}
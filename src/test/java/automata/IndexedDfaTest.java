@@ -0,0 +1,211 @@
+package automata;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class IndexedDfaTest {
+
+	private static final boolean ACCEPTING = true;
+	private static final boolean NOT_ACCEPTING = false;
+
+	@Test
+	public void statesAreNumberedInOrderOfAddition() {
+		IndexedDfa<Character> dfa = newBoolCharDfa();
+
+		Assert.assertEquals(dfa.getStartingStateId(), 0);
+		Assert.assertEquals(dfa.addState(NOT_ACCEPTING), 1);
+		Assert.assertEquals(dfa.addState(ACCEPTING), 2);
+		Assert.assertEquals(dfa.getStateCount(), 3);
+		Assert.assertTrue(dfa.isAccepting(2));
+		Assert.assertFalse(dfa.isAccepting(1));
+	}
+
+	@Test
+	public void intTransitionsAreEvaluated() {
+		IndexedDfa<Character> dfa = newEvenNumberOfZerosDfa();
+
+		Assert.assertEquals(dfa.evaluateToStateId(toList("0100")), 1);
+		Assert.assertEquals(dfa.getNextStateId(1, '0'), 0);
+		Assert.assertTrue(dfa.evaluate(toList("00")).isAccepting());
+		Assert.assertTrue(dfa.isEquivalentTo(new EvenNumberOfZeros()));
+	}
+
+	@Test
+	public void missingTransitionsShareTheirResult() {
+		IndexedDfa<Character> dfa = newBoolCharDfa();
+		dfa.addTransition(0, 0, '1');
+
+		State missing = dfa.evaluate(toList("0"));
+		Assert.assertEquals(missing.getIdentifier(), "0");
+		Assert.assertFalse(missing.isAccepting());
+		Assert.assertSame(dfa.evaluate(toList("110")), missing);
+	}
+
+	@Test
+	public void statesMayBeLookedUpByIdentifier() {
+		IndexedDfa<Character> dfa = new IndexedDfa<>("Start", NOT_ACCEPTING, newAlphabet());
+		dfa.addState("S1", ACCEPTING);
+		int unnamed = dfa.addState(NOT_ACCEPTING);
+		for (int i = 2; i < 100; i++) {
+			dfa.addState("S" + i, NOT_ACCEPTING);
+		}
+		dfa.addTransition("Start", "S1", '0');
+		dfa.addTransition("S1", "#" + unnamed, '1');
+
+		Assert.assertEquals(dfa.getStateId("S1"), 1);
+		Assert.assertEquals(dfa.getStateId("S99"), 100);
+		Assert.assertEquals(dfa.getStateId("#" + unnamed), unnamed);
+		Assert.assertEquals(dfa.getStateId("#1"), CompiledDfa.DEAD_STATE);
+		Assert.assertEquals(dfa.getStateId("S100"), CompiledDfa.DEAD_STATE);
+		Assert.assertEquals(dfa.getIdentifier(unnamed), "#2");
+		Assert.assertEquals(dfa.getState("S1").getIdentifier(), "S1");
+		Assert.assertSame(dfa.evaluate(toList("0")), dfa.getState("S1"));
+		Assert.assertSame(dfa.getNextState(dfa.getState("S1"), '1'), dfa.getState(unnamed));
+		Assert.assertEquals(dfa.getState(unnamed).getId(), unnamed);
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void duplicateIdentifiersAreRejected() {
+		IndexedDfa<Character> dfa = new IndexedDfa<>("S1", NOT_ACCEPTING, newAlphabet());
+		dfa.addState("S1", ACCEPTING);
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void identifiersOfUnnamedStatesAreReserved() {
+		IndexedDfa<Character> dfa = newBoolCharDfa();
+		dfa.addState(NOT_ACCEPTING);
+		dfa.addState("#5", ACCEPTING);
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void duplicateTransitionsAreRejected() {
+		IndexedDfa<Character> dfa = newBoolCharDfa();
+		dfa.addTransition(0, 0, '0');
+		dfa.addTransition(0, 0, '0');
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void transitionsWithSymbolsNotInAlphabetAreRejected() {
+		newBoolCharDfa().addTransition(0, 0, '2');
+	}
+
+	@Test(expectedExceptions = NullPointerException.class)
+	public void transitionsContainingNonexistantStatesAreForbidden() {
+		newBoolCharDfa().addTransition("#0", "S2", '0');
+	}
+
+	@Test(expectedExceptions = IndexOutOfBoundsException.class)
+	public void transitionsContainingNonexistantStateIdsAreForbidden() {
+		newBoolCharDfa().addTransition(0, 42, '0');
+	}
+
+	@Test
+	public void copiesAreIndependent() {
+		IndexedDfa<Character> dfa = newBoolCharDfa();
+		dfa.addTransition(0, 0, '0');
+		IndexedDfa<Character> copy = dfa.copy();
+		copy.addState("Extra", ACCEPTING);
+		copy.addTransition("#0", "Extra", '1');
+
+		Assert.assertFalse(copy.isStructurallyEqualTo(dfa));
+		Assert.assertEquals(dfa.getStateId("Extra"), CompiledDfa.DEAD_STATE);
+		Assert.assertNotSame(copy.getStartingState(), dfa.getStartingState());
+	}
+
+	@Test
+	public void compiledAutomatonSharesStates() {
+		IndexedDfa<Character> dfa = newEvenNumberOfZerosDfa();
+		CompiledDfa<Character> compiled = dfa.compile();
+
+		Assert.assertSame(compiled.evaluate(toList("0")), dfa.getState(1));
+		Assert.assertSame(dfa.compile(), compiled);
+		dfa.addState(ACCEPTING);
+		Assert.assertNotSame(dfa.compile(), compiled);
+	}
+
+	@Test
+	public void compiledAutomatonSharesStatesAfterGrowing() {
+		IndexedDfa<Character> dfa = newEvenNumberOfZerosDfa();
+		CompiledDfa<Character> compiled = dfa.compile();
+		State odd = compiled.getState(1);
+		for (int i = 0; i < 1000; i++) {
+			dfa.addState(NOT_ACCEPTING);
+		}
+
+		Assert.assertSame(dfa.getState(1), odd);
+		Assert.assertSame(compiled.getState(0), dfa.getState(0));
+		Assert.assertSame(compiled.evaluate(toList("0")), dfa.evaluate(toList("0")));
+		Assert.assertEquals(compiled.getStateId(dfa.getState(0)), 0);
+		Assert.assertSame(dfa.compile().getState(1), odd);
+		Assert.assertSame(dfa.compile().getState(900), dfa.getState(900));
+	}
+
+	@Test
+	public void compiledAutomatonKeepsItsIdentifiers() {
+		IndexedDfa<Character> dfa = new IndexedDfa<>("Start", NOT_ACCEPTING, newAlphabet());
+		dfa.addState(ACCEPTING);
+		CompiledDfa<Character> compiled = dfa.compile();
+		dfa.addState("Later", ACCEPTING);
+
+		Assert.assertEquals(compiled.getIdentifier(0), "Start");
+		Assert.assertEquals(compiled.getIdentifier(1), "#1");
+		Assert.assertEquals(compiled.getStateId("#1"), 1);
+		Assert.assertEquals(compiled.getStateId("Later"), CompiledDfa.DEAD_STATE);
+		Assert.assertEquals(dfa.compile().getStateId("Later"), 2);
+		Assert.assertSame(compiled.getState("#1"), dfa.getState(1));
+	}
+
+	@Test
+	public void millionsOfStatesMayBeAdded() {
+		IndexedDfa<Character> dfa = newBoolCharDfa();
+		int stateCount = 2000000;
+		for (int i = 1; i < stateCount; i++) {
+			dfa.addState(i == stateCount - 1);
+			dfa.addTransition(i - 1, i, '1');
+		}
+
+		StringBuilder ones = new StringBuilder();
+		for (int i = 1; i < stateCount; i++) {
+			ones.append('1');
+		}
+		Assert.assertEquals(dfa.evaluateToStateId(toList(ones)), stateCount - 1);
+	}
+
+	/*
+	 * Helper Methods
+	 */
+
+	private Set<Character> newAlphabet() {
+		Set<Character> alphabet = new HashSet<>();
+		alphabet.add('0');
+		alphabet.add('1');
+		return alphabet;
+	}
+
+	private IndexedDfa<Character> newBoolCharDfa() {
+		return new IndexedDfa<>(NOT_ACCEPTING, newAlphabet());
+	}
+
+	private IndexedDfa<Character> newEvenNumberOfZerosDfa() {
+		IndexedDfa<Character> dfa = new IndexedDfa<>(ACCEPTING, newAlphabet());
+		int odd = dfa.addState(NOT_ACCEPTING);
+		dfa.addTransition(0, odd, '0');
+		dfa.addTransition(0, 0, '1');
+		dfa.addTransition(odd, 0, '0');
+		dfa.addTransition(odd, odd, '1');
+		return dfa;
+	}
+
+	private List<Character> toList(CharSequence string) {
+		List<Character> input = new ArrayList<>();
+		for (int i = 0; i < string.length(); i++) {
+			input.add(string.charAt(i));
+		}
+		return input;
+	}
+}
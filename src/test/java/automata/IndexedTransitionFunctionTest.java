@@ -0,0 +1,179 @@
+package automata;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+
+public class IndexedTransitionFunctionTest {
+	
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void alphabetMayNotBeNull() {
+		new IndexedTransitionFunction<Character>(null);
+	}
+	
+	@Test(dataProvider = "testSymbols")
+	public void transitionsMayBeAddedAndRetrieved(Character symbol) {
+		IndexedTransitionFunction<Character> function = newSingleCharTransitionFunction(symbol);
+		State initialState = new State("initialState", true);
+		State targetState = new State("targetState", false);
+		function.addTransition(initialState, targetState, symbol);
+		assertEquals(function.getNextState(initialState, symbol), targetState);
+	}
+	
+	@DataProvider(name = "testSymbols")
+	public static Object[][] symbols() {
+		return new Object[][] {
+				{'0'},
+				{'a'},
+				{'ä'}
+		};
+	}
+	
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void duplicateTransitionsAreNotAllowed() {
+		Character symbol = '0';
+		IndexedTransitionFunction<Character> function = newSingleCharTransitionFunction(symbol);
+		State initialState = new State("initialState", true);
+		State targetState = new State("targetState", false);
+		function.addTransition(initialState, targetState, symbol);
+		function.addTransition(initialState, targetState, symbol);
+	}
+	
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void transitionsWithSymbolsNotInAlphabetAreRejected() {
+		IndexedTransitionFunction<Character> function = new IndexedTransitionFunction<>();
+		State initialState = new State("initialState", true);
+		State targetState = new State("targetState", false);
+		Set<Character> symbols = new HashSet<>();
+		symbols.add('1');
+		function.setSymbols(symbols);
+		function.addTransition(initialState, targetState, '0');
+	}
+	
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void throwsIllegalArgumentExceptionIfSymbolsSetTwice() {
+		IndexedTransitionFunction<Character> function = newSingleCharTransitionFunction('x');
+		Set<Character> symbols = new HashSet<>();
+		function.setSymbols(symbols);
+	}
+	
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void throwsIllegalArgumentExceptionIfSymbolsAreNull() {
+		IndexedTransitionFunction<Character> function = new IndexedTransitionFunction<>();
+		function.setSymbols(null);
+	}
+	
+	@Test(expectedExceptions = NullPointerException.class)
+	public void alphabetMustBeSetBeforeAddingTransitions() {
+		IndexedTransitionFunction<Character> function = new IndexedTransitionFunction<>();
+		State initialState = new State("initialState", true);
+		State targetState = new State("targetState", false);
+		function.addTransition(initialState, targetState, '0');
+	}
+	
+	@Test
+	public void nullStatesAreAccepted() {
+		IndexedTransitionFunction<Character> function = newSingleCharTransitionFunction('0');
+		State targetState = new State("targetState", false);
+		function.addTransition(null, targetState, '0');
+		function.addTransition(targetState, null, '0');
+		assertEquals(function.getNextState(null, '0'), targetState);
+		assertNull(function.getNextState(targetState, '0'));
+	}
+	
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void nullSymbolsAreRejected() {
+		IndexedTransitionFunction<Character> function = newSingleCharTransitionFunction('0');
+		State initialState = new State("initialState", true);
+		State targetState = new State("targetState", false);
+		function.addTransition(initialState, targetState, null);
+	}
+	
+	@Test
+	public void missingTransitionsReturnNull() {
+		IndexedTransitionFunction<Character> function = newSingleCharTransitionFunction('0');
+		State initialState = new State("initialState", true);
+		assertNull(function.getNextState(initialState, '0'));
+	}
+	
+	@Test
+	public void equalSymbolsFindTheSameTransition() {
+		IndexedTransitionFunction<String> function = new IndexedTransitionFunction<>();
+		Set<String> symbols = new HashSet<>();
+		symbols.add("symbol");
+		function.setSymbols(symbols);
+		State initialState = new State("initialState", true);
+		State targetState = new State("targetState", false);
+		function.addTransition(initialState, targetState, new String("symbol"));
+		assertEquals(function.getNextState(initialState, new String("symbol")), targetState);
+	}
+	
+	@Test
+	public void validSymbolsAreThoseWithTransitions() {
+		Set<Character> symbols = new HashSet<>();
+		symbols.add('0');
+		symbols.add('1');
+		IndexedTransitionFunction<Character> function = new IndexedTransitionFunction<>(symbols);
+		State initialState = new State("initialState", true);
+		State targetState = new State("targetState", false);
+		function.addTransition(initialState, targetState, '1');
+		assertEquals(function.getValidSymbols(initialState).size(), 1);
+		assertTrue(function.getValidSymbols(initialState).contains('1'));
+		assertTrue(function.getValidSymbols(targetState).isEmpty());
+	}
+	
+	@Test
+	public void transitionsFarBeyondTheRowOfAStateAreKeptSparse() {
+		CharAlphabet alphabet = new CharAlphabet();
+		for (char symbol = 0; symbol <= 60000; symbol++) {
+			alphabet.add(symbol);
+		}
+		IndexedTransitionFunction<Character> function = IndexedTransitionFunction.on(alphabet);
+		State initialState = new State("initialState", true);
+		State targetState = new State("targetState", false);
+		function.addTransition(initialState, targetState, (char) 60000);
+		function.addTransition(initialState, initialState, (char) 30);
+		assertEquals(function.getNextState(initialState, (char) 60000), targetState);
+		assertEquals(function.getNextState(initialState, (char) 30), initialState);
+		assertNull(function.getNextState(initialState, (char) 59999));
+		assertEquals(function.getValidSymbols(initialState).size(), 2);
+
+		// Growing the row moves the covered transitions into it
+		for (char symbol = 0; symbol < 20000; symbol++) {
+			if (symbol != 30) {
+				function.addTransition(initialState, targetState, symbol);
+			}
+		}
+		function.addTransition(initialState, targetState, (char) 50000);
+		assertEquals(function.getNextState(initialState, (char) 60000), targetState);
+		assertEquals(function.getNextState(initialState, (char) 50000), targetState);
+		assertEquals(function.getNextState(initialState, (char) 30), initialState);
+		assertEquals(function.getValidSymbols(initialState).size(), 20002);
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void sparseTransitionsMayNotBeDefinedTwice() {
+		CharAlphabet alphabet = new CharAlphabet();
+		for (char symbol = 0; symbol <= 1000; symbol++) {
+			alphabet.add(symbol);
+		}
+		IndexedTransitionFunction<Character> function = IndexedTransitionFunction.on(alphabet);
+		State initialState = new State("initialState", true);
+		function.addTransition(initialState, initialState, (char) 1000);
+		function.addTransition(initialState, initialState, (char) 1000);
+	}
+
+	private IndexedTransitionFunction<Character> newSingleCharTransitionFunction(Character symbol) {
+		Set<Character> symbols = new HashSet<>();
+		symbols.add(symbol);
+		return new IndexedTransitionFunction<>(symbols);
+	}
+}
+
@@ -0,0 +1,230 @@
+package automata;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+public class NondeterministicFiniteAutomatonTest {
+
+	private static final boolean ACCEPTING = true;
+	private static final boolean NOT_ACCEPTING = false;
+
+	private static final String S1 = "S1";
+	private static final String S2 = "S2";
+	private static final String S3 = "S3";
+
+	/*
+	 * STATES
+	 */
+
+	@Test
+	public void nfaHasStartingStates() {
+		NondeterministicFiniteAutomaton<Character> nfa = newBoolCharNfa(S1, NOT_ACCEPTING);
+		nfa.addState(S2, ACCEPTING);
+		nfa.addStartingState(S2);
+
+		Set<State> startingStates = nfa.getStartingStates();
+		Assert.assertEquals(startingStates.size(), 2);
+		Assert.assertTrue(startingStates.contains(nfa.getState(S1)));
+		Assert.assertTrue(startingStates.contains(nfa.getState(S2)));
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void duplicateStatesMayNotBeAddedToNfa() {
+		NondeterministicFiniteAutomaton<Character> nfa = newBoolCharNfa(S1, NOT_ACCEPTING);
+		nfa.addState(S1, ACCEPTING);
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void unknownStatesMayNotBecomeStartingStates() {
+		NondeterministicFiniteAutomaton<Character> nfa = newBoolCharNfa(S1, NOT_ACCEPTING);
+		nfa.addStartingState(S2);
+	}
+
+	/*
+	 * TRANSITIONS
+	 */
+
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void duplicateTransitionsAreNotAllowed() {
+		NondeterministicFiniteAutomaton<Character> nfa = newBoolCharNfa(S1, NOT_ACCEPTING);
+		nfa.addTransition(S1, S1, '0');
+		nfa.addTransition(S1, S1, '0');
+	}
+
+	@Test
+	public void duplicateTransitionsAreFoundAmongManyTransitions() {
+		NondeterministicFiniteAutomaton<Character> nfa = newBoolCharNfa("Q0", NOT_ACCEPTING);
+		for (int i = 1; i < 300; i++) {
+			nfa.addState("Q" + i, NOT_ACCEPTING);
+		}
+		for (int i = 0; i < 300; i++) {
+			for (int j = 0; j < 300; j += 7) {
+				nfa.addTransition("Q" + i, "Q" + j, '0');
+			}
+		}
+		for (int i = 0; i < 300; i++) {
+			try {
+				nfa.addTransition("Q" + i, "Q" + (i / 7 * 7), '0');
+				Assert.fail();
+			}
+			catch (IllegalArgumentException e) {
+				// expected
+			}
+			nfa.addTransition("Q" + i, "Q" + (i / 7 * 7), '1');
+		}
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void transitionsWithSymbolsNotInAlphabetAreRejected() {
+		NondeterministicFiniteAutomaton<Character> nfa = newBoolCharNfa(S1, NOT_ACCEPTING);
+		nfa.addTransition(S1, S1, '2');
+	}
+
+	@Test(expectedExceptions = NullPointerException.class)
+	public void transitionsContainingNonexistantStatesAreForbidden() {
+		NondeterministicFiniteAutomaton<Character> nfa = newBoolCharNfa(S1, NOT_ACCEPTING);
+		nfa.addTransition(S1, S2, '0');
+	}
+
+	/*
+	 * EVALUATION
+	 */
+
+	@Test(dataProvider = "endsWithZeroOne")
+	public void nfaEvaluatesToSetOfStates(String input, boolean isAccepted) {
+		NondeterministicFiniteAutomaton<Character> nfa = newEndsWithZeroOneNfa();
+
+		Set<State> finalStates = nfa.evaluate(toList(input));
+		Assert.assertTrue(finalStates.contains(nfa.getState(S1)));
+		Assert.assertEquals(finalStates.contains(nfa.getState(S3)), isAccepted);
+		Assert.assertEquals(nfa.accepts(toList(input)), isAccepted);
+	}
+
+	@DataProvider(name = "endsWithZeroOne")
+	public static Object[][] endsWithZeroOne() {
+		return new Object[][] {
+				{ "", false },
+				{ "01", true },
+				{ "1101", true },
+				{ "010", false },
+				{ "0110", false }
+		};
+	}
+
+	@Test
+	public void nfaEvaluatesFromAllStartingStates() {
+		NondeterministicFiniteAutomaton<Character> nfa = newBoolCharNfa(S1, NOT_ACCEPTING);
+		nfa.addState(S2, ACCEPTING);
+		nfa.addStartingState(S2);
+		nfa.addTransition(S2, S2, '1');
+
+		Assert.assertTrue(nfa.accepts(toList("11")));
+		Assert.assertFalse(nfa.accepts(toList("10")));
+	}
+
+	@Test
+	public void nfaWithoutActiveStatesEvaluatesToNewNonAcceptingState() {
+		NondeterministicFiniteAutomaton<Character> emptyNfa = newBoolCharNfa(S1, ACCEPTING);
+
+		Set<State> finalStates = emptyNfa.evaluate(toList("1"));
+		Assert.assertEquals(finalStates.size(), 1);
+		State finalState = finalStates.iterator().next();
+		Assert.assertEquals(finalState.getIdentifier(), "1");
+		Assert.assertFalse(finalState.isAccepting());
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void nfaRejectsSymbolsNotInAlphabet() {
+		newEndsWithZeroOneNfa().evaluate(toList("012"));
+	}
+
+	@Test
+	public void nfaSeesTransitionsAddedAfterEvaluation() {
+		NondeterministicFiniteAutomaton<Character> nfa = newBoolCharNfa(S1, ACCEPTING);
+		Assert.assertFalse(nfa.accepts(toList("0")));
+		nfa.addTransition(S1, S1, '0');
+		Assert.assertTrue(nfa.accepts(toList("0")));
+	}
+
+	@Test
+	public void nfaWithManyStatesEvaluatesLongInputs() {
+		// Accepts inputs whose 100th symbol from the end is a '1'
+		final int distance = 100;
+		NondeterministicFiniteAutomaton<Character> nfa = newBoolCharNfa("Q0", NOT_ACCEPTING);
+		for (int i = 1; i <= distance; i++) {
+			nfa.addState("Q" + i, i == distance);
+		}
+		nfa.addTransition("Q0", "Q0", '0');
+		nfa.addTransition("Q0", "Q0", '1');
+		nfa.addTransition("Q0", "Q1", '1');
+		for (int i = 1; i < distance; i++) {
+			nfa.addTransition("Q" + i, "Q" + (i + 1), '0');
+			nfa.addTransition("Q" + i, "Q" + (i + 1), '1');
+		}
+
+		final int length = 1000000;
+		Iterable<Character> input = new Iterable<Character>() {
+			@Override
+			public Iterator<Character> iterator() {
+				return new Iterator<Character>() {
+					private int position = 0;
+
+					@Override
+					public boolean hasNext() {
+						return position < length;
+					}
+
+					@Override
+					public Character next() {
+						position++;
+						return position == length - distance + 1 ? '1' : '0';
+					}
+
+					@Override
+					public void remove() {
+						throw new UnsupportedOperationException();
+					}
+				};
+			}
+		};
+		Assert.assertTrue(nfa.accepts(input));
+		Assert.assertTrue(nfa.evaluate(input).contains(nfa.getState("Q" + distance)));
+	}
+
+	/*
+	 * Helper Methods
+	 */
+
+	private NondeterministicFiniteAutomaton<Character> newBoolCharNfa(String identifier, boolean isAccepting) {
+		Set<Character> alphabet = new HashSet<>();
+		alphabet.add('0');
+		alphabet.add('1');
+		return new NondeterministicFiniteAutomaton<>(identifier, isAccepting, alphabet);
+	}
+
+	private NondeterministicFiniteAutomaton<Character> newEndsWithZeroOneNfa() {
+		NondeterministicFiniteAutomaton<Character> nfa = newBoolCharNfa(S1, NOT_ACCEPTING);
+		nfa.addState(S2, NOT_ACCEPTING);
+		nfa.addState(S3, ACCEPTING);
+		nfa.addTransition(S1, S1, '0');
+		nfa.addTransition(S1, S1, '1');
+		nfa.addTransition(S1, S2, '0');
+		nfa.addTransition(S2, S3, '1');
+		return nfa;
+	}
+
+	private List<Character> toList(String string) {
+		List<Character> input = new ArrayList<>();
+		for (char ch : string.toCharArray()) {
+			input.add(ch);
+		}
+		return input;
+	}
+}
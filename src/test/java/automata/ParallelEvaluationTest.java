@@ -0,0 +1,146 @@
+package automata;
+
+import static automata.RandomDfas.newRandomDfa;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+public class ParallelEvaluationTest {
+
+	private static final int LENGTH = 20 * ParallelEvaluation.MINIMUM_CHUNK_LENGTH;
+	private static final List<Character> BINARY = Arrays.asList('0', '1');
+
+	private ForkJoinPool pool;
+
+	@BeforeClass
+	public void createPool() {
+		pool = new ForkJoinPool(4);
+	}
+
+	@AfterClass
+	public void shutdownPool() {
+		pool.shutdown();
+	}
+
+	@Test
+	public void parallelEvaluationMatchesSequentialEvaluation() {
+		Random random = new Random(11);
+		for (int run = 0; run < 20; run++) {
+			CompiledDfa<Character> dfa = newRandomDfa(random, 1 + random.nextInt(8), BINARY, 0.5, 1).compile();
+			List<Character> input = newRandomInput(random, LENGTH);
+
+			Assert.assertSame(dfa.evaluateInParallel(input, pool), dfa.evaluate(input));
+		}
+	}
+
+	@Test
+	public void parallelEvaluationWithSpeculationMatchesSequentialEvaluation() {
+		Random random = new Random(13);
+		for (int run = 0; run < 5; run++) {
+			CompiledDfa<Character> dfa = newRandomDfa(random, 1000, BINARY, 0.5, 1).compile();
+			List<Character> input = newRandomInput(random, LENGTH);
+
+			Assert.assertSame(dfa.evaluateInParallel(input, pool), dfa.evaluate(input));
+		}
+	}
+
+	@Test
+	public void parallelEvaluationOfCharSequenceMatchesSequentialEvaluation() {
+		EvenNumberOfZeros dfa = new EvenNumberOfZeros();
+		String input = toString(newRandomInput(new Random(17), LENGTH));
+
+		Assert.assertSame(dfa.evaluateInParallel(input), dfa.evaluate(input));
+		Assert.assertSame(dfa.evaluateInParallel(input + "0"), dfa.evaluate(input + "0"));
+	}
+
+	@Test
+	public void missingTransitionsAreReportedLikeSequentialEvaluation() {
+		Random random = new Random(19);
+		for (int run = 0; run < 20; run++) {
+			int stateCount = 1 + random.nextInt(400);
+			CompiledDfa<Character> dfa = newRandomDfa(random, stateCount, BINARY, 0.5, 1 - 0.5 / stateCount)
+					.compile();
+			List<Character> input = newRandomInput(random, LENGTH);
+
+			State expected = dfa.evaluate(input);
+			State actual = dfa.evaluateInParallel(input, pool);
+			if (dfa.getStateId(expected) == CompiledDfa.DEAD_STATE) {
+				Assert.assertEquals(actual.getIdentifier(), expected.getIdentifier());
+				Assert.assertFalse(actual.isAccepting());
+			}
+			else {
+				Assert.assertSame(actual, expected);
+			}
+		}
+	}
+
+	@Test
+	public void symbolsAfterMissingTransitionAreNotValidated() {
+		StringDfa dfa = newBoolCharDfa();
+		dfa.addTransition("S1", "S1", '1');
+		StringBuilder input = new StringBuilder();
+		for (int i = 0; i < LENGTH; i++) {
+			input.append(i == LENGTH / 3 ? '0' : i == LENGTH / 2 ? '2' : '1');
+		}
+
+		State finalState = dfa.compile().evaluateInParallel(input, pool);
+		Assert.assertEquals(finalState.getIdentifier(), "0");
+		Assert.assertFalse(finalState.isAccepting());
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void symbolsNotInAlphabetAreRejected() {
+		StringDfa dfa = newBoolCharDfa();
+		dfa.addTransition("S1", "S1", '1');
+		StringBuilder input = new StringBuilder();
+		for (int i = 0; i < LENGTH; i++) {
+			input.append(i == LENGTH / 2 ? '2' : '1');
+		}
+		dfa.compile().evaluateInParallel(input, pool);
+	}
+
+	@Test
+	public void shortInputsAreEvaluated() {
+		EvenNumberOfZeros dfa = new EvenNumberOfZeros();
+
+		Assert.assertSame(dfa.compile().evaluateInParallel("", pool), dfa.getStartingState());
+		Assert.assertSame(dfa.compile().evaluateInParallel("010", pool), dfa.evaluate("010"));
+	}
+
+	/*
+	 * Helper Methods
+	 */
+
+	private StringDfa newBoolCharDfa() {
+		Set<Character> alphabet = new HashSet<>();
+		alphabet.add('0');
+		alphabet.add('1');
+		return new StringDfa("S1", true, new IndexedTransitionFunction<>(alphabet));
+	}
+
+	private List<Character> newRandomInput(Random random, int length) {
+		List<Character> input = new ArrayList<>(length);
+		for (int i = 0; i < length; i++) {
+			input.add(random.nextBoolean() ? '0' : '1');
+		}
+		return input;
+	}
+
+	private String toString(List<Character> input) {
+		StringBuilder string = new StringBuilder();
+		for (char ch : input) {
+			string.append(ch);
+		}
+		return string.toString();
+	}
+}
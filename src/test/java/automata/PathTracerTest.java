@@ -0,0 +1,63 @@
+package automata;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class PathTracerTest {
+
+	@Test
+	public void visitedStatesAreRecorded() {
+		DeterministicFiniteAutomaton<Character> dfa = new EvenNumberOfZeros();
+		CompiledDfa<Character> compiled = dfa.compile();
+		PathTracer tracer = new PathTracer(1);
+		dfa.evaluate(toList("010"), tracer);
+
+		int s1 = compiled.getStateId("S1");
+		int s2 = compiled.getStateId("S2");
+		Assert.assertEquals(tracer.toArray(), new int[] { s1, s2, s2, s1 });
+		Assert.assertEquals(tracer.getLength(), 4);
+	}
+
+	@Test
+	public void bufferIsReusedByTheNextEvaluation() {
+		DeterministicFiniteAutomaton<Character> dfa = new EvenNumberOfZeros();
+		PathTracer tracer = new PathTracer();
+		dfa.evaluate(toList("0101"), tracer);
+		dfa.evaluate(toList(""), tracer);
+
+		Assert.assertEquals(tracer.getLength(), 1);
+		Assert.assertEquals(tracer.getStateId(0), dfa.compile().getStartingStateId());
+	}
+
+	@Test
+	public void missingTransitionsAreRecordedAsDeadState() {
+		Set<Character> symbols = new HashSet<>();
+		symbols.add('0');
+		symbols.add('1');
+		StringDfa dfa = new StringDfa("S1", false, new IndexedTransitionFunction<>(symbols));
+		dfa.addTransition("S1", "S1", '0');
+		PathTracer tracer = new PathTracer();
+		State finalState = dfa.evaluate(toList("01"), tracer);
+
+		Assert.assertEquals(finalState.getIdentifier(), "1");
+		Assert.assertEquals(tracer.toArray(), new int[] { 0, 0, CompiledDfa.DEAD_STATE });
+	}
+
+	@Test(expectedExceptions = IndexOutOfBoundsException.class)
+	public void indicesBeyondThePathAreRejected() {
+		new PathTracer().getStateId(0);
+	}
+
+	private List<Character> toList(String input) {
+		List<Character> list = new ArrayList<>();
+		for (char symbol : input.toCharArray()) {
+			list.add(symbol);
+		}
+		return list;
+	}
+}
@@ -0,0 +1,162 @@
+package automata;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class ProductDfaTest {
+
+	private static final boolean ACCEPTING = true;
+	private static final boolean NOT_ACCEPTING = false;
+
+	@Test
+	public void productsCombineTheLanguagesOfTheirOperands() {
+		DeterministicFiniteAutomaton<Character> evenNumberOfZeros = new EvenNumberOfZeros();
+		DeterministicFiniteAutomaton<Character> endsWithOne = newEndsWithOne();
+		ProductDfa<Character> intersection = evenNumberOfZeros.intersect(endsWithOne);
+		ProductDfa<Character> union = evenNumberOfZeros.union(endsWithOne);
+		ProductDfa<Character> difference = evenNumberOfZeros.difference(endsWithOne);
+		ProductDfa<Character> symmetricDifference = evenNumberOfZeros.symmetricDifference(endsWithOne);
+
+		Random random = new Random(11);
+		for (int i = 0; i < 500; i++) {
+			List<Character> input = randomInput(random);
+			boolean a = evenNumberOfZeros.evaluate(input).isAccepting();
+			boolean b = endsWithOne.evaluate(input).isAccepting();
+			Assert.assertEquals(intersection.accepts(input), a && b);
+			Assert.assertEquals(union.accepts(input), a || b);
+			Assert.assertEquals(difference.accepts(input), a && !b);
+			Assert.assertEquals(symmetricDifference.accepts(input), a != b);
+		}
+	}
+
+	@Test
+	public void missingTransitionsLeadToTheDeadState() {
+		StringDfa onlyZeros = new StringDfa("S1", ACCEPTING, new IndexedTransitionFunction<>(binarySymbols()));
+		onlyZeros.addTransition("S1", "S1", '0');
+		DeterministicFiniteAutomaton<Character> endsWithOne = newEndsWithOne();
+
+		ProductDfa<Character> union = onlyZeros.union(endsWithOne);
+		Assert.assertTrue(union.accepts(toList("0001")));
+		Assert.assertTrue(union.accepts(toList("000")));
+		Assert.assertFalse(union.accepts(toList("010")));
+
+		ProductDfa<Character> intersection = onlyZeros.intersect(endsWithOne);
+		Assert.assertTrue(intersection.isEmpty());
+		Assert.assertEquals(intersection.getValidSymbols(intersection.getStartingState()),
+				onlyZeros.getValidSymbols(onlyZeros.getStartingState()));
+		Assert.assertSame(intersection.evaluate(toList("1")), intersection.evaluate(toList("01")));
+
+		CompiledDfa<Character> compiled = intersection.compile();
+		Assert.assertEquals(compiled.getSymbols(), intersection.getSymbols());
+		Assert.assertFalse(intersection.copy().evaluate(toList("1")).isAccepting());
+		DfaRunner<Character> runner = intersection.newRunner();
+		runner.feed('1');
+		Assert.assertFalse(runner.isAccepting());
+	}
+
+	@Test
+	public void operandsMayHaveDifferentAlphabets() {
+		Set<Character> letters = new HashSet<>();
+		letters.add('a');
+		StringDfa onlyLetters = new StringDfa("S1", ACCEPTING, new IndexedTransitionFunction<>(letters));
+		onlyLetters.addTransition("S1", "S1", 'a');
+
+		ProductDfa<Character> union = onlyLetters.union(newEndsWithOne());
+		Assert.assertTrue(union.accepts(toList("aa")));
+		Assert.assertTrue(union.accepts(toList("01")));
+		Assert.assertFalse(union.accepts(toList("a1")));
+	}
+
+	@Test
+	public void emptinessIsDecidedWithAShortestWitness() {
+		DeterministicFiniteAutomaton<Character> evenNumberOfZeros = new EvenNumberOfZeros();
+		Assert.assertTrue(evenNumberOfZeros.difference(evenNumberOfZeros).isEmpty());
+		Assert.assertTrue(evenNumberOfZeros.symmetricDifference(evenNumberOfZeros.copy()).isEmpty());
+
+		ProductDfa<Character> difference = newEndsWithOne().difference(evenNumberOfZeros);
+		Assert.assertFalse(difference.isEmpty());
+		Assert.assertEquals(difference.findAcceptedInput(), toList("01"));
+	}
+
+	@Test
+	public void productStatesAreCreatedOnDemand() {
+		int length = 100000;
+		DeterministicFiniteAutomaton<Character> chainA = newChain("A", length);
+		DeterministicFiniteAutomaton<Character> chainB = newChain("B", length);
+		ProductDfa<Character> intersection = chainA.intersect(chainB);
+
+		Assert.assertFalse(intersection.accepts(toList("000")));
+		Assert.assertNotNull(intersection.getState("(A3,B3)"));
+		Assert.assertNull(intersection.getState("(A4,B4)"));
+		Assert.assertFalse(intersection.isEmpty());
+		Assert.assertNotNull(intersection.getState("(A" + length + ",B" + length + ")"));
+	}
+
+	@Test
+	public void productsCanBeCombinedAndCompiled() {
+		DeterministicFiniteAutomaton<Character> evenNumberOfZeros = new EvenNumberOfZeros();
+		DeterministicFiniteAutomaton<Character> endsWithOne = newEndsWithOne();
+		ProductDfa<Character> union = evenNumberOfZeros.union(endsWithOne);
+		ProductDfa<Character> nested = union.difference(endsWithOne);
+
+		Assert.assertTrue(nested.isEquivalentTo(evenNumberOfZeros.difference(endsWithOne)));
+		CompiledDfa<Character> compiled = nested.compile();
+		Assert.assertEquals(compiled.getStateCount(), 4);
+		Assert.assertTrue(compiled.isEquivalentTo(nested));
+		Assert.assertTrue(nested.minimize().isEquivalentTo(nested));
+	}
+
+	@Test(expectedExceptions = UnsupportedOperationException.class)
+	public void productsAreImmutable() {
+		new EvenNumberOfZeros().intersect(newEndsWithOne()).addState("S", ACCEPTING);
+	}
+
+	private DeterministicFiniteAutomaton<Character> newEndsWithOne() {
+		StringDfa dfa = new StringDfa("S1", NOT_ACCEPTING, new IndexedTransitionFunction<>(binarySymbols()));
+		dfa.addState("S2", ACCEPTING);
+		dfa.addTransition("S1", "S1", '0');
+		dfa.addTransition("S1", "S2", '1');
+		dfa.addTransition("S2", "S1", '0');
+		dfa.addTransition("S2", "S2", '1');
+		return dfa;
+	}
+
+	private DeterministicFiniteAutomaton<Character> newChain(String prefix, int length) {
+		StringDfa dfa = new StringDfa(prefix + 0, NOT_ACCEPTING, new IndexedTransitionFunction<>(binarySymbols()));
+		for (int i = 1; i <= length; i++) {
+			dfa.addState(prefix + i, i == length);
+			dfa.addTransition(prefix + (i - 1), prefix + i, '0');
+		}
+		return dfa;
+	}
+
+	private List<Character> randomInput(Random random) {
+		List<Character> input = new ArrayList<>();
+		int length = random.nextInt(12);
+		for (int i = 0; i < length; i++) {
+			input.add(random.nextBoolean() ? '0' : '1');
+		}
+		return input;
+	}
+
+	private List<Character> toList(String input) {
+		List<Character> list = new ArrayList<>();
+		for (char symbol : input.toCharArray()) {
+			list.add(symbol);
+		}
+		return list;
+	}
+
+	private Set<Character> binarySymbols() {
+		Set<Character> symbols = new HashSet<>();
+		symbols.add('0');
+		symbols.add('1');
+		return symbols;
+	}
+}
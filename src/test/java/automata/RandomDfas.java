@@ -0,0 +1,48 @@
+package automata;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Creates random automata for comparing algorithms with brute force.
+ */
+final class RandomDfas {
+
+	private RandomDfas() {
+	}
+
+	/**
+	 * Creates an automaton with the states S0 to S(stateCount - 1), starting
+	 * in S0, whose transitions lead to random states
+	 *
+	 * @param random
+	 *            The source of randomness
+	 * @param stateCount
+	 *            The number of states
+	 * @param symbols
+	 *            The alphabet, in the order the transitions are drawn
+	 * @param acceptingDensity
+	 *            The probability of a state being accepting
+	 * @param transitionDensity
+	 *            The probability of a state having a transition for a symbol
+	 * @return The automaton
+	 */
+	static <T> DeterministicFiniteAutomaton<T> newRandomDfa(Random random, int stateCount, List<T> symbols,
+			double acceptingDensity, double transitionDensity) {
+		DeterministicFiniteAutomaton<T> dfa = new DeterministicFiniteAutomaton<>("S0",
+				random.nextDouble() < acceptingDensity,
+				new IndexedTransitionFunction<>(new LinkedHashSet<>(symbols)));
+		for (int i = 1; i < stateCount; i++) {
+			dfa.addState("S" + i, random.nextDouble() < acceptingDensity);
+		}
+		for (int i = 0; i < stateCount; i++) {
+			for (T symbol : symbols) {
+				if (random.nextDouble() < transitionDensity) {
+					dfa.addTransition("S" + i, "S" + random.nextInt(stateCount), symbol);
+				}
+			}
+		}
+		return dfa;
+	}
+}
@@ -0,0 +1,217 @@
+package automata;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+
+public class RangeTransitionFunctionTest {
+	
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void alphabetMayNotBeNull() {
+		new RangeTransitionFunction<Character>(null);
+	}
+	
+	@Test(dataProvider = "testSymbols")
+	public void transitionsMayBeAddedAndRetrieved(Character symbol) {
+		RangeTransitionFunction<Character> function = newSingleCharTransitionFunction(symbol);
+		State initialState = new State("initialState", true);
+		State targetState = new State("targetState", false);
+		function.addTransition(initialState, targetState, symbol);
+		assertEquals(function.getNextState(initialState, symbol), targetState);
+	}
+	
+	@DataProvider(name = "testSymbols")
+	public static Object[][] symbols() {
+		return new Object[][] {
+				{'0'},
+				{'a'},
+				{'ä'}
+		};
+	}
+	
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void duplicateTransitionsAreNotAllowed() {
+		Character symbol = '0';
+		RangeTransitionFunction<Character> function = newSingleCharTransitionFunction(symbol);
+		State initialState = new State("initialState", true);
+		State targetState = new State("targetState", false);
+		function.addTransition(initialState, targetState, symbol);
+		function.addTransition(initialState, targetState, symbol);
+	}
+	
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void transitionsWithSymbolsNotInAlphabetAreRejected() {
+		RangeTransitionFunction<Character> function = new RangeTransitionFunction<>();
+		State initialState = new State("initialState", true);
+		State targetState = new State("targetState", false);
+		Set<Character> symbols = new HashSet<>();
+		symbols.add('1');
+		function.setSymbols(symbols);
+		function.addTransition(initialState, targetState, '0');
+	}
+	
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void throwsIllegalArgumentExceptionIfSymbolsSetTwice() {
+		RangeTransitionFunction<Character> function = newSingleCharTransitionFunction('x');
+		Set<Character> symbols = new HashSet<>();
+		function.setSymbols(symbols);
+	}
+	
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void throwsIllegalArgumentExceptionIfSymbolsAreNull() {
+		RangeTransitionFunction<Character> function = new RangeTransitionFunction<>();
+		function.setSymbols(null);
+	}
+	
+	@Test(expectedExceptions = NullPointerException.class)
+	public void alphabetMustBeSetBeforeAddingTransitions() {
+		RangeTransitionFunction<Character> function = new RangeTransitionFunction<>();
+		State initialState = new State("initialState", true);
+		State targetState = new State("targetState", false);
+		function.addTransition(initialState, targetState, '0');
+	}
+	
+	@Test
+	public void nullStatesAreAccepted() {
+		RangeTransitionFunction<Character> function = newSingleCharTransitionFunction('0');
+		State targetState = new State("targetState", false);
+		function.addTransition(null, targetState, '0');
+		function.addTransition(targetState, null, '0');
+		assertEquals(function.getNextState(null, '0'), targetState);
+		assertNull(function.getNextState(targetState, '0'));
+	}
+	
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void nullSymbolsAreRejected() {
+		RangeTransitionFunction<Character> function = newSingleCharTransitionFunction('0');
+		State initialState = new State("initialState", true);
+		State targetState = new State("targetState", false);
+		function.addTransition(initialState, targetState, null);
+	}
+	
+	@Test
+	public void missingTransitionsReturnNull() {
+		RangeTransitionFunction<Character> function = newSingleCharTransitionFunction('0');
+		State initialState = new State("initialState", true);
+		assertNull(function.getNextState(initialState, '0'));
+	}
+	
+	@Test
+	public void equalSymbolsFindTheSameTransition() {
+		RangeTransitionFunction<String> function = new RangeTransitionFunction<>();
+		Set<String> symbols = new HashSet<>();
+		symbols.add("symbol");
+		function.setSymbols(symbols);
+		State initialState = new State("initialState", true);
+		State targetState = new State("targetState", false);
+		function.addTransition(initialState, targetState, new String("symbol"));
+		assertEquals(function.getNextState(initialState, new String("symbol")), targetState);
+	}
+	
+	@Test
+	public void validSymbolsAreThoseWithTransitions() {
+		Set<Character> symbols = new HashSet<>();
+		symbols.add('0');
+		symbols.add('1');
+		RangeTransitionFunction<Character> function = new RangeTransitionFunction<>(symbols);
+		State initialState = new State("initialState", true);
+		State targetState = new State("targetState", false);
+		function.addTransition(initialState, targetState, '1');
+		assertEquals(function.getValidSymbols(initialState).size(), 1);
+		assertTrue(function.getValidSymbols(initialState).contains('1'));
+		assertTrue(function.getValidSymbols(targetState).isEmpty());
+	}
+	
+	@Test
+	public void rangesCoverAllSymbolsBetweenTheirBounds() {
+		RangeTransitionFunction<Character> function = new RangeTransitionFunction<>(newCharRange('a', 'z'));
+		State initialState = new State("initialState", true);
+		State letterState = new State("letterState", false);
+		State vowelState = new State("vowelState", false);
+		function.addTransition(initialState, vowelState, 'a');
+		function.addTransition(initialState, letterState, 'b', 'd');
+		function.addTransition(initialState, vowelState, 'e');
+		function.addTransition(initialState, letterState, 'f', 'z');
+		assertEquals(function.getNextState(initialState, 'a'), vowelState);
+		assertEquals(function.getNextState(initialState, 'c'), letterState);
+		assertEquals(function.getNextState(initialState, 'e'), vowelState);
+		assertEquals(function.getNextState(initialState, 'z'), letterState);
+		assertEquals(function.getValidSymbols(initialState).size(), 26);
+	}
+
+	@Test
+	public void adjacentRangesAreMerged() {
+		RangeTransitionFunction<Character> function = new RangeTransitionFunction<>(newCharRange('a', 'z'));
+		State initialState = new State("initialState", true);
+		State targetState = new State("targetState", false);
+		function.addTransition(initialState, targetState, 'a', 'c');
+		function.addTransition(initialState, targetState, 'g', 'z');
+		function.addTransition(initialState, targetState, 'd', 'f');
+		for (char symbol = 'a'; symbol <= 'z'; symbol++) {
+			assertEquals(function.getNextState(initialState, symbol), targetState);
+		}
+	}
+
+	@Test
+	public void rangesSkipSymbolsNotInAlphabet() {
+		Set<Character> symbols = new HashSet<>();
+		symbols.add('a');
+		symbols.add('c');
+		RangeTransitionFunction<Character> function = new RangeTransitionFunction<>(symbols);
+		State initialState = new State("initialState", true);
+		State targetState = new State("targetState", false);
+		function.addTransition(initialState, targetState, 'a');
+		function.addTransition(initialState, targetState, 'c');
+		assertEquals(function.getValidSymbols(initialState), symbols);
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void overlappingRangesAreNotAllowed() {
+		RangeTransitionFunction<Character> function = new RangeTransitionFunction<>(newCharRange('a', 'z'));
+		State initialState = new State("initialState", true);
+		State targetState = new State("targetState", false);
+		function.addTransition(initialState, targetState, 'a', 'm');
+		function.addTransition(initialState, initialState, 'k', 'z');
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void emptyRangesAreNotAllowed() {
+		RangeTransitionFunction<Character> function = new RangeTransitionFunction<>(newCharRange('a', 'z'));
+		State initialState = new State("initialState", true);
+		function.addTransition(initialState, initialState, 'z', 'a');
+	}
+
+	@Test
+	public void dfaWithRangeTransitionsEvaluatesLikeDfaWithIndexedTransitions() {
+		Set<Character> symbols = newCharRange('\u0000', '\u07ff');
+		StringDfa rangeDfa = new StringDfa("S1", false, new RangeTransitionFunction<>(symbols));
+		rangeDfa.addState("S2", true);
+		rangeDfa.addTransition("S1", "S2", '\u0100');
+		StringDfa indexedDfa = new StringDfa("S1", false, new IndexedTransitionFunction<>(symbols));
+		indexedDfa.addState("S2", true);
+		indexedDfa.addTransition("S1", "S2", '\u0100');
+		assertTrue(rangeDfa.isEquivalentTo(indexedDfa));
+	}
+
+	private Set<Character> newCharRange(char from, char to) {
+		Set<Character> symbols = new HashSet<>();
+		for (char symbol = from; symbol <= to; symbol++) {
+			symbols.add(symbol);
+		}
+		return symbols;
+	}
+
+	private RangeTransitionFunction<Character> newSingleCharTransitionFunction(Character symbol) {
+		Set<Character> symbols = new HashSet<>();
+		symbols.add(symbol);
+		return new RangeTransitionFunction<>(symbols);
+	}
+}
+
@@ -0,0 +1,149 @@
+package automata;
+
+import java.nio.LongBuffer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+public class RegexCompilerTest {
+
+	private static final String SYMBOLS = "abc01_ -]\"\\\n";
+
+	@Test(dataProvider = "expressions")
+	public void compiledAutomataMatchLikeJavaRegex(String regex) {
+		RegexCompiler compiler = new RegexCompiler(toSet(SYMBOLS));
+		StringDfa dfa = compiler.compile(regex);
+		NondeterministicFiniteAutomaton<Character> nfa = compiler.toNfa(regex);
+		Pattern pattern = Pattern.compile(regex, Pattern.DOTALL);
+
+		Random random = new Random(regex.hashCode());
+		for (int run = 0; run < 2000; run++) {
+			StringBuilder input = new StringBuilder();
+			int length = random.nextInt(8);
+			for (int i = 0; i < length; i++) {
+				input.append(SYMBOLS.charAt(random.nextInt(random.nextBoolean() ? 3 : SYMBOLS.length())));
+			}
+			boolean expected = pattern.matcher(input).matches();
+			Assert.assertEquals(dfa.accepts(input), expected, regex + " on \"" + input + "\"");
+			Assert.assertEquals(nfa.accepts(toIterable(input)), expected, regex + " on \"" + input + "\"");
+		}
+	}
+
+	@DataProvider(name = "expressions")
+	public static Object[][] expressions() {
+		return new Object[][] {
+				{ "" },
+				{ "abc" },
+				{ "a|b|" },
+				{ "(ab|c)*" },
+				{ "(?:a|b)+c?" },
+				{ "a*b*a*" },
+				{ "(a*)*" },
+				{ "a{3}" },
+				{ "(ab){1,3}" },
+				{ "a{2,}b{0,1}" },
+				{ "[a-c]+[^a-c]" },
+				{ "[]a]*" },
+				{ "[-a]+|[a-]" },
+				{ ".\\-" },
+				{ "\\d+_\\w*" },
+				{ "[\\D]\\S\\s" },
+				{ "\"([^\"\\\\]|\\\\.)*\"" },
+				{ "^(a|bc)*$" },
+				{ "\\n\\u0061" },
+		};
+	}
+
+	@Test
+	public void compiledAutomataAreMinimal() {
+		StringDfa dfa = new RegexCompiler(toSet("ab")).compile("(a|b)*abb");
+
+		Assert.assertEquals(dfa.compile().getStateCount(), 4);
+	}
+
+	@Test
+	public void longInputsAreMatchedWithoutBacktracking() {
+		// Catastrophic for backtracking matchers
+		StringDfa dfa = new RegexCompiler(toSet("ab")).compile("(a|aa)*b");
+		StringBuilder input = new StringBuilder();
+		for (int i = 0; i < 100000; i++) {
+			input.append('a');
+		}
+
+		Assert.assertFalse(dfa.accepts(input));
+		Assert.assertTrue(dfa.accepts(input.append('b')));
+	}
+
+	@Test
+	public void searchersAreAnchoredByACaret() {
+		RegexCompiler compiler = new RegexCompiler(toSet("ab"));
+		LongBuffer unanchored = LongBuffer.allocate(8);
+		LongBuffer anchored = LongBuffer.allocate(8);
+
+		compiler.newSearcher("ab").newCursor().search("abab".toCharArray(), 0, 4, unanchored);
+		compiler.newSearcher("^ab").newCursor().search("abab".toCharArray(), 0, 4, anchored);
+
+		Assert.assertEquals(unanchored.position(), 2);
+		Assert.assertEquals(anchored.position(), 1);
+		Assert.assertEquals(anchored.get(0), 2);
+	}
+
+	@Test(expectedExceptions = PatternSyntaxException.class)
+	public void searchersRejectTheEndAnchor() {
+		new RegexCompiler(toSet("ab")).newSearcher("ab$");
+	}
+
+	@Test(dataProvider = "invalidExpressions", expectedExceptions = PatternSyntaxException.class)
+	public void invalidExpressionsAreRejected(String regex) {
+		new RegexCompiler(toSet(SYMBOLS)).compile(regex);
+	}
+
+	@DataProvider(name = "invalidExpressions")
+	public static Object[][] invalidExpressions() {
+		return new Object[][] {
+				{ "(a" },
+				{ "a)" },
+				{ "*a" },
+				{ "a{2,1}" },
+				{ "a{1001}" },
+				{ "[ab" },
+				{ "[c-a]" },
+				{ "a^b" },
+				{ "a$b" },
+				{ "x" },
+				{ "[ax]" },
+				{ "[a-z]" },
+				{ "[^x]" },
+				{ "\\q" },
+				{ "\\u12" },
+		};
+	}
+
+	/*
+	 * Helper Methods
+	 */
+
+	private Set<Character> toSet(String symbols) {
+		Set<Character> set = new HashSet<>();
+		for (char symbol : symbols.toCharArray()) {
+			set.add(symbol);
+		}
+		return set;
+	}
+
+	private Iterable<Character> toIterable(CharSequence input) {
+		List<Character> list = new ArrayList<>();
+		for (int i = 0; i < input.length(); i++) {
+			list.add(input.charAt(i));
+		}
+		return list;
+	}
+}
@@ -1,5 +1,6 @@
 package automata;
 
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -25,6 +26,127 @@ public class StringDfaTest {
 				dfa.getState(S2));
 	}
 	
+	@Test
+	public void stringDfaEvaluatesCharSequencesAndArrays() {
+		StringDfa dfa = newBoolStringDfa(S1, ACCEPTING);
+		dfa.addState(S2, NOT_ACCEPTING);
+		dfa.addTransition(S1, S2, '0');
+		dfa.addTransition(S1, S1, '1');
+		Assert.assertEquals(dfa.evaluate(new StringBuilder("110")),
+				dfa.getState(S2));
+		Assert.assertEquals(dfa.evaluate("x110x".toCharArray(), 1, 3),
+				dfa.getState(S2));
+		Assert.assertEquals(dfa.evaluate("x110x".toCharArray(), 1, 2),
+				dfa.getState(S1));
+	}
+	
+	@Test
+	public void stringDfaAcceptsStrings() {
+		StringDfa dfa = newBoolStringDfa(S1, ACCEPTING);
+		dfa.addState(S2, NOT_ACCEPTING);
+		dfa.addTransition(S1, S2, '0');
+		dfa.addTransition(S1, S1, '1');
+		Assert.assertTrue(dfa.accepts("111"));
+		Assert.assertFalse(dfa.accepts("110"));
+		Assert.assertFalse(dfa.accepts("100"));
+		Assert.assertTrue(dfa.accepts("0111".toCharArray(), 1, 3));
+	}
+	
+	@Test
+	public void stringDfaSeesTransitionsAddedAfterEvaluation() {
+		StringDfa dfa = newBoolStringDfa(S1, ACCEPTING);
+		dfa.addState(S2, NOT_ACCEPTING);
+		dfa.addTransition(S1, S2, '0');
+		Assert.assertFalse(dfa.accepts("00"));
+		dfa.addTransition(S2, S1, '0');
+		Assert.assertTrue(dfa.accepts("00"));
+	}
+	
+	@Test
+	public void stringDfaEvaluatesCharactersOutsideLatin1() {
+		Set<Character> alphabet = new HashSet<>();
+		alphabet.add('a');
+		alphabet.add('\u20ac');
+		StringDfa dfa = new StringDfa(S1, NOT_ACCEPTING, new IndexedTransitionFunction<>(alphabet));
+		dfa.addState(S2, ACCEPTING);
+		dfa.addTransition(S1, S2, '\u20ac');
+		dfa.addTransition(S2, S1, 'a');
+		Assert.assertTrue(dfa.accepts("\u20aca\u20ac"));
+		Assert.assertFalse(dfa.accepts("\u20aca"));
+	}
+	
+	@Test
+	public void stringDfaSeesDirectChangesToTransitionFunctionAfterInvalidation() {
+		Set<Character> alphabet = new HashSet<>();
+		alphabet.add('0');
+		alphabet.add('1');
+		TransitionFunction<Character> transitionFunction = new TransitionFunction<>(alphabet);
+		StringDfa dfa = new StringDfa(S1, ACCEPTING, transitionFunction);
+		dfa.addState(S2, NOT_ACCEPTING);
+		Assert.assertFalse(dfa.accepts("1"));
+
+		transitionFunction.addTransition(dfa.getState(S1), dfa.getState(S1), '1');
+		dfa.invalidate();
+		Assert.assertTrue(dfa.accepts("1"));
+		Assert.assertSame(dfa.evaluate("1"), dfa.evaluate(Arrays.asList('1')));
+	}
+	
+	@Test
+	public void stringsAreEvaluatedOnTheLiveTransitionFunction() {
+		Set<Character> alphabet = new HashSet<>();
+		alphabet.add('0');
+		alphabet.add('1');
+		IndexedTransitionFunction<Character> transitionFunction = new IndexedTransitionFunction<>(alphabet);
+		StringDfa dfa = new StringDfa(S1, ACCEPTING, transitionFunction);
+		dfa.addState(S2, NOT_ACCEPTING);
+		dfa.compile();
+		
+		transitionFunction.addTransition(dfa.getState(S1), dfa.getState(S2), '1');
+		Assert.assertSame(dfa.evaluate("1"), dfa.getState(S2));
+	}
+	
+	@Test
+	public void automataWithScanningTransitionFunctionsAreNotCompiledImplicitly() {
+		StringDfa dfa = newBoolStringDfa(S1, ACCEPTING);
+		dfa.addState(S2, NOT_ACCEPTING);
+		dfa.addTransition(S1, S2, '0');
+		Assert.assertFalse(dfa.compilesImplicitly());
+		Assert.assertFalse(dfa.accepts("0"));
+		Assert.assertFalse(dfa.accepts(Arrays.asList('0')));
+		Assert.assertFalse(dfa.compilesImplicitly());
+		
+		dfa.compile();
+		Assert.assertTrue(dfa.compilesImplicitly());
+	}
+	
+	@Test
+	public void largeStringDfaIsEvaluatedWithoutCompiling() {
+		Set<Character> alphabet = new HashSet<>();
+		for (char symbol = 0; symbol < 0x8000; symbol++) {
+			alphabet.add(symbol);
+		}
+		StringDfa dfa = new StringDfa("#0", NOT_ACCEPTING, new IndexedTransitionFunction<>(alphabet));
+		for (int stateId = 1; stateId < 600; stateId++) {
+			dfa.addState("#" + stateId, stateId == 599);
+		}
+		dfa.addTransition("#0", "#599", 'a');
+		dfa.addTransition("#599", "#1", 'b');
+		Assert.assertFalse(dfa.compilesImplicitly());
+		
+		Assert.assertTrue(dfa.accepts("a"));
+		Assert.assertFalse(dfa.accepts("ab".toCharArray(), 0, 2));
+		Assert.assertSame(dfa.evaluate("ab"), dfa.getState("#1"));
+		Assert.assertFalse(dfa.evaluate("abc").isAccepting());
+		Assert.assertFalse(dfa.compilesImplicitly());
+	}
+	
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void stringDfaRejectsCharactersNotInAlphabet() {
+		StringDfa dfa = newBoolStringDfa(S1, ACCEPTING);
+		dfa.addTransition(S1, S1, '1');
+		dfa.accepts("1\u20ac");
+	}
+	
 	/*
 	 * Helper Methods
 	 */
@@ -0,0 +1,165 @@
+package automata;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class SubsetConstructionTest {
+
+	private static final boolean ACCEPTING = true;
+	private static final boolean NOT_ACCEPTING = false;
+
+	@Test
+	public void determinizedAutomatonAcceptsTheSameInputs() {
+		NondeterministicFiniteAutomaton<Character> nfa = newBoolCharNfa("S1", NOT_ACCEPTING);
+		nfa.addState("S2", NOT_ACCEPTING);
+		nfa.addState("S3", ACCEPTING);
+		nfa.addTransition("S1", "S1", '0');
+		nfa.addTransition("S1", "S1", '1');
+		nfa.addTransition("S1", "S2", '0');
+		nfa.addTransition("S2", "S3", '1');
+
+		DeterministicFiniteAutomaton<Character> dfa = new SubsetConstruction<Character>().determinize(nfa);
+
+		Assert.assertEquals(dfa.getStartingState().getIdentifier(), "{S1}");
+		Assert.assertEquals(dfa.compile().getStateCount(), 3);
+		Assert.assertTrue(dfa.evaluate(toList("1101")).isAccepting());
+		Assert.assertFalse(dfa.evaluate(toList("0110")).isAccepting());
+		Assert.assertEquals(dfa.evaluate(toList("01")).getIdentifier(), "{S1,S3}");
+	}
+
+	@Test
+	public void emptySetsBecomeMissingTransitions() {
+		NondeterministicFiniteAutomaton<Character> nfa = newBoolCharNfa("S1", NOT_ACCEPTING);
+		nfa.addState("S2", ACCEPTING);
+		nfa.addTransition("S1", "S2", '0');
+
+		DeterministicFiniteAutomaton<Character> dfa = new SubsetConstruction<Character>().determinize(nfa);
+
+		Assert.assertNull(dfa.getNextState(dfa.getStartingState(), '1'));
+		Assert.assertTrue(dfa.getValidSymbols(dfa.getState("{S2}")).isEmpty());
+	}
+
+	@Test
+	public void separatorsInIdentifiersAreEscaped() {
+		NondeterministicFiniteAutomaton<Character> nfa = newBoolCharNfa("S1", NOT_ACCEPTING);
+		nfa.addState("q,r", NOT_ACCEPTING);
+		nfa.addState("s", NOT_ACCEPTING);
+		nfa.addState("q", NOT_ACCEPTING);
+		nfa.addState("r,s", ACCEPTING);
+		nfa.addTransition("S1", "q,r", '0');
+		nfa.addTransition("S1", "s", '0');
+		nfa.addTransition("S1", "q", '1');
+		nfa.addTransition("S1", "r,s", '1');
+
+		DeterministicFiniteAutomaton<Character> dfa = new SubsetConstruction<Character>().determinize(nfa);
+
+		Assert.assertEquals(dfa.evaluate(toList("0")).getIdentifier(), "{q\\,r,s}");
+		Assert.assertEquals(dfa.evaluate(toList("1")).getIdentifier(), "{q,r\\,s}");
+		Assert.assertTrue(dfa.evaluate(toList("1")).isAccepting());
+	}
+
+	@Test
+	public void randomAutomataAreDeterminizedCorrectly() {
+		Random random = new Random(3);
+		for (int run = 0; run < 20; run++) {
+			NondeterministicFiniteAutomaton<Character> nfa = newRandomNfa(random, 8);
+			DeterministicFiniteAutomaton<Character> dfa = new SubsetConstruction<Character>().determinize(nfa);
+			for (int input = 0; input < 100; input++) {
+				List<Character> symbols = new ArrayList<>();
+				for (int i = random.nextInt(10); i > 0; i--) {
+					symbols.add(random.nextBoolean() ? '1' : '0');
+				}
+				Assert.assertEquals(dfa.evaluate(symbols).isAccepting(), nfa.accepts(symbols));
+			}
+		}
+	}
+
+	@Test
+	public void parallelConstructionYieldsTheSameAutomaton() {
+		NondeterministicFiniteAutomaton<Character> nfa = newNthFromEndNfa(12);
+
+		ForkJoinPool pool = new ForkJoinPool(4);
+		DeterministicFiniteAutomaton<Character> sequential;
+		DeterministicFiniteAutomaton<Character> parallel;
+		try {
+			sequential = new SubsetConstruction<Character>(10000, null).determinize(nfa);
+			parallel = new SubsetConstruction<Character>(10000, pool).determinize(nfa);
+			Assert.assertFalse(pool.isShutdown());
+		}
+		finally {
+			pool.shutdown();
+		}
+
+		Assert.assertEquals(sequential.compile().getStateCount(), 1 << 12);
+		Assert.assertEquals(parallel.compile().getStateCount(), 1 << 12);
+		Assert.assertTrue(sequential.isStructurallyEqualTo(parallel));
+	}
+
+	@Test(expectedExceptions = IllegalStateException.class)
+	public void constructionFailsIfTooManyStatesAreCreated() {
+		new SubsetConstruction<Character>(1000).determinize(newNthFromEndNfa(12));
+	}
+
+	/*
+	 * Helper Methods
+	 */
+
+	private NondeterministicFiniteAutomaton<Character> newBoolCharNfa(String identifier, boolean isAccepting) {
+		Set<Character> alphabet = new HashSet<>();
+		alphabet.add('0');
+		alphabet.add('1');
+		return new NondeterministicFiniteAutomaton<>(identifier, isAccepting, alphabet);
+	}
+
+	/*
+	 * Accepts inputs whose n-th symbol from the end is a '1'; the minimal DFA
+	 * has 2^n states
+	 */
+	private NondeterministicFiniteAutomaton<Character> newNthFromEndNfa(int n) {
+		NondeterministicFiniteAutomaton<Character> nfa = newBoolCharNfa("Q0", NOT_ACCEPTING);
+		for (int i = 1; i <= n; i++) {
+			nfa.addState("Q" + i, i == n);
+		}
+		nfa.addTransition("Q0", "Q0", '0');
+		nfa.addTransition("Q0", "Q0", '1');
+		nfa.addTransition("Q0", "Q1", '1');
+		for (int i = 1; i < n; i++) {
+			nfa.addTransition("Q" + i, "Q" + (i + 1), '0');
+			nfa.addTransition("Q" + i, "Q" + (i + 1), '1');
+		}
+		return nfa;
+	}
+
+	private NondeterministicFiniteAutomaton<Character> newRandomNfa(Random random, int stateCount) {
+		NondeterministicFiniteAutomaton<Character> nfa = newBoolCharNfa("S0", random.nextBoolean());
+		for (int i = 1; i < stateCount; i++) {
+			nfa.addState("S" + i, random.nextInt(3) == 0);
+		}
+		nfa.addStartingState("S" + random.nextInt(stateCount));
+		for (int i = 0; i < stateCount * 3; i++) {
+			try {
+				nfa.addTransition("S" + random.nextInt(stateCount), "S" + random.nextInt(stateCount),
+						random.nextBoolean() ? '1' : '0');
+			}
+			catch (IllegalArgumentException duplicate) {
+				// Ignore duplicate transitions
+			}
+		}
+		return nfa;
+	}
+
+	private List<Character> toList(String string) {
+		List<Character> input = new ArrayList<>();
+		for (char ch : string.toCharArray()) {
+			input.add(ch);
+		}
+		return input;
+	}
+}